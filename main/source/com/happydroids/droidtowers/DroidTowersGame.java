@@ -24,12 +24,14 @@ import com.happydroids.droidtowers.audio.GameSoundController;
 import com.happydroids.droidtowers.controllers.PathSearchManager;
 import com.happydroids.droidtowers.entities.GameObject;
 import com.happydroids.droidtowers.events.InGamePurchaseReceiver;
+import com.happydroids.droidtowers.gamestate.GameSaveWriter;
 import com.happydroids.droidtowers.gamestate.server.TowerGameService;
 import com.happydroids.droidtowers.generators.NameGenerator;
 import com.happydroids.droidtowers.gui.FontManager;
 import com.happydroids.droidtowers.gui.WidgetAccessor;
 import com.happydroids.droidtowers.input.*;
 import com.happydroids.droidtowers.platform.Display;
+import com.happydroids.droidtowers.profiling.FrameProfiler;
 import com.happydroids.droidtowers.scenes.ApplicationResumeScene;
 import com.happydroids.droidtowers.scenes.LaunchUriScene;
 import com.happydroids.droidtowers.scenes.MainMenuScene;
@@ -192,10 +194,16 @@ public class DroidTowersGame implements ApplicationListener, BackgroundTask.Post
     float deltaTime = Gdx.graphics.getDeltaTime();
 
     SceneManager.activeScene().getCamera().update();
-    ActionManager.instance().update(deltaTime);
+    ActionManager.instance().beginFrame();
+    boolean sceneRunsSimulation = SceneManager.activeScene().getSimulationKernel() != null;
+    if (!sceneRunsSimulation) {
+      ActionManager.instance().update(deltaTime);
+    }
     InputSystem.instance().update(deltaTime);
     PathSearchManager.instance().update(deltaTime);
-    TweenSystem.manager().update((int) (deltaTime * 1000 * SceneManager.activeScene().getTimeMultiplier()));
+    if (!sceneRunsSimulation) {
+      TweenSystem.manager().update((int) (deltaTime * 1000 * SceneManager.activeScene().getTimeMultiplier()));
+    }
     if (soundController != null) {
       soundController.update(deltaTime);
     }
@@ -258,6 +266,8 @@ public class DroidTowersGame implements ApplicationListener, BackgroundTask.Post
       font.setColor(Color.WHITE);
       spriteBatch.end();
     }
+
+    FrameProfiler.instance().endFrame();
   }
 
   public void resize(int width, int height) {
@@ -295,6 +305,7 @@ public class DroidTowersGame implements ApplicationListener, BackgroundTask.Post
     spriteBatch.dispose();
     Platform.getConnectionMonitor().dispose();
     PathSearchManager.instance().dispose();
+    GameSaveWriter.dispose();
     BackgroundTask.dispose();
     MovieServer.dispose();
     TowerAssetManager.dispose();
@@ -28,7 +28,6 @@ public class TowerConsts extends HappyDroidConsts {
   public static final String CURRENCY_SYMBOL = "$";
   public static final float HUD_UPDATE_FREQUENCY = 0.5f;
   public static final float ROOM_UPDATE_FREQUENCY = 10f;
-  public static final float JOB_UPDATE_FREQUENCY = ROOM_UPDATE_FREQUENCY + 0.1f;
   public static final float PLAYER_EARNOUT_FREQUENCY = 10.f;
   public static final float TRANSPORT_CALCULATOR_FREQUENCY = 1f;
   public static final float CRIME_CALCULATOR_FREQUENCY = 5f;
@@ -43,12 +42,22 @@ public class TowerConsts extends HappyDroidConsts {
   public static final float ACHIEVEMENT_ENGINE_FREQUENCY = 5f;
   public static final float AVATAR_SPAWN_DELAY = 5f;
   public static final int MAX_AVATARS = (Gdx.app.getType() == Application.ApplicationType.Android ? 20 : 120);
+  // hierarchical searches finish inside start() on the game thread, so they never reach the worker pool,
+  // which is off by default. Turning HIERARCHICAL_PATH_FINDING off hands searches to one worker per spare core.
+  public static final boolean HIERARCHICAL_PATH_FINDING = true;
+  public static final int PATH_SEARCH_WORKER_THREADS = (HIERARCHICAL_PATH_FINDING || Gdx.app.getType() == Application.ApplicationType.Android ? 0 : Math.max(1, Runtime.getRuntime().availableProcessors() - 1));
+  public static final boolean AVATAR_LEVEL_OF_DETAIL = true;
+  public static final boolean TRANSPORT_CALCULATOR_CONSISTENCY_CHECK = false;
   public static final float AVATAR_POPULATION_SCALE = 0.25f;
   public static final GridPoint SINGLE_POINT = new GridPoint(1, 1);
   public static final int[] NEGATIVE_BUTTON_KEYS = new int[]{InputSystem.Keys.BACK, InputSystem.Keys.ESCAPE};
   public static final int LIMITED_VERSION_MAX_FLOOR = LOBBY_FLOOR + 15;
   public static final float GAME_SPEED_MAX = DEBUG ? 12f : 4f;
   public static final float GAME_SPEED_MIN = DEBUG ? 0.05f : 0.5f;
+  public static final float SIMULATION_TICK_LENGTH = 1f / 60f;
+  // the layers are drawn interpolated, updating them every 4th tick keeps 4x speed at 30fps to 2 updates a frame.
+  public static final int SIMULATION_TICKS_PER_LAYER_UPDATE = 4;
+  public static final int SIMULATION_MAX_TICKS_PER_UPDATE = 32;
 
   @SuppressWarnings("PointlessBooleanExpression")
   public static final boolean ENABLE_AVATAR_LIST_WINDOW = false;
@@ -10,6 +10,7 @@ import com.google.common.base.Joiner;
 import com.google.common.collect.Lists;
 import com.happydroids.droidtowers.TowerConsts;
 import com.happydroids.droidtowers.grid.GameGrid;
+import com.happydroids.droidtowers.grid.PlacedObjectCounts;
 
 import java.util.List;
 
@@ -30,6 +31,8 @@ public class Achievement {
   private int totalWeight;
   private int finishedWeight;
   private boolean givenReward;
+  private transient PlacedObjectCounts checkedCounts;
+  private transient int checkedAtChange;
 
   public Achievement() {
 
@@ -60,6 +63,10 @@ public class Achievement {
     }
 
     if (requirements != null) {
+      if (gameGrid != null && gameGrid.placedObjectCounts() == checkedCounts && requirementsUnchangedSince(gameGrid, checkedAtChange)) {
+        return;
+      }
+
       finishedWeight = 0;
       for (int i = 0, requirementsSize = requirements.size(); i < requirementsSize; i++) {
         Requirement requirement = requirements.get(i);
@@ -68,7 +75,22 @@ public class Achievement {
       }
 
       completed = finishedWeight >= totalWeight;
+
+      if (gameGrid != null) {
+        checkedCounts = gameGrid.placedObjectCounts();
+        checkedAtChange = checkedCounts.getChangeCount();
+      }
+    }
+  }
+
+  private boolean requirementsUnchangedSince(GameGrid gameGrid, int change) {
+    for (int i = 0, requirementsSize = requirements.size(); i < requirementsSize; i++) {
+      if (!requirements.get(i).isUnchangedSince(gameGrid, change)) {
+        return false;
+      }
     }
+
+    return true;
   }
 
   public String giveReward() {
@@ -88,6 +110,7 @@ public class Achievement {
     Gdx.app.debug(TAG, "Reset: " + id);
     completed = false;
     givenReward = false;
+    checkedCounts = null;
     if (rewards != null) {
       for (Reward reward : rewards) {
         reward.resetState();
@@ -125,6 +148,9 @@ public class Achievement {
 
   void setCompleted(boolean completed) {
     this.completed = completed;
+    if (!completed) {
+      checkedCounts = null;
+    }
   }
 
   public void addReward(Reward reward) {
@@ -6,11 +6,11 @@ package com.happydroids.droidtowers.achievements;
 
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.happydroids.droidtowers.entities.CommercialSpace;
-import com.happydroids.droidtowers.entities.GridObject;
 import com.happydroids.droidtowers.entities.Player;
 import com.happydroids.droidtowers.gamestate.GameSave;
 import com.happydroids.droidtowers.gamestate.server.TowerGameService;
 import com.happydroids.droidtowers.grid.GameGrid;
+import com.happydroids.droidtowers.grid.PlacedObjectCounts;
 import com.happydroids.droidtowers.scenes.Scene;
 import com.happydroids.droidtowers.scenes.TowerScene;
 import com.happydroids.droidtowers.scenes.components.SceneManager;
@@ -21,6 +21,7 @@ import com.happydroids.droidtowers.types.ProviderType;
 import java.text.NumberFormat;
 
 import static com.happydroids.droidtowers.achievements.AchievementThing.*;
+import static com.happydroids.droidtowers.achievements.RequirementType.BUILD;
 
 @JsonAutoDetect(fieldVisibility = JsonAutoDetect.Visibility.ANY)
 public class Requirement {
@@ -101,23 +102,37 @@ public class Requirement {
       return false;
     }
 
-    currentWeight = 0;
-    for (GridObject gridObject : gameGrid.getObjects()) {
-      if (!gridObject.isPlaced()) {
-        continue;
-      }
-
-      GridObjectType gridObjectType = gridObject.getGridObjectType();
-      if (thing.equals(PROVIDER_TYPE) && gridObjectType.provides(thingProviderTypes)) {
-        currentWeight++;
-      } else if (thing.equals(OBJECT_TYPE) && gridObjectType.getId().equalsIgnoreCase(thingId)) {
-        currentWeight++;
-      }
+    PlacedObjectCounts placedObjects = gameGrid.placedObjectCounts();
+    if (thing.equals(PROVIDER_TYPE)) {
+      currentWeight = placedObjects.countProviding(thingProviderTypes);
+    } else if (thing.equals(OBJECT_TYPE)) {
+      currentWeight = placedObjects.countOfType(thingId);
+    } else {
+      currentWeight = 0;
     }
 
     return currentWeight >= amount;
   }
 
+  /**
+   * @return true when nothing this requirement counts has changed on the grid since the given change
+   *         of its PlacedObjectCounts. Only build requirements can tell, the others always need checking.
+   */
+  public boolean isUnchangedSince(GameGrid gameGrid, int change) {
+    if (!type.equals(BUILD) || gameGrid == null) {
+      return false;
+    }
+
+    PlacedObjectCounts placedObjects = gameGrid.placedObjectCounts();
+    if (thing.equals(PROVIDER_TYPE)) {
+      return thingProviderTypes != null && placedObjects.lastChangeProviding(thingProviderTypes) <= change;
+    } else if (thing.equals(OBJECT_TYPE)) {
+      return placedObjects.lastChangeOfType(thingId) <= change;
+    }
+
+    return false;
+  }
+
   @Override
   public String toString() {
     return "Requirement{" +
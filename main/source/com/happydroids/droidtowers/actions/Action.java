@@ -6,6 +6,7 @@ package com.happydroids.droidtowers.actions;
 
 public abstract class Action {
   protected boolean markedForRemoval;
+  ActionTimings timings;
 
   protected void markToRemove() {
     markedForRemoval = true;
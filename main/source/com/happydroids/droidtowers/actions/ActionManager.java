@@ -4,11 +4,33 @@
 
 package com.happydroids.droidtowers.actions;
 
-import java.util.concurrent.ConcurrentHashMap;
+import com.badlogic.gdx.utils.Array;
+import com.google.common.collect.Maps;
 
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Updates the actions in the order they were added.
+ * <p/>
+ * TimeDelayedActions only have their clocks moved along here. Once one is due it joins a queue, and
+ * the queue is worked through until the frame budget is used up; whatever is left runs first on the
+ * next frame. The budget covers every update between two calls to beginFrame(), however many
+ * simulation ticks a frame runs. Repeating actions added with the same frequency as ones already here get their first
+ * run pushed back by a different fraction of the period each, so they don't all run on one frame.
+ */
 public class ActionManager {
+  public static final float DEFAULT_FRAME_BUDGET_MILLIS = 4f;
+  private static final float GOLDEN_RATIO_FRACTION = 0.618034f;
+
   private static ActionManager instance_;
-  private ConcurrentHashMap<Integer, Action> actions;
+  private final Array<Action> actions;
+  private final Array<Action> updating;
+  private final Array<TimeDelayedAction> dueActions;
+  private final Map<String, ActionTimings> timings;
+  private float frameBudgetMillis;
+  private long frameNanosUsed;
+  private boolean ranAnyThisFrame;
 
   public static ActionManager instance() {
     if (instance_ == null) {
@@ -19,16 +41,95 @@ public class ActionManager {
   }
 
   private ActionManager() {
-    actions = new ConcurrentHashMap<Integer, Action>();
+    actions = new Array<Action>();
+    updating = new Array<Action>();
+    dueActions = new Array<TimeDelayedAction>();
+    timings = Maps.newLinkedHashMap();
+    frameBudgetMillis = DEFAULT_FRAME_BUDGET_MILLIS;
   }
 
   public void addAction(Action action) {
-    actions.put(action.hashCode(), action);
+    if (actions.contains(action, true)) {
+      return;
+    }
+
+    if (action instanceof TimeDelayedAction) {
+      stagger((TimeDelayedAction) action);
+    }
+    actions.add(action);
+  }
+
+  private void stagger(TimeDelayedAction action) {
+    if (!action.shouldRepeat()) {
+      return;
+    }
+
+    int sameFrequency = 0;
+    for (int i = 0; i < actions.size; i++) {
+      Action other = actions.get(i);
+      if (other instanceof TimeDelayedAction && ((TimeDelayedAction) other).shouldRepeat() && ((TimeDelayedAction) other).getFrequency() == action.getFrequency()) {
+        sameFrequency++;
+      }
+    }
+
+    float phase = (sameFrequency * GOLDEN_RATIO_FRACTION) % 1f;
+    action.delayBy(phase * action.getFrequency());
+  }
+
+  /**
+   * Starts a new frame budget for the due actions, called once per rendered frame.
+   */
+  public void beginFrame() {
+    frameNanosUsed = 0;
+    ranAnyThisFrame = false;
   }
 
   public void update(float deltaTime) {
-    for (Action action : actions.values()) {
-      action.act(deltaTime);
+    updating.clear();
+    updating.addAll(actions);
+    for (int i = 0; i < updating.size; i++) {
+      Action action = updating.get(i);
+      if (action instanceof TimeDelayedAction) {
+        TimeDelayedAction delayedAction = (TimeDelayedAction) action;
+        if (delayedAction.advance(deltaTime) && !dueActions.contains(delayedAction, true)) {
+          dueActions.add(delayedAction);
+        }
+      } else {
+        long startTime = System.nanoTime();
+        action.act(deltaTime);
+        timingsFor(action).recordRun(System.nanoTime() - startTime);
+      }
+
+      if (action.isMarkedForRemoval()) {
+        removeAction(action);
+      }
+    }
+
+    runDueActions();
+  }
+
+  private void runDueActions() {
+    long budgetNanos = (long) (frameBudgetMillis * 1000000);
+
+    while (dueActions.size > 0) {
+      if (ranAnyThisFrame && budgetNanos > 0 && frameNanosUsed >= budgetNanos) {
+        for (int i = 0; i < dueActions.size; i++) {
+          timingsFor(dueActions.get(i)).recordDeferral();
+        }
+        return;
+      }
+
+      TimeDelayedAction action = dueActions.removeIndex(0);
+      if (action.isPaused() || !actions.contains(action, true)) {
+        continue;
+      }
+
+      long startTime = System.nanoTime();
+      action.run();
+      long runNanos = System.nanoTime() - startTime;
+      timingsFor(action).recordRun(runNanos);
+      frameNanosUsed += runNanos;
+      ranAnyThisFrame = true;
 
       if (action.isMarkedForRemoval()) {
         removeAction(action);
@@ -36,7 +137,47 @@ public class ActionManager {
     }
   }
 
+  private ActionTimings timingsFor(Action action) {
+    if (action.timings != null) {
+      return action.timings;
+    }
+
+    Class<? extends Action> actionClass = action.getClass();
+    String name = actionClass.isAnonymousClass() ? actionClass.getName() : actionClass.getSimpleName();
+    ActionTimings actionTimings = timings.get(name);
+    if (actionTimings == null) {
+      actionTimings = new ActionTimings(name);
+      timings.put(name, actionTimings);
+    }
+
+    action.timings = actionTimings;
+    return actionTimings;
+  }
+
   public void removeAction(Action action) {
-    actions.remove(action.hashCode());
+    actions.removeValue(action, true);
+    if (action instanceof TimeDelayedAction) {
+      dueActions.removeValue((TimeDelayedAction) action, true);
+    }
+  }
+
+  /**
+   * @param frameBudgetMillis how long the due actions may run for in one frame before the rest wait
+   *                          for the next one, 0 runs all of them. At least one runs every frame.
+   */
+  public void setFrameBudgetMillis(float frameBudgetMillis) {
+    this.frameBudgetMillis = frameBudgetMillis;
+  }
+
+  public float getFrameBudgetMillis() {
+    return frameBudgetMillis;
+  }
+
+  public int getNumDueActions() {
+    return dueActions.size;
+  }
+
+  public Collection<ActionTimings> getTimings() {
+    return timings.values();
   }
 }
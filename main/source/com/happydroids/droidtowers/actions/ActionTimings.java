@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.actions;
+
+import com.happydroids.droidtowers.profiling.FrameProfiler;
+import com.happydroids.droidtowers.profiling.ProfileSection;
+
+/**
+ * How long the runs of one kind of action took, kept as a histogram with a bucket per power of two
+ * microseconds, and how often it had to wait for a later frame. Runs are also added to the action's
+ * section of the FrameProfiler.
+ */
+public class ActionTimings {
+  private static final int NUM_BUCKETS = 24;
+
+  private final String name;
+  private final int[] buckets;
+  private final ProfileSection profileSection;
+  private int runs;
+  private int deferrals;
+  private long totalNanos;
+  private long maxNanos;
+
+  public ActionTimings(String name) {
+    this.name = name;
+    buckets = new int[NUM_BUCKETS];
+    profileSection = FrameProfiler.instance().section("action:" + name);
+  }
+
+  public void recordRun(long nanos) {
+    runs++;
+    totalNanos += nanos;
+    maxNanos = Math.max(maxNanos, nanos);
+    profileSection.add(nanos);
+
+    long micros = nanos / 1000;
+    int bucket = micros > 0 ? 64 - Long.numberOfLeadingZeros(micros) : 0;
+    buckets[Math.min(bucket, NUM_BUCKETS - 1)]++;
+  }
+
+  public void recordDeferral() {
+    deferrals++;
+  }
+
+  /**
+   * @return the upper bound of the bucket the given fraction (0.95 for the 95th percentile) of the
+   *         runs fell into, in milliseconds
+   */
+  public float getPercentileMillis(float fraction) {
+    if (runs == 0) {
+      return 0;
+    }
+
+    int runsToCount = (int) Math.ceil(runs * fraction);
+    int counted = 0;
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      counted += buckets[i];
+      if (counted >= runsToCount) {
+        return Math.min((1L << i) / 1000f, getMaxMillis());
+      }
+    }
+
+    return getMaxMillis();
+  }
+
+  public float getMeanMillis() {
+    return runs > 0 ? totalNanos / (runs * 1000000f) : 0;
+  }
+
+  public float getMaxMillis() {
+    return maxNanos / 1000000f;
+  }
+
+  public int[] getBuckets() {
+    return buckets;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getRuns() {
+    return runs;
+  }
+
+  public int getDeferrals() {
+    return deferrals;
+  }
+}
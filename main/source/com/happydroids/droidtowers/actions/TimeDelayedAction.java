@@ -22,10 +22,21 @@ public abstract class TimeDelayedAction extends Action {
   }
 
   public void act(float deltaTime) {
+    if (advance(deltaTime)) {
+      run();
+    }
+  }
+
+  /**
+   * Moves the action's clock along without running it, the ActionManager decides when it runs.
+   *
+   * @return true when it is time to run the action
+   */
+  public boolean advance(float deltaTime) {
     if (hasRunBefore && !shouldRepeat) {
-      return;
+      return false;
     } else if (paused) {
-      return;
+      return false;
     }
 
     currentTime += deltaTime;
@@ -34,8 +45,10 @@ public abstract class TimeDelayedAction extends Action {
       currentTime = 0.0f;
       hasRunBefore = true;
 
-      run();
+      return true;
     }
+
+    return false;
   }
 
   public void reset() {
@@ -62,7 +75,19 @@ public abstract class TimeDelayedAction extends Action {
     this.updateFrequency = frequency;
   }
 
+  public float getFrequency() {
+    return updateFrequency;
+  }
+
+  public boolean shouldRepeat() {
+    return shouldRepeat;
+  }
+
   protected void scheduleToRunIn(float delay) {
     currentTime = updateFrequency - delay;
   }
+
+  void delayBy(float delay) {
+    currentTime -= delay;
+  }
 }
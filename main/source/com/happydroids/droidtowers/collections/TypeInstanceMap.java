@@ -6,46 +6,192 @@ package com.happydroids.droidtowers.collections;
 
 import com.badlogic.gdx.utils.Array;
 import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
+import java.util.Arrays;
 import java.util.Map;
+import java.util.Set;
 
+/**
+ * Keeps every instance in insertion order plus one set per concrete class.
+ * <p/>
+ * Queries for several classes, or for a class and all of its subclasses, return cached arrays that
+ * are only rebuilt after the map changed, so asking again every tick doesn't allocate. Callers may
+ * reorder those arrays but must not add or remove anything. Every set keeps its instances in the order
+ * they were added, callers that take the first match rely on it.
+ * <p/>
+ * Removing is constant time: the instance is only marked, and the arrays drop every marked instance
+ * in one pass the next time they are read. Positions can't be indexed instead, GameGrid sorts the
+ * instances by z-index in place.
+ */
 public class TypeInstanceMap<T> {
   private Array<T> instances;
-  private Map<Class, Array<T>> instancesByType;
+  private Map<Class<?>, Array<T>> instancesByType;
+  private Array<CachedQuery<T>> cachedQueries;
+  private Map<Class<?>, CachedQuery<T>> cachedSupertypeQueries;
+  private final Set<T> members;
+  private final Set<T> pendingRemovals;
+  private final Set<Class<?>> typesWithPendingRemovals;
+  private int version;
 
   public TypeInstanceMap() {
     instances = new Array<T>();
     instances.ordered = true;
-    instancesByType = Maps.newHashMap();
+    instancesByType = Maps.newLinkedHashMap();
+    cachedQueries = new Array<CachedQuery<T>>();
+    cachedSupertypeQueries = Maps.newHashMap();
+    members = Sets.newIdentityHashSet();
+    pendingRemovals = Sets.newIdentityHashSet();
+    typesWithPendingRemovals = Sets.newHashSet();
   }
 
   public void add(T instance) {
+    if (pendingRemovals.contains(instance)) {
+      // it has to go to the back like any other new instance
+      compact();
+    }
+
+    if (!members.add(instance)) {
+      return;
+    }
+
     instances.add(instance);
     setForType(instance.getClass()).add(instance);
+    version++;
   }
 
   public void remove(T instance) {
-    instances.removeValue(instance, false);
-    setForType(instance.getClass()).removeValue(instance, false);
+    if (!members.remove(instance)) {
+      return;
+    }
+
+    pendingRemovals.add(instance);
+    typesWithPendingRemovals.add(instance.getClass());
+    version++;
   }
 
   public Array<T> getInstances() {
+    compact();
     return instances;
   }
 
-  public Array<T> setForType(Class instanceClass) {
-    if (!instancesByType.containsKey(instanceClass)) {
-      instancesByType.put(instanceClass, new Array<T>());
+  public Array<T> setForType(Class<?> instanceClass) {
+    compact();
+    Array<T> typeSet = instancesByType.get(instanceClass);
+    if (typeSet == null) {
+      typeSet = new Array<T>();
+      instancesByType.put(instanceClass, typeSet);
     }
-    return instancesByType.get(instanceClass);
+    return typeSet;
+  }
+
+  /**
+   * @return the instances of each of the given classes, in the order the classes are given
+   */
+  public Array<T> setForTypes(Class<?>... instanceClasses) {
+    CachedQuery<T> query = null;
+    for (int i = 0; i < cachedQueries.size; i++) {
+      if (Arrays.equals(cachedQueries.get(i).classes, instanceClasses)) {
+        query = cachedQueries.get(i);
+        break;
+      }
+    }
+
+    if (query == null) {
+      query = new CachedQuery<T>(instanceClasses.clone(), false);
+      cachedQueries.add(query);
+    }
+
+    return query.get(this);
+  }
+
+  /**
+   * @return the instances of the given class and all of its subclasses
+   */
+  public Array<T> setForSupertype(Class<?> supertype) {
+    CachedQuery<T> query = cachedSupertypeQueries.get(supertype);
+    if (query == null) {
+      query = new CachedQuery<T>(new Class<?>[]{supertype}, true);
+      cachedSupertypeQueries.put(supertype, query);
+    }
+
+    return query.get(this);
   }
 
   public void clear() {
     instancesByType.clear();
     instances.clear();
+    members.clear();
+    pendingRemovals.clear();
+    typesWithPendingRemovals.clear();
+    version++;
   }
 
   public boolean isEmpty() {
-    return instances.size == 0 && instancesByType.isEmpty();
+    return members.isEmpty() && instancesByType.isEmpty();
+  }
+
+  private void compact() {
+    if (pendingRemovals.isEmpty()) {
+      return;
+    }
+
+    dropPendingRemovals(instances);
+    for (Class<?> type : typesWithPendingRemovals) {
+      dropPendingRemovals(instancesByType.get(type));
+    }
+
+    pendingRemovals.clear();
+    typesWithPendingRemovals.clear();
+  }
+
+  private void dropPendingRemovals(Array<T> array) {
+    int kept = 0;
+    for (int i = 0; i < array.size; i++) {
+      T instance = array.get(i);
+      if (!pendingRemovals.contains(instance)) {
+        array.set(kept++, instance);
+      }
+    }
+    array.truncate(kept);
+  }
+
+  private static class CachedQuery<T> {
+    private final Class<?>[] classes;
+    private final boolean includeSubclasses;
+    private final Array<T> found;
+    private int version = -1;
+
+    CachedQuery(Class<?>[] classes, boolean includeSubclasses) {
+      this.classes = classes;
+      this.includeSubclasses = includeSubclasses;
+      found = new Array<T>();
+    }
+
+    Array<T> get(TypeInstanceMap<T> map) {
+      if (version == map.version) {
+        return found;
+      }
+
+      map.compact();
+      found.clear();
+      for (Class<?> queryClass : classes) {
+        if (includeSubclasses) {
+          for (Map.Entry<Class<?>, Array<T>> entry : map.instancesByType.entrySet()) {
+            if (queryClass.isAssignableFrom(entry.getKey())) {
+              found.addAll(entry.getValue());
+            }
+          }
+        } else {
+          Array<T> typeSet = map.instancesByType.get(queryClass);
+          if (typeSet != null) {
+            found.addAll(typeSet);
+          }
+        }
+      }
+      version = map.version;
+
+      return found;
+    }
   }
 }
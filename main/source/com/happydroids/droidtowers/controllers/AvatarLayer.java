@@ -6,6 +6,7 @@ package com.happydroids.droidtowers.controllers;
 
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.utils.Array;
 import com.google.common.base.Predicate;
@@ -15,6 +16,7 @@ import com.happydroids.droidtowers.TowerConsts;
 import com.happydroids.droidtowers.entities.*;
 import com.happydroids.droidtowers.events.GridObjectPlacedEvent;
 import com.happydroids.droidtowers.events.GridObjectRemovedEvent;
+import com.happydroids.droidtowers.events.GridObjectsLoadedEvent;
 import com.happydroids.droidtowers.grid.GameGrid;
 import com.happydroids.droidtowers.types.ProviderType;
 import com.happydroids.droidtowers.utils.Random;
@@ -27,9 +29,12 @@ import static com.happydroids.droidtowers.types.ProviderType.JANITORS;
 
 public class AvatarLayer extends GameLayer<Avatar> {
   private static final String TAG = AvatarLayer.class.getSimpleName();
+  private static final float DETAIL_BOUNDS_MARGIN = TowerConsts.GRID_UNIT_SIZE * 2;
 
   private final GameGrid gameGrid;
   private float timeUntilAvatarMaintenance;
+  private final Rectangle detailBounds = new Rectangle();
+  private boolean hasDetailBounds;
 
 
   public AvatarLayer(GameGrid gameGrid) {
@@ -47,6 +52,13 @@ public class AvatarLayer extends GameLayer<Avatar> {
 
   @Override
   public void update(float timeDelta) {
+    if (hasDetailBounds) {
+      for (int i = 0; i < gameObjects.size; i++) {
+        Avatar avatar = gameObjects.get(i);
+        avatar.setLowDetail(!detailBounds.contains(avatar.getX(), avatar.getY()));
+      }
+    }
+
     super.update(timeDelta);
 
     timeUntilAvatarMaintenance -= timeDelta;
@@ -62,18 +74,40 @@ public class AvatarLayer extends GameLayer<Avatar> {
       return;
     }
 
+    if (TowerConsts.AVATAR_LEVEL_OF_DETAIL) {
+      float width = camera.viewportWidth * camera.zoom;
+      float height = camera.viewportHeight * camera.zoom;
+      setDetailBounds(camera.position.x - width / 2, camera.position.y - height / 2, width, height);
+    }
+
     spriteBatch.begin();
     spriteBatch.enableBlending();
     for (Avatar gameObject : gameObjects) {
       tmp.set(gameObject.getX(), gameObject.getY(), 0);
       if (camera.frustum.sphereInFrustum(tmp, Math.max(gameObject.getWidth(), gameObject.getHeight()))) {
-        gameObject.draw(spriteBatch);
+        gameObject.drawInterpolated(spriteBatch, interpolationAlpha);
       }
     }
 
     spriteBatch.end();
   }
 
+  /**
+   * Avatars outside the given world rectangle, give or take a couple of cells, are simulated in low
+   * detail. Until this is called every avatar is simulated in full.
+   */
+  public void setDetailBounds(float x, float y, float width, float height) {
+    detailBounds.set(x - DETAIL_BOUNDS_MARGIN, y - DETAIL_BOUNDS_MARGIN, width + DETAIL_BOUNDS_MARGIN * 2, height + DETAIL_BOUNDS_MARGIN * 2);
+    hasDetailBounds = true;
+  }
+
+  @Override
+  public void beforeSimulationTick() {
+    for (int i = 0; i < gameObjects.size; i++) {
+      gameObjects.get(i).rememberPosition();
+    }
+  }
+
   private void maintainAvatars() {
     if (shouldSpawnMoreAvatars()) {
       int numToSpawn = maxAvatars() - gameObjects.size;
@@ -139,8 +173,20 @@ public class AvatarLayer extends GameLayer<Avatar> {
 
   @Subscribe
   public void GameEvent_GridObjectPlaced(GridObjectPlacedEvent event) {
-    if (event.getGridObject() instanceof ServiceRoom) {
-      ServiceRoom commercialSpace = (ServiceRoom) event.getGridObject();
+    setupServiceAvatars(event.getGridObject());
+  }
+
+  @Subscribe
+  public void GameEvent_GridObjectsLoaded(GridObjectsLoadedEvent event) {
+    Array<GridObject> gridObjects = event.getGridObjects();
+    for (int i = 0; i < gridObjects.size; i++) {
+      setupServiceAvatars(gridObjects.get(i));
+    }
+  }
+
+  private void setupServiceAvatars(GridObject gridObject) {
+    if (gridObject instanceof ServiceRoom) {
+      ServiceRoom commercialSpace = (ServiceRoom) gridObject;
       if (commercialSpace.provides(JANITORS)) {
         setupSpecialAvatar(commercialSpace, Janitor.class, 3);
       } else if (commercialSpace.provides(ProviderType.MAIDS)) {
@@ -43,13 +43,24 @@ public class AvatarSteeringManager {
   private GridPosition currentPos;
   private Vector2 currentWorldPos;
   private Vector2 nextWorldPos;
-  private TransitLine transitLine = new TransitLine();
+  private TransitLine transitLine;
   private boolean movingHorizontally;
   private Direction horizontalDirection;
   private int currentState;
   private Runnable completeCallback;
   private int pointsTraveled;
   private float randomSpeedModifier;
+  private boolean lowDetail;
+  private final AvatarTimeline timeline = new AvatarTimeline();
+  private TweenCallback timelineCallback;
+  private boolean tweening;
+  private final Vector2 tweenTarget = new Vector2();
+  private TweenCallback tweenCallback;
+  private final TweenCallback advancePositionCallback = new TweenCallback() {
+    public void onEvent(int type, BaseTween source) {
+      advancePosition();
+    }
+  };
 
 
   public AvatarSteeringManager(Avatar avatar, GameGrid gameGrid) {
@@ -73,13 +84,20 @@ public class AvatarSteeringManager {
 
     currentState = 0;
     randomSpeedModifier = MathUtils.random(0.5f, 1.75f);
+    timeline.stop();
     transitLine.clear();
+    if (!lowDetail) {
+      addPathToTransitLine();
+    }
+
+    advancePosition();
+  }
+
+  private void addPathToTransitLine() {
     for (int i = 0, pathSize = path.size; i < pathSize; i++) {
       GridPosition position = path.get(i);
       transitLine.addPoint(position.worldPoint());
     }
-
-    advancePosition();
   }
 
   public void finished() {
@@ -93,7 +111,9 @@ public class AvatarSteeringManager {
 
     running = false;
     pointsTraveled = 0;
-    TweenSystem.manager().killTarget(avatar);
+    timeline.stop();
+    timelineCallback = null;
+    killTweens();
 
     avatar.afterReachingTarget();
   }
@@ -110,7 +130,9 @@ public class AvatarSteeringManager {
       return;
     }
 
-    transitLine.highlightPoint(pointsTraveled);
+    if (!lowDetail) {
+      transitLine.highlightPoint(pointsTraveled);
+    }
     currentPos = path.get(pointsTraveled);
     currentWorldPos.set(currentPos.worldPoint());
 
@@ -126,7 +148,10 @@ public class AvatarSteeringManager {
           do {
             if (next != null && next.elevator != null && next.elevator
                 .equals(currentPos.elevator) && currentPos.y != next.y) {
-              transitLine.highlightPoint(pointsTraveled++);
+              if (!lowDetail) {
+                transitLine.highlightPoint(pointsTraveled);
+              }
+              pointsTraveled++;
               endOfElevator = next;
             } else {
               break;
@@ -143,11 +168,40 @@ public class AvatarSteeringManager {
       }
     }
 
-    moveAvatarTo(currentPos, new TweenCallback() {
-      public void onEvent(int type, BaseTween source) {
-        advancePosition();
+    if (lowDetail) {
+      walkAlongFloor();
+    } else {
+      moveAvatarTo(currentPos, advancePositionCallback);
+    }
+  }
+
+  /**
+   * Puts every cell from the current one up to the next change of floor on the timeline, so an
+   * off-screen avatar walks across a floor without coming back here at each cell.
+   */
+  private void walkAlongFloor() {
+    currentState |= MOVING;
+
+    float x = avatar.getX();
+    float y = avatar.getY();
+    timeline.begin(x, y);
+    while (true) {
+      Vector2 point = currentPos.worldPoint();
+      timeline.add(point.x - avatar.getWidth(), point.y, (int) (point.dst(x, y) * MOVEMENT_SPEED * randomSpeedModifier), pointsTraveled);
+      x = point.x - avatar.getWidth();
+      y = point.y;
+
+      GridPosition next = pointsTraveled + 1 < path.size ? path.get(pointsTraveled + 1) : null;
+      GridPosition afterNext = pointsTraveled + 2 < path.size ? path.get(pointsTraveled + 2) : null;
+      if (next == null || next.y != currentPos.y || (afterNext != null && afterNext.y != next.y)) {
+        break;
       }
-    });
+
+      pointsTraveled++;
+      currentPos = next;
+    }
+
+    timelineCallback = advancePositionCallback;
   }
 
   private void traverseElevator(final GridPosition destination) {
@@ -231,6 +285,23 @@ public class AvatarSteeringManager {
     }
     points.add(nextPosition.worldPoint());
 
+    if (lowDetail) {
+      timeline.begin(avatar.getX(), avatar.getY());
+      Vector2 lastPos = currentPos.worldPoint();
+      for (Vector2 point : points) {
+        timeline.add(point.x, point.y, lastPos.dst(point) * MOVEMENT_SPEED * randomSpeedModifier);
+        lastPos = point;
+      }
+
+      timelineCallback = new TweenCallback() {
+        public void onEvent(int type, BaseTween source) {
+          currentState = AvatarState.MOVING;
+          advancePosition();
+        }
+      };
+      return;
+    }
+
     final TransitLine stairLine = new TransitLine();
     stairLine.addPoints(points);
     stairLine.setColor(avatar.getColor());
@@ -246,14 +317,13 @@ public class AvatarSteeringManager {
       lastPos = point;
     }
 
-    sequence.setCallback(new TweenCallback() {
+    tweenSequence(sequence, new TweenCallback() {
       public void onEvent(int type, BaseTween source) {
         gameGrid.getRenderer().removeTransitLine(stairLine);
         currentState = AvatarState.MOVING;
         advancePosition();
       }
     });
-    sequence.start(TweenSystem.manager());
   }
 
   public void moveAvatarTo(GridPosition gridPosition, TweenCallback endCallback) {
@@ -263,16 +333,34 @@ public class AvatarSteeringManager {
   public void moveAvatarTo(Vector2 endPoint, final TweenCallback endCallback) {
     currentState |= MOVING;
 
-    TweenSystem.manager().killTarget(avatar);
-
     horizontalDirection = (int) endPoint.x < (int) avatar.getX() ? LEFT : RIGHT;
     float distanceBetweenPoints = endPoint.dst(avatar.getX(), avatar.getY());
-    Tween.to(avatar, POSITION, (int) (distanceBetweenPoints * MOVEMENT_SPEED * randomSpeedModifier))
+    int duration = (int) (distanceBetweenPoints * MOVEMENT_SPEED * randomSpeedModifier);
+    if (lowDetail) {
+      killTweens();
+      timeline.begin(avatar.getX(), avatar.getY());
+      timeline.add(endPoint.x - avatar.getWidth(), endPoint.y, duration);
+      timelineCallback = endCallback;
+    } else {
+      timeline.stop();
+      tweenTo(endPoint.x - avatar.getWidth(), endPoint.y, duration, endCallback);
+    }
+  }
+
+  private void tweenTo(float x, float y, float duration, final TweenCallback endCallback) {
+    TweenSystem.manager().killTarget(avatar);
+
+    tweening = true;
+    tweenTarget.set(x, y);
+    tweenCallback = endCallback;
+    Tween.to(avatar, POSITION, duration)
         .ease(Linear.INOUT)
-        .target(endPoint.x - avatar.getWidth(), endPoint.y)
+        .target(x, y)
         .setCallback(new TweenCallback() {
           @Override
           public void onEvent(int type, BaseTween source) {
+            tweening = false;
+            tweenCallback = null;
             currentState &= ~MOVING;
             endCallback.onEvent(type, source);
           }
@@ -281,6 +369,124 @@ public class AvatarSteeringManager {
         .start(TweenSystem.manager());
   }
 
+  private void tweenSequence(Timeline sequence, final TweenCallback endCallback) {
+    TweenSystem.manager().killTarget(avatar);
+
+    tweening = true;
+    tweenCallback = null;
+    sequence.setCallback(new TweenCallback() {
+      public void onEvent(int type, BaseTween source) {
+        tweening = false;
+        endCallback.onEvent(type, source);
+      }
+    });
+    sequence.start(TweenSystem.manager());
+  }
+
+  private void killTweens() {
+    if (tweening) {
+      TweenSystem.manager().killTarget(avatar);
+      tweening = false;
+      tweenCallback = null;
+    }
+  }
+
+  /**
+   * Moves a low detail avatar along its timeline, called by the Avatar every simulation tick.
+   */
+  public void update(float timeDelta) {
+    float millisLeft = timeline.update(timeDelta * 1000, avatar);
+    while (millisLeft >= 0) {
+      TweenCallback endCallback = timelineCallback;
+      timelineCallback = null;
+      currentState &= ~MOVING;
+      if (endCallback != null) {
+        endCallback.onEvent(COMPLETE, null);
+      }
+
+      if (millisLeft == 0) {
+        break;
+      }
+      millisLeft = timeline.update(millisLeft, avatar);
+    }
+  }
+
+  /**
+   * Off-screen avatars are moved by the timeline instead of tweens, and neither animate nor keep a
+   * transit line. A move that is under way carries on at the new level of detail from where the
+   * avatar is, apart from a walk up or down the stairs, which finishes first.
+   */
+  public void setLowDetail(boolean lowDetail) {
+    if (this.lowDetail == lowDetail) {
+      return;
+    }
+
+    this.lowDetail = lowDetail;
+    if (!running) {
+      return;
+    }
+
+    if (lowDetail) {
+      transitLine.clear();
+      if (tweenCallback != null) {
+        TweenCallback endCallback = tweenCallback;
+        killTweens();
+        timeline.begin(avatar.getX(), avatar.getY());
+        timeline.add(tweenTarget.x, tweenTarget.y, tweenTarget.dst(avatar.getX(), avatar.getY()) * MOVEMENT_SPEED * randomSpeedModifier);
+        timelineCallback = endCallback;
+      }
+    } else {
+      addPathToTransitLine();
+      rehydrate();
+    }
+  }
+
+  private void rehydrate() {
+    if (!timeline.isRunning()) {
+      return;
+    }
+
+    int pathIndex = timeline.getCurrentPathIndex();
+    if (pathIndex >= 0) {
+      timeline.stop();
+      timelineCallback = null;
+      pointsTraveled = pathIndex - 1;
+      advancePosition();
+      return;
+    }
+
+    TweenCallback endCallback = timelineCallback;
+    timelineCallback = null;
+    int remainingPoints = timeline.getRemainingPoints();
+    timeline.stop();
+    transitLine.highlightPoint(pointsTraveled);
+
+    float lastX = avatar.getX();
+    float lastY = avatar.getY();
+    if (remainingPoints == 1) {
+      float x = timeline.getRemainingX(0);
+      float y = timeline.getRemainingY(0);
+      tweenTo(x, y, nextWorldPos.set(x, y).dst(lastX, lastY) * MOVEMENT_SPEED * randomSpeedModifier, endCallback);
+      return;
+    }
+
+    Timeline sequence = Timeline.createSequence();
+    for (int i = 0; i < remainingPoints; i++) {
+      float x = timeline.getRemainingX(i);
+      float y = timeline.getRemainingY(i);
+      sequence.push(Tween.to(avatar, POSITION, nextWorldPos.set(x, y).dst(lastX, lastY) * MOVEMENT_SPEED * randomSpeedModifier)
+          .target(x, y)
+          .ease(Linear.INOUT));
+      lastX = x;
+      lastY = y;
+    }
+    tweenSequence(sequence, endCallback);
+  }
+
+  public boolean isLowDetail() {
+    return lowDetail;
+  }
+
   public boolean isRunning() {
     return running;
   }
@@ -322,4 +528,16 @@ public class AvatarSteeringManager {
   public GridPosition getCurrentPos() {
     return currentPos;
   }
+
+  public TransitLine getTransitLine() {
+    return transitLine;
+  }
+
+  /**
+   * Takes the transit line off the renderer, once the avatar has been removed.
+   */
+  public void dispose() {
+    finished();
+    gameGrid.getRenderer().removeTransitLine(transitLine);
+  }
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.controllers;
+
+import com.happydroids.droidtowers.entities.GameObject;
+
+/**
+ * Moves an off-screen avatar in straight lines through a few points, each reached after a set number
+ * of milliseconds, the way the tweens would have moved it but without the tween engine.
+ * <p/>
+ * Points reached walking along the avatar's path remember which cell of the path they are, so the
+ * AvatarSteeringManager can carry on from there when the avatar comes back into view.
+ */
+class AvatarTimeline {
+  private static final int INITIAL_CAPACITY = 8;
+  private static final float[] NO_FLOATS = new float[0];
+  private static final int[] NO_INTS = new int[0];
+
+  // avatars that never leave the screen never need any points.
+  private float[] xs = NO_FLOATS;
+  private float[] ys = NO_FLOATS;
+  private float[] durations = NO_FLOATS;
+  private int[] pathIndices = NO_INTS;
+  private int size;
+  private int currentLeg;
+  private float legStartX;
+  private float legStartY;
+  private float legElapsed;
+  private boolean running;
+
+  public void begin(float x, float y) {
+    size = 0;
+    currentLeg = 0;
+    legStartX = x;
+    legStartY = y;
+    legElapsed = 0;
+    running = true;
+  }
+
+  public void add(float x, float y, float durationMillis) {
+    add(x, y, durationMillis, -1);
+  }
+
+  public void add(float x, float y, float durationMillis, int pathIndex) {
+    if (size == xs.length) {
+      int capacity = Math.max(INITIAL_CAPACITY, size * 2);
+      xs = copyOf(xs, capacity);
+      ys = copyOf(ys, capacity);
+      durations = copyOf(durations, capacity);
+      int[] indices = new int[capacity];
+      System.arraycopy(pathIndices, 0, indices, 0, size);
+      pathIndices = indices;
+    }
+
+    xs[size] = x;
+    ys[size] = y;
+    durations[size] = Math.max(0, durationMillis);
+    pathIndices[size] = pathIndex;
+    size++;
+  }
+
+  /**
+   * Moves the object along by the given time.
+   *
+   * @return the milliseconds left over after reaching the last point, or -1 if it has not got there yet
+   */
+  public float update(float millis, GameObject gameObject) {
+    if (!running) {
+      return -1;
+    }
+
+    legElapsed += millis;
+    while (currentLeg < size && legElapsed >= durations[currentLeg]) {
+      legElapsed -= durations[currentLeg];
+      legStartX = xs[currentLeg];
+      legStartY = ys[currentLeg];
+      currentLeg++;
+    }
+
+    if (currentLeg == size) {
+      running = false;
+      gameObject.setPosition(legStartX, legStartY);
+      return legElapsed;
+    }
+
+    float alpha = legElapsed / durations[currentLeg];
+    gameObject.setPosition(legStartX + (xs[currentLeg] - legStartX) * alpha, legStartY + (ys[currentLeg] - legStartY) * alpha);
+    return -1;
+  }
+
+  public void stop() {
+    running = false;
+  }
+
+  public boolean isRunning() {
+    return running;
+  }
+
+  /**
+   * @return how many points are left to reach, including the one being moved towards
+   */
+  public int getRemainingPoints() {
+    return running ? size - currentLeg : 0;
+  }
+
+  public float getRemainingX(int i) {
+    return xs[currentLeg + i];
+  }
+
+  public float getRemainingY(int i) {
+    return ys[currentLeg + i];
+  }
+
+  /**
+   * @return the cell of the avatar's path the point being moved towards is, or -1 if it isn't one
+   */
+  public int getCurrentPathIndex() {
+    return running ? pathIndices[currentLeg] : -1;
+  }
+
+  public float getTotalMillis() {
+    float total = 0;
+    for (int i = 0; i < size; i++) {
+      total += durations[i];
+    }
+
+    return total;
+  }
+
+  private static float[] copyOf(float[] values, int capacity) {
+    float[] copy = new float[capacity];
+    System.arraycopy(values, 0, copy, 0, values.length);
+    return copy;
+  }
+}
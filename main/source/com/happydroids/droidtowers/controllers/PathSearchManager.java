@@ -4,9 +4,14 @@
 
 package com.happydroids.droidtowers.controllers;
 
+import com.badlogic.gdx.utils.Array;
 import com.google.common.collect.Lists;
+import com.happydroids.droidtowers.TowerConsts;
 import com.happydroids.droidtowers.pathfinding.AStar;
+import com.happydroids.droidtowers.pathfinding.PathSearchWorkerPool;
 import com.happydroids.droidtowers.pathfinding.TransitPathFinder;
+import com.happydroids.droidtowers.profiling.FrameProfiler;
+import com.happydroids.droidtowers.profiling.ProfileSection;
 
 import java.util.ArrayList;
 
@@ -16,9 +21,15 @@ public class PathSearchManager {
   private ArrayList<AStar> pathFinders;
   private AStar currentPathFinder;
   private int framesSinceUpdate;
+  private PathSearchWorkerPool workerPool;
+  private final Array<TransitPathFinder> completedSearches;
+  private final ProfileSection profileSection;
 
   private PathSearchManager() {
     pathFinders = Lists.newArrayList();
+    completedSearches = new Array<TransitPathFinder>();
+    profileSection = FrameProfiler.instance().section("pathSearch");
+    setNumWorkerThreads(TowerConsts.PATH_SEARCH_WORKER_THREADS);
   }
 
 
@@ -30,11 +41,64 @@ public class PathSearchManager {
     return _instance;
   }
 
+  /**
+   * With one or more worker threads TransitPathFinder searches run off the game thread against a
+   * snapshot of the transit graph, zero runs every search on the game thread.
+   * <p/>
+   * TowerConsts.PATH_SEARCH_WORKER_THREADS is zero while HIERARCHICAL_PATH_FINDING is on, so by
+   * default there is no worker pool.
+   */
+  public void setNumWorkerThreads(int numWorkerThreads) {
+    if (workerPool != null) {
+      workerPool.dispose();
+      workerPool = null;
+
+      // searches queued for the pool were never started on the game thread
+      for (AStar pathFinder : pathFinders) {
+        if (pathFinder instanceof TransitPathFinder && pathFinder.isWorking()) {
+          pathFinder.start();
+        }
+      }
+    }
+
+    if (numWorkerThreads > 0) {
+      workerPool = new PathSearchWorkerPool(numWorkerThreads);
+    }
+  }
+
   public void queue(final AStar pathFinder) {
     pathFinders.add(pathFinder);
   }
 
+  /**
+   * Starts a TransitPathFinder and queues it if it could not finish straight away, with a worker
+   * pool the game thread only checks the route cache before handing the search to the pool.
+   */
+  public void start(TransitPathFinder pathFinder) {
+    if (workerPool != null) {
+      pathFinder.startDeferred();
+    } else {
+      pathFinder.start();
+    }
+
+    if (pathFinder.isWorking()) {
+      queue(pathFinder);
+    } else {
+      pathFinder.runCompleteCallback();
+    }
+  }
+
   public void update(float deltaTime) {
+    profileSection.start();
+    updateSearches(deltaTime);
+    profileSection.stop();
+  }
+
+  private void updateSearches(float deltaTime) {
+    if (workerPool != null) {
+      updateWorkerPool(deltaTime);
+    }
+
     if (currentPathFinder != null) {
       if (currentPathFinder.isWorking()) {
         for (int i = 0; i < 50 && currentPathFinder.isWorking(); i++) {
@@ -44,8 +108,37 @@ public class PathSearchManager {
         currentPathFinder.runCompleteCallback();
         currentPathFinder = null;
       }
-    } else if (!pathFinders.isEmpty()) {
-      currentPathFinder = pathFinders.remove(0);
+    } else {
+      currentPathFinder = nextGameThreadSearch();
+    }
+  }
+
+  private AStar nextGameThreadSearch() {
+    for (int i = 0; i < pathFinders.size(); i++) {
+      // transit searches wait for the worker pool, they were not started on the game thread
+      if (workerPool == null || !(pathFinders.get(i) instanceof TransitPathFinder)) {
+        return pathFinders.remove(i);
+      }
+    }
+
+    return null;
+  }
+
+  private void updateWorkerPool(float deltaTime) {
+    completedSearches.clear();
+    workerPool.collectCompleted(deltaTime, completedSearches);
+    for (int i = 0; i < completedSearches.size; i++) {
+      completedSearches.get(i).runCompleteCallback();
+    }
+
+    for (int i = 0; i < pathFinders.size() && workerPool.canAcceptSearch(); ) {
+      AStar pathFinder = pathFinders.get(i);
+      if (pathFinder instanceof TransitPathFinder) {
+        pathFinders.remove(i);
+        workerPool.submit((TransitPathFinder) pathFinder);
+      } else {
+        i++;
+      }
     }
   }
 
@@ -56,10 +149,18 @@ public class PathSearchManager {
       currentPathFinder = null;
     }
 
+    if (workerPool != null) {
+      workerPool.cancel(pathFinder);
+    }
+
     pathFinder.cancel();
   }
 
   public void dispose() {
+    if (workerPool != null) {
+      workerPool.dispose();
+    }
+
     _instance = null;
   }
 
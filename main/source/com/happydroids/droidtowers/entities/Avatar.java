@@ -12,7 +12,7 @@ import com.badlogic.gdx.math.MathUtils;
 import com.badlogic.gdx.utils.Array;
 import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
-import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import com.happydroids.droidtowers.TowerAssetManager;
 import com.happydroids.droidtowers.TowerConsts;
@@ -29,7 +29,7 @@ import com.happydroids.error.ErrorUtil;
 
 import javax.annotation.Nullable;
 import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.Map;
 import java.util.Set;
 
 import static com.happydroids.droidtowers.controllers.AvatarState.MOVING;
@@ -42,6 +42,9 @@ public class Avatar extends GameObject {
   public static final float WALKING_ANIMATION_DURATION = FRAME_DURATION * 3;
   private static final Set<Color> colors = Sets.newHashSet(Color.GREEN, Color.RED, Color.ORANGE, Color.MAGENTA, Color.PINK, Color.YELLOW);
   private static Iterator<Color> colorIterator = Iterables.cycle(colors).iterator();
+  private static final int NUM_RECENTLY_VISITED = 3;
+  private static final Map<String, Animation> walkAnimations = Maps.newHashMap();
+  private static TextureAtlas walkAnimationsAtlas;
   private final Animation walkAnimation;
   private float walkAnimationTime;
 
@@ -53,13 +56,16 @@ public class Avatar extends GameObject {
   private float satisfactionFood;
   protected GridObject movingTo;
   private TransitPathFinder pathFinder;
+  private final Runnable pathFinderCompleteCallback;
   private Room home;
   private float hungerLevel;
-  private LinkedList<Object> lastVisitedPlaces;
+  private final GridObject[] recentlyVisited;
+  private int numVisits;
   private float lastSearchedForHome = Float.MAX_VALUE;
   private boolean wanderingAround;
   private final String name;
   private float timeUntilPathSearch;
+  private final Array<GridPosition> wanderPath = new Array<GridPosition>(10);
 
   public Avatar(final GameGrid gameGrid) {
     super();
@@ -78,24 +84,50 @@ public class Avatar extends GameObject {
     setOrigin(stationary.originalWidth / 2, 0);
 //    setVisible(false);
 
-    walkAnimation = new Animation(FRAME_DURATION, droidAtlas.findRegions(addFramePrefix("walk")));
-    lastVisitedPlaces = Lists.newLinkedList();
+    walkAnimation = walkAnimation(droidAtlas);
+    recentlyVisited = new GridObject[NUM_RECENTLY_VISITED];
     satisfactionFood = 1f;
     satisfactionShops = 1f;
 
-    pathFinder = new TransitPathFinder(this.gameGrid, this instanceof Janitor);
-    pathFinder.setCompleteCallback(new Runnable() {
+    pathFinderCompleteCallback = new Runnable() {
       @Override
       public void run() {
         pathFinderComplete();
       }
-    });
+    };
     steeringManager = new AvatarSteeringManager(this, this.gameGrid);
   }
 
+  /**
+   * Animations only hand out frames, so every avatar of a kind shares one.
+   */
+  private Animation walkAnimation(TextureAtlas droidAtlas) {
+    if (droidAtlas != walkAnimationsAtlas) {
+      walkAnimations.clear();
+      walkAnimationsAtlas = droidAtlas;
+    }
+
+    String framesName = addFramePrefix("walk");
+    Animation animation = walkAnimations.get(framesName);
+    if (animation == null) {
+      animation = new Animation(FRAME_DURATION, droidAtlas.findRegions(framesName));
+      walkAnimations.put(framesName, animation);
+    }
+
+    return animation;
+  }
+
   private void pathFinderComplete() {
-    if (pathFinder.isFinished()) {
-      steeringManager.setPath(pathFinder.getDiscoveredPath());
+    TransitPathFinder completed = pathFinder;
+    pathFinder = null;
+
+    // freeing the path finder clears its results, the path itself is a new Array for every search.
+    boolean finished = completed.isFinished();
+    Array<GridPosition> discoveredPath = completed.getDiscoveredPath();
+    gameGrid.pathFinderPool().free(completed);
+
+    if (finished) {
+      steeringManager.setPath(discoveredPath);
       steeringManager.start();
     }
   }
@@ -116,12 +148,12 @@ public class Avatar extends GameObject {
         return;
       }
 
-      if (!pathFinder.isWorking()) {
+      if (pathFinder == null) {
         if (hungerLevel <= 0.5f) {
           GridObject closestFood = searchForFood();
           navigateToGridObject(closestFood);
         } else {
-          if (home != null && !lastVisitedPlaces.contains(home)) {
+          if (home != null && !hasVisitedRecently(home)) {
             navigateToGridObject(home);
           } else {
             findPlaceToVisit();
@@ -151,7 +183,9 @@ public class Avatar extends GameObject {
   protected void wanderAround() {
     GridPosition start = gameGrid.positionCache().getPosition(gameGrid.closestGridPoint(getX(), getY()));
 
-    Array<GridPosition> discoveredPath = new Array<GridPosition>(5);
+    // the steering manager is done with the last wander by the time the next one starts
+    Array<GridPosition> discoveredPath = wanderPath;
+    discoveredPath.clear();
 
     GridPoint gridSize = gameGrid.getGridSize();
 
@@ -201,28 +235,27 @@ public class Avatar extends GameObject {
       movingTo.addToVisitorQueue(this);
     }
 
+    pathFinder = gameGrid.pathFinderPool().obtain(this instanceof Janitor);
+    pathFinder.setCompleteCallback(pathFinderCompleteCallback);
     pathFinder.setStart(gameGrid.positionCache().getPosition(gameGrid.closestGridPoint(getX(), getY())));
     pathFinder.setGoal(gameGrid.positionCache().getPosition(gridObject.getPosition()));
-    pathFinder.start();
 
     if (this instanceof Janitor) {
+      pathFinder.start();
       while (pathFinder.isWorking()) {
         pathFinder.step();
       }
 
       pathFinder.runCompleteCallback();
     } else {
-      PathSearchManager.instance().queue(pathFinder);
+      PathSearchManager.instance().start(pathFinder);
     }
   }
 
   public void afterReachingTarget() {
     if (movingTo != null) {
       movingTo.recordVisitor(this);
-      lastVisitedPlaces.add(movingTo);
-      if (lastVisitedPlaces.size() > 3) {
-        lastVisitedPlaces.poll();
-      }
+      recentlyVisited[numVisits++ % NUM_RECENTLY_VISITED] = movingTo;
 
       if (movingTo.provides(FOOD)) {
         hungerLevel = 1f;
@@ -249,9 +282,11 @@ public class Avatar extends GameObject {
 
     hungerLevel -= 0.001f * delta;
 
+    steeringManager.update(delta);
+
     if (!steeringManager.isRunning()) {
       beginNextAction();
-    } else {
+    } else if (!steeringManager.isLowDetail()) {
       if ((steeringManager.getCurrentState() & MOVING) != 0 || (steeringManager.getCurrentState() & USING_STAIRS) != 0) {
         walkAnimationTime += delta;
         if (walkAnimationTime >= WALKING_ANIMATION_DURATION) {
@@ -288,7 +323,7 @@ public class Avatar extends GameObject {
       }
     }
 
-    if (lastVisitedPlaces.contains(closest) || closest == null) {
+    if (closest == null || hasVisitedRecently(closest)) {
       satisfactionFood = MathUtils.clamp(satisfactionFood - 0.15f, 0f, 1f);
     } else {
       satisfactionFood = MathUtils.clamp(satisfactionFood + 0.15f, 0f, 1f);
@@ -304,6 +339,8 @@ public class Avatar extends GameObject {
 
     if (pathFinder != null) {
       PathSearchManager.instance().remove(pathFinder);
+      gameGrid.pathFinderPool().free(pathFinder);
+      pathFinder = null;
     }
 
     if (movingTo != null) {
@@ -313,6 +350,16 @@ public class Avatar extends GameObject {
     timeUntilPathSearch = 5f + MathUtils.random(1, 5f);
   }
 
+  private boolean hasVisitedRecently(GridObject gridObject) {
+    for (int i = 0; i < NUM_RECENTLY_VISITED; i++) {
+      if (recentlyVisited[i] == gridObject) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
   public void searchForAHome() {
     if (home != null) {
       return;
@@ -371,6 +418,20 @@ public class Avatar extends GameObject {
     super.markToRemove(b);
 
     cancelMovement();
+    if (b && steeringManager != null) {
+      steeringManager.dispose();
+    }
+  }
+
+  /**
+   * Avatars the player can't see move along their path without tweens, animation or transit lines.
+   */
+  public void setLowDetail(boolean lowDetail) {
+    steeringManager.setLowDetail(lowDetail);
+  }
+
+  public boolean isLowDetail() {
+    return steeringManager.isLowDetail();
   }
 
   public String getName() {
@@ -26,17 +26,29 @@ public class CommercialSpace extends Room {
   }
 
   public void updateJobs() {
-    jobsFilled = 0;
+    setJobsFilled(calculateJobsFilled(Player.instance().getTotalPopulation()));
+  }
+
+  /**
+   * Works out how many jobs would be filled at the given population without filling them.
+   */
+  public int calculateJobsFilled(int totalPopulation) {
     if (isConnectedToTransport()) {
       CommercialType commercialType = (CommercialType) getGridObjectType();
 
-      if (Player.instance().getTotalPopulation() > commercialType.getPopulationRequired()) {
+      if (totalPopulation > commercialType.getPopulationRequired()) {
         int jobsProvided = commercialType.getJobsProvided();
         if (jobsProvided > 0) {
-          jobsFilled = Random.randomInt(jobsProvided / 2, jobsProvided);
+          return Random.randomInt(jobsProvided / 2, jobsProvided);
         }
       }
     }
+
+    return 0;
+  }
+
+  public void setJobsFilled(int jobsFilled) {
+    this.jobsFilled = jobsFilled;
   }
 
   public int getJobsFilled() {
@@ -15,6 +15,10 @@ import com.happydroids.droidtowers.TowerAssetManager;
 import com.happydroids.droidtowers.TowerConsts;
 import com.happydroids.droidtowers.actions.Action;
 import com.happydroids.droidtowers.controllers.AvatarSteeringManager;
+import com.happydroids.droidtowers.entities.elevator.DestinationDispatcher;
+import com.happydroids.droidtowers.entities.elevator.ElevatorDispatcher;
+import com.happydroids.droidtowers.entities.elevator.ElevatorStatistics;
+import com.happydroids.droidtowers.entities.elevator.Passenger;
 import com.happydroids.droidtowers.events.ElevatorHeightChangeEvent;
 import com.happydroids.droidtowers.events.GridObjectBoundsChangeEvent;
 import com.happydroids.droidtowers.grid.GameGrid;
@@ -45,6 +49,8 @@ public class Elevator extends Transit {
   private final BitmapFontCache floorLabelCache;
   private int numFloorsSinceLabelCacheBuilt;
   private final Vector2 tmpVector;
+  private ElevatorDispatcher dispatcher;
+  private final ElevatorStatistics statistics;
 
   public Elevator(ElevatorType elevatorType, final GameGrid gameGrid) {
     super(elevatorType, gameGrid);
@@ -71,6 +77,8 @@ public class Elevator extends Transit {
     elevatorCars = new Array<ElevatorCar>(numCars);
     elevatorCars.add(new ElevatorCar(this, elevatorAtlas));
     tmpVector = new Vector2();
+    dispatcher = new DestinationDispatcher();
+    statistics = new ElevatorStatistics();
   }
 
   @Override
@@ -82,13 +90,10 @@ public class Elevator extends Transit {
   public void update(float deltaTime) {
     super.update(deltaTime);
 
+    statistics.update(deltaTime);
     for (ElevatorCar elevatorCar : elevatorCars) {
       elevatorCar.update(deltaTime);
     }
-
-    if (numFloorsSinceLabelCacheBuilt != size.y) {
-      rebuildFloorLabelCache();
-    }
   }
 
   @Override
@@ -127,6 +132,9 @@ public class Elevator extends Transit {
     setWrap(shaftToRender);
     shaftToRender.draw(spriteBatch);
 
+    if (numFloorsSinceLabelCacheBuilt != size.y) {
+      rebuildFloorLabelCache();
+    }
     floorLabelCache.setColor(1, 1, 1, 0.5f);
     floorLabelCache.draw(spriteBatch, renderColor.a);
 
@@ -311,14 +319,10 @@ public class Elevator extends Transit {
       return false;
     }
 
-    for (ElevatorCar elevatorCar : elevatorCars) {
-      if (!elevatorCar.isInUse()) {
-        return elevatorCar.addPassenger(avatarSteeringManager, currentFloor, destinationFloor, uponArrivalRunnable);
-      }
-    }
+    Passenger passenger = new Passenger(avatarSteeringManager, currentFloor, destinationFloor, uponArrivalRunnable);
+    statistics.passengerRequested(passenger);
 
-    ElevatorCar elevatorCar = elevatorCars.get(MathUtils.random(0, elevatorCars.size - 1));
-    return elevatorCar.addPassenger(avatarSteeringManager, currentFloor, destinationFloor, uponArrivalRunnable);
+    return dispatcher.assignCar(elevatorCars, passenger).addPassenger(passenger);
   }
 
   public void removePassenger(AvatarSteeringManager avatarSteeringManager) {
@@ -350,6 +354,10 @@ public class Elevator extends Transit {
     elevatorCars.add(new ElevatorCar(this, elevatorAtlas));
   }
 
+  public Array<ElevatorCar> getElevatorCars() {
+    return elevatorCars;
+  }
+
   public int getNumElevatorCars() {
     return elevatorCars.size;
   }
@@ -370,9 +378,22 @@ public class Elevator extends Transit {
     if (elevatorCars.size > 0) {
       ElevatorCar car = elevatorCars.removeIndex(0);
       car.resetToBottomOfShaft();
+      eventBus().unregister(car);
     }
   }
 
+  public ElevatorDispatcher getDispatcher() {
+    return dispatcher;
+  }
+
+  public void setDispatcher(ElevatorDispatcher dispatcher) {
+    this.dispatcher = dispatcher;
+  }
+
+  public ElevatorStatistics getStatistics() {
+    return statistics;
+  }
+
   public boolean canAddElevatorCar() {
     return elevatorCars.size < MAX_NUMBER_OF_CARS;
   }
@@ -21,6 +21,12 @@ import static aurelienribon.tweenengine.TweenCallback.COMPLETE;
 import static com.happydroids.droidtowers.tween.GameObjectAccessor.POSITION_Y;
 
 public class ElevatorCar extends GameObject {
+  private static final float MILLIS_PER_WORLD_UNIT = 2.5f;
+  private static final float STOP_DELAY = 500f;
+  /**
+   * Roughly how long avatars take to walk into or out of the car.
+   */
+  private static final float BOARDING_TIME = 700f;
   private final Elevator elevator;
   private ElevatorQueue queue;
   protected boolean inUse;
@@ -42,24 +48,15 @@ public class ElevatorCar extends GameObject {
     resetToBottomOfShaft();
   }
 
-  @Override
-  protected void finalize() throws Throwable {
-    if (elevator != null) {
-      elevator.eventBus().unregister(this);
-    }
-
-    super.finalize();
-  }
-
   public void moveToFloor(final int nextFloor) {
     TweenSystem.manager().killTarget(this);
     finalPosition.set(elevator.getPosition());
     finalPosition.y = nextFloor;
     float targetYPosition = finalPosition.getWorldY();
-    int distanceBetweenStops = (int) (Math.abs(getY() - targetYPosition) * 2.5f);
+    int distanceBetweenStops = (int) (Math.abs(getY() - targetYPosition) * MILLIS_PER_WORLD_UNIT);
     Tween.to(this, POSITION_Y, distanceBetweenStops)
             .target(targetYPosition)
-            .delay(500f)
+            .delay(STOP_DELAY)
             .setCallback(new TweenCallback() {
               public void onEvent(int type, BaseTween source) {
                 queue.arrivedAt(nextFloor);
@@ -82,15 +79,9 @@ public class ElevatorCar extends GameObject {
       }
     }
 
-    if (!inUse) {
-      if (!queue.moveToNextStop()) {
-        queue.determinePickups();
-      }
-
-      if (queue.getNextFloor() != ElevatorQueue.INVALID_FLOOR) {
-        inUse = true;
-        moveToFloor(queue.getNextFloor());
-      }
+    if (!inUse && queue.moveToNextStop()) {
+      inUse = true;
+      moveToFloor(queue.getNextFloor());
     }
   }
 
@@ -98,12 +89,20 @@ public class ElevatorCar extends GameObject {
     moveToFloor(elevator.getPosition().y);
   }
 
-  public boolean addPassenger(AvatarSteeringManager steeringManager, int boarding, int destination, Runnable disembarkCallback) {
-    queue.add(new Passenger(steeringManager, boarding, destination, disembarkCallback));
+  public boolean addPassenger(Passenger passenger) {
+    queue.add(passenger);
 
     return true;
   }
 
+  /**
+   * @return the milliseconds this car would take to get the passenger to their destination
+   */
+  public float estimateTimeToDestination(Passenger passenger) {
+    float floorTime = elevator.scaledGridUnit() * MILLIS_PER_WORLD_UNIT;
+    return queue.estimateTimeToDestination(passenger, floorTime, STOP_DELAY + BOARDING_TIME);
+  }
+
 
   public void removePassenger(AvatarSteeringManager avatarSteeringManager) {
     queue.removePassenger(avatarSteeringManager);
@@ -5,27 +5,46 @@
 package com.happydroids.droidtowers.entities;
 
 import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
 import com.happydroids.droidtowers.controllers.AvatarSteeringManager;
 import com.happydroids.droidtowers.entities.elevator.Passenger;
+import com.happydroids.droidtowers.math.Direction;
 
 import java.util.Iterator;
 
 import static com.happydroids.droidtowers.math.Direction.DOWN;
+import static com.happydroids.droidtowers.math.Direction.UP;
 
+/**
+ * The passengers assigned to one car, served with a collective LOOK policy.
+ * <p/>
+ * The car keeps going in one direction, stopping for the riders' destinations and for waiting
+ * passengers who want to go the same way, until there is nothing left ahead of it. If passengers
+ * ahead want to go the other way it goes on to the farthest of them first, then turns around.
+ */
 public class ElevatorQueue {
   public static final int INVALID_FLOOR = -1;
+  /**
+   * How much of a stop the riders and waiting passengers of a car are held up by when another
+   * passenger adds a new stop to its route.
+   */
+  private static final float DELAY_FOR_OTHERS = 0.5f;
+
+  private final Elevator elevator;
   private Array<Passenger> passengersWaiting;
   private Array<Passenger> currentRiders;
-  private Array<Integer> floorNumbers;
+  private IntArray stops;
   private int currentFloor;
   private int nextFloor;
+  private Direction direction;
 
   public ElevatorQueue(Elevator elevator) {
+    this.elevator = elevator;
     passengersWaiting = new Array<Passenger>(5);
     currentRiders = new Array<Passenger>(5);
+    stops = new IntArray();
     currentFloor = INVALID_FLOOR;
     nextFloor = INVALID_FLOOR;
-    floorNumbers = new Array<Integer>();
   }
 
   public void add(Passenger passenger) {
@@ -36,67 +55,242 @@ public class ElevatorQueue {
     return passengersWaiting;
   }
 
-  public boolean determinePickups() {
-    if (passengersWaiting.size == 0) {
+  public boolean moveToNextStop() {
+    nextFloor = INVALID_FLOOR;
+
+    if (passengersWaiting.size == 0 && currentRiders.size == 0) {
+      direction = null;
       return false;
     }
 
-    Passenger firstPassenger = passengersWaiting.removeIndex(0);
-    currentRiders.clear();
-    currentRiders.add(firstPassenger);
+    int floor = carFloor();
+    if (direction == null) {
+      direction = directionOfNearestCall(floor);
+    }
 
+    nextFloor = nextStop(direction, floor);
+    if (nextFloor == INVALID_FLOOR) {
+      direction = opposite(direction);
+      nextFloor = nextStop(direction, floor);
+    }
+
+    return nextFloor != INVALID_FLOOR;
+  }
 
-    Iterator<Passenger> iterator = passengersWaiting.iterator();
-    while (iterator.hasNext()) {
-      Passenger otherPassenger = iterator.next();
-      if (firstPassenger.travelContains(otherPassenger)) {
-        currentRiders.add(otherPassenger);
-        iterator.remove();
+  private int nextStop(Direction towards, int floor) {
+    int nearest = INVALID_FLOOR;
+    for (int i = 0; i < currentRiders.size; i++) {
+      int destination = currentRiders.get(i).destinationFloor;
+      if (isAheadOrAt(towards, floor, destination) && (nearest == INVALID_FLOOR || isAheadOrAt(towards, destination, nearest))) {
+        nearest = destination;
       }
     }
 
-    floorNumbers.clear();
-    for (Passenger passenger : currentRiders) {
-      floorNumbers.add(passenger.boardingFloor);
-      floorNumbers.add(passenger.destinationFloor);
+    for (int i = 0; i < passengersWaiting.size; i++) {
+      Passenger passenger = passengersWaiting.get(i);
+      if (passenger.travelDirection == towards && isAheadOrAt(towards, floor, passenger.boardingFloor) &&
+                  (nearest == INVALID_FLOOR || isAheadOrAt(towards, passenger.boardingFloor, nearest))) {
+        nearest = passenger.boardingFloor;
+      }
     }
 
-    floorNumbers.sort();
+    if (nearest != INVALID_FLOOR) {
+      return nearest;
+    }
 
-    if (firstPassenger.travelDirection.equals(DOWN)) {
-      floorNumbers.reverse();
+    // only calls to go the other way are left ahead, turn around at the farthest of them.
+    int farthest = INVALID_FLOOR;
+    for (int i = 0; i < passengersWaiting.size; i++) {
+      int boardingFloor = passengersWaiting.get(i).boardingFloor;
+      if (isAheadOrAt(towards, floor, boardingFloor) && (farthest == INVALID_FLOOR || isAheadOrAt(towards, farthest, boardingFloor))) {
+        farthest = boardingFloor;
+      }
     }
 
-    return true;
+    return farthest;
   }
 
-  public boolean moveToNextStop() {
-    nextFloor = INVALID_FLOOR;
+  private Direction directionOfNearestCall(int floor) {
+    Passenger nearest = null;
+    for (int i = 0; i < passengersWaiting.size; i++) {
+      Passenger passenger = passengersWaiting.get(i);
+      if (nearest == null || Math.abs(passenger.boardingFloor - floor) < Math.abs(nearest.boardingFloor - floor)) {
+        nearest = passenger;
+      }
+    }
 
-    if (floorNumbers.size == 0) {
-      return false;
+    if (nearest == null) {
+      return currentRiders.size > 0 && currentRiders.first().destinationFloor < floor ? DOWN : UP;
+    } else if (nearest.boardingFloor == floor) {
+      return nearest.travelDirection;
     }
 
-    nextFloor = floorNumbers.removeIndex(0);
-    return true;
+    return nearest.boardingFloor > floor ? UP : DOWN;
   }
 
   public int getCurrentFloor() {
     return currentFloor;
   }
 
+  public Direction getDirection() {
+    return direction;
+  }
+
   public void arrivedAt(int nextFloor) {
     currentFloor = nextFloor;
     Iterator<Passenger> riderIterator = currentRiders.iterator();
     while (riderIterator.hasNext()) {
       Passenger rider = riderIterator.next();
-      if (!rider.isRiding() && rider.boardingFloor == currentFloor) {
-        rider.boardNow();
-      } else if (rider.isRiding() && rider.destinationFloor == currentFloor) {
+      if (rider.isRiding() && rider.destinationFloor == currentFloor) {
         rider.disembarkNow();
         riderIterator.remove();
+        elevator.getStatistics().passengerArrived(rider);
+      }
+    }
+
+    if (direction == null) {
+      direction = directionOfNearestCall(currentFloor);
+    }
+
+    Direction boardingDirection = direction;
+    if (!hasCallAt(currentFloor, direction) && !hasStopAhead(direction, currentFloor)) {
+      boardingDirection = opposite(direction);
+    }
+
+    Iterator<Passenger> waitingIterator = passengersWaiting.iterator();
+    while (waitingIterator.hasNext()) {
+      Passenger passenger = waitingIterator.next();
+      if (passenger.boardingFloor == currentFloor && passenger.travelDirection == boardingDirection) {
+        waitingIterator.remove();
+        currentRiders.add(passenger);
+        passenger.boardNow();
+        elevator.getStatistics().passengerBoarded(passenger);
+        direction = boardingDirection;
+      }
+    }
+  }
+
+  private boolean hasCallAt(int floor, Direction towards) {
+    for (int i = 0; i < passengersWaiting.size; i++) {
+      Passenger passenger = passengersWaiting.get(i);
+      if (passenger.boardingFloor == floor && passenger.travelDirection == towards) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private boolean hasStopAhead(Direction towards, int floor) {
+    for (int i = 0; i < currentRiders.size; i++) {
+      int destination = currentRiders.get(i).destinationFloor;
+      if (destination != floor && isAheadOrAt(towards, floor, destination)) {
+        return true;
       }
     }
+
+    for (int i = 0; i < passengersWaiting.size; i++) {
+      int boardingFloor = passengersWaiting.get(i).boardingFloor;
+      if (boardingFloor != floor && isAheadOrAt(towards, floor, boardingFloor)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Estimates how long the passenger would take to reach their destination if this car picked them
+   * up, following the car's LOOK route through the stops it already has.
+   */
+  public float estimateTimeToDestination(Passenger passenger, float floorTime, float stopTime) {
+    // a moving car is committed to its next stop, anything it has already left is behind it.
+    int floor = nextFloor != INVALID_FLOOR ? nextFloor : carFloor();
+    collectStops();
+
+    int distanceToBoarding = routeDistance(floor, passenger.boardingFloor, passenger.travelDirection);
+    int stopsBeforeBoarding = 0;
+    boolean boardingIsStop = false;
+    for (int i = 0; i < stops.size; i++) {
+      int stop = stops.get(i);
+      boardingIsStop |= stop == passenger.boardingFloor;
+      if (Math.min(routeDistance(floor, stop, UP), routeDistance(floor, stop, DOWN)) < distanceToBoarding) {
+        stopsBeforeBoarding++;
+      }
+    }
+
+    float time = (distanceToBoarding + Math.abs(passenger.destinationFloor - passenger.boardingFloor)) * floorTime;
+    time += (stopsBeforeBoarding + 2) * stopTime;
+    if (!boardingIsStop) {
+      time += (passengersWaiting.size + currentRiders.size) * stopTime * DELAY_FOR_OTHERS;
+    }
+
+    return time;
+  }
+
+  private void collectStops() {
+    stops.clear();
+    for (int i = 0; i < currentRiders.size; i++) {
+      addStop(currentRiders.get(i).destinationFloor);
+    }
+
+    for (int i = 0; i < passengersWaiting.size; i++) {
+      addStop(passengersWaiting.get(i).boardingFloor);
+      addStop(passengersWaiting.get(i).destinationFloor);
+    }
+  }
+
+  private void addStop(int floor) {
+    if (!stops.contains(floor)) {
+      stops.add(floor);
+    }
+  }
+
+  /**
+   * @return the number of floors the car travels before it passes floor going the given way
+   */
+  private int routeDistance(int floor, int target, Direction targetDirection) {
+    if (direction == null) {
+      return Math.abs(target - floor);
+    }
+
+    int highest = Math.max(floor, target);
+    int lowest = Math.min(floor, target);
+    for (int i = 0; i < stops.size; i++) {
+      highest = Math.max(highest, stops.get(i));
+      lowest = Math.min(lowest, stops.get(i));
+    }
+
+    if (direction == UP) {
+      if (targetDirection == UP && target >= floor) {
+        return target - floor;
+      } else if (targetDirection == DOWN) {
+        return (highest - floor) + (highest - target);
+      }
+
+      return (highest - floor) + (highest - lowest) + (target - lowest);
+    } else {
+      if (targetDirection == DOWN && target <= floor) {
+        return floor - target;
+      } else if (targetDirection == UP) {
+        return (floor - lowest) + (target - lowest);
+      }
+
+      return (floor - lowest) + (highest - lowest) + (highest - target);
+    }
+  }
+
+  private int carFloor() {
+    // cars start out at the bottom of the shaft
+    return currentFloor != INVALID_FLOOR ? currentFloor : elevator.getPosition().y + 1;
+  }
+
+  private static boolean isAheadOrAt(Direction towards, int floor, int other) {
+    return towards == UP ? other >= floor : other <= floor;
+  }
+
+  private static Direction opposite(Direction direction) {
+    return direction == UP ? DOWN : UP;
   }
 
   public boolean waitingOnRiders() {
@@ -134,6 +328,7 @@ public class ElevatorQueue {
   public void clear() {
     passengersWaiting.clear();
     currentRiders.clear();
+    direction = null;
   }
 
   public void informPassengersOfServiceChange() {
@@ -145,9 +340,9 @@ public class ElevatorQueue {
       currentRider.informOfServiceChange();
     }
 
-    floorNumbers.clear();
     currentFloor = INVALID_FLOOR;
     nextFloor = INVALID_FLOOR;
+    direction = null;
   }
 
   public int getNextFloor() {
@@ -14,6 +14,7 @@ import java.util.Iterator;
 
 public class GameLayer<T extends GameObject> {
   protected Array<T> gameObjects;
+  protected float interpolationAlpha = 1f;
   private boolean visible;
   private boolean touchEnabled;
 
@@ -65,6 +66,20 @@ public class GameLayer<T extends GameObject> {
     }
   }
 
+  /**
+   * Called by the SimulationKernel before every tick, layers that draw interpolated positions
+   * remember where their objects are here.
+   */
+  public void beforeSimulationTick() {
+  }
+
+  /**
+   * How far the simulation has got from the last tick towards the next one, from 0 to 1.
+   */
+  public void setInterpolationAlpha(float interpolationAlpha) {
+    this.interpolationAlpha = interpolationAlpha;
+  }
+
   public boolean isVisible() {
     return this.visible;
   }
@@ -10,12 +10,18 @@ import com.badlogic.gdx.graphics.g2d.Sprite;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.math.Vector2;
+import com.happydroids.droidtowers.TowerConsts;
 
 public class GameObject extends Sprite {
+  private static final float MAX_INTERPOLATED_DISTANCE = TowerConsts.GRID_UNIT_SIZE * 2;
+
   protected boolean visible = true;
   private float velocityX;
   private float velocityY;
   private boolean markedForRemoval;
+  private float previousX;
+  private float previousY;
+  private boolean hasPreviousPosition;
 
   public GameObject(TextureAtlas.AtlasRegion region) {
     super(region);
@@ -52,6 +58,29 @@ public class GameObject extends Sprite {
     setY(getY() + (velocityY * timeDelta));
   }
 
+  public void rememberPosition() {
+    previousX = getX();
+    previousY = getY();
+    hasPreviousPosition = true;
+  }
+
+  /**
+   * Draws the object part of the way from where it was at rememberPosition() to where it is now.
+   * Objects that jumped further than a couple of grid cells are drawn where they are.
+   */
+  public void drawInterpolated(SpriteBatch spriteBatch, float alpha) {
+    float x = getX();
+    float y = getY();
+    if (!hasPreviousPosition || alpha >= 1f || Math.abs(x - previousX) + Math.abs(y - previousY) > MAX_INTERPOLATED_DISTANCE) {
+      draw(spriteBatch);
+      return;
+    }
+
+    setPosition(previousX + (x - previousX) * alpha, previousY + (y - previousY) * alpha);
+    draw(spriteBatch);
+    setPosition(x, y);
+  }
+
   public void setVisible(boolean state) {
     visible = state;
   }
@@ -132,15 +132,27 @@ public abstract class GridObject {
       sprite.setColor(renderColor);
       sprite.setPosition(worldPosition.x, worldPosition.y);
       sprite.setSize(worldSize.x, worldSize.y);
+      sprite.draw(spriteBatch);
+    }
+  }
 
-      if (shouldUseSpriteCache()) {
-        spriteCache.beginCache();
-        spriteCache.add(sprite);
-        setSpriteCacheId(spriteCache.endCache());
-      } else {
-        sprite.draw(spriteBatch);
-      }
+  /**
+   * Adds this object's sprite to the cache GameGridRenderer is building for its chunk, in place of
+   * drawing it every frame.
+   *
+   * @return false if there was nothing to add
+   */
+  public boolean cacheSprite(SpriteCache spriteCache) {
+    Sprite sprite = getSprite();
+    if (sprite == null) {
+      return false;
     }
+
+    sprite.setColor(renderColor);
+    sprite.setPosition(worldPosition.x, worldPosition.y);
+    sprite.setSize(worldSize.x, worldSize.y);
+    spriteCache.add(sprite);
+    return true;
   }
 
   public void renderDecals(SpriteBatch spriteBatch) {
@@ -173,6 +185,16 @@ public abstract class GridObject {
     return !decalsToDraw.isEmpty();
   }
 
+  /**
+   * Lets the renderer know when this object starts or stops having decals to draw, call it after
+   * changing decalsToDraw.
+   */
+  protected void decalsChanged(boolean hadDecals) {
+    if (hadDecals != hasDecals() && gameGrid != null) {
+      gameGrid.renderChunks().invalidateDecals(this);
+    }
+  }
+
   public boolean tap(GridPoint gridPointAtFinger, int count) {
     if (count == 1 && hasPopOver()) {
       if (displayedPopOver) {
@@ -278,7 +300,32 @@ public abstract class GridObject {
     checkPlacement(prevState);
   }
 
+  /**
+   * Puts a loaded object back where it was saved, already placed. Only the object's own listeners hear
+   * about it, the grid finds out when the object is handed to GameGrid.addObjects.
+   */
+  public void restorePlacement(int x, int y, int width, int height) {
+    position.set(x, y);
+    size.set(width, height);
+    clampPosition();
+    updateWorldCoordinates();
+
+    placed = true;
+    setRenderColor(Color.WHITE);
+    if (myEventBus != null) {
+      GridObjectPlacedEvent event = Pools.obtain(GridObjectPlacedEvent.class);
+      event.setGridObject(this);
+      myEventBus.post(event);
+      Pools.free(event);
+    }
+  }
+
   private void checkPlacement(boolean prevState) {
+    if (placed != prevState && gameGrid != null) {
+      // whether the object is drawn from its chunk's sprite cache depends on it being placed
+      gameGrid.renderChunks().invalidate(this);
+    }
+
     if (placed) {
       setRenderColor(Color.WHITE);
       GridObjectPlacedEvent event = Pools.obtain(GridObjectPlacedEvent.class);
@@ -11,6 +11,7 @@ import com.happydroids.droidtowers.types.ProviderType;
 
 public class Janitor extends Avatar {
   public static final ProviderType[] JANITOR_SERVICES_PROVIDER_TYPES = new ProviderType[]{ProviderType.FOOD, ProviderType.OFFICE_SERVICES, ProviderType.RESTROOM};
+  private static final Class[] PLACES_TO_CLEAN = new Class[]{CommercialSpace.class, HotelRoom.class};
 
   protected ProviderType[] servicesTheseProviderTypes;
 
@@ -28,7 +29,7 @@ public class Janitor extends Avatar {
 
   @Override
   protected void findPlaceToVisit() {
-    Array<GridObject> gridObjects = gameGrid.getInstancesOf(CommercialSpace.class, HotelRoom.class);
+    Array<GridObject> gridObjects = gameGrid.getInstancesOf(PLACES_TO_CLEAN);
     if (gridObjects != null && gridObjects.size > 0) {
       if (gridObjects.size > 1) {
         gridObjects.sort(GridObjectSort.byDirtLevel);
@@ -47,6 +47,30 @@ public class Player {
     coins = startingMoney;
   }
 
+  /**
+   * @return a detached copy, for saving the player without holding on to the live instance
+   */
+  public Player copy() {
+    Player copy = new Player();
+    copy.coins = coins;
+    copy.experience = experience;
+    copy.jobsFilled = jobsFilled;
+    copy.jobsMax = jobsMax;
+    copy.populationAttracted = populationAttracted;
+    copy.maxPopulation = maxPopulation;
+    copy.populationMax = populationMax;
+    copy.supportedResidency = supportedResidency;
+    copy.populationResidency = populationResidency;
+    copy.currentIncome = currentIncome;
+    copy.currentExpenses = currentExpenses;
+    copy.starRating = starRating;
+    copy.budgetRating = budgetRating;
+    copy.employmentRating = employmentRating;
+    copy.populationRating = populationRating;
+    copy.desirabilityRating = desirabilityRating;
+    return copy;
+  }
+
   public static void setInstance(Player newInstance) {
     Player.instance = newInstance;
   }
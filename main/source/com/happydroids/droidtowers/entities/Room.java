@@ -78,7 +78,9 @@ public class Room extends GridObject {
     timeUntilDecalCheck -= deltaTime;
     if (timeUntilDecalCheck <= 0) {
       timeUntilDecalCheck = 2.5f;
+      boolean hadDecals = hasDecals();
       checkDecals();
+      decalsChanged(hadDecals);
     }
   }
 
@@ -195,7 +197,9 @@ public class Room extends GridObject {
   public boolean addResident(Avatar avatar) {
     if (getNumResidents() < getNumSupportedResidents()) {
       residents.add(avatar);
+      boolean hadDecals = hasDecals();
       decalsToDraw.remove(DECAL_NEEDS_DROIDS);
+      decalsChanged(hadDecals);
 
       return true;
     }
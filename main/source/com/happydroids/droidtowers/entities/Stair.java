@@ -47,6 +47,11 @@ public class Stair extends Transit {
     }
   }
 
+  @Override
+  public boolean shouldUseSpriteCache() {
+    return false;
+  }
+
   @Override
   public List<GridPoint> getGridPointsTouched() {
     List<GridPoint> points = super.getGridPointsTouched();
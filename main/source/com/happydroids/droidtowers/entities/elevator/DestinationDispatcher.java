@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.entities.elevator;
+
+import com.badlogic.gdx.utils.Array;
+import com.happydroids.droidtowers.entities.ElevatorCar;
+
+/**
+ * Gives the passenger to the car that would get them to their destination soonest, counting the
+ * stops the car already has to make on its way.
+ */
+public class DestinationDispatcher implements ElevatorDispatcher {
+  @Override
+  public ElevatorCar assignCar(Array<ElevatorCar> elevatorCars, Passenger passenger) {
+    ElevatorCar bestCar = null;
+    float bestTime = Float.MAX_VALUE;
+    for (int i = 0; i < elevatorCars.size; i++) {
+      ElevatorCar elevatorCar = elevatorCars.get(i);
+      float time = elevatorCar.estimateTimeToDestination(passenger);
+      if (time < bestTime) {
+        bestTime = time;
+        bestCar = elevatorCar;
+      }
+    }
+
+    return bestCar;
+  }
+}
@@ -0,0 +1,15 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.entities.elevator;
+
+import com.badlogic.gdx.utils.Array;
+import com.happydroids.droidtowers.entities.ElevatorCar;
+
+/**
+ * Decides which car of a shaft serves a passenger, at the moment they call for the elevator.
+ */
+public interface ElevatorDispatcher {
+  public ElevatorCar assignCar(Array<ElevatorCar> elevatorCars, Passenger passenger);
+}
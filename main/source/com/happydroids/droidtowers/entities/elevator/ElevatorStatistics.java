@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.entities.elevator;
+
+/**
+ * Wait times and throughput of one elevator shaft, measured in seconds of game time.
+ */
+public class ElevatorStatistics {
+  private static final float BUCKET_LENGTH = 10f;
+  private static final int NUM_BUCKETS = 6;
+
+  private float clock;
+  private int numBoarded;
+  private int numDelivered;
+  private float totalWaitTime;
+  private float maxWaitTime;
+  private float totalTripTime;
+  private final int[] deliveredPerBucket;
+  private final int[] bucketNumbers;
+
+  public ElevatorStatistics() {
+    deliveredPerBucket = new int[NUM_BUCKETS];
+    bucketNumbers = new int[NUM_BUCKETS];
+  }
+
+  public void update(float deltaTime) {
+    clock += deltaTime;
+  }
+
+  public void passengerRequested(Passenger passenger) {
+    passenger.requestedAt = clock;
+  }
+
+  public void passengerBoarded(Passenger passenger) {
+    passenger.boardedAt = clock;
+
+    float waitTime = clock - passenger.requestedAt;
+    numBoarded++;
+    totalWaitTime += waitTime;
+    maxWaitTime = Math.max(maxWaitTime, waitTime);
+  }
+
+  public void passengerArrived(Passenger passenger) {
+    numDelivered++;
+    totalTripTime += clock - passenger.requestedAt;
+
+    int bucketNumber = currentBucketNumber();
+    int bucket = bucketNumber % NUM_BUCKETS;
+    if (bucketNumbers[bucket] != bucketNumber) {
+      bucketNumbers[bucket] = bucketNumber;
+      deliveredPerBucket[bucket] = 0;
+    }
+    deliveredPerBucket[bucket]++;
+  }
+
+  /**
+   * @return the number of passengers delivered over the last minute
+   */
+  public int getThroughputPerMinute() {
+    int bucketNumber = currentBucketNumber();
+    int delivered = 0;
+    for (int i = 0; i < NUM_BUCKETS; i++) {
+      if (bucketNumber - bucketNumbers[i] < NUM_BUCKETS) {
+        delivered += deliveredPerBucket[i];
+      }
+    }
+
+    return delivered;
+  }
+
+  private int currentBucketNumber() {
+    return (int) (clock / BUCKET_LENGTH);
+  }
+
+  public float getAverageWaitTime() {
+    return numBoarded > 0 ? totalWaitTime / numBoarded : 0;
+  }
+
+  public float getMaxWaitTime() {
+    return maxWaitTime;
+  }
+
+  public float getAverageTripTime() {
+    return numDelivered > 0 ? totalTripTime / numDelivered : 0;
+  }
+
+  public int getNumBoarded() {
+    return numBoarded;
+  }
+
+  public int getNumDelivered() {
+    return numDelivered;
+  }
+
+  public float getClock() {
+    return clock;
+  }
+}
@@ -0,0 +1,25 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.entities.elevator;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+import com.happydroids.droidtowers.entities.ElevatorCar;
+
+/**
+ * The first car that is standing still, or any car when they are all moving.
+ */
+public class FirstIdleCarDispatcher implements ElevatorDispatcher {
+  @Override
+  public ElevatorCar assignCar(Array<ElevatorCar> elevatorCars, Passenger passenger) {
+    for (ElevatorCar elevatorCar : elevatorCars) {
+      if (!elevatorCar.isInUse()) {
+        return elevatorCar;
+      }
+    }
+
+    return elevatorCars.get(MathUtils.random(0, elevatorCars.size - 1));
+  }
+}
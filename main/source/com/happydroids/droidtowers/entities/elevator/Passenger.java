@@ -18,6 +18,8 @@ public class Passenger {
   private final AvatarSteeringManager steeringManager;
   private boolean waitFor;
   private boolean riding;
+  float requestedAt;
+  float boardedAt;
 
   public Passenger(AvatarSteeringManager steeringManager, int boarding, int destination, Runnable disembarkCallback) {
     this.steeringManager = steeringManager;
@@ -28,21 +30,6 @@ public class Passenger {
     travelDirection = boardingFloor < destinationFloor ? UP : DOWN;
   }
 
-  public boolean travelContains(Passenger otherPassenger) {
-    if (!otherPassenger.travelDirection.equals(travelDirection)) {
-      return false;
-    }
-
-    switch (travelDirection) {
-      case UP:
-        return otherPassenger.boardingFloor >= boardingFloor;// && otherPassenger.destinationFloor <= destinationFloor;
-      case DOWN:
-        return otherPassenger.boardingFloor <= boardingFloor;// && otherPassenger.destinationFloor >= destinationFloor;
-    }
-
-    return false;
-  }
-
   public void boardNow() {
     waitFor = true;
     steeringManager.boardElevator(new Runnable() {
@@ -0,0 +1,24 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.events;
+
+import com.badlogic.gdx.utils.Array;
+import com.happydroids.droidtowers.entities.GridObject;
+
+/**
+ * Posted once for a batch of placed objects added with GameGrid.addObjects, in place of a placed and
+ * an added event for each of them. The grid object is null, like any event that touches the whole grid.
+ */
+public class GridObjectsLoadedEvent extends GridObjectEvent {
+  private final Array<GridObject> gridObjects;
+
+  public GridObjectsLoadedEvent(Array<GridObject> gridObjects) {
+    this.gridObjects = gridObjects;
+  }
+
+  public Array<GridObject> getGridObjects() {
+    return gridObjects;
+  }
+}
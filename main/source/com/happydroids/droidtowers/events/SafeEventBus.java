@@ -18,7 +18,7 @@ public class SafeEventBus extends EventBus {
   @Override
   public void unregister(Object object) {
     try {
-
+      super.unregister(object);
     } catch (IllegalArgumentException iae) {
       if (!iae.getMessage().startsWith("missing event handler for an annotated method")) {
         throw iae;
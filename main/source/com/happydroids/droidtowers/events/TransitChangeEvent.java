@@ -0,0 +1,23 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.events;
+
+import com.happydroids.droidtowers.grid.GameGrid;
+
+public class TransitChangeEvent {
+  public final GameGrid gameGrid;
+  public final int minFloor;
+  public final int maxFloor;
+
+  public TransitChangeEvent(GameGrid gameGrid) {
+    this(gameGrid, 0, Integer.MAX_VALUE);
+  }
+
+  public TransitChangeEvent(GameGrid gameGrid, int minFloor, int maxFloor) {
+    this.gameGrid = gameGrid;
+    this.minFloor = minFloor;
+    this.maxFloor = maxFloor;
+  }
+}
@@ -6,6 +6,7 @@ package com.happydroids.droidtowers.gamestate;
 
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.math.Vector3;
+import com.badlogic.gdx.utils.Array;
 import com.fasterxml.jackson.annotation.JsonAutoDetect;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.annotation.JsonView;
@@ -24,6 +25,7 @@ import com.happydroids.droidtowers.input.CameraController;
 import com.happydroids.droidtowers.math.GridPoint;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 import static com.fasterxml.jackson.annotation.JsonAutoDetect.Visibility.NONE;
@@ -81,11 +83,7 @@ public class GameSave {
       cameraController.panTo(cameraPosition, false);
     }
 
-    if (gridObjects != null) {
-      for (GridObjectState gridObjectState : gridObjects) {
-        gridObjectState.materialize(gameGrid);
-      }
-    }
+    materializeGridObjects(gameGrid);
 
     if (newGame) {
       TutorialEngine.instance().setEnabled(true);
@@ -103,8 +101,20 @@ public class GameSave {
     newGame = false;
   }
 
+  protected void materializeGridObjects(GameGrid gameGrid) {
+    if (gridObjects == null) {
+      return;
+    }
+
+    Array<GridObject> loadedObjects = new Array<GridObject>(gridObjects.size());
+    for (GridObjectState gridObjectState : gridObjects) {
+      loadedObjects.add(gridObjectState.materializeForBulkLoad(gameGrid));
+    }
+    gameGrid.addObjects(loadedObjects);
+  }
+
   public void update(OrthographicCamera camera, GameGrid gameGrid, List<String> neighbors) {
-    gridSize = gameGrid.getGridSize();
+    gridSize = gameGrid.getGridSize().cpy();
     gridObjects = Lists.newArrayList();
 
     for (GridObject gridObject : gameGrid.getObjects()) {
@@ -120,12 +130,33 @@ public class GameSave {
       }
     }
 
-    cameraPosition = camera.position;
+    cameraPosition = camera.position.cpy();
     cameraZoom = camera.zoom;
 
     player = Player.instance();
     this.neighbors = neighbors;
     metadata.fileGeneration += 1;
+    metadata.lastPlayed = new Date();
+  }
+
+  /**
+   * Copies everything written to disk, so the copy can be serialized on another thread while the
+   * game carries on changing this save and the player.
+   */
+  public GameSave snapshot() {
+    GameSave snapshot = new GameSave();
+    snapshot.player = player != null ? player.copy() : null;
+    snapshot.cameraPosition = cameraPosition != null ? cameraPosition.cpy() : null;
+    snapshot.cameraZoom = cameraZoom;
+    snapshot.gridSize = gridSize != null ? gridSize.cpy() : null;
+    snapshot.gridObjects = gridObjects != null ? Lists.newArrayList(gridObjects) : null;
+    snapshot.completedAchievements = completedAchievements != null ? Lists.newArrayList(completedAchievements) : null;
+    snapshot.neighbors = neighbors != null ? Lists.newArrayList(neighbors) : null;
+    snapshot.newGame = newGame;
+    snapshot.saveToDiskDisabled = saveToDiskDisabled;
+    snapshot.metadata = metadata != null ? metadata.copy() : null;
+    snapshot.fileFormat = fileFormat;
+    return snapshot;
   }
 
   public String getCloudSaveUri() {
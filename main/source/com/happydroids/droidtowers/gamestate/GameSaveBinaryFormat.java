@@ -0,0 +1,337 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.gamestate;
+
+import com.badlogic.gdx.math.Vector3;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.happydroids.droidtowers.grid.GridObjectState;
+import com.happydroids.droidtowers.math.GridPoint;
+import com.happydroids.jackson.HappyDroidObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The binary save file. The magic bytes, the format version and the length of the header come first,
+ * as 4 byte ints. The header holds the player and the tower's metadata, written as JSON for
+ * GameSave.Views.Metadata, so a tower can be listed without reading anything after it.
+ * <p/>
+ * The rest of the file holds the camera, the grid and the lists of strings, followed by one record
+ * per grid object. The records use varints and refer to their type id by its index in a table of
+ * the type ids, which is written before them.
+ */
+public class GameSaveBinaryFormat {
+  private static final int MAGIC = 0x44545356;
+  public static final int VERSION = 1;
+  private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+  /**
+   * @param inputStream must support mark, its position is left where it was
+   */
+  public static boolean isBinary(InputStream inputStream) throws IOException {
+    inputStream.mark(4);
+    try {
+      return new DataInputStream(inputStream).readInt() == MAGIC;
+    } catch (EOFException e) {
+      return false;
+    } finally {
+      inputStream.reset();
+    }
+  }
+
+  public static void write(GameSave gameSave, OutputStream outputStream, HappyDroidObjectMapper objectMapper) throws IOException {
+    byte[] header = objectMapper.writerWithView(GameSave.Views.Metadata.class).writeValueAsBytes(gameSave);
+    Output out = new Output(header.length + 16 * (gameSave.gridObjects != null ? gameSave.gridObjects.size() : 0) + 256);
+    out.writeInt(MAGIC);
+    out.writeInt(VERSION);
+    out.writeInt(header.length);
+    out.write(header);
+
+    out.writeVarInt(gameSave.fileFormat);
+    out.writeBoolean(gameSave.cameraPosition != null);
+    if (gameSave.cameraPosition != null) {
+      out.writeFloat(gameSave.cameraPosition.x);
+      out.writeFloat(gameSave.cameraPosition.y);
+      out.writeFloat(gameSave.cameraPosition.z);
+    }
+    out.writeFloat(gameSave.cameraZoom);
+    out.writeGridPoint(gameSave.gridSize);
+    out.writeStrings(gameSave.completedAchievements);
+    out.writeStrings(gameSave.neighbors);
+
+    List<GridObjectState> gridObjects = gameSave.gridObjects;
+    if (gridObjects == null) {
+      out.writeVarInt(0);
+    } else {
+      List<String> typeIds = Lists.newArrayList();
+      Map<String, Integer> typeIndexes = Maps.newHashMap();
+      for (GridObjectState gridObject : gridObjects) {
+        if (!typeIndexes.containsKey(gridObject.getTypeId())) {
+          typeIndexes.put(gridObject.getTypeId(), typeIds.size());
+          typeIds.add(gridObject.getTypeId());
+        }
+      }
+
+      out.writeVarInt(gridObjects.size() + 1);
+      out.writeStrings(typeIds);
+      for (GridObjectState gridObject : gridObjects) {
+        out.writeVarInt(typeIndexes.get(gridObject.getTypeId()));
+        out.writeGridPoint(gridObject.getPosition());
+        out.writeGridPoint(gridObject.getSize());
+        out.writeString(gridObject.getName());
+        out.writeVarInt(gridObject.getVariationId());
+        out.writeVarInt(zigZag(gridObject.getLoanFromCousinVinnie()));
+        out.writeVarInt(gridObject.getNumberOfElevatorCars());
+      }
+    }
+
+    outputStream.write(out.bytes, 0, out.position);
+    outputStream.flush();
+  }
+
+  /**
+   * Reads the header only, the returned save has its player and metadata and nothing else.
+   */
+  public static GameSave readMetadata(InputStream inputStream, HappyDroidObjectMapper objectMapper) throws IOException {
+    return readHeader(new DataInputStream(inputStream), objectMapper);
+  }
+
+  public static GameSave read(InputStream inputStream, HappyDroidObjectMapper objectMapper) throws IOException {
+    GameSave gameSave = readHeader(new DataInputStream(inputStream), objectMapper);
+    Input in = new Input(readRemaining(inputStream));
+
+    gameSave.fileFormat = in.readVarInt();
+    if (in.readBoolean()) {
+      gameSave.cameraPosition = new Vector3(in.readFloat(), in.readFloat(), in.readFloat());
+    }
+    gameSave.cameraZoom = in.readFloat();
+    gameSave.gridSize = in.readGridPoint();
+    gameSave.completedAchievements = in.readStrings();
+    gameSave.neighbors = in.readStrings();
+
+    int numGridObjects = in.readVarInt() - 1;
+    if (numGridObjects >= 0) {
+      List<String> typeIds = in.readStrings();
+      List<GridObjectState> gridObjects = Lists.newArrayListWithCapacity(numGridObjects);
+      for (int i = 0; i < numGridObjects; i++) {
+        String typeId = typeIds.get(in.readVarInt());
+        GridPoint position = in.readGridPoint();
+        GridPoint size = in.readGridPoint();
+        String name = in.readString();
+        int variationId = in.readVarInt();
+        int loanFromCousinVinnie = unZigZag(in.readVarInt());
+        int numberOfElevatorCars = in.readVarInt();
+        gridObjects.add(new GridObjectState(typeId, position, size, name, variationId, loanFromCousinVinnie, numberOfElevatorCars));
+      }
+      gameSave.gridObjects = gridObjects;
+    }
+
+    return gameSave;
+  }
+
+  private static GameSave readHeader(DataInputStream in, HappyDroidObjectMapper objectMapper) throws IOException {
+    if (in.readInt() != MAGIC) {
+      throw new IOException("Not a binary game save.");
+    }
+
+    int version = in.readInt();
+    if (version > VERSION) {
+      throw new IOException("Game save version " + version + " is newer than this game understands.");
+    }
+
+    byte[] header = new byte[in.readInt()];
+    in.readFully(header);
+    return objectMapper.reader(GameSave.class).withView(GameSave.Views.Metadata.class).readValue(header);
+  }
+
+  private static byte[] readRemaining(InputStream inputStream) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(Math.max(inputStream.available(), 4096));
+    byte[] buffer = new byte[8192];
+    int read;
+    while ((read = inputStream.read(buffer)) != -1) {
+      bytes.write(buffer, 0, read);
+    }
+
+    return bytes.toByteArray();
+  }
+
+  private static int zigZag(int value) {
+    return (value << 1) ^ (value >> 31);
+  }
+
+  private static int unZigZag(int value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  /**
+   * Grows as it is written to, the whole file is handed to the stream in one write.
+   */
+  private static class Output {
+    byte[] bytes;
+    int position;
+
+    Output(int capacity) {
+      bytes = new byte[capacity];
+    }
+
+    private void ensureCapacity(int extra) {
+      if (position + extra > bytes.length) {
+        bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, position + extra));
+      }
+    }
+
+    void write(byte[] values) {
+      ensureCapacity(values.length);
+      System.arraycopy(values, 0, bytes, position, values.length);
+      position += values.length;
+    }
+
+    void writeInt(int value) {
+      ensureCapacity(4);
+      bytes[position++] = (byte) (value >>> 24);
+      bytes[position++] = (byte) (value >>> 16);
+      bytes[position++] = (byte) (value >>> 8);
+      bytes[position++] = (byte) value;
+    }
+
+    void writeFloat(float value) {
+      writeInt(Float.floatToIntBits(value));
+    }
+
+    void writeBoolean(boolean value) {
+      ensureCapacity(1);
+      bytes[position++] = (byte) (value ? 1 : 0);
+    }
+
+    void writeVarInt(int value) {
+      ensureCapacity(5);
+      while ((value & ~0x7f) != 0) {
+        bytes[position++] = (byte) ((value & 0x7f) | 0x80);
+        value >>>= 7;
+      }
+      bytes[position++] = (byte) value;
+    }
+
+    void writeGridPoint(GridPoint gridPoint) {
+      writeBoolean(gridPoint != null);
+      if (gridPoint != null) {
+        writeVarInt(zigZag(gridPoint.x));
+        writeVarInt(zigZag(gridPoint.y));
+      }
+    }
+
+    void writeString(String string) {
+      if (string == null) {
+        writeVarInt(0);
+        return;
+      }
+
+      byte[] stringBytes = string.getBytes(UTF_8);
+      writeVarInt(stringBytes.length + 1);
+      write(stringBytes);
+    }
+
+    void writeStrings(List<String> strings) {
+      if (strings == null) {
+        writeVarInt(0);
+        return;
+      }
+
+      writeVarInt(strings.size() + 1);
+      for (String string : strings) {
+        writeString(string);
+      }
+    }
+  }
+
+  private static class Input {
+    final byte[] bytes;
+    int position;
+
+    Input(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    private byte next() throws IOException {
+      if (position >= bytes.length) {
+        throw new EOFException("Game save ends early.");
+      }
+
+      return bytes[position++];
+    }
+
+    int readInt() throws IOException {
+      return ((next() & 0xff) << 24) | ((next() & 0xff) << 16) | ((next() & 0xff) << 8) | (next() & 0xff);
+    }
+
+    float readFloat() throws IOException {
+      return Float.intBitsToFloat(readInt());
+    }
+
+    boolean readBoolean() throws IOException {
+      return next() != 0;
+    }
+
+    int readVarInt() throws IOException {
+      int value = 0;
+      for (int shift = 0; shift < 32; shift += 7) {
+        int b = next() & 0xff;
+        value |= (b & 0x7f) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+
+      throw new IOException("Malformed varint.");
+    }
+
+    GridPoint readGridPoint() throws IOException {
+      if (!readBoolean()) {
+        return null;
+      }
+
+      int x = unZigZag(readVarInt());
+      return new GridPoint(x, unZigZag(readVarInt()));
+    }
+
+    String readString() throws IOException {
+      int length = readVarInt() - 1;
+      if (length < 0) {
+        return null;
+      }
+      if (position + length > bytes.length) {
+        throw new EOFException("Game save ends early.");
+      }
+
+      String string = new String(bytes, position, length, UTF_8);
+      position += length;
+      return string;
+    }
+
+    ArrayList<String> readStrings() throws IOException {
+      int size = readVarInt() - 1;
+      if (size < 0) {
+        return null;
+      }
+
+      ArrayList<String> strings = Lists.newArrayListWithCapacity(size);
+      for (int i = 0; i < size; i++) {
+        strings.add(readString());
+      }
+
+      return strings;
+    }
+  }
+}
@@ -14,6 +14,9 @@ import com.happydroids.droidtowers.gamestate.server.TowerGameService;
 import com.happydroids.jackson.HappyDroidObjectMapper;
 import sk.seges.acris.json.server.migrate.JacksonTransformer;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -29,9 +32,19 @@ public class GameSaveFactory {
     return readFile(fileHandle.read(), fileHandle.name());
   }
 
+  /**
+   * Reads saves in the binary format as well as the JSON saves written before it, and the JSON the
+   * server keeps.
+   */
   public static GameSave readFile(InputStream inputStream, String fileName) {
     try {
-      return TowerGameService.instance().getObjectMapper().readValue(inputStream, GameSave.class);
+      inputStream = buffered(inputStream);
+      HappyDroidObjectMapper objectMapper = TowerGameService.instance().getObjectMapper();
+      if (GameSaveBinaryFormat.isBinary(inputStream)) {
+        return GameSaveBinaryFormat.read(inputStream, objectMapper);
+      }
+
+      return objectMapper.readValue(inputStream, GameSave.class);
     } catch (Exception e) {
       throw new RuntimeException("There was a problem parsing: " + fileName, e);
     }
@@ -43,15 +56,66 @@ public class GameSaveFactory {
       return;
     }
     gameSave.getMetadata().lastPlayed = new Date();
-    OutputStream stream = gameFile.write(false);
-    TowerGameService.instance().getObjectMapper().writeValue(stream, gameSave);
-    stream.flush();
-    stream.close();
+    write(gameSave, gameFile);
+  }
+
+  /**
+   * Writes the save in the binary format, leaving its metadata as it is.
+   */
+  public static void write(GameSave gameSave, FileHandle gameFile) throws IOException {
+    FileHandle tempFile = tempFileFor(gameFile);
+    OutputStream stream = new BufferedOutputStream(tempFile.write(false));
+    try {
+      GameSaveBinaryFormat.write(gameSave, stream, TowerGameService.instance().getObjectMapper());
+    } finally {
+      stream.close();
+    }
+    replaceFile(tempFile, gameFile);
+  }
+
+  /**
+   * Writes the bytes next to the file first and then renames them over it, so a reader never sees
+   * a half written file.
+   */
+  public static void write(byte[] bytes, FileHandle file) throws IOException {
+    FileHandle tempFile = tempFileFor(file);
+    OutputStream stream = tempFile.write(false);
+    try {
+      stream.write(bytes);
+      stream.flush();
+    } finally {
+      stream.close();
+    }
+    replaceFile(tempFile, file);
+  }
+
+  private static FileHandle tempFileFor(FileHandle file) {
+    return file.sibling(file.name() + ".tmp");
   }
 
+  private static void replaceFile(FileHandle tempFile, FileHandle file) throws IOException {
+    File from = tempFile.file();
+    File to = file.file();
+    if (!from.renameTo(to)) {
+      // some platforms won't rename over an existing file.
+      to.delete();
+      if (!from.renameTo(to)) {
+        throw new IOException("Could not move " + from + " to " + to);
+      }
+    }
+  }
+
+  /**
+   * Only reads the header of a binary save, a JSON save still has to be parsed all the way through.
+   */
   public static GameSave readMetadata(InputStream inputStream) {
     try {
+      inputStream = buffered(inputStream);
       HappyDroidObjectMapper objectMapper = TowerGameService.instance().getObjectMapper();
+      if (GameSaveBinaryFormat.isBinary(inputStream)) {
+        return GameSaveBinaryFormat.readMetadata(inputStream, objectMapper);
+      }
+
       return objectMapper.reader(GameSave.class).withView(GameSave.Views.Metadata.class).readValue(inputStream);
     } catch (Exception e) {
       throw new RuntimeException("There was a problem parsing gamesave metadata.", e);
@@ -68,8 +132,30 @@ public class GameSaveFactory {
     throw new RuntimeException("No storage device available.");
   }
 
+  public static boolean isBinary(FileHandle fileHandle) {
+    InputStream inputStream = buffered(fileHandle.read());
+    try {
+      return GameSaveBinaryFormat.isBinary(inputStream);
+    } catch (IOException e) {
+      return false;
+    } finally {
+      try {
+        inputStream.close();
+      } catch (IOException ignored) {
+      }
+    }
+  }
+
+  /**
+   * Runs the migrations over a JSON save, binary saves were only ever written in the current layout.
+   */
   public static GameSave upgradeGameSave(InputStream inputStream, String fileName) {
     try {
+      inputStream = buffered(inputStream);
+      if (GameSaveBinaryFormat.isBinary(inputStream)) {
+        return GameSaveBinaryFormat.read(inputStream, TowerGameService.instance().getObjectMapper());
+      }
+
       JacksonTransformer transformer = new JacksonTransformer(inputStream, fileName);
       transformer.addTransform(Migration_GameSave_UnhappyrobotToDroidTowers.class);
       transformer.addTransform(Migration_GameSave_RemoveObjectCounts.class);
@@ -80,4 +166,8 @@ public class GameSaveFactory {
       throw new RuntimeException("There was a problem parsing: " + fileName, e);
     }
   }
+
+  private static InputStream buffered(InputStream inputStream) {
+    return inputStream.markSupported() ? inputStream : new BufferedInputStream(inputStream);
+  }
 }
@@ -30,6 +30,15 @@ public class GameSaveMetadata {
     this.difficultyLevel = difficultyLevel;
   }
 
+  public GameSaveMetadata copy() {
+    GameSaveMetadata copy = new GameSaveMetadata(towerName, difficultyLevel);
+    copy.fileGeneration = fileGeneration;
+    copy.lastPlayed = lastPlayed;
+    copy.cloudSaveUri = cloudSaveUri;
+    copy.baseFilename = baseFilename;
+    return copy;
+  }
+
   @SuppressWarnings("RedundantIfStatement")
   @Override
   public boolean equals(Object o) {
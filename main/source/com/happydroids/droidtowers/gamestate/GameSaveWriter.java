@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.gamestate;
+
+import com.badlogic.gdx.Gdx;
+import com.google.common.collect.Maps;
+import com.happydroids.platform.Platform;
+
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes game saves on a thread of its own, one at a time.
+ * <p/>
+ * Jobs are keyed by the file they write. A job queued while an older one for the same file is still
+ * waiting replaces it, so a burst of saves ends up as a single write of the newest snapshot. Jobs
+ * only ever see what was handed to them on the game thread.
+ */
+public class GameSaveWriter {
+  private static final String TAG = GameSaveWriter.class.getSimpleName();
+  private static GameSaveWriter instance;
+
+  private final ExecutorService thread;
+  private final Map<String, Job> pendingJobs;
+  private int jobsWritten;
+  private int jobsCoalesced;
+
+  public static GameSaveWriter instance() {
+    if (instance == null) {
+      instance = new GameSaveWriter();
+    }
+
+    return instance;
+  }
+
+  public GameSaveWriter() {
+    pendingJobs = Maps.newHashMap();
+    thread = Executors.newSingleThreadExecutor(new ThreadFactory() {
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "GameSaveWriterThread");
+        thread.setUncaughtExceptionHandler(Platform.getUncaughtExceptionHandler());
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+  }
+
+  public void submit(Job job) {
+    synchronized (pendingJobs) {
+      Job previous = pendingJobs.put(job.key, job);
+      if (previous != null) {
+        job.coalesce(previous);
+        jobsCoalesced++;
+        return;
+      }
+    }
+
+    final String key = job.key;
+    thread.submit(new Runnable() {
+      public void run() {
+        Job latest;
+        synchronized (pendingJobs) {
+          latest = pendingJobs.remove(key);
+        }
+
+        if (latest != null) {
+          try {
+            latest.write();
+          } catch (Exception e) {
+            Gdx.app.log(TAG, "Could not write: " + key, e);
+          }
+
+          synchronized (pendingJobs) {
+            jobsWritten++;
+          }
+        }
+      }
+    });
+  }
+
+  /**
+   * Blocks until every job submitted so far has been written.
+   */
+  public void flush() {
+    try {
+      thread.submit(new Runnable() {
+        public void run() {
+        }
+      }).get();
+    } catch (InterruptedException ignored) {
+    } catch (ExecutionException ignored) {
+    }
+  }
+
+  public int getJobsWritten() {
+    synchronized (pendingJobs) {
+      return jobsWritten;
+    }
+  }
+
+  public int getJobsCoalesced() {
+    synchronized (pendingJobs) {
+      return jobsCoalesced;
+    }
+  }
+
+  public void shutdown() {
+    thread.shutdown();
+    try {
+      thread.awaitTermination(5, TimeUnit.SECONDS);
+    } catch (InterruptedException ignored) {
+    }
+  }
+
+  public static void dispose() {
+    if (instance != null) {
+      instance.shutdown();
+      instance = null;
+    }
+  }
+
+  public abstract static class Job {
+    private final String key;
+
+    protected Job(String key) {
+      this.key = key;
+    }
+
+    protected abstract void write() throws Exception;
+
+    /**
+     * Called on the newer of two jobs for the same file when it replaces the older one, before the
+     * older one was written.
+     */
+    protected void coalesce(Job replaced) {
+    }
+  }
+}
@@ -8,7 +8,7 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.happydroids.droidtowers.gamestate.server.CloudGameSave;
-import com.happydroids.droidtowers.graphics.TowerMiniMap;
+import com.happydroids.droidtowers.graphics.MiniMapRaster;
 import com.happydroids.droidtowers.grid.GameGrid;
 import com.happydroids.droidtowers.gui.Dialog;
 import com.happydroids.droidtowers.gui.OnClickCallback;
@@ -18,13 +18,13 @@ import com.happydroids.droidtowers.scenes.components.SceneManager;
 import com.happydroids.droidtowers.utils.PNG;
 import com.happydroids.server.ApiRunnable;
 import com.happydroids.server.HappyDroidServiceObject;
-import com.happydroids.utils.BackgroundTask;
 import org.apach3.http.HttpResponse;
 
-import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 public class GameState {
   private static final String TAG = GameState.class.getSimpleName();
+  public static final int MINI_MAP_PIXELS_PER_CELL = 2;
 
   private final OrthographicCamera camera;
   private final CameraController cameraController;
@@ -36,6 +36,8 @@ public class GameState {
   private FileHandle pngFile;
   private int fileGeneration;
   private CloudGameSave cloudGameSave;
+  private final MiniMapRaster miniMapRaster;
+  private int savedMiniMapVersion;
 
   public GameState(OrthographicCamera camera, CameraController cameraController, FileHandle gameSaveLocation, GameSave currentGameSave, final GameGrid gameGrid) {
     this.camera = camera;
@@ -46,6 +48,8 @@ public class GameState {
     gameFile = gameSaveLocation.child(currentGameSave.getBaseFilename());
     pngFile = gameSaveLocation.child(currentGameSave.getBaseFilename() + ".png");
     cloudGameSave = new CloudGameSave(currentGameSave, pngFile);
+    miniMapRaster = new MiniMapRaster(gameGrid, MINI_MAP_PIXELS_PER_CELL);
+    savedMiniMapVersion = -1;
   }
 
   public void loadSavedGame() {
@@ -90,36 +94,14 @@ public class GameState {
       if (!gameGrid.isEmpty()) {
         currentGameSave.update(camera, gameGrid, cloudGameSave.getNeighbors());
 
-        new BackgroundTask() {
-          @Override
-          protected void execute() throws Exception {
-            try {
-              if (!gameSaveLocation.exists()) {
-                gameSaveLocation.mkdirs();
-              }
-              OutputStream stream = pngFile.write(false);
-              stream.write(PNG.toPNG(TowerMiniMap.redrawMiniMap(gameGrid, true, 2f)));
-              stream.flush();
-              stream.close();
-
-              if (shouldForceCloudSave || currentGameSave.getCloudSaveUri() == null || currentGameSave.getFileGeneration() % 4 == 0) {
-                cloudGameSave.updateImage(pngFile);
-                cloudGameSave.save(new ApiRunnable() {
-                  @Override
-                  public void onSuccess(HttpResponse response, HappyDroidServiceObject object) {
-                    if (cloudGameSave.isSaved()) {
-                      currentGameSave.setCloudSaveUri(cloudGameSave.getResourceUri());
-                    }
-                  }
-                });
-              }
-
-              GameSaveFactory.save(currentGameSave, gameFile);
-            } catch (Exception e) {
-              Gdx.app.log("GameSave", "Could not save game!", e);
-            }
-          }
-        }.run();
+        boolean shouldCloudSave = shouldForceCloudSave || currentGameSave.getCloudSaveUri() == null || currentGameSave.getFileGeneration() % 4 == 0;
+        SaveJob saveJob = new SaveJob(currentGameSave.snapshot(), shouldCloudSave);
+        miniMapRaster.update();
+        if (miniMapRaster.getVersion() != savedMiniMapVersion || !pngFile.exists()) {
+          saveJob.setMiniMap(miniMapRaster.copyPixels(), miniMapRaster.getWidth(), miniMapRaster.getHeight());
+          savedMiniMapVersion = miniMapRaster.getVersion();
+        }
+        GameSaveWriter.instance().submit(saveJob);
       }
     }
   }
@@ -127,4 +109,67 @@ public class GameState {
   public CloudGameSave getCloudGameSave() {
     return cloudGameSave;
   }
+
+  public void dispose() {
+    miniMapRaster.dispose();
+  }
+
+  /**
+   * Everything needed to write one save, taken on the game thread.
+   */
+  private class SaveJob extends GameSaveWriter.Job {
+    private final GameSave snapshot;
+    private boolean shouldCloudSave;
+    private ByteBuffer miniMap;
+    private int miniMapWidth;
+    private int miniMapHeight;
+
+    public SaveJob(GameSave snapshot, boolean shouldCloudSave) {
+      super(gameFile.path());
+      this.snapshot = snapshot;
+      this.shouldCloudSave = shouldCloudSave;
+    }
+
+    /**
+     * Without a minimap the png written by an earlier save is left as it is.
+     */
+    public void setMiniMap(ByteBuffer miniMap, int width, int height) {
+      this.miniMap = miniMap;
+      miniMapWidth = width;
+      miniMapHeight = height;
+    }
+
+    @Override
+    protected void write() throws Exception {
+      if (!gameSaveLocation.exists()) {
+        gameSaveLocation.mkdirs();
+      }
+      if (miniMap != null) {
+        GameSaveFactory.write(PNG.toPNG(miniMap, miniMapWidth, miniMapHeight, 3, PNG.DEFAULT_COMPRESSION_LEVEL), pngFile);
+      }
+
+      if (shouldCloudSave) {
+        cloudGameSave.updateImage(pngFile);
+        cloudGameSave.save(new ApiRunnable() {
+          @Override
+          public void onSuccess(HttpResponse response, HappyDroidServiceObject object) {
+            if (cloudGameSave.isSaved()) {
+              currentGameSave.setCloudSaveUri(cloudGameSave.getResourceUri());
+            }
+          }
+        });
+      }
+
+      GameSaveFactory.save(snapshot, gameFile);
+    }
+
+    @Override
+    protected void coalesce(GameSaveWriter.Job replaced) {
+      SaveJob replacedJob = (SaveJob) replaced;
+      shouldCloudSave |= replacedJob.shouldCloudSave;
+      if (miniMap == null) {
+        setMiniMap(replacedJob.miniMap, replacedJob.miniMapWidth, replacedJob.miniMapHeight);
+      }
+    }
+  }
 }
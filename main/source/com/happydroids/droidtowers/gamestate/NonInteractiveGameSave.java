@@ -6,7 +6,6 @@ package com.happydroids.droidtowers.gamestate;
 
 import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.happydroids.droidtowers.grid.GameGrid;
-import com.happydroids.droidtowers.grid.GridObjectState;
 import com.happydroids.droidtowers.input.CameraController;
 
 import java.util.List;
@@ -26,11 +25,7 @@ public class NonInteractiveGameSave extends GameSave {
     gameGrid.setGridSize(gridSize.x, gridSize.y);
     gameGrid.updateWorldSize(true);
 
-    if (gridObjects != null) {
-      for (GridObjectState gridObjectState : gridObjects) {
-        gridObjectState.materialize(gameGrid);
-      }
-    }
+    materializeGridObjects(gameGrid);
   }
 
   @Override
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.gamestate;
+
+import com.badlogic.gdx.utils.Array;
+import com.happydroids.droidtowers.TowerConsts;
+import com.happydroids.droidtowers.actions.ActionManager;
+import com.happydroids.droidtowers.entities.GameLayer;
+import com.happydroids.droidtowers.profiling.FrameProfiler;
+import com.happydroids.droidtowers.profiling.ProfileSection;
+import com.happydroids.droidtowers.tween.TweenSystem;
+
+/**
+ * Advances the simulation in fixed ticks of game time, independently of how often frames are
+ * drawn.
+ * <p/>
+ * Every tick updates the ActionManager and the TweenSystem by the tick length. The game layers are
+ * the expensive part, so they are only updated every ticksPerLayerUpdate ticks, by that many ticks
+ * at once. update() turns real frame time into ticks, scaled by the time multiplier, and catches up
+ * with at most maxTicksPerUpdate ticks; how far the simulation got into the current layer update is
+ * handed to the layers as an interpolation alpha for drawing. advance() runs any number of ticks
+ * without a cap, which is what fast-forwarding a tower without a renderer needs. Nothing here
+ * touches GL.
+ */
+public class SimulationKernel {
+  private final Array<GameLayer> layers;
+  private final Array<ProfileSection> layerSections;
+  private final float tickLength;
+  private final int ticksPerLayerUpdate;
+  private final double tickThreshold;
+  private int maxTicksPerUpdate;
+  private boolean updateActions;
+  private boolean updateTweens;
+  private float timeMultiplier;
+  private double accumulator;
+  private float tweenMillisRemainder;
+  private long ticks;
+  private int ticksSinceLayerUpdate;
+  private float droppedTime;
+
+  public SimulationKernel() {
+    this(TowerConsts.SIMULATION_TICK_LENGTH, TowerConsts.SIMULATION_TICKS_PER_LAYER_UPDATE, TowerConsts.SIMULATION_MAX_TICKS_PER_UPDATE);
+  }
+
+  public SimulationKernel(float tickLength, int maxTicksPerUpdate) {
+    this(tickLength, 1, maxTicksPerUpdate);
+  }
+
+  public SimulationKernel(float tickLength, int ticksPerLayerUpdate, int maxTicksPerUpdate) {
+    this.tickLength = tickLength;
+    this.ticksPerLayerUpdate = Math.max(1, ticksPerLayerUpdate);
+    // tick lengths like 1/60 aren't exact as floats, don't lose a tick to rounding.
+    tickThreshold = tickLength * 0.9999;
+    this.maxTicksPerUpdate = maxTicksPerUpdate;
+    layers = new Array<GameLayer>();
+    layerSections = new Array<ProfileSection>();
+    updateActions = true;
+    updateTweens = true;
+    timeMultiplier = 1f;
+  }
+
+  public void addLayer(GameLayer layer) {
+    layers.add(layer);
+    layerSections.add(FrameProfiler.instance().section("update:" + layer.getClass().getSimpleName()));
+  }
+
+  public void removeLayer(GameLayer layer) {
+    int index = layers.indexOf(layer, true);
+    if (index != -1) {
+      layers.removeIndex(index);
+      layerSections.removeIndex(index);
+    }
+  }
+
+  /**
+   * Runs as many ticks as the real time passed covers.
+   *
+   * @return the number of ticks run
+   */
+  public int update(float deltaTime) {
+    accumulator += deltaTime * timeMultiplier;
+    int ticksRun = runTicks(maxTicksPerUpdate, false);
+
+    if (accumulator >= tickThreshold) {
+      // too far behind to catch up, let the simulation run slower instead of freezing the game.
+      droppedTime += accumulator - tickLength;
+      accumulator = tickLength;
+    }
+
+    updateInterpolationAlpha();
+    return ticksRun;
+  }
+
+  /**
+   * Runs the ticks covering the given amount of game time, however many that is. Without frames
+   * being drawn, each tick gets the ActionManager's whole frame budget.
+   *
+   * @return the number of ticks run
+   */
+  public int advance(float gameTime) {
+    accumulator += gameTime;
+    int ticksRun = runTicks(Integer.MAX_VALUE, true);
+
+    updateInterpolationAlpha();
+    return ticksRun;
+  }
+
+  private int runTicks(int maxTicks, boolean tickIsFrame) {
+    int ticksRun = 0;
+    while (accumulator >= tickThreshold && ticksRun < maxTicks) {
+      tick(tickIsFrame);
+      accumulator -= tickLength;
+      ticksRun++;
+    }
+
+    return ticksRun;
+  }
+
+  private void updateInterpolationAlpha() {
+    // the layers are drawn a tick behind, like with one tick per layer update
+    float alpha = (float) Math.max(0, ((ticksSinceLayerUpdate - 1) * tickLength + accumulator) / (tickLength * ticksPerLayerUpdate));
+    for (int i = 0; i < layers.size; i++) {
+      layers.get(i).setInterpolationAlpha(alpha);
+    }
+  }
+
+  private void tick(boolean tickIsFrame) {
+    if (ticksSinceLayerUpdate == 0 || ticksSinceLayerUpdate == ticksPerLayerUpdate) {
+      updateLayers();
+      ticksSinceLayerUpdate = 0;
+    }
+    ticksSinceLayerUpdate++;
+
+    if (updateActions) {
+      if (tickIsFrame) {
+        ActionManager.instance().beginFrame();
+      }
+      ActionManager.instance().update(tickLength);
+    }
+
+    if (updateTweens) {
+      float tweenMillis = tickLength * 1000 + tweenMillisRemainder;
+      int wholeMillis = (int) tweenMillis;
+      tweenMillisRemainder = tweenMillis - wholeMillis;
+      TweenSystem.manager().update(wholeMillis);
+    }
+
+    ticks++;
+  }
+
+  private void updateLayers() {
+    for (int i = 0; i < layers.size; i++) {
+      layers.get(i).beforeSimulationTick();
+    }
+
+    float layerTickLength = tickLength * ticksPerLayerUpdate;
+    for (int i = 0; i < layers.size; i++) {
+      ProfileSection section = layerSections.get(i);
+      section.start();
+      layers.get(i).update(layerTickLength);
+      section.stop();
+    }
+  }
+
+  public void setTimeMultiplier(float timeMultiplier) {
+    this.timeMultiplier = timeMultiplier;
+  }
+
+  public float getTimeMultiplier() {
+    return timeMultiplier;
+  }
+
+  public void setMaxTicksPerUpdate(int maxTicksPerUpdate) {
+    this.maxTicksPerUpdate = maxTicksPerUpdate;
+  }
+
+  public void setUpdateActions(boolean updateActions) {
+    this.updateActions = updateActions;
+  }
+
+  public void setUpdateTweens(boolean updateTweens) {
+    this.updateTweens = updateTweens;
+  }
+
+  public float getTickLength() {
+    return tickLength;
+  }
+
+  public int getTicksPerLayerUpdate() {
+    return ticksPerLayerUpdate;
+  }
+
+  public long getTicks() {
+    return ticks;
+  }
+
+  public float getSimulatedTime() {
+    return ticks * tickLength;
+  }
+
+  /**
+   * @return game time that was skipped because update() couldn't catch up
+   */
+  public float getDroppedTime() {
+    return droppedTime;
+  }
+}
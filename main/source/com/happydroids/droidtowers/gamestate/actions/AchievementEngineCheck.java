@@ -31,7 +31,7 @@ public class AchievementEngineCheck extends GameGridAction {
   public void GameEvent_handleGridObjectEvent(GridObjectEvent event) {
     if (event instanceof ElevatorHeightChangeEvent) {
       TutorialEngine.instance().moveToStepWhenReady("tutorial-build-pizza-place");
-    } else if (event.getGridObject().isPlaced()) {
+    } else if (event.getGridObject() == null || event.getGridObject().isPlaced()) {
       Gdx.app.debug(TAG, "GameEvent_handleGridObjectEvent triggered by: " + event);
       scheduleToRunIn(0.25f);
     }
@@ -5,15 +5,16 @@
 package com.happydroids.droidtowers.gamestate.actions;
 
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.utils.Array;
 import com.happydroids.HappyDroidConsts;
 import com.happydroids.droidtowers.entities.GridObject;
 import com.happydroids.droidtowers.entities.Player;
 import com.happydroids.droidtowers.grid.GameGrid;
 import com.happydroids.platform.Platform;
 
-public class BudgetCalculator extends GameGridAction {
+public class BudgetCalculator extends GridCalculator {
   public static final String TAG = BudgetCalculator.class.getSimpleName();
+  private int coinsEarnedFromRent;
+  private int coinsSpentOnUpkeep;
 
   public BudgetCalculator(GameGrid gameGrid, float frequency) {
     super(gameGrid, frequency);
@@ -21,28 +22,31 @@ public class BudgetCalculator extends GameGridAction {
   }
 
   @Override
-  public void run() {
-    int coinsEarnedFromRent = 0;
-    int coinsSpentOnUpkeep = 0;
-    Array<GridObject> objects = gameGrid.getObjects();
-    for (int i = 0, objectsSize = objects.size; i < objectsSize; i++) {
-      GridObject object = objects.get(i);
+  protected void calculate(GridSnapshot snapshot) {
+    coinsEarnedFromRent = 0;
+    coinsSpentOnUpkeep = 0;
+    for (GridObject object : snapshot.getObjects()) {
       coinsEarnedFromRent += object.getCoinsEarned();
       coinsSpentOnUpkeep += object.getUpkeepCost();
     }
+  }
 
+  @Override
+  protected void commit() {
+    int income = coinsEarnedFromRent;
+    int expenses = coinsSpentOnUpkeep;
     if (!Platform.getPurchaseManager().hasPurchasedUnlimitedVersion()) {
-      coinsEarnedFromRent *= 0.5f;
-      coinsSpentOnUpkeep *= 0.5f;
+      income *= 0.5f;
+      expenses *= 0.5f;
     }
 
     if (HappyDroidConsts.DEBUG) {
       Gdx.app
-              .debug(TAG, String.format("Income report: %d earned, %d spent on upkeep", coinsEarnedFromRent, coinsSpentOnUpkeep));
+              .debug(TAG, String.format("Income report: %d earned, %d spent on upkeep", income, expenses));
     }
 
-    Player.instance().addCurrency(coinsEarnedFromRent - coinsSpentOnUpkeep);
-    Player.instance().setCurrentIncome(coinsEarnedFromRent);
-    Player.instance().setCurrentExpenses(coinsSpentOnUpkeep);
+    Player.instance().addCurrency(income - expenses);
+    Player.instance().setCurrentIncome(income);
+    Player.instance().setCurrentExpenses(expenses);
   }
 }
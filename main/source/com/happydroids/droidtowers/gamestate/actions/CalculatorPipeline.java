@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.gamestate.actions;
+
+import com.badlogic.gdx.utils.Array;
+import com.happydroids.droidtowers.grid.GameGrid;
+
+/**
+ * Runs a set of GridCalculators against one GridSnapshot per run.
+ * <p/>
+ * Each calculator is added with the calculators whose results it reads, which must already have
+ * been added. Calculators calculate and commit one after another in the order they were added, so
+ * the results are the same as running each calculator on its own in that order.
+ * <p/>
+ * Every calculator runs whenever the pipeline does. The frequency a calculator was made with only
+ * applies when it runs as an action by itself.
+ */
+public class CalculatorPipeline extends GameGridAction {
+  private final Array<GridCalculator> calculators;
+
+  public CalculatorPipeline(GameGrid gameGrid, float frequency) {
+    super(gameGrid, frequency);
+    calculators = new Array<GridCalculator>();
+  }
+
+  public void add(GridCalculator calculator, GridCalculator... dependencies) {
+    for (GridCalculator dependency : dependencies) {
+      if (!calculators.contains(dependency, true)) {
+        throw new IllegalArgumentException(dependency.getClass().getSimpleName() + " must be added before " + calculator.getClass().getSimpleName());
+      }
+    }
+
+    calculators.add(calculator);
+  }
+
+  @Override
+  public void run() {
+    GridSnapshot snapshot = new GridSnapshot(gameGrid);
+    for (int i = 0; i < calculators.size; i++) {
+      GridCalculator calculator = calculators.get(i);
+      calculator.calculate(snapshot);
+      calculator.commit();
+    }
+  }
+}
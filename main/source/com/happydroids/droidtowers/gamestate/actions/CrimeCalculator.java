@@ -103,5 +103,7 @@ public class CrimeCalculator extends GameGridAction {
     super.unpause();
 
     gameGrid.events().register(this);
+    // events were missed while paused
+    reset();
   }
 }
@@ -4,44 +4,58 @@
 
 package com.happydroids.droidtowers.gamestate.actions;
 
-import com.badlogic.gdx.utils.Array;
 import com.happydroids.droidtowers.entities.GridObject;
 import com.happydroids.droidtowers.grid.GameGrid;
+import com.happydroids.droidtowers.grid.GridFields;
 import com.happydroids.droidtowers.math.GridPoint;
 
-public class DesirabilityCalculator extends GameGridAction {
-  private float[][] noiseLevels;
-  private int gridSizeX;
-  private int gridSizeY;
+/**
+ * Keeps the GameGrid's GridFields up to date, nothing else may update them, and hands the levels
+ * around each object whose cells changed to the object.
+ */
+public class DesirabilityCalculator extends GridCalculator {
+  private GridObject[] objects;
 
   public DesirabilityCalculator(GameGrid gameGrid, float roomUpdateFrequency) {
     super(gameGrid, roomUpdateFrequency);
   }
 
   @Override
-  public void run() {
-    gameGrid.positionCache().updateNoiseLevels();
-
-    Array<GridObject> rooms = gameGrid.getObjects();
-    if (rooms != null) {
-      for (int i = 0, roomsSize = rooms.size; i < roomsSize; i++) {
-        GridObject gridObject = rooms.get(i);
-        float maxNoiseLevel = 0f;
-        float maxCrimeLevel = 0f;
-
-        GridPoint position = gridObject.getPosition();
-        GridPoint size = gridObject.getSize();
-
-        for (int x = position.x; x < position.x + size.x; x++) {
-          for (int y = position.y; y < position.y + size.y; y++) {
-            maxNoiseLevel = Math.max(maxNoiseLevel, gameGrid.positionCache().getPosition(x, y).getNoiseLevel());
-            maxCrimeLevel = Math.max(maxCrimeLevel, gameGrid.positionCache().getPosition(x, y).getCrimeLevel());
-          }
-        }
+  protected void calculate(GridSnapshot snapshot) {
+    objects = snapshot.getObjects();
+  }
 
-        gridObject.setSurroundingNoiseLevel(maxNoiseLevel);
-        gridObject.setSurroundingCrimeLevel(maxCrimeLevel);
+  /**
+   * The GridFields belong to the live grid, so they are only brought up to date here.
+   */
+  @Override
+  protected void commit() {
+    GridObject[] rooms = objects;
+    objects = null;
+
+    GridFields fields = gameGrid.positionCache().fields();
+    if (rooms == null || fields == null || !fields.update()) {
+      return;
+    }
+
+    for (GridObject gridObject : rooms) {
+      GridPoint position = gridObject.getPosition();
+      GridPoint size = gridObject.getSize();
+      if (!fields.wasUpdated(position, size)) {
+        continue;
       }
+
+      float maxNoiseLevel = 0f;
+      float maxCrimeLevel = 0f;
+      for (int x = Math.max(0, position.x); x < Math.min(fields.getColumns(), position.x + size.x); x++) {
+        for (int y = Math.max(0, position.y); y < Math.min(fields.getRows(), position.y + size.y); y++) {
+          maxNoiseLevel = Math.max(maxNoiseLevel, fields.getNoiseLevel(x, y));
+          maxCrimeLevel = Math.max(maxCrimeLevel, fields.getCrimeLevel(x, y));
+        }
+      }
+
+      gridObject.setSurroundingNoiseLevel(maxNoiseLevel);
+      gridObject.setSurroundingCrimeLevel(maxCrimeLevel);
     }
   }
 }
@@ -4,34 +4,49 @@
 
 package com.happydroids.droidtowers.gamestate.actions;
 
-import com.badlogic.gdx.utils.Array;
 import com.happydroids.droidtowers.entities.CommercialSpace;
-import com.happydroids.droidtowers.entities.GridObject;
 import com.happydroids.droidtowers.entities.Player;
 import com.happydroids.droidtowers.grid.GameGrid;
 import com.happydroids.droidtowers.types.CommercialType;
 
-public class EmploymentCalculator extends GameGridAction {
+public class EmploymentCalculator extends GridCalculator {
+  private CommercialSpace[] commercialSpaces;
+  private int[] spaceJobsFilled;
+  private int jobsFilled;
+  private int maxJobs;
+
   public EmploymentCalculator(GameGrid gameGrid, float frequency) {
     super(gameGrid, frequency);
+    spaceJobsFilled = new int[0];
+  }
+
+  @Override
+  protected void calculate(GridSnapshot snapshot) {
+    jobsFilled = 0;
+    maxJobs = 0;
+
+    commercialSpaces = snapshot.getCommercialSpaces();
+    if (spaceJobsFilled.length < commercialSpaces.length) {
+      spaceJobsFilled = new int[commercialSpaces.length];
+    }
+
+    // the population is the one the last PopulationCalculator run committed.
+    int totalPopulation = Player.instance().getTotalPopulation();
+    for (int i = 0; i < commercialSpaces.length; i++) {
+      CommercialSpace commercialSpace = commercialSpaces[i];
+      spaceJobsFilled[i] = commercialSpace.calculateJobsFilled(totalPopulation);
+
+      maxJobs += ((CommercialType) commercialSpace.getGridObjectType()).getJobsProvided();
+      jobsFilled += spaceJobsFilled[i];
+    }
   }
 
   @Override
-  public void run() {
-    int jobsFilled = 0;
-    int maxJobs = 0;
-
-    Array<GridObject> objects = gameGrid.getObjects();
-    for (int i = 0, objectsSize = objects.size; i < objectsSize; i++) {
-      GridObject gridObject = objects.get(i);
-      if (gridObject instanceof CommercialSpace) {
-        CommercialSpace commercialSpace = (CommercialSpace) gridObject;
-        commercialSpace.updateJobs();
-
-        maxJobs += ((CommercialType) commercialSpace.getGridObjectType()).getJobsProvided();
-        jobsFilled += commercialSpace.getJobsFilled();
-      }
+  protected void commit() {
+    for (int i = 0; i < commercialSpaces.length; i++) {
+      commercialSpaces[i].setJobsFilled(spaceJobsFilled[i]);
     }
+    commercialSpaces = null;
 
     Player.instance().setJobsMax(maxJobs);
     Player.instance().setJobsFilled(jobsFilled);
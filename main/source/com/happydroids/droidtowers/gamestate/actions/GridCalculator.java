@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.gamestate.actions;
+
+import com.happydroids.droidtowers.grid.GameGrid;
+
+/**
+ * A GameGridAction split in two so a CalculatorPipeline can run it against a GridSnapshot it shares
+ * with others: calculate() reads, commit() changes the grid. Run on its own it does both straight away.
+ */
+public abstract class GridCalculator extends GameGridAction {
+  public GridCalculator(GameGrid gameGrid, float frequency) {
+    super(gameGrid, frequency);
+  }
+
+  @Override
+  public void run() {
+    calculate(new GridSnapshot(gameGrid));
+    commit();
+  }
+
+  /**
+   * Works out the results from the snapshot and keeps them in this calculator, nothing on the grid
+   * is changed until commit().
+   */
+  protected abstract void calculate(GridSnapshot snapshot);
+
+  /**
+   * Hands the results of the last calculate() to the grid objects and the Player.
+   */
+  protected abstract void commit();
+}
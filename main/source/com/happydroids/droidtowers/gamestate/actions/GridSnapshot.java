@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.gamestate.actions;
+
+import com.badlogic.gdx.utils.Array;
+import com.happydroids.droidtowers.entities.CommercialSpace;
+import com.happydroids.droidtowers.entities.GridObject;
+import com.happydroids.droidtowers.entities.Room;
+import com.happydroids.droidtowers.grid.GameGrid;
+
+/**
+ * The objects on a GameGrid at one moment, sorted out once for every GridCalculator that runs
+ * against them.
+ * <p/>
+ * Only the lists are frozen, the objects themselves are live and show whatever earlier calculators
+ * have committed to them.
+ */
+public class GridSnapshot {
+  private final GridObject[] objects;
+  private final Room[] rooms;
+  private final CommercialSpace[] commercialSpaces;
+
+  public GridSnapshot(GameGrid gameGrid) {
+    Array<GridObject> gridObjects = gameGrid.getObjects();
+    objects = new GridObject[gridObjects.size];
+
+    int numRooms = 0;
+    int numCommercialSpaces = 0;
+    for (int i = 0; i < gridObjects.size; i++) {
+      GridObject gridObject = gridObjects.get(i);
+      objects[i] = gridObject;
+      // the same objects GameGrid.getInstancesOf(Room.class) finds, subclasses aren't included.
+      if (gridObject.getClass() == Room.class) {
+        numRooms++;
+      } else if (gridObject instanceof CommercialSpace) {
+        numCommercialSpaces++;
+      }
+    }
+
+    rooms = new Room[numRooms];
+    commercialSpaces = new CommercialSpace[numCommercialSpaces];
+    numRooms = 0;
+    numCommercialSpaces = 0;
+    for (GridObject gridObject : objects) {
+      if (gridObject.getClass() == Room.class) {
+        rooms[numRooms++] = (Room) gridObject;
+      } else if (gridObject instanceof CommercialSpace) {
+        commercialSpaces[numCommercialSpaces++] = (CommercialSpace) gridObject;
+      }
+    }
+  }
+
+  public GridObject[] getObjects() {
+    return objects;
+  }
+
+  public Room[] getRooms() {
+    return rooms;
+  }
+
+  public CommercialSpace[] getCommercialSpaces() {
+    return commercialSpaces;
+  }
+}
@@ -4,17 +4,17 @@
 
 package com.happydroids.droidtowers.gamestate.actions;
 
-import com.badlogic.gdx.utils.Array;
 import com.happydroids.droidtowers.controllers.AvatarLayer;
-import com.happydroids.droidtowers.entities.GridObject;
 import com.happydroids.droidtowers.entities.Player;
 import com.happydroids.droidtowers.entities.Room;
 import com.happydroids.droidtowers.grid.GameGrid;
 import com.happydroids.droidtowers.types.RoomType;
 
-public class PopulationCalculator extends GameGridAction {
+public class PopulationCalculator extends GridCalculator {
 
   private final AvatarLayer avatarLayer;
+  private int supportedResidency;
+  private int maxPopulation;
 
   public PopulationCalculator(GameGrid gameGrid, AvatarLayer avatarLayer, float frequency) {
     super(gameGrid, frequency);
@@ -22,18 +22,18 @@ public class PopulationCalculator extends GameGridAction {
   }
 
   @Override
-  public void run() {
-    Array<GridObject> rooms = gameGrid.getInstancesOf(Room.class);
-    int supportedResidency = 0;
-    int maxPopulation = 0;
-
-    if (rooms != null) {
-      for (GridObject gridObject : rooms) {
-        maxPopulation += ((RoomType) gridObject.getGridObjectType()).getPopulationMax();
-        supportedResidency += ((Room) gridObject).getNumSupportedResidents();
-      }
+  protected void calculate(GridSnapshot snapshot) {
+    supportedResidency = 0;
+    maxPopulation = 0;
+
+    for (Room room : snapshot.getRooms()) {
+      maxPopulation += ((RoomType) room.getGridObjectType()).getPopulationMax();
+      supportedResidency += room.getNumSupportedResidents();
     }
+  }
 
+  @Override
+  protected void commit() {
     Player.instance().setPopulationMax(maxPopulation);
     Player.instance().setSupportedResidency(supportedResidency);
     Player.instance().setPopulationResidency(avatarLayer.getNumAvatars());
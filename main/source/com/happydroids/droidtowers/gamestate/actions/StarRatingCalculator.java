@@ -5,7 +5,6 @@
 package com.happydroids.droidtowers.gamestate.actions;
 
 import com.badlogic.gdx.math.MathUtils;
-import com.badlogic.gdx.utils.Array;
 import com.happydroids.droidtowers.achievements.Achievement;
 import com.happydroids.droidtowers.achievements.AchievementEngine;
 import com.happydroids.droidtowers.entities.GridObject;
@@ -13,7 +12,7 @@ import com.happydroids.droidtowers.entities.Player;
 import com.happydroids.droidtowers.grid.GameGrid;
 import com.happydroids.droidtowers.math.StatLog;
 
-public class StarRatingCalculator extends GameGridAction {
+public class StarRatingCalculator extends GridCalculator {
 
   private final StatLog roomDesirability;
   private Achievement dubai7StarWonder;
@@ -28,14 +27,16 @@ public class StarRatingCalculator extends GameGridAction {
   }
 
   @Override
-  public void run() {
-    roomDesirability.reset(gameGrid.getObjects().size);
-    Array<GridObject> objects = gameGrid.getObjects();
-    for (int i = 0, objectsSize = objects.size; i < objectsSize; i++) {
-      GridObject gridObject = objects.get(i);
+  protected void calculate(GridSnapshot snapshot) {
+    GridObject[] objects = snapshot.getObjects();
+    roomDesirability.reset(objects.length);
+    for (GridObject gridObject : objects) {
       roomDesirability.record(gridObject.getDesirability());
     }
+  }
 
+  @Override
+  protected void commit() {
     Player player = Player.instance();
     float roomDesirabilityAverage;
     float populationFilled = 0;
@@ -4,29 +4,369 @@
 
 package com.happydroids.droidtowers.gamestate.actions;
 
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.Array;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 import com.google.common.eventbus.Subscribe;
+import com.happydroids.droidtowers.TowerConsts;
 import com.happydroids.droidtowers.entities.*;
+import com.happydroids.droidtowers.events.ElevatorHeightChangeEvent;
+import com.happydroids.droidtowers.events.GridObjectBoundsChangeEvent;
 import com.happydroids.droidtowers.events.GridObjectEvent;
+import com.happydroids.droidtowers.events.TransitChangeEvent;
 import com.happydroids.droidtowers.grid.GameGrid;
 import com.happydroids.droidtowers.grid.GridPosition;
 import com.happydroids.droidtowers.math.GridPoint;
 import com.happydroids.droidtowers.types.ProviderType;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
+/**
+ * Works out which grid positions and rooms are connected to transit.
+ * <p/>
+ * A floor's connectivity only depends on what is on that floor, so grid object events mark the
+ * floors the object covered before and after the change as dirty and run() only recalculates those
+ * floors, and the objects on them. With consistency checks enabled every incremental update is
+ * compared against a recalculation of the whole grid.
+ */
 public class TransportCalculator extends GameGridAction {
   private static final String TAG = TransportCalculator.class.getSimpleName();
 
   private final Class transportClasses[] = {Elevator.class, Stair.class, ParkingGarageRamp.class, ParkingGarageSpace.class};
 
+  private GridPosition[][] layoutPositions;
+  private int columns;
+  private int floors;
+  private boolean[] dirtyFloors;
+  private boolean[] transitAnchors;
+  private float[] floorMaxDistance;
+  private float normalizedMaxDistance;
+  private int minDirtyFloor;
+  private int maxDirtyFloor;
+  private final Set<GridObject> dirtyObjects;
+  private boolean consistencyCheck;
+  private int consistencyErrors;
+  private int floorsRecalculated;
+
   public TransportCalculator(GameGrid gameGrid, float frequency) {
     super(gameGrid, frequency, false);
 
+    dirtyObjects = Sets.newSetFromMap(Maps.<GridObject, Boolean>newIdentityHashMap());
+    consistencyCheck = TowerConsts.TRANSPORT_CALCULATOR_CONSISTENCY_CHECK;
+    minDirtyFloor = Integer.MAX_VALUE;
+    maxDirtyFloor = -1;
+
     gameGrid.events().register(this);
   }
 
   @Override
   public void run() {
+    updateLayout();
+    if (maxDirtyFloor < minDirtyFloor && dirtyObjects.isEmpty()) {
+      return;
+    }
+
+    int minFloor = Math.max(0, minDirtyFloor);
+    int maxFloor = Math.min(floors - 1, maxDirtyFloor);
+
+    findTransitAnchors(minFloor, maxFloor);
+
+    for (int y = minFloor; y <= maxFloor; y++) {
+      if (dirtyFloors[y]) {
+        recalculateFloor(y);
+        collectObjectsOnFloor(y);
+        floorsRecalculated++;
+      }
+    }
+
+    for (GridObject gridObject : dirtyObjects) {
+      gridObject.setConnectedToTransport(isConnectedToTransport(gridObject));
+    }
+
+    normalizeTransitDistances(minFloor, maxFloor);
+
+    Arrays.fill(dirtyFloors, false);
+    dirtyObjects.clear();
+    minDirtyFloor = Integer.MAX_VALUE;
+    maxDirtyFloor = -1;
+
+    if (consistencyCheck) {
+      checkConsistency();
+    }
+
+    gameGrid.events().post(new TransitChangeEvent(gameGrid, minFloor, maxFloor));
+  }
+
+  @Subscribe
+  public void update(GridObjectEvent event) {
+    if (isPaused()) {
+      return;
+    }
+
+    GridObject gridObject = event.getGridObject();
+    if (gridObject == null) {
+      markAllFloorsDirty();
+    } else {
+      dirtyObjects.add(gridObject);
+      markFloorsDirty(gridObject.getPosition(), gridObject.getSize());
+
+      List<GridPoint> gridPointsTouched = gridObject.getGridPointsTouched();
+      if (gridPointsTouched != null) {
+        for (int i = 0, gridPointsTouchedSize = gridPointsTouched.size(); i < gridPointsTouchedSize; i++) {
+          markFloorDirty(gridPointsTouched.get(i).y);
+        }
+      }
+
+      if (event instanceof GridObjectBoundsChangeEvent) {
+        GridObjectBoundsChangeEvent boundsChangeEvent = (GridObjectBoundsChangeEvent) event;
+        GridPoint prevSize = boundsChangeEvent.getPrevSize();
+        // transports may touch a floor above their bounds, see Stair
+        markFloorsDirty(boundsChangeEvent.getPrevPosition(), new GridPoint(prevSize.x, prevSize.y + 2));
+      } else if (event instanceof ElevatorHeightChangeEvent) {
+        // only sent once a resize is finished and the previous height isn't known
+        markAllFloorsDirty();
+      }
+    }
+
+    reset();
+  }
+
+  private void markFloorsDirty(GridPoint position, GridPoint size) {
+    for (int y = position.y; y < position.y + Math.max(1, size.y); y++) {
+      markFloorDirty(y);
+    }
+  }
+
+  private void markFloorDirty(int y) {
+    if (dirtyFloors != null && y >= 0 && y < floors) {
+      dirtyFloors[y] = true;
+      minDirtyFloor = Math.min(minDirtyFloor, y);
+      maxDirtyFloor = Math.max(maxDirtyFloor, y);
+    }
+  }
+
+  private void markAllFloorsDirty() {
+    if (dirtyFloors != null) {
+      Arrays.fill(dirtyFloors, true);
+      minDirtyFloor = 0;
+      maxDirtyFloor = floors - 1;
+    }
+
+    Array<GridObject> gridObjects = gameGrid.getObjects();
+    for (int i = 0; i < gridObjects.size; i++) {
+      dirtyObjects.add(gridObjects.get(i));
+    }
+  }
+
+  private void updateLayout() {
+    GridPosition[][] positions = gameGrid.positionCache().getPositions();
+    if (positions == layoutPositions) {
+      return;
+    }
+
+    layoutPositions = positions;
+    columns = positions.length;
+    floors = columns > 0 ? positions[0].length : 0;
+    dirtyFloors = new boolean[floors];
+    transitAnchors = new boolean[columns * floors];
+    floorMaxDistance = new float[floors];
+    normalizedMaxDistance = -1f;
+
+    markAllFloorsDirty();
+  }
+
+  private void findTransitAnchors(int minFloor, int maxFloor) {
+    Arrays.fill(transitAnchors, minFloor * columns, (maxFloor + 1) * columns, false);
+
+    Array<GridObject> transports = gameGrid.getInstancesOf(transportClasses);
+    for (int i = 0; i < transports.size; i++) {
+      GridObject transport = transports.get(i);
+      if (!transport.isPlaced()) {
+        continue;
+      }
+
+      List<GridPoint> gridPointsTouched = transport.getGridPointsTouched();
+      for (int i1 = 0, gridPointsTouchedSize = gridPointsTouched.size(); i1 < gridPointsTouchedSize; i1++) {
+        GridPoint gridPoint = gridPointsTouched.get(i1);
+        int x = gridPoint.x;
+        int y = gridPoint.y;
+
+        if (y >= minFloor && y <= maxFloor && x >= 0 && x < columns && dirtyFloors[y]) {
+          if (!(transport instanceof Elevator) || ((Elevator) transport).servicesFloor(y)) {
+            transitAnchors[y * columns + x] = true;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Every occupied position in the same run of occupied positions as a transit anchor is
+   * connected, distanceFromTransit is the distance to the closest anchor in that run.
+   */
+  private void recalculateFloor(int y) {
+    GridPosition[][] positions = layoutPositions;
+    int rowStart = y * columns;
+
+    int lastAnchor = -1;
+    for (int x = 0; x < columns; x++) {
+      GridPosition gridPosition = positions[x][y];
+      boolean isAnchor = transitAnchors[rowStart + x];
+      gridPosition.connectedToTransit = isAnchor;
+      gridPosition.distanceFromTransit = 0f;
+
+      if (gridPosition.isEmpty()) {
+        lastAnchor = -1;
+        continue;
+      }
+
+      if (isAnchor) {
+        lastAnchor = x;
+      }
+
+      if (lastAnchor != -1) {
+        gridPosition.connectedToTransit = true;
+        gridPosition.distanceFromTransit = x - lastAnchor;
+      }
+    }
+
+    float maxDistance = 0f;
+    int nextAnchor = -1;
+    for (int x = columns - 1; x >= 0; x--) {
+      GridPosition gridPosition = positions[x][y];
+      if (gridPosition.isEmpty()) {
+        nextAnchor = -1;
+        continue;
+      }
+
+      if (transitAnchors[rowStart + x]) {
+        nextAnchor = x;
+      }
+
+      if (nextAnchor != -1) {
+        float distance = nextAnchor - x;
+        if (!gridPosition.connectedToTransit || distance < gridPosition.distanceFromTransit) {
+          gridPosition.distanceFromTransit = distance;
+        }
+        gridPosition.connectedToTransit = true;
+      }
+
+      maxDistance = Math.max(maxDistance, gridPosition.distanceFromTransit);
+    }
+
+    floorMaxDistance[y] = maxDistance;
+  }
+
+  private void collectObjectsOnFloor(int y) {
+    for (int x = 0; x < columns; x++) {
+      Array<GridObject> objects = layoutPositions[x][y].getObjects();
+      for (int i = 0; i < objects.size; i++) {
+        dirtyObjects.add(objects.get(i));
+      }
+    }
+  }
+
+  private boolean isConnectedToTransport(GridObject gridObject) {
+    if (gridObject.provides(ProviderType.LOBBY)) {
+      return true;
+    } else if (!(gridObject instanceof Room)) {
+      return false;
+    }
+
+    GridPoint position = gridObject.getPosition();
+    GridPoint size = gridObject.getSize();
+    for (int x = Math.max(0, position.x); x < Math.min(columns, position.x + size.x); x++) {
+      for (int y = Math.max(0, position.y); y < Math.min(floors, position.y + size.y); y++) {
+        GridPosition gridPosition = layoutPositions[x][y];
+        if (gridPosition.connectedToTransit && gridPosition.contains(gridObject)) {
+          return true;
+        }
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Same result as GridPositionCache.normalizeTransitDistances, only the recalculated floors are
+   * renormalized unless the furthest distance in the tower changed.
+   */
+  private void normalizeTransitDistances(int minFloor, int maxFloor) {
+    float maxDistance = 0f;
+    for (int y = 0; y < floors; y++) {
+      maxDistance = Math.max(maxDistance, floorMaxDistance[y]);
+    }
+
+    boolean renormalizeAll = maxDistance != normalizedMaxDistance;
+    normalizedMaxDistance = maxDistance;
+
+    for (int y = renormalizeAll ? 0 : minFloor; y <= (renormalizeAll ? floors - 1 : maxFloor); y++) {
+      if (!renormalizeAll && !dirtyFloors[y]) {
+        continue;
+      }
+
+      for (int x = 0; x < columns; x++) {
+        GridPosition position = layoutPositions[x][y];
+        if (position.distanceFromTransit > 5) {
+          position.normalizedDistanceFromTransit = position.distanceFromTransit / maxDistance;
+        } else {
+          position.normalizedDistanceFromTransit = 0f;
+        }
+      }
+    }
+  }
+
+  /**
+   * Recalculates the whole grid from scratch, the way every update used to, and logs any position
+   * or object the incremental update got wrong. The full results are kept.
+   */
+  private void checkConsistency() {
+    boolean[] connected = new boolean[columns * floors];
+    float[] distance = new float[columns * floors];
+    float[] normalizedDistance = new float[columns * floors];
+    for (int x = 0; x < columns; x++) {
+      for (int y = 0; y < floors; y++) {
+        GridPosition position = layoutPositions[x][y];
+        connected[y * columns + x] = position.connectedToTransit;
+        distance[y * columns + x] = position.distanceFromTransit;
+        normalizedDistance[y * columns + x] = position.normalizedDistanceFromTransit;
+      }
+    }
+
+    Array<GridObject> gridObjects = gameGrid.getObjects();
+    boolean[] objectConnected = new boolean[gridObjects.size];
+    for (int i = 0; i < gridObjects.size; i++) {
+      objectConnected[i] = gridObjects.get(i).isConnectedToTransport();
+    }
+
+    recalculateAll();
+
+    int errors = 0;
+    for (int x = 0; x < columns; x++) {
+      for (int y = 0; y < floors; y++) {
+        GridPosition position = layoutPositions[x][y];
+        if (connected[y * columns + x] != position.connectedToTransit || distance[y * columns + x] != position.distanceFromTransit || normalizedDistance[y * columns + x] != position.normalizedDistanceFromTransit) {
+          errors++;
+        }
+      }
+    }
+
+    for (int i = 0; i < gridObjects.size; i++) {
+      if (objectConnected[i] != gridObjects.get(i).isConnectedToTransport()) {
+        errors++;
+      }
+    }
+
+    if (errors > 0) {
+      consistencyErrors += errors;
+      Gdx.app.error(TAG, "Incremental transit update disagreed with full recalculation at " + errors + " places.");
+    }
+  }
+
+  void recalculateAll() {
     GridPosition[][] positions = gameGrid.positionCache().getPositions();
     for (int i = 0, positionsLength = positions.length; i < positionsLength; i++) {
       GridPosition[] gridPositions = positions[i];
@@ -53,9 +393,8 @@ public class TransportCalculator extends GameGridAction {
 
         GridPosition gridPosition = gameGrid.positionCache().getPosition(x, y);
         if (gridPosition != null) {
-          gridPosition.connectedToTransit = !(transport instanceof Elevator) || ((Elevator) transport).servicesFloor(gridPosition.y);
-
-          if (gridPosition.connectedToTransit) {
+          if (!(transport instanceof Elevator) || ((Elevator) transport).servicesFloor(gridPosition.y)) {
+            gridPosition.connectedToTransit = true;
             scanForRooms(x, y, -1, gridPosition.x);
             scanForRooms(x, y, 1, gridPosition.x);
           }
@@ -66,20 +405,14 @@ public class TransportCalculator extends GameGridAction {
     gameGrid.positionCache().normalizeTransitDistances();
   }
 
-  @Subscribe
-  public void update(GridObjectEvent event) {
-    if (isPaused()) {
-      return;
-    }
-
-    reset();
-  }
-
   private void scanForRooms(int x, int y, int stepX, int transitX) {
     GridPosition gridPosition = gameGrid.positionCache().getPosition(x, y);
     while (gridPosition != null && gridPosition.size() > 0) {
+      float distance = Math.abs(x - transitX);
+      if (!gridPosition.connectedToTransit || distance < gridPosition.distanceFromTransit) {
+        gridPosition.distanceFromTransit = distance;
+      }
       gridPosition.connectedToTransit = true;
-      gridPosition.distanceFromTransit = Math.abs(x - transitX);
       for (GridObject gridObject : gridPosition.getObjects()) {
         if (gridObject instanceof Room) {
           Room room = (Room) gridObject;
@@ -92,6 +425,18 @@ public class TransportCalculator extends GameGridAction {
     }
   }
 
+  public void setConsistencyCheck(boolean consistencyCheck) {
+    this.consistencyCheck = consistencyCheck;
+  }
+
+  public int getConsistencyErrors() {
+    return consistencyErrors;
+  }
+
+  public int getFloorsRecalculated() {
+    return floorsRecalculated;
+  }
+
   @Override
   public void pause() {
     super.pause();
@@ -104,5 +449,7 @@ public class TransportCalculator extends GameGridAction {
     super.unpause();
 
     gameGrid.events().register(this);
+    // events were missed while paused
+    markAllFloorsDirty();
   }
 }
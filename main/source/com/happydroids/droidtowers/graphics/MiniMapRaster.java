@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.graphics;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.math.MathUtils;
+import com.google.common.eventbus.Subscribe;
+import com.happydroids.droidtowers.TowerConsts;
+import com.happydroids.droidtowers.entities.GridObject;
+import com.happydroids.droidtowers.events.GameGridResizeEvent;
+import com.happydroids.droidtowers.events.GridObjectBoundsChangeEvent;
+import com.happydroids.droidtowers.events.GridObjectEvent;
+import com.happydroids.droidtowers.events.TransitChangeEvent;
+import com.happydroids.droidtowers.events.WeatherState;
+import com.happydroids.droidtowers.grid.GameGrid;
+import com.happydroids.droidtowers.grid.GridPosition;
+import com.happydroids.droidtowers.math.GridPoint;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * The minimap saved next to every tower, kept in an RGB888 Pixmap that only has the cells grid
+ * events touched repainted, instead of being drawn from scratch for each save.
+ * <p/>
+ * Draws the same picture as TowerMiniMap.redrawMiniMap with a custom scale of pixelsPerCell. All
+ * of its methods must be called from the game thread.
+ */
+public class MiniMapRaster {
+  private static final int RGB = 3;
+
+  private final GameGrid gameGrid;
+  private final int pixelsPerCell;
+  private final byte[] skyColor;
+  private final byte[] landColor;
+  private final byte[] connectedColor;
+  private final byte[] notConnectedColor;
+  private final byte[] elevatorColor;
+
+  private Pixmap pixmap;
+  private ByteBuffer pixels;
+  private GridPoint gridSize;
+  private int columns;
+  private int rows;
+  private int landY;
+  private int[] dirtyMinX;
+  private int[] dirtyMaxX;
+  private boolean isDirty;
+  private boolean needsFullRedraw;
+  private int version;
+  private int cellsRepainted;
+
+  public MiniMapRaster(GameGrid gameGrid, int pixelsPerCell) {
+    this.gameGrid = gameGrid;
+    this.pixelsPerCell = pixelsPerCell;
+    skyColor = toRGB(WeatherState.SUNNY.skyColor);
+    landColor = toRGB(Color.ORANGE);
+    connectedColor = toRGB(Color.GRAY);
+    notConnectedColor = toRGB(Color.RED);
+    elevatorColor = toRGB(Color.DARK_GRAY);
+    needsFullRedraw = true;
+
+    gameGrid.events().register(this);
+  }
+
+  /**
+   * Repaints whatever changed since the last update.
+   *
+   * @return the raster, which stays owned by this MiniMapRaster
+   */
+  public Pixmap update() {
+    cellsRepainted = 0;
+    if (pixmap == null || needsFullRedraw || !gridSize.equals(gameGrid.getGridSize())) {
+      redraw();
+    } else if (isDirty) {
+      for (int y = 0; y < rows; y++) {
+        for (int x = dirtyMinX[y]; x <= dirtyMaxX[y]; x++) {
+          paintCell(x, y);
+        }
+      }
+      clearDirty();
+      version++;
+    }
+
+    return pixmap;
+  }
+
+  /**
+   * @return a copy of the raster's pixels, safe to hand to another thread
+   */
+  public ByteBuffer copyPixels() {
+    update();
+
+    ByteBuffer copy = ByteBuffer.allocate(pixels.capacity());
+    ByteBuffer source = pixels.duplicate();
+    source.clear();
+    copy.put(source);
+    copy.flip();
+    return copy;
+  }
+
+  /**
+   * @return a number that changes every time the raster does
+   */
+  public int getVersion() {
+    return version;
+  }
+
+  public int getCellsRepainted() {
+    return cellsRepainted;
+  }
+
+  public int getWidth() {
+    return pixmap.getWidth();
+  }
+
+  public int getHeight() {
+    return pixmap.getHeight();
+  }
+
+  public void dispose() {
+    gameGrid.events().unregister(this);
+    if (pixmap != null) {
+      pixmap.dispose();
+      pixmap = null;
+    }
+  }
+
+  @Subscribe
+  public void GameGrid_onGridObjectEvent(GridObjectEvent event) {
+    GridObject gridObject = event.getGridObject();
+    if (gridObject == null) {
+      needsFullRedraw = true;
+      return;
+    }
+
+    markDirty(gridObject.getPosition(), gridObject.getSize());
+    if (event instanceof GridObjectBoundsChangeEvent) {
+      GridObjectBoundsChangeEvent boundsChangeEvent = (GridObjectBoundsChangeEvent) event;
+      markDirty(boundsChangeEvent.getPrevPosition(), boundsChangeEvent.getPrevSize());
+    }
+  }
+
+  @Subscribe
+  public void GameGrid_onTransitChange(TransitChangeEvent event) {
+    markDirty(0, event.minFloor, columns - 1, event.maxFloor);
+  }
+
+  @Subscribe
+  public void GameGrid_onGameGridResize(GameGridResizeEvent event) {
+    needsFullRedraw = true;
+  }
+
+  private void markDirty(GridPoint position, GridPoint size) {
+    markDirty(position.x, position.y, position.x + size.x - 1, position.y + size.y - 1);
+  }
+
+  private void markDirty(int minX, int minY, int maxX, int maxY) {
+    if (needsFullRedraw || dirtyMinX == null) {
+      return;
+    }
+
+    minX = Math.max(0, minX);
+    maxX = Math.min(columns - 1, maxX);
+    for (int y = Math.max(0, minY), lastY = Math.min(rows - 1, maxY); y <= lastY; y++) {
+      dirtyMinX[y] = Math.min(dirtyMinX[y], minX);
+      dirtyMaxX[y] = Math.max(dirtyMaxX[y], maxX);
+      isDirty = true;
+    }
+  }
+
+  private void clearDirty() {
+    Arrays.fill(dirtyMinX, Integer.MAX_VALUE);
+    Arrays.fill(dirtyMaxX, -1);
+    isDirty = false;
+  }
+
+  private void redraw() {
+    gridSize = gameGrid.getGridSize().cpy();
+    int width = MathUtils.nextPowerOfTwo(gridSize.x * pixelsPerCell);
+    int height = MathUtils.nextPowerOfTwo(gridSize.y * pixelsPerCell);
+    if (pixmap == null || pixmap.getWidth() != width || pixmap.getHeight() != height) {
+      if (pixmap != null) {
+        pixmap.dispose();
+      }
+      pixmap = new Pixmap(width, height, Pixmap.Format.RGB888);
+      pixels = pixmap.getPixels();
+    }
+
+    landY = height - (TowerConsts.LOBBY_FLOOR - 1) * pixelsPerCell;
+    for (int y = 0; y < height; y++) {
+      byte[] color = backgroundColor(y);
+      for (int x = 0; x < width; x++) {
+        putPixel(x, y, color);
+      }
+    }
+
+    GridPosition[][] positions = gameGrid.positionCache().getPositions();
+    columns = positions.length;
+    rows = columns > 0 ? positions[0].length : 0;
+    if (dirtyMinX == null || dirtyMinX.length != rows) {
+      dirtyMinX = new int[rows];
+      dirtyMaxX = new int[rows];
+    }
+
+    for (int x = 0; x < columns; x++) {
+      for (int y = 0; y < rows; y++) {
+        if (positions[x][y].size() > 0) {
+          paintCell(x, y);
+        }
+      }
+    }
+
+    clearDirty();
+    needsFullRedraw = false;
+    version++;
+  }
+
+  private void paintCell(int x, int y) {
+    GridPosition position = gameGrid.positionCache().getPosition(x, y);
+    byte[] color = null;
+    if (position != null && position.size() > 0) {
+      if (!position.connectedToTransit) {
+        color = notConnectedColor;
+      } else if (position.elevator != null) {
+        color = elevatorColor;
+      } else {
+        color = connectedColor;
+      }
+    }
+
+    // cells are drawn from the bottom of the pixmap up, with their top edge on the cell's line.
+    int width = pixmap.getWidth();
+    int height = pixmap.getHeight();
+    int left = x * pixelsPerCell;
+    int top = height - y * pixelsPerCell;
+    for (int pixelY = Math.max(0, top); pixelY < Math.min(height, top + pixelsPerCell); pixelY++) {
+      byte[] pixelColor = color != null ? color : backgroundColor(pixelY);
+      for (int pixelX = left; pixelX < Math.min(width, left + pixelsPerCell); pixelX++) {
+        putPixel(pixelX, pixelY, pixelColor);
+      }
+    }
+    cellsRepainted++;
+  }
+
+  private byte[] backgroundColor(int pixelY) {
+    return pixelY >= landY ? landColor : skyColor;
+  }
+
+  private void putPixel(int x, int y, byte[] color) {
+    int index = (y * pixmap.getWidth() + x) * RGB;
+    pixels.put(index, color[0]);
+    pixels.put(index + 1, color[1]);
+    pixels.put(index + 2, color[2]);
+  }
+
+  private static byte[] toRGB(Color color) {
+    // the same rounding Pixmap.setColor uses.
+    return new byte[]{(byte) (int) (color.r * 255), (byte) (int) (color.g * 255), (byte) (int) (color.b * 255)};
+  }
+}
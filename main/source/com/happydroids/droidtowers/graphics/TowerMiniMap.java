@@ -36,8 +36,15 @@ public class TowerMiniMap extends Table {
   }
 
   public static Pixmap redrawMiniMap(GameGrid gameGrid, boolean useCustomScale, float customScale) {
+    return redrawMiniMap(new Snapshot(gameGrid), useCustomScale, customScale);
+  }
+
+  /**
+   * Draws the minimap from a Snapshot, so it can run on another thread while the grid changes.
+   */
+  public static Pixmap redrawMiniMap(Snapshot snapshot, boolean useCustomScale, float customScale) {
     Gdx.app.debug(TAG, "Redrawing minimap!");
-    GridPoint gridSize = gameGrid.getGridSize();
+    GridPoint gridSize = snapshot.gridSize;
 
     float maxSize = customScale;
     if (!useCustomScale) {
@@ -58,29 +65,69 @@ public class TowerMiniMap extends Table {
     pixmap.setColor(Color.ORANGE);
     pixmap.fillRectangle(0, (int) landY, (int) pixmapWidth, (int) landHeight);
 
-    GridPosition[][] positions = gameGrid.positionCache().getPositions();
-    for (GridPosition[] row : positions) {
-      for (GridPosition position : row) {
-        if (position.size() == 0) {
+    for (int x = 0; x < snapshot.columns; x++) {
+      for (int y = 0; y < snapshot.rows; y++) {
+        byte cell = snapshot.cells[x * snapshot.rows + y];
+        if (cell == Snapshot.EMPTY) {
           continue;
         }
 
-        pixmap.setColor(Color.GRAY);
-
-        if (!position.connectedToTransit) {
+        if (cell == Snapshot.NOT_CONNECTED) {
           pixmap.setColor(Color.RED);
-        } else if (position.elevator != null) {
+        } else if (cell == Snapshot.ELEVATOR) {
           pixmap.setColor(Color.DARK_GRAY);
+        } else {
+          pixmap.setColor(Color.GRAY);
         }
 
         if (useCustomScale && customScale != 1f) {
-          pixmap.fillRectangle(round(position.x * maxSize), round(pixmapHeight - (position.y * maxSize)), (int) customScale, (int) customScale);
+          pixmap.fillRectangle(round(x * maxSize), round(pixmapHeight - (y * maxSize)), (int) customScale, (int) customScale);
         } else {
-          pixmap.drawPixel(round(position.x * maxSize), round(pixmapHeight - (position.y * maxSize)));
+          pixmap.drawPixel(round(x * maxSize), round(pixmapHeight - (y * maxSize)));
         }
       }
     }
 
     return pixmap;
   }
+
+  /**
+   * What the minimap shows for every grid position, copied out of the GridPositionCache.
+   */
+  public static class Snapshot {
+    static final byte EMPTY = 0;
+    static final byte CONNECTED = 1;
+    static final byte NOT_CONNECTED = 2;
+    static final byte ELEVATOR = 3;
+
+    private final GridPoint gridSize;
+    private final int columns;
+    private final int rows;
+    private final byte[] cells;
+
+    public Snapshot(GameGrid gameGrid) {
+      gridSize = gameGrid.getGridSize().cpy();
+
+      GridPosition[][] positions = gameGrid.positionCache().getPositions();
+      columns = positions.length;
+      rows = columns > 0 ? positions[0].length : 0;
+      cells = new byte[columns * rows];
+      for (int x = 0; x < columns; x++) {
+        for (int y = 0; y < rows; y++) {
+          GridPosition position = positions[x][y];
+          if (position.size() == 0) {
+            continue;
+          }
+
+          if (!position.connectedToTransit) {
+            cells[x * rows + y] = NOT_CONNECTED;
+          } else if (position.elevator != null) {
+            cells[x * rows + y] = ELEVATOR;
+          } else {
+            cells[x * rows + y] = CONNECTED;
+          }
+        }
+      }
+    }
+  }
 }
@@ -0,0 +1,460 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.grid;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.google.common.collect.Maps;
+import com.google.common.eventbus.Subscribe;
+import com.happydroids.droidtowers.entities.Elevator;
+import com.happydroids.droidtowers.entities.GridObject;
+import com.happydroids.droidtowers.entities.Stair;
+import com.happydroids.droidtowers.events.GameGridResizeEvent;
+import com.happydroids.droidtowers.events.GridObjectBoundsChangeEvent;
+import com.happydroids.droidtowers.events.GridObjectPlacedEvent;
+import com.happydroids.droidtowers.events.GridObjectRemovedEvent;
+import com.happydroids.droidtowers.events.GridObjectsLoadedEvent;
+import com.happydroids.droidtowers.math.GridPoint;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+/**
+ * Alternative to GridPositionCache that keeps every cell in flat primitive arrays indexed
+ * x * rows + y instead of one GridPosition per cell.
+ * <p/>
+ * The objects in a cell are a linked list of entries in shared int pools, elevators and stairs are
+ * short ids into a registry of transit objects, and the per-cell transit, security, noise and crime
+ * values are float planes. It follows the same grid events as GridPositionCache; positionAt() builds
+ * a GridPosition for callers that still need one, changes made to it are not written back.
+ */
+public class FlatGridPositionCache {
+  private static final int NONE = -1;
+  private static final byte CONNECTED_TO_TRANSIT = 1;
+  private static final byte CONNECTED_TO_SECURITY = 1 << 1;
+
+  private final GameGrid gameGrid;
+  private int columns;
+  private int rows;
+
+  private int[] cellFirstEntry;
+  private short[] cellObjectCount;
+  private short[] cellElevator;
+  private short[] cellStair;
+  private byte[] cellFlags;
+  private float[] distanceFromTransit;
+  private float[] normalizedDistanceFromTransit;
+  private float[] distanceFromSecurity;
+  private float[] normalizedDistanceFromSecurity;
+  private float[] noiseLevel;
+  private float[] crimeLevel;
+
+  private int[] entryObject;
+  private int[] entryNext;
+  private int numEntries;
+  private int freeEntry;
+
+  private final Array<GridObject> objectsById;
+  private final IdentityHashMap<GridObject, Integer> objectIds;
+  private final IntArray freeObjectIds;
+  private final Array<GridObject> transitById;
+  private final IdentityHashMap<GridObject, Short> transitIds;
+
+  public FlatGridPositionCache(GameGrid gameGrid) {
+    this.gameGrid = gameGrid;
+
+    entryObject = new int[64];
+    entryNext = new int[64];
+    freeEntry = NONE;
+
+    objectsById = new Array<GridObject>();
+    objectIds = Maps.newIdentityHashMap();
+    freeObjectIds = new IntArray();
+    transitById = new Array<GridObject>();
+    transitById.add(null);
+    transitIds = Maps.newIdentityHashMap();
+
+    resize(gameGrid.getGridSize().x + 1, gameGrid.getGridSize().y + 1);
+    gameGrid.events().register(this);
+  }
+
+  @Subscribe
+  public void handleGameGridResizeEvent(GameGridResizeEvent event) {
+    GridPoint gridSize = gameGrid.getGridSize();
+    if (gridSize.x + 1 == columns && gridSize.y + 1 == rows) {
+      return;
+    }
+
+    if (!event.copyGridPositions) {
+      // every object is added again after the resize, their old ids would only pin them in memory
+      cellFirstEntry = null;
+      numEntries = 0;
+      freeEntry = NONE;
+      objectsById.clear();
+      objectIds.clear();
+      freeObjectIds.clear();
+      transitById.clear();
+      transitById.add(null);
+      transitIds.clear();
+    }
+    resize(gridSize.x + 1, gridSize.y + 1);
+  }
+
+  @Subscribe
+  public void GameGrid_onGridObjectPlaced(GridObjectPlacedEvent event) {
+    GridObject gridObject = event.getGridObject();
+    if (!gridObject.isPlaced()) {
+      return;
+    }
+
+    addGridObject(gridObject, gridObject.getPosition(), gridObject.getSize());
+  }
+
+  @Subscribe
+  public void GameGrid_onGridObjectsLoaded(GridObjectsLoadedEvent event) {
+    Array<GridObject> gridObjects = event.getGridObjects();
+    for (int i = 0; i < gridObjects.size; i++) {
+      GridObject gridObject = gridObjects.get(i);
+      if (gridObject.isPlaced()) {
+        addGridObject(gridObject, gridObject.getPosition(), gridObject.getSize());
+      }
+    }
+  }
+
+  @Subscribe
+  public void GameGrid_onGridObjectBoundsChange(GridObjectBoundsChangeEvent event) {
+    GridObject gridObject = event.getGridObject();
+    if (!gridObject.isPlaced()) {
+      return;
+    }
+
+    removeGridObject(gridObject, event.getPrevPosition(), event.getPrevSize());
+    addGridObject(gridObject, gridObject.getPosition(), gridObject.getSize());
+  }
+
+  @Subscribe
+  public void GameGrid_onGridObjectRemoved(GridObjectRemovedEvent event) {
+    GridObject gridObject = event.getGridObject();
+    removeGridObject(gridObject, gridObject.getPosition(), gridObject.getSize());
+
+    Integer id = objectIds.remove(gridObject);
+    if (id != null) {
+      objectsById.set(id, null);
+      freeObjectIds.add(id);
+    }
+  }
+
+  public boolean contains(int x, int y) {
+    return x >= 0 && x < columns && y >= 0 && y < rows;
+  }
+
+  public int getColumns() {
+    return columns;
+  }
+
+  public int getRows() {
+    return rows;
+  }
+
+  public int getObjectCount(int x, int y) {
+    return cellObjectCount[x * rows + y];
+  }
+
+  public boolean isEmpty(int x, int y) {
+    return cellObjectCount[x * rows + y] == 0;
+  }
+
+  public Array<GridObject> getObjectsAt(int x, int y, Array<GridObject> objects) {
+    for (int entry = cellFirstEntry[x * rows + y]; entry != NONE; entry = entryNext[entry]) {
+      objects.add(objectsById.get(entryObject[entry]));
+    }
+
+    return objects;
+  }
+
+  public Elevator getElevator(int x, int y) {
+    return (Elevator) transitById.get(cellElevator[x * rows + y]);
+  }
+
+  public Stair getStair(int x, int y) {
+    return (Stair) transitById.get(cellStair[x * rows + y]);
+  }
+
+  public boolean isConnectedToTransit(int x, int y) {
+    return (cellFlags[x * rows + y] & CONNECTED_TO_TRANSIT) != 0;
+  }
+
+  public void setConnectedToTransit(int x, int y, boolean connected) {
+    setFlag(x * rows + y, CONNECTED_TO_TRANSIT, connected);
+  }
+
+  public boolean isConnectedToSecurity(int x, int y) {
+    return (cellFlags[x * rows + y] & CONNECTED_TO_SECURITY) != 0;
+  }
+
+  public void setConnectedToSecurity(int x, int y, boolean connected) {
+    setFlag(x * rows + y, CONNECTED_TO_SECURITY, connected);
+  }
+
+  public float[] distanceFromTransit() {
+    return distanceFromTransit;
+  }
+
+  public float[] normalizedDistanceFromTransit() {
+    return normalizedDistanceFromTransit;
+  }
+
+  public float[] distanceFromSecurity() {
+    return distanceFromSecurity;
+  }
+
+  public float[] normalizedDistanceFromSecurity() {
+    return normalizedDistanceFromSecurity;
+  }
+
+  public float[] noiseLevel() {
+    return noiseLevel;
+  }
+
+  public float[] crimeLevel() {
+    return crimeLevel;
+  }
+
+  public int cellIndex(int x, int y) {
+    return x * rows + y;
+  }
+
+  /**
+   * @return a GridPosition holding a copy of the cell, or null if the cell is outside the grid
+   */
+  public GridPosition positionAt(int x, int y) {
+    if (!contains(x, y)) {
+      return null;
+    }
+
+    int cell = x * rows + y;
+    GridPosition position = new GridPosition(x, y);
+    for (int entry = cellFirstEntry[cell]; entry != NONE; entry = entryNext[entry]) {
+      position.getObjects().add(objectsById.get(entryObject[entry]));
+    }
+    position.elevator = getElevator(x, y);
+    position.stair = getStair(x, y);
+    position.connectedToTransit = (cellFlags[cell] & CONNECTED_TO_TRANSIT) != 0;
+    position.distanceFromTransit = distanceFromTransit[cell];
+    position.normalizedDistanceFromTransit = normalizedDistanceFromTransit[cell];
+    position.connectedToSecurity = (cellFlags[cell] & CONNECTED_TO_SECURITY) != 0;
+    position.distanceFromSecurity = distanceFromSecurity[cell];
+    position.normalizedDistanceFromSecurity = normalizedDistanceFromSecurity[cell];
+    position.setLevels(noiseLevel[cell], crimeLevel[cell]);
+
+    return position;
+  }
+
+  private void addGridObject(GridObject gridObject, GridPoint position, GridPoint size) {
+    int id = idFor(gridObject);
+    for (int x = Math.max(0, position.x); x < Math.min(columns, position.x + size.x); x++) {
+      for (int y = Math.max(0, position.y); y < Math.min(rows, position.y + size.y); y++) {
+        int cell = x * rows + y;
+        if (findEntry(cell, id) != NONE) {
+          continue;
+        }
+
+        int entry = newEntry(id);
+        entryNext[entry] = cellFirstEntry[cell];
+        cellFirstEntry[cell] = entry;
+        cellObjectCount[cell]++;
+
+        if (gridObject instanceof Elevator) {
+          // mirrors GridPosition.add, the bottom of the shaft isn't an elevator stop
+          if (position.x == x && (position.y == y || position.y + size.y == y)) {
+            continue;
+          }
+          cellElevator[cell] = transitIdFor(gridObject);
+        } else if (gridObject instanceof Stair) {
+          cellStair[cell] = transitIdFor(gridObject);
+        }
+      }
+    }
+  }
+
+  private void removeGridObject(GridObject gridObject, GridPoint position, GridPoint size) {
+    Integer id = objectIds.get(gridObject);
+    if (id == null) {
+      return;
+    }
+
+    for (int x = Math.max(0, position.x); x < Math.min(columns, position.x + size.x); x++) {
+      for (int y = Math.max(0, position.y); y < Math.min(rows, position.y + size.y); y++) {
+        int cell = x * rows + y;
+        int previous = NONE;
+        for (int entry = cellFirstEntry[cell]; entry != NONE; previous = entry, entry = entryNext[entry]) {
+          if (entryObject[entry] == id) {
+            if (previous == NONE) {
+              cellFirstEntry[cell] = entryNext[entry];
+            } else {
+              entryNext[previous] = entryNext[entry];
+            }
+            freeEntry(entry);
+            cellObjectCount[cell]--;
+
+            if (gridObject instanceof Elevator) {
+              cellElevator[cell] = 0;
+            } else if (gridObject instanceof Stair) {
+              cellStair[cell] = 0;
+            }
+            break;
+          }
+        }
+      }
+    }
+  }
+
+  int getNumObjects() {
+    return objectIds.size();
+  }
+
+  int getNumEntriesInUse() {
+    int free = 0;
+    for (int entry = freeEntry; entry != NONE; entry = entryNext[entry]) {
+      free++;
+    }
+
+    return numEntries - free;
+  }
+
+  private int findEntry(int cell, int id) {
+    for (int entry = cellFirstEntry[cell]; entry != NONE; entry = entryNext[entry]) {
+      if (entryObject[entry] == id) {
+        return entry;
+      }
+    }
+
+    return NONE;
+  }
+
+  private int newEntry(int id) {
+    int entry;
+    if (freeEntry != NONE) {
+      entry = freeEntry;
+      freeEntry = entryNext[entry];
+    } else {
+      if (numEntries == entryObject.length) {
+        entryObject = Arrays.copyOf(entryObject, numEntries * 2);
+        entryNext = Arrays.copyOf(entryNext, numEntries * 2);
+      }
+      entry = numEntries++;
+    }
+
+    entryObject[entry] = id;
+    return entry;
+  }
+
+  private void freeEntry(int entry) {
+    entryNext[entry] = freeEntry;
+    freeEntry = entry;
+  }
+
+  private int idFor(GridObject gridObject) {
+    Integer id = objectIds.get(gridObject);
+    if (id == null) {
+      if (freeObjectIds.size > 0) {
+        id = freeObjectIds.pop();
+        objectsById.set(id, gridObject);
+      } else {
+        id = objectsById.size;
+        objectsById.add(gridObject);
+      }
+      objectIds.put(gridObject, id);
+    }
+
+    return id;
+  }
+
+  private short transitIdFor(GridObject gridObject) {
+    Short id = transitIds.get(gridObject);
+    if (id == null) {
+      if (transitById.size > Short.MAX_VALUE) {
+        throw new IllegalStateException("Too many elevators and stairs: " + transitById.size);
+      }
+      id = (short) transitById.size;
+      transitById.add(gridObject);
+      transitIds.put(gridObject, id);
+    }
+
+    return id;
+  }
+
+  private void setFlag(int cell, byte flag, boolean state) {
+    if (state) {
+      cellFlags[cell] |= flag;
+    } else {
+      cellFlags[cell] &= ~flag;
+    }
+  }
+
+  /**
+   * Keeps every existing cell at the same x, y. Column-major storage means each column is still one
+   * contiguous block, so growing the grid is one arraycopy per column and plane. The entries of
+   * cells a smaller grid drops go back on the free list.
+   */
+  private void resize(int newColumns, int newRows) {
+    int numCells = newColumns * newRows;
+    int[] newFirstEntry = new int[numCells];
+    Arrays.fill(newFirstEntry, NONE);
+    short[] newObjectCount = new short[numCells];
+    short[] newElevator = new short[numCells];
+    short[] newStair = new short[numCells];
+    byte[] newFlags = new byte[numCells];
+    float[] newDistanceFromTransit = new float[numCells];
+    float[] newNormalizedDistanceFromTransit = new float[numCells];
+    float[] newDistanceFromSecurity = new float[numCells];
+    float[] newNormalizedDistanceFromSecurity = new float[numCells];
+    float[] newNoiseLevel = new float[numCells];
+    float[] newCrimeLevel = new float[numCells];
+
+    if (cellFirstEntry != null) {
+      for (int x = 0; x < columns; x++) {
+        for (int y = x < newColumns ? newRows : 0; y < rows; y++) {
+          int cell = x * rows + y;
+          for (int entry = cellFirstEntry[cell], next; entry != NONE; entry = next) {
+            next = entryNext[entry];
+            freeEntry(entry);
+          }
+        }
+      }
+
+      int copyRows = Math.min(rows, newRows);
+      for (int x = 0; x < Math.min(columns, newColumns); x++) {
+        int from = x * rows;
+        int to = x * newRows;
+        System.arraycopy(cellFirstEntry, from, newFirstEntry, to, copyRows);
+        System.arraycopy(cellObjectCount, from, newObjectCount, to, copyRows);
+        System.arraycopy(cellElevator, from, newElevator, to, copyRows);
+        System.arraycopy(cellStair, from, newStair, to, copyRows);
+        System.arraycopy(cellFlags, from, newFlags, to, copyRows);
+        System.arraycopy(distanceFromTransit, from, newDistanceFromTransit, to, copyRows);
+        System.arraycopy(normalizedDistanceFromTransit, from, newNormalizedDistanceFromTransit, to, copyRows);
+        System.arraycopy(distanceFromSecurity, from, newDistanceFromSecurity, to, copyRows);
+        System.arraycopy(normalizedDistanceFromSecurity, from, newNormalizedDistanceFromSecurity, to, copyRows);
+        System.arraycopy(noiseLevel, from, newNoiseLevel, to, copyRows);
+        System.arraycopy(crimeLevel, from, newCrimeLevel, to, copyRows);
+      }
+    }
+
+    columns = newColumns;
+    rows = newRows;
+    cellFirstEntry = newFirstEntry;
+    cellObjectCount = newObjectCount;
+    cellElevator = newElevator;
+    cellStair = newStair;
+    cellFlags = newFlags;
+    distanceFromTransit = newDistanceFromTransit;
+    normalizedDistanceFromTransit = newNormalizedDistanceFromTransit;
+    distanceFromSecurity = newDistanceFromSecurity;
+    normalizedDistanceFromSecurity = newNormalizedDistanceFromSecurity;
+    noiseLevel = newNoiseLevel;
+    crimeLevel = newCrimeLevel;
+  }
+}
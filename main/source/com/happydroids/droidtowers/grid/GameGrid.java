@@ -19,8 +19,12 @@ import com.happydroids.droidtowers.entities.GridObjectSort;
 import com.happydroids.droidtowers.events.GameGridResizeEvent;
 import com.happydroids.droidtowers.events.GridObjectAddedEvent;
 import com.happydroids.droidtowers.events.GridObjectRemovedEvent;
+import com.happydroids.droidtowers.events.GridObjectsLoadedEvent;
 import com.happydroids.droidtowers.events.SafeEventBus;
 import com.happydroids.droidtowers.math.GridPoint;
+import com.happydroids.droidtowers.pathfinding.HierarchicalTransitGraph;
+import com.happydroids.droidtowers.pathfinding.TransitPathFinderPool;
+import com.happydroids.droidtowers.pathfinding.TransitRouteCache;
 
 
 public class GameGrid extends GameLayer {
@@ -34,9 +38,18 @@ public class GameGrid extends GameLayer {
   protected Rectangle worldBounds;
   protected GameGridRenderer gameGridRenderer;
   protected GridPositionCache positionCache;
+  private GridObjectIndex objectIndex;
+  private TransitRouteCache routeCache;
+  private HierarchicalTransitGraph transitGraph;
+  private TransitPathFinderPool pathFinderPool;
+  private PlacedObjectCounts placedObjectCounts;
+  private GridRenderChunks renderChunks;
   private TypeInstanceMap<GridObject> gridObjects;
   private GridObject selectedGridObject;
   private String towerName;
+  private final Array<GridObject> tmpContainers = new Array<GridObject>(false, 4);
+  private final Array<GridObject> tmpCandidates = new Array<GridObject>(false, 4);
+  private final Array<GridObject> tmpObjectsNear = new Array<GridObject>(2);
 
 
   public GameGrid(OrthographicCamera camera) {
@@ -49,6 +62,12 @@ public class GameGrid extends GameLayer {
 
     gridObjects = new TypeInstanceMap<GridObject>();
     positionCache = new GridPositionCache(this);
+    objectIndex = new GridObjectIndex(this);
+    routeCache = new TransitRouteCache(this);
+    transitGraph = new HierarchicalTransitGraph(this);
+    pathFinderPool = new TransitPathFinderPool(this);
+    placedObjectCounts = new PlacedObjectCounts(this);
+    renderChunks = new GridRenderChunks(this);
 
     gridSize = new GridPoint(8, 8);
     gridOrigin = new GridPoint();
@@ -87,14 +106,7 @@ public class GameGrid extends GameLayer {
   public boolean addObject(GridObject gridObject) {
     gridObjects.add(gridObject);
 
-    int objectYPos = gridObject.getPosition().y;
-    if (objectYPos > highestPoint) {
-      highestPoint = objectYPos;
-      if (highestPoint + TowerConsts.GAME_GRID_EXPAND_LAND_SIZE > gridSize.y) {
-        gridSize.y = highestPoint + TowerConsts.GAME_GRID_EXPAND_LAND_SIZE;
-        updateWorldSize(true);
-      }
-    }
+    expandToFit(gridObject.getPosition().y);
 
     GridObjectAddedEvent event = Pools.obtain(GridObjectAddedEvent.class);
     event.setGridObject(gridObject);
@@ -105,6 +117,34 @@ public class GameGrid extends GameLayer {
     return true;
   }
 
+  /**
+   * Adds a batch of objects, like a whole tower being loaded, growing the grid and sorting the objects
+   * once and posting a single GridObjectsLoadedEvent instead of the events for each object.
+   */
+  public void addObjects(Array<GridObject> objects) {
+    int highestObject = highestPoint;
+    for (int i = 0; i < objects.size; i++) {
+      GridObject gridObject = objects.get(i);
+      gridObjects.add(gridObject);
+      highestObject = Math.max(highestObject, gridObject.getPosition().y);
+    }
+
+    expandToFit(highestObject);
+
+    events().post(new GridObjectsLoadedEvent(objects));
+    gridObjects.getInstances().sort(GridObjectSort.byZIndex);
+  }
+
+  private void expandToFit(int objectYPos) {
+    if (objectYPos > highestPoint) {
+      highestPoint = objectYPos;
+      if (highestPoint + TowerConsts.GAME_GRID_EXPAND_LAND_SIZE > gridSize.y) {
+        gridSize.y = highestPoint + TowerConsts.GAME_GRID_EXPAND_LAND_SIZE;
+        updateWorldSize(true);
+      }
+    }
+  }
+
   public Array<GridObject> getObjects() {
     return gridObjects.getInstances();
   }
@@ -114,17 +154,16 @@ public class GameGrid extends GameLayer {
       return false;
     }
 
-    Rectangle boundsOfGridObjectToCheck = gridObject.getBounds();
-    Array<GridObject> instances = gridObjects.getInstances();
-    for (int i = 0, instancesSize = instances.size; i < instancesSize; i++) {
-      GridObject child = instances.get(i);
-      if (child != gridObject) {
-        if (child.getBounds().contains(boundsOfGridObjectToCheck) && !child.canShareSpace(gridObject)) {
-          return false;
-        }
+    tmpContainers.clear();
+    Array<GridObject> containers = objectIndex.getObjectsContaining(gridObject, tmpContainers);
+    for (int i = 0, containersSize = containers.size; i < containersSize; i++) {
+      if (!containers.get(i).canShareSpace(gridObject)) {
+        containers.clear();
+        return false;
       }
     }
 
+    containers.clear();
     return true;
   }
 
@@ -156,15 +195,15 @@ public class GameGrid extends GameLayer {
   }
 
   public Array<GridObject> getInstancesOf(Class... classes) {
-    Array<GridObject> found = new Array<GridObject>();
-    if (classes != null) {
-      for (int i = 0, classesLength = classes.length; i < classesLength; i++) {
-        Class otherClass = classes[i];
-        found.addAll(getInstancesOf(otherClass));
-      }
+    if (classes == null) {
+      return new Array<GridObject>();
     }
 
-    return found;
+    return gridObjects.setForTypes(classes);
+  }
+
+  public Array<GridObject> getInstancesOfSupertype(Class supertype) {
+    return gridObjects.setForSupertype(supertype);
   }
 
   @Override
@@ -215,20 +254,21 @@ public class GameGrid extends GameLayer {
     return false;
   }
 
+  /**
+   * The returned array is reused by the next call, callers have to be done with it by then.
+   */
   private Array<GridObject> findObjectsNear(Vector2 worldPoint, final int y, final int x) {
-    Array<GridObject> objects = new Array<GridObject>(2);
-    for (int x2 = x - 1; x2 < x + 1; x2++) {
-      for (int y2 = y - 1; y2 < y + 1; y2++) {
-        GridPosition position = positionCache.getPosition(x2, y2);
-        if (position != null && !position.isEmpty()) {
-          for (GridObject object : position.getObjects()) {
-            if (object.getWorldBounds().contains(worldPoint.x, worldPoint.y)) {
-              objects.add(object);
-            }
-          }
-        }
+    Array<GridObject> objects = tmpObjectsNear;
+    objects.clear();
+    tmpCandidates.clear();
+    Array<GridObject> candidates = objectIndex.getObjectsIn(Math.max(0, x - 1), Math.max(0, y - 1), Math.min(gridSize.x, x), Math.min(gridSize.y, y), true, tmpCandidates);
+    for (int i = 0; i < candidates.size; i++) {
+      GridObject object = candidates.get(i);
+      if (object.getWorldBounds().contains(worldPoint.x, worldPoint.y)) {
+        objects.add(object);
       }
     }
+    candidates.clear();
 
     objects.sort(GridObjectSort.byZIndex);
     objects.reverse();
@@ -253,7 +293,18 @@ public class GameGrid extends GameLayer {
 
   public void clearObjects() {
     gridObjects.clear();
+    objectIndex.clear();
+    // the replaced caches would otherwise go on handling every event posted to the grid
+    events().unregister(objectIndex);
+    events().unregister(positionCache);
+    if (positionCache.fields() != null) {
+      events().unregister(positionCache.fields());
+    }
     positionCache = new GridPositionCache(this);
+    objectIndex = new GridObjectIndex(this);
+    routeCache.invalidate();
+    placedObjectCounts.clear();
+    renderChunks.clear();
   }
 
   public boolean isEmpty() {
@@ -264,6 +315,30 @@ public class GameGrid extends GameLayer {
     return positionCache;
   }
 
+  public GridObjectIndex objectIndex() {
+    return objectIndex;
+  }
+
+  public TransitRouteCache routeCache() {
+    return routeCache;
+  }
+
+  public HierarchicalTransitGraph transitGraph() {
+    return transitGraph;
+  }
+
+  public TransitPathFinderPool pathFinderPool() {
+    return pathFinderPool;
+  }
+
+  public PlacedObjectCounts placedObjectCounts() {
+    return placedObjectCounts;
+  }
+
+  public GridRenderChunks renderChunks() {
+    return renderChunks;
+  }
+
   public void setGridOrigin(GridPoint gridOrigin) {
     this.gridOrigin.set(gridOrigin);
   }
@@ -12,6 +12,7 @@ import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.SpriteCache;
 import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.math.Rectangle;
 import com.badlogic.gdx.utils.Array;
 import com.google.common.base.Function;
 import com.google.common.collect.Lists;
@@ -20,6 +21,7 @@ import com.happydroids.droidtowers.TowerConsts;
 import com.happydroids.droidtowers.achievements.TutorialEngine;
 import com.happydroids.droidtowers.entities.GameLayer;
 import com.happydroids.droidtowers.entities.GridObject;
+import com.happydroids.droidtowers.entities.GridObjectSort;
 import com.happydroids.droidtowers.events.SwitchToolEvent;
 import com.happydroids.droidtowers.graphics.Overlays;
 import com.happydroids.droidtowers.graphics.TransitLine;
@@ -34,6 +36,8 @@ import static com.happydroids.droidtowers.graphics.Overlays.POPULATION_LEVEL;
 import static com.happydroids.droidtowers.input.GestureTool.PLACEMENT;
 
 public class GameGridRenderer extends GameLayer {
+    private static final int SPRITE_CACHE_SIZE = 16384;
+
     protected GameGrid gameGrid;
     protected final OrthographicCamera camera;
     protected boolean shouldRenderGridLines;
@@ -46,6 +50,11 @@ public class GameGridRenderer extends GameLayer {
     private boolean shouldRenderTransitLines;
     protected Color renderTintColor;
     private final SpriteCache spriteCache;
+    private int spriteCacheUsed;
+    private final Array<GridRenderChunks.Chunk> visibleChunks;
+    private final Array<GridObject> batchObjects;
+    private final Array<GridObject> cachedObjects;
+    private final Rectangle viewBounds;
 
     public GameGridRenderer(GameGrid gameGrid, OrthographicCamera camera) {
         this.gameGrid = gameGrid;
@@ -60,7 +69,11 @@ public class GameGridRenderer extends GameLayer {
         activeOverlay = null;
 
         makeOverlayFunctions();
-        spriteCache = new SpriteCache();
+        spriteCache = new SpriteCache(SPRITE_CACHE_SIZE, false);
+        visibleChunks = new Array<GridRenderChunks.Chunk>();
+        batchObjects = new Array<GridObject>();
+        cachedObjects = new Array<GridObject>();
+        viewBounds = new Rectangle();
 
         gameGrid.events().register(this);
     }
@@ -150,30 +163,32 @@ public class GameGridRenderer extends GameLayer {
     }
 
     private void renderGridObjects(SpriteBatch spriteBatch) {
+        findVisibleChunks();
+        rebuildDirtyChunks();
+
         Gdx.gl.glEnable(GL10.GL_BLEND);
         spriteCache.setProjectionMatrix(camera.combined);
         spriteCache.begin();
 
-        for (GridObject gridObject : gameGrid.getObjects()) {
-            if (gridObject.shouldUseSpriteCache() && gridObject.getSpriteCacheId() != -1) {
-                tmp.set(gridObject.getWorldCenter().x, gridObject.getWorldCenter().y, 0);
-                if (camera.frustum
-                        .sphereInFrustum(tmp, Math.max(gridObject.getWorldBounds().width, gridObject.getWorldBounds().height))) {
-                    spriteCache.draw(gridObject.getSpriteCacheId());
-                }
+        for (int i = 0; i < visibleChunks.size; i++) {
+            GridRenderChunks.Chunk chunk = visibleChunks.get(i);
+            if (chunk.cacheId != -1 && chunk.cacheCapacity > 0) {
+                spriteCache.draw(chunk.cacheId);
             }
         }
 
         spriteCache.end();
 
+        collectBatchObjects();
 
         spriteBatch.begin();
 
-        for (GridObject gridObject : gameGrid.getObjects()) {
+        for (int i = 0; i < batchObjects.size; i++) {
+            GridObject gridObject = batchObjects.get(i);
             tmp.set(gridObject.getWorldCenter().x, gridObject.getWorldCenter().y, 0);
             if (camera.frustum
                     .sphereInFrustum(tmp, Math.max(gridObject.getWorldBounds().width, gridObject.getWorldBounds().height))) {
-                if (!gridObject.shouldUseSpriteCache() || gridObject.getSpriteCacheId() == -1) {
+                if (gridObject.getSpriteCacheId() == -1) {
                     gridObject.render(spriteBatch, spriteCache, renderTintColor);
                 }
 
@@ -186,6 +201,115 @@ public class GameGridRenderer extends GameLayer {
         spriteBatch.end();
     }
 
+    private void findVisibleChunks() {
+        float viewWidth = camera.viewportWidth * camera.zoom;
+        float viewHeight = camera.viewportHeight * camera.zoom;
+        viewBounds.set(camera.position.x - viewWidth / 2, camera.position.y - viewHeight / 2, viewWidth, viewHeight);
+
+        visibleChunks.clear();
+        Array<GridRenderChunks.Chunk> chunks = gameGrid.renderChunks().getChunks();
+        for (int i = 0; i < chunks.size; i++) {
+            GridRenderChunks.Chunk chunk = chunks.get(i);
+            if (chunk.objects.size > 0 && chunk.bounds.overlaps(viewBounds)) {
+                visibleChunks.add(chunk);
+            }
+        }
+    }
+
+    /**
+     * Gathers the visible objects drawn with the SpriteBatch, from the lists the chunks keep of them.
+     * Each list is already in z-index order, so they only need sorting together when there is more
+     * than one.
+     */
+    private void collectBatchObjects() {
+        batchObjects.clear();
+        int chunksWithBatchObjects = 0;
+        for (int i = 0; i < visibleChunks.size; i++) {
+            GridRenderChunks.Chunk chunk = visibleChunks.get(i);
+            if (chunk.batchDirty) {
+                chunk.collectBatchObjects();
+            }
+
+            if (chunk.batchObjects.size > 0) {
+                batchObjects.addAll(chunk.batchObjects);
+                chunksWithBatchObjects++;
+            }
+        }
+
+        if (chunksWithBatchObjects > 1) {
+            batchObjects.sort(GridObjectSort.byZIndex);
+        }
+    }
+
+    /**
+     * Rebuilds the visible dirty chunks. A chunk's cache is rebuilt in place when its sprites still
+     * fit, otherwise it gets a new one and the old one goes unused until the SpriteCache fills up,
+     * when it is cleared and every chunk is rebuilt as it comes into view.
+     */
+    private void rebuildDirtyChunks() {
+        for (int i = 0; i < visibleChunks.size; i++) {
+            GridRenderChunks.Chunk chunk = visibleChunks.get(i);
+            if (!chunk.dirty) {
+                continue;
+            }
+
+            int numSprites = 0;
+            for (int j = 0; j < chunk.objects.size; j++) {
+                if (chunk.objects.get(j).shouldUseSpriteCache()) {
+                    numSprites++;
+                }
+            }
+
+            boolean reuseCache = chunk.cacheId != -1 && numSprites <= chunk.cacheCapacity;
+            if (!reuseCache && spriteCacheUsed > 0 && spriteCacheUsed + numSprites > SPRITE_CACHE_SIZE) {
+                clearSpriteCache();
+                i = -1;
+                continue;
+            }
+
+            if (reuseCache) {
+                spriteCache.beginCache(chunk.cacheId);
+            } else {
+                spriteCache.beginCache();
+            }
+
+            cachedObjects.clear();
+            for (int j = 0; j < chunk.objects.size; j++) {
+                GridObject gridObject = chunk.objects.get(j);
+                gridObject.setSpriteCacheId(-1);
+                if (gridObject.shouldUseSpriteCache() && gridObject.cacheSprite(spriteCache)) {
+                    cachedObjects.add(gridObject);
+                }
+            }
+
+            int cacheId = spriteCache.endCache();
+            if (!reuseCache) {
+                chunk.cacheId = cacheId;
+                chunk.cacheCapacity = numSprites;
+                spriteCacheUsed += numSprites;
+            }
+
+            for (int j = 0; j < cachedObjects.size; j++) {
+                cachedObjects.get(j).setSpriteCacheId(chunk.cacheId);
+            }
+
+            chunk.dirty = false;
+            chunk.batchDirty = true;
+        }
+    }
+
+    private void clearSpriteCache() {
+        spriteCache.clear();
+        spriteCacheUsed = 0;
+
+        Array<GridRenderChunks.Chunk> chunks = gameGrid.renderChunks().getChunks();
+        for (int i = 0; i < chunks.size; i++) {
+            chunks.get(i).cacheId = -1;
+            chunks.get(i).cacheCapacity = 0;
+            chunks.get(i).dirty = true;
+        }
+    }
+
     private void renderGridLines() {
         GLCommon gl = Gdx.graphics.getGLCommon();
         gl.glEnable(GL10.GL_BLEND);
@@ -0,0 +1,268 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.grid;
+
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntArray;
+import com.google.common.collect.Maps;
+import com.google.common.eventbus.Subscribe;
+import com.happydroids.droidtowers.entities.GridObject;
+import com.happydroids.droidtowers.events.GridObjectBoundsChangeEvent;
+import com.happydroids.droidtowers.events.GridObjectEvent;
+import com.happydroids.droidtowers.events.GridObjectRemovedEvent;
+import com.happydroids.droidtowers.math.GridPoint;
+
+import java.util.IdentityHashMap;
+
+/**
+ * Noise and crime levels for every grid position, kept in flat planes indexed x * rows + y.
+ * <p/>
+ * Gives the same result as GridPositionCache.updateNoiseLevels(), each level is the loudest object
+ * in the cell plus an eighth of the loudest objects in the cell's 4x4 neighbourhood, but the
+ * neighbourhood sums come from a separable box filter and only the rectangles that changed since the
+ * last update are recomputed. A rectangle is dirty when a grid object event touches it or when an
+ * object's own noise or crime level changes.
+ */
+public class GridFields {
+  private static final int MAX_DIRTY_RECTS = 32;
+
+  private final GameGrid gameGrid;
+  private final GridPosition[][] positions;
+  private final int columns;
+  private final int rows;
+  private final float[] maxNoise;
+  private final float[] maxCrime;
+  private final float[] noise;
+  private final float[] crime;
+  private final float[] noiseRowSums;
+  private final float[] crimeRowSums;
+
+  private final IntArray dirtyRects;
+  private final IntArray updatedRects;
+  private final IdentityHashMap<GridObject, float[]> objectLevels;
+  private int cellsUpdated;
+
+  GridFields(GameGrid gameGrid, GridPosition[][] positions) {
+    this.gameGrid = gameGrid;
+    this.positions = positions;
+    columns = positions.length;
+    rows = columns > 0 ? positions[0].length : 0;
+
+    int numCells = columns * rows;
+    maxNoise = new float[numCells];
+    maxCrime = new float[numCells];
+    noise = new float[numCells];
+    crime = new float[numCells];
+    noiseRowSums = new float[numCells];
+    crimeRowSums = new float[numCells];
+
+    dirtyRects = new IntArray(MAX_DIRTY_RECTS * 4);
+    updatedRects = new IntArray(MAX_DIRTY_RECTS * 4);
+    objectLevels = Maps.newIdentityHashMap();
+
+    markDirty(0, 0, columns - 1, rows - 1);
+  }
+
+  /**
+   * Brings the planes, and the levels stored on each GridPosition, up to date.
+   *
+   * @return true if anything was recomputed
+   */
+  public boolean update() {
+    updatedRects.clear();
+    cellsUpdated = 0;
+
+    findChangedObjects();
+    if (dirtyRects.size == 0) {
+      return false;
+    }
+
+    for (int i = 0; i < dirtyRects.size; i += 4) {
+      updateRect(dirtyRects.get(i), dirtyRects.get(i + 1), dirtyRects.get(i + 2), dirtyRects.get(i + 3));
+    }
+    dirtyRects.clear();
+
+    return true;
+  }
+
+  public float getNoiseLevel(int x, int y) {
+    return noise[x * rows + y];
+  }
+
+  public float getCrimeLevel(int x, int y) {
+    return crime[x * rows + y];
+  }
+
+  /**
+   * @return true if the last update() recomputed any of the cells inside the given bounds
+   */
+  public boolean wasUpdated(GridPoint position, GridPoint size) {
+    int maxX = position.x + size.x - 1;
+    int maxY = position.y + size.y - 1;
+    for (int i = 0; i < updatedRects.size; i += 4) {
+      if (position.x <= updatedRects.get(i + 2) && maxX >= updatedRects.get(i) && position.y <= updatedRects.get(i + 3) && maxY >= updatedRects.get(i + 1)) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  public int getColumns() {
+    return columns;
+  }
+
+  public int getRows() {
+    return rows;
+  }
+
+  public int getCellsUpdated() {
+    return cellsUpdated;
+  }
+
+  @Subscribe
+  public void GameGrid_onGridObjectEvent(GridObjectEvent event) {
+    GridObject gridObject = event.getGridObject();
+    if (gridObject == null) {
+      markDirty(0, 0, columns - 1, rows - 1);
+      return;
+    }
+
+    markDirty(gridObject.getPosition(), gridObject.getSize());
+    if (event instanceof GridObjectBoundsChangeEvent) {
+      GridObjectBoundsChangeEvent boundsChangeEvent = (GridObjectBoundsChangeEvent) event;
+      markDirty(boundsChangeEvent.getPrevPosition(), boundsChangeEvent.getPrevSize());
+    } else if (event instanceof GridObjectRemovedEvent) {
+      objectLevels.remove(gridObject);
+    }
+  }
+
+  private void findChangedObjects() {
+    Array<GridObject> gridObjects = gameGrid.getObjects();
+    for (int i = 0; i < gridObjects.size; i++) {
+      GridObject gridObject = gridObjects.get(i);
+      float noiseLevel = gridObject.getNoiseLevel();
+      float crimeLevel = gridObject.getCrimeLevel();
+
+      float[] levels = objectLevels.get(gridObject);
+      if (levels == null) {
+        levels = new float[2];
+        objectLevels.put(gridObject, levels);
+      } else if (levels[0] == noiseLevel && levels[1] == crimeLevel) {
+        continue;
+      }
+
+      levels[0] = noiseLevel;
+      levels[1] = crimeLevel;
+      markDirty(gridObject.getPosition(), gridObject.getSize());
+    }
+  }
+
+  private void markDirty(GridPoint position, GridPoint size) {
+    markDirty(position.x, position.y, position.x + size.x - 1, position.y + size.y - 1);
+  }
+
+  private void markDirty(int minX, int minY, int maxX, int maxY) {
+    minX = Math.max(0, minX);
+    minY = Math.max(0, minY);
+    maxX = Math.min(columns - 1, maxX);
+    maxY = Math.min(rows - 1, maxY);
+    if (minX > maxX || minY > maxY) {
+      return;
+    }
+
+    for (int i = 0; i < dirtyRects.size; i += 4) {
+      if (minX >= dirtyRects.get(i) && minY >= dirtyRects.get(i + 1) && maxX <= dirtyRects.get(i + 2) && maxY <= dirtyRects.get(i + 3)) {
+        return;
+      }
+    }
+
+    if (dirtyRects.size >= MAX_DIRTY_RECTS * 4) {
+      // too many small rectangles, fall back to their bounding box.
+      for (int i = 0; i < dirtyRects.size; i += 4) {
+        minX = Math.min(minX, dirtyRects.get(i));
+        minY = Math.min(minY, dirtyRects.get(i + 1));
+        maxX = Math.max(maxX, dirtyRects.get(i + 2));
+        maxY = Math.max(maxY, dirtyRects.get(i + 3));
+      }
+      dirtyRects.clear();
+    }
+
+    dirtyRects.add(minX);
+    dirtyRects.add(minY);
+    dirtyRects.add(maxX);
+    dirtyRects.add(maxY);
+  }
+
+  /**
+   * Recomputes the cells whose neighbourhood includes the given source rectangle. A cell's
+   * neighbourhood spans x - 2 to x + 1 and y - 2 to y + 1.
+   */
+  private void updateRect(int minX, int minY, int maxX, int maxY) {
+    for (int x = minX; x <= maxX; x++) {
+      for (int y = minY; y <= maxY; y++) {
+        findMaxLevels(x, y);
+      }
+    }
+
+    int outMinX = Math.max(0, minX - 1);
+    int outMaxX = Math.min(columns - 1, maxX + 2);
+    int outMinY = Math.max(0, minY - 1);
+    int outMaxY = Math.min(rows - 1, maxY + 2);
+
+    int sumMinY = Math.max(0, outMinY - 2);
+    int sumMaxY = Math.min(rows - 1, outMaxY + 1);
+    for (int x = outMinX; x <= outMaxX; x++) {
+      int fromX = Math.max(0, x - 2);
+      int toX = Math.min(columns - 1, x + 1);
+      for (int y = sumMinY; y <= sumMaxY; y++) {
+        float noiseSum = 0f;
+        float crimeSum = 0f;
+        for (int xx = fromX; xx <= toX; xx++) {
+          noiseSum += maxNoise[xx * rows + y];
+          crimeSum += maxCrime[xx * rows + y];
+        }
+        noiseRowSums[x * rows + y] = noiseSum;
+        crimeRowSums[x * rows + y] = crimeSum;
+      }
+    }
+
+    for (int x = outMinX; x <= outMaxX; x++) {
+      for (int y = outMinY; y <= outMaxY; y++) {
+        float noiseSum = 0f;
+        float crimeSum = 0f;
+        for (int yy = Math.max(0, y - 2); yy <= Math.min(rows - 1, y + 1); yy++) {
+          noiseSum += noiseRowSums[x * rows + yy];
+          crimeSum += crimeRowSums[x * rows + yy];
+        }
+
+        int cell = x * rows + y;
+        noise[cell] = Math.min(1f, maxNoise[cell] + (noiseSum - maxNoise[cell]) / 8);
+        crime[cell] = Math.min(1f, maxCrime[cell] + (crimeSum - maxCrime[cell]) / 8);
+        positions[x][y].setLevels(noise[cell], crime[cell]);
+      }
+    }
+
+    cellsUpdated += (outMaxX - outMinX + 1) * (outMaxY - outMinY + 1);
+    updatedRects.add(outMinX);
+    updatedRects.add(outMinY);
+    updatedRects.add(outMaxX);
+    updatedRects.add(outMaxY);
+  }
+
+  private void findMaxLevels(int x, int y) {
+    float maxNoiseLevel = 0f;
+    float maxCrimeLevel = 0f;
+    Array<GridObject> objects = positions[x][y].getObjects();
+    for (int i = 0; i < objects.size; i++) {
+      GridObject gridObject = objects.get(i);
+      maxNoiseLevel = Math.max(gridObject.getNoiseLevel(), maxNoiseLevel);
+      maxCrimeLevel = Math.max(gridObject.getCrimeLevel(), maxCrimeLevel);
+    }
+
+    maxNoise[x * rows + y] = maxNoiseLevel;
+    maxCrime[x * rows + y] = maxCrimeLevel;
+  }
+}
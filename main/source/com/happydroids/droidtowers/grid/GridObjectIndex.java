@@ -0,0 +1,259 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.grid;
+
+import com.badlogic.gdx.utils.Array;
+import com.google.common.collect.Maps;
+import com.google.common.eventbus.Subscribe;
+import com.happydroids.droidtowers.entities.GridObject;
+import com.happydroids.droidtowers.events.GameGridResizeEvent;
+import com.happydroids.droidtowers.events.GridObjectAddedEvent;
+import com.happydroids.droidtowers.events.GridObjectBoundsChangeEvent;
+import com.happydroids.droidtowers.events.GridObjectRemovedEvent;
+import com.happydroids.droidtowers.events.GridObjectsLoadedEvent;
+import com.happydroids.droidtowers.math.GridPoint;
+
+import java.util.IdentityHashMap;
+
+/**
+ * Uniform bucket grid over the bounds of every object on the GameGrid, so finding the objects in an
+ * area only looks at the objects near it.
+ * <p/>
+ * Each bucket covers BUCKET_SIZE x BUCKET_SIZE cells and lists every object overlapping it. Objects
+ * are indexed when added to the grid, moved to new buckets on GridObjectBoundsChangeEvent and
+ * dropped when removed. Objects outside the grid are kept in the edge buckets.
+ */
+public class GridObjectIndex {
+  public static final int BUCKET_SIZE = 8;
+
+  private final GameGrid gameGrid;
+  private final IdentityHashMap<GridObject, Entry> entries;
+  private Array<Entry>[] buckets;
+  private int bucketColumns;
+  private int bucketRows;
+  private int queryStamp;
+
+  public GridObjectIndex(GameGrid gameGrid) {
+    this.gameGrid = gameGrid;
+    entries = Maps.newIdentityHashMap();
+
+    gameGrid.events().register(this);
+  }
+
+  @Subscribe
+  public void handleGameGridResizeEvent(GameGridResizeEvent event) {
+    GridPoint gridSize = gameGrid.getGridSize();
+    if (buckets != null && bucketColumns == gridSize.x / BUCKET_SIZE + 1 && bucketRows == gridSize.y / BUCKET_SIZE + 1) {
+      return;
+    }
+
+    allocateBuckets();
+    for (Entry entry : entries.values()) {
+      addToBuckets(entry);
+    }
+  }
+
+  @Subscribe
+  public void GameGrid_onGridObjectAdded(GridObjectAddedEvent event) {
+    index(event.getGridObject());
+  }
+
+  @Subscribe
+  public void GameGrid_onGridObjectsLoaded(GridObjectsLoadedEvent event) {
+    Array<GridObject> gridObjects = event.getGridObjects();
+    for (int i = 0; i < gridObjects.size; i++) {
+      index(gridObjects.get(i));
+    }
+  }
+
+  private void index(GridObject gridObject) {
+    Entry entry = entries.get(gridObject);
+    if (entry == null) {
+      entry = new Entry(gridObject);
+      entries.put(gridObject, entry);
+    } else {
+      removeFromBuckets(entry);
+    }
+
+    entry.updateBounds();
+    addToBuckets(entry);
+  }
+
+  @Subscribe
+  public void GameGrid_onGridObjectBoundsChange(GridObjectBoundsChangeEvent event) {
+    Entry entry = entries.get(event.getGridObject());
+    if (entry != null) {
+      removeFromBuckets(entry);
+      entry.updateBounds();
+      addToBuckets(entry);
+    }
+  }
+
+  @Subscribe
+  public void GameGrid_onGridObjectRemoved(GridObjectRemovedEvent event) {
+    Entry entry = entries.remove(event.getGridObject());
+    if (entry != null) {
+      removeFromBuckets(entry);
+    }
+  }
+
+  public void clear() {
+    entries.clear();
+    if (buckets != null) {
+      for (Array<Entry> bucket : buckets) {
+        bucket.clear();
+      }
+    }
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  /**
+   * Adds every object whose bounds overlap the cells minX, minY to maxX, maxY (inclusive) to found.
+   *
+   * @param placedOnly skip objects that haven't been placed yet, like the one being dragged around
+   */
+  public Array<GridObject> getObjectsIn(int minX, int minY, int maxX, int maxY, boolean placedOnly, Array<GridObject> found) {
+    if (buckets == null || minX > maxX || minY > maxY) {
+      return found;
+    }
+
+    int stamp = ++queryStamp;
+    for (int bx = bucketX(minX); bx <= bucketX(maxX); bx++) {
+      for (int by = bucketY(minY); by <= bucketY(maxY); by++) {
+        Array<Entry> bucket = buckets[bx * bucketRows + by];
+        for (int i = 0; i < bucket.size; i++) {
+          Entry entry = bucket.get(i);
+          if (entry.queryStamp == stamp) {
+            continue;
+          }
+
+          entry.queryStamp = stamp;
+          if (entry.overlaps(minX, minY, maxX, maxY) && (!placedOnly || entry.gridObject.isPlaced())) {
+            found.add(entry.gridObject);
+          }
+        }
+      }
+    }
+
+    return found;
+  }
+
+  /**
+   * Adds every other object whose bounds contain the bounds of gridObject to found. Containment
+   * follows Rectangle.contains(Rectangle), so the edges have to lie strictly inside.
+   */
+  public Array<GridObject> getObjectsContaining(GridObject gridObject, Array<GridObject> found) {
+    GridPoint position = gridObject.getPosition();
+    GridPoint size = gridObject.getSize();
+    if (buckets == null) {
+      return found;
+    }
+
+    int stamp = ++queryStamp;
+    for (int bx = bucketX(position.x); bx <= bucketX(position.x + size.x - 1); bx++) {
+      for (int by = bucketY(position.y); by <= bucketY(position.y + size.y - 1); by++) {
+        Array<Entry> bucket = buckets[bx * bucketRows + by];
+        for (int i = 0; i < bucket.size; i++) {
+          Entry entry = bucket.get(i);
+          if (entry.queryStamp == stamp || entry.gridObject == gridObject) {
+            continue;
+          }
+
+          entry.queryStamp = stamp;
+          if (entry.contains(position.x, position.y, size.x, size.y)) {
+            found.add(entry.gridObject);
+          }
+        }
+      }
+    }
+
+    return found;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void allocateBuckets() {
+    GridPoint gridSize = gameGrid.getGridSize();
+    bucketColumns = gridSize.x / BUCKET_SIZE + 1;
+    bucketRows = gridSize.y / BUCKET_SIZE + 1;
+    buckets = new Array[bucketColumns * bucketRows];
+    for (int i = 0; i < buckets.length; i++) {
+      buckets[i] = new Array<Entry>(false, 4);
+    }
+  }
+
+  private void addToBuckets(Entry entry) {
+    if (buckets == null) {
+      allocateBuckets();
+    }
+
+    entry.minBucketX = bucketX(entry.x);
+    entry.minBucketY = bucketY(entry.y);
+    entry.maxBucketX = bucketX(entry.x + entry.width - 1);
+    entry.maxBucketY = bucketY(entry.y + entry.height - 1);
+    for (int bx = entry.minBucketX; bx <= entry.maxBucketX; bx++) {
+      for (int by = entry.minBucketY; by <= entry.maxBucketY; by++) {
+        buckets[bx * bucketRows + by].add(entry);
+      }
+    }
+  }
+
+  private void removeFromBuckets(Entry entry) {
+    if (buckets == null) {
+      return;
+    }
+
+    for (int bx = entry.minBucketX; bx <= entry.maxBucketX; bx++) {
+      for (int by = entry.minBucketY; by <= entry.maxBucketY; by++) {
+        buckets[bx * bucketRows + by].removeValue(entry, true);
+      }
+    }
+  }
+
+  private int bucketX(int x) {
+    return Math.max(0, Math.min(bucketColumns - 1, x / BUCKET_SIZE));
+  }
+
+  private int bucketY(int y) {
+    return Math.max(0, Math.min(bucketRows - 1, y / BUCKET_SIZE));
+  }
+
+  private static class Entry {
+    final GridObject gridObject;
+    int x;
+    int y;
+    int width;
+    int height;
+    int minBucketX;
+    int minBucketY;
+    int maxBucketX;
+    int maxBucketY;
+    int queryStamp;
+
+    Entry(GridObject gridObject) {
+      this.gridObject = gridObject;
+    }
+
+    void updateBounds() {
+      x = gridObject.getPosition().x;
+      y = gridObject.getPosition().y;
+      width = gridObject.getSize().x;
+      height = gridObject.getSize().y;
+    }
+
+    boolean overlaps(int minX, int minY, int maxX, int maxY) {
+      return x <= maxX && x + width - 1 >= minX && y <= maxY && y + height - 1 >= minY;
+    }
+
+    boolean contains(int otherX, int otherY, int otherWidth, int otherHeight) {
+      int otherMaxX = otherX + otherWidth;
+      int otherMaxY = otherY + otherHeight;
+      return otherX > x && otherX < x + width && otherMaxX > x && otherMaxX < x + width &&
+                     otherY > y && otherY < y + height && otherMaxY > y && otherMaxY < y + height;
+    }
+  }
+}
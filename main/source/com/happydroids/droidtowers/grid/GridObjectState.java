@@ -33,8 +33,8 @@ public class GridObjectState {
 
   public GridObjectState(GridObject gridObject) {
     typeId = gridObject.getGridObjectType().getId();
-    position = gridObject.getPosition();
-    size = gridObject.getSize();
+    position = gridObject.getPosition().cpy();
+    size = gridObject.getSize().cpy();
     name = gridObject.hasCustomName() ? gridObject.getName() : null;
     variationId = gridObject.getVariationId();
     loanFromCousinVinnie = gridObject.getAmountLoanedFromCousinVinnie();
@@ -44,7 +44,41 @@ public class GridObjectState {
     }
   }
 
+  public GridObjectState(String typeId, GridPoint position, GridPoint size, String name, int variationId, int loanFromCousinVinnie, int numberOfElevatorCars) {
+    this.typeId = typeId;
+    this.position = position;
+    this.size = size;
+    this.name = name;
+    this.variationId = variationId;
+    this.loanFromCousinVinnie = loanFromCousinVinnie;
+    this.numberOfElevatorCars = numberOfElevatorCars;
+  }
+
   public GridObject materialize(GameGrid gameGrid) {
+    GridObject object = makeGridObject(gameGrid);
+    object.setPosition(position.x, position.y);
+    object.setSize(size.x, size.y);
+    object.setPlaced(true);
+    finishMaterializing(object);
+
+    gameGrid.addObject(object);
+
+    return object;
+  }
+
+  /**
+   * Builds the object without telling the grid about it, it still has to be added with
+   * GameGrid.addObjects, which is how a saved tower gets loaded.
+   */
+  public GridObject materializeForBulkLoad(GameGrid gameGrid) {
+    GridObject object = makeGridObject(gameGrid);
+    object.restorePlacement(position.x, position.y, size.x, size.y);
+    finishMaterializing(object);
+
+    return object;
+  }
+
+  private GridObject makeGridObject(GameGrid gameGrid) {
     GridObjectType objectType = GridObjectTypeFactory.findTypeById(typeId);
     if (objectType != null) {
       GridObject object = objectType.makeGridObject(gameGrid);
@@ -53,21 +87,6 @@ public class GridObjectState {
         if (name != null) {
           object.setName(name);
         }
-        object.setPosition(position.x, position.y);
-        object.setSize(size.x, size.y);
-        object.setPlaced(true);
-        if (variationId > 0) {
-          object.setVariationId(variationId);
-        }
-        object.addLoanFromCousinVinnie(loanFromCousinVinnie);
-
-        if (object instanceof Elevator) {
-          ((Elevator) object).setNumElevatorCars(numberOfElevatorCars);
-        }
-
-        object.updateSprite();
-
-        gameGrid.addObject(object);
 
         return object;
       }
@@ -75,4 +94,45 @@ public class GridObjectState {
 
     throw new RuntimeException("Cannot find type: " + typeId);
   }
+
+  private void finishMaterializing(GridObject object) {
+    if (variationId > 0) {
+      object.setVariationId(variationId);
+    }
+    object.addLoanFromCousinVinnie(loanFromCousinVinnie);
+
+    if (object instanceof Elevator) {
+      ((Elevator) object).setNumElevatorCars(numberOfElevatorCars);
+    }
+
+    object.updateSprite();
+  }
+
+  public String getTypeId() {
+    return typeId;
+  }
+
+  public GridPoint getPosition() {
+    return position;
+  }
+
+  public GridPoint getSize() {
+    return size;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public int getVariationId() {
+    return variationId;
+  }
+
+  public int getLoanFromCousinVinnie() {
+    return loanFromCousinVinnie;
+  }
+
+  public int getNumberOfElevatorCars() {
+    return numberOfElevatorCars;
+  }
 }
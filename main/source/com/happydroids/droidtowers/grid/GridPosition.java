@@ -122,6 +122,11 @@ public class GridPosition {
     crimeLevel = Math.min(1f, maxCrimeLevel + totalCrime / 8);
   }
 
+  void setLevels(float noiseLevel, float crimeLevel) {
+    this.noiseLevel = noiseLevel;
+    this.crimeLevel = crimeLevel;
+  }
+
   public float getNoiseLevel() {
     return noiseLevel;
   }
@@ -13,6 +13,7 @@ import com.happydroids.droidtowers.events.GameGridResizeEvent;
 import com.happydroids.droidtowers.events.GridObjectBoundsChangeEvent;
 import com.happydroids.droidtowers.events.GridObjectPlacedEvent;
 import com.happydroids.droidtowers.events.GridObjectRemovedEvent;
+import com.happydroids.droidtowers.events.GridObjectsLoadedEvent;
 import com.happydroids.droidtowers.math.GridPoint;
 
 public class GridPositionCache {
@@ -20,6 +21,7 @@ public class GridPositionCache {
   private GridPoint gridSize;
   private final GameGrid gameGrid;
   private float[][] noiseLevels;
+  private GridFields fields;
 
   public GridPositionCache(GameGrid gameGrid) {
     this.gameGrid = gameGrid;
@@ -45,8 +47,8 @@ public class GridPositionCache {
     gridPositions = new GridPosition[gridSize.x + 1][gridSize.y + 1];
 
     if (copyExisting) {
-      for (int x = 0; x < oldPositions.length; x++) {
-        System.arraycopy(oldPositions[x], 0, gridPositions[x], 0, oldPositions[x].length);
+      for (int x = 0; x < Math.min(oldPositions.length, gridPositions.length); x++) {
+        System.arraycopy(oldPositions[x], 0, gridPositions[x], 0, Math.min(oldPositions[x].length, gridPositions[x].length));
       }
     }
 
@@ -57,6 +59,12 @@ public class GridPositionCache {
         }
       }
     }
+
+    if (fields != null) {
+      gameGrid.events().unregister(fields);
+    }
+    fields = new GridFields(gameGrid, gridPositions);
+    gameGrid.events().register(fields);
   }
 
   private void addGridObjectToPosition(GridObject gridObject) {
@@ -91,6 +99,16 @@ public class GridPositionCache {
     addGridObjectToPosition(gridObject);
   }
 
+  @Subscribe
+  public void GameGrid_onGridObjectsLoaded(GridObjectsLoadedEvent event) {
+    Array<GridObject> gridObjects = event.getGridObjects();
+    for (int i = 0; i < gridObjects.size; i++) {
+      if (gridObjects.get(i).isPlaced()) {
+        addGridObjectToPosition(gridObjects.get(i));
+      }
+    }
+  }
+
   @Subscribe
   public void GameGrid_onGridObjectBoundsChange(GridObjectBoundsChangeEvent event) {
     GridObject gridObject = event.getGridObject();
@@ -116,24 +134,9 @@ public class GridPositionCache {
   public Array<GridObject> getObjectsAt(GridPoint position, GridPoint size, GridObject... gridObjectsToIgnore) {
     Array<GridObject> objects = new Array<GridObject>();
 
-    int maxX = Math.min(gridSize.x, position.x + size.x);
-    int maxY = Math.min(gridSize.y, position.y + size.y);
-
-    GridPoint currentPos = position.cpy();
-    for (int x = position.x; x < maxX; x++) {
-      for (int y = position.y; y < maxY; y++) {
-        currentPos.set(x, y);
-
-        GridPosition forPosition = getObjectSetForPosition(currentPos);
-        if (forPosition != null) {
-          for (GridObject object : forPosition.getObjects()) {
-            if (!objects.contains(object, false)) {
-              objects.add(object);
-            }
-          }
-        }
-      }
-    }
+    int maxX = Math.min(gridSize.x, position.x + size.x) - 1;
+    int maxY = Math.min(gridSize.y, position.y + size.y) - 1;
+    gameGrid.objectIndex().getObjectsIn(Math.max(0, position.x), Math.max(0, position.y), maxX, maxY, true, objects);
 
     if (gridObjectsToIgnore != null && gridObjectsToIgnore.length > 0) {
       for (GridObject gridObject : gridObjectsToIgnore) {
@@ -174,6 +177,10 @@ public class GridPositionCache {
     return gridPositions;
   }
 
+  public GridFields fields() {
+    return fields;
+  }
+
   public void updateNoiseLevels() {
     for (GridPosition[] row : gridPositions) {
       for (GridPosition position : row) {
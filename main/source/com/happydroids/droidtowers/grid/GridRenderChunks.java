@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.grid;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.IntMap;
+import com.google.common.collect.Maps;
+import com.google.common.eventbus.Subscribe;
+import com.happydroids.droidtowers.TowerConsts;
+import com.happydroids.droidtowers.entities.GridObject;
+import com.happydroids.droidtowers.entities.GridObjectSort;
+import com.happydroids.droidtowers.events.GridObjectAddedEvent;
+import com.happydroids.droidtowers.events.GridObjectBoundsChangeEvent;
+import com.happydroids.droidtowers.events.GridObjectPlacedEvent;
+import com.happydroids.droidtowers.events.GridObjectRemovedEvent;
+import com.happydroids.droidtowers.events.GridObjectsLoadedEvent;
+
+import java.util.IdentityHashMap;
+
+/**
+ * Splits the GameGrid into chunks of CHUNK_SIZE by CHUNK_SIZE cells, each holding the objects whose
+ * position falls inside it, so GameGridRenderer can cull and draw a whole chunk at once. A chunk's
+ * bounds cover all of its objects, even the ones reaching past the chunk.
+ * <p/>
+ * Adding, removing, moving, placing or picking up an object marks its chunk dirty, and the renderer
+ * rebuilds the chunk's SpriteCache the next time it draws it. A chunk keeps its objects in the order
+ * they are drawn, by z-index, along with the ones that have to be drawn with the SpriteBatch every
+ * frame: those left out of the cache and those with decals.
+ */
+public class GridRenderChunks {
+  public static final int CHUNK_SIZE = 16;
+  private static final float BOUNDS_PADDING = 2 * TowerConsts.GRID_UNIT_SIZE;
+
+  private final IntMap<Chunk> chunksByKey;
+  private final Array<Chunk> chunks;
+  private final IdentityHashMap<GridObject, Chunk> chunkOfObject;
+
+  public GridRenderChunks(GameGrid gameGrid) {
+    chunksByKey = new IntMap<Chunk>();
+    chunks = new Array<Chunk>();
+    chunkOfObject = Maps.newIdentityHashMap();
+
+    gameGrid.events().register(this);
+  }
+
+  @Subscribe
+  public void GameGrid_onGridObjectAdded(GridObjectAddedEvent event) {
+    add(event.getGridObject());
+  }
+
+  @Subscribe
+  public void GameGrid_onGridObjectsLoaded(GridObjectsLoadedEvent event) {
+    Array<GridObject> gridObjects = event.getGridObjects();
+    for (int i = 0; i < gridObjects.size; i++) {
+      add(gridObjects.get(i));
+    }
+  }
+
+  @Subscribe
+  public void GameGrid_onGridObjectRemoved(GridObjectRemovedEvent event) {
+    Chunk chunk = chunkOfObject.remove(event.getGridObject());
+    if (chunk != null) {
+      chunk.objects.removeValue(event.getGridObject(), true);
+      event.getGridObject().setSpriteCacheId(-1);
+      chunk.invalidate();
+    }
+  }
+
+  @Subscribe
+  public void GameGrid_onGridObjectBoundsChange(GridObjectBoundsChangeEvent event) {
+    GridObject gridObject = event.getGridObject();
+    Chunk chunk = chunkOfObject.get(gridObject);
+    if (chunk == null) {
+      return;
+    }
+
+    if (chunk.key == keyOf(gridObject)) {
+      chunk.invalidate();
+    } else {
+      chunkOfObject.remove(gridObject);
+      chunk.objects.removeValue(gridObject, true);
+      chunk.invalidate();
+      add(gridObject);
+    }
+  }
+
+  @Subscribe
+  public void GameGrid_onGridObjectPlaced(GridObjectPlacedEvent event) {
+    invalidate(event.getGridObject());
+  }
+
+  private void add(GridObject gridObject) {
+    if (chunkOfObject.containsKey(gridObject)) {
+      return;
+    }
+
+    int key = keyOf(gridObject);
+    Chunk chunk = chunksByKey.get(key);
+    if (chunk == null) {
+      chunk = new Chunk(key);
+      chunksByKey.put(key, chunk);
+      chunks.add(chunk);
+    }
+
+    chunk.insert(gridObject);
+    chunkOfObject.put(gridObject, chunk);
+    chunk.invalidate();
+  }
+
+  /**
+   * Marks the chunk holding the object dirty, for changes to how it looks that the grid never hears
+   * about, like a room being redecorated.
+   */
+  public void invalidate(GridObject gridObject) {
+    Chunk chunk = chunkOfObject.get(gridObject);
+    if (chunk != null) {
+      chunk.invalidate();
+    }
+  }
+
+  /**
+   * Has the chunk holding the object work out again which of its objects have decals to draw,
+   * without rebuilding its SpriteCache.
+   */
+  public void invalidateDecals(GridObject gridObject) {
+    Chunk chunk = chunkOfObject.get(gridObject);
+    if (chunk != null) {
+      chunk.batchDirty = true;
+    }
+  }
+
+  public void clear() {
+    for (GridObject gridObject : chunkOfObject.keySet()) {
+      gridObject.setSpriteCacheId(-1);
+    }
+
+    chunksByKey.clear();
+    chunks.clear();
+    chunkOfObject.clear();
+  }
+
+  public Array<Chunk> getChunks() {
+    return chunks;
+  }
+
+  public Chunk chunkOf(GridObject gridObject) {
+    return chunkOfObject.get(gridObject);
+  }
+
+  private static int keyOf(GridObject gridObject) {
+    int chunkX = Math.max(0, gridObject.getPosition().x) / CHUNK_SIZE;
+    int chunkY = Math.max(0, gridObject.getPosition().y) / CHUNK_SIZE;
+    return (chunkY << 16) | (chunkX & 0xffff);
+  }
+
+  public static class Chunk {
+    final int key;
+    final Array<GridObject> objects;
+    final Array<GridObject> batchObjects;
+    final Rectangle bounds;
+    boolean dirty;
+    boolean batchDirty;
+    int cacheId;
+    int cacheCapacity;
+
+    Chunk(int key) {
+      this.key = key;
+      objects = new Array<GridObject>(true, 16);
+      batchObjects = new Array<GridObject>(true, 4);
+      bounds = new Rectangle();
+      cacheId = -1;
+    }
+
+    void insert(GridObject gridObject) {
+      int index = objects.size;
+      while (index > 0 && GridObjectSort.byZIndex.compare(objects.get(index - 1), gridObject) > 0) {
+        index--;
+      }
+
+      objects.insert(index, gridObject);
+    }
+
+    void collectBatchObjects() {
+      batchObjects.clear();
+      for (int i = 0; i < objects.size; i++) {
+        GridObject gridObject = objects.get(i);
+        if (gridObject.getSpriteCacheId() == -1 || gridObject.hasDecals()) {
+          batchObjects.add(gridObject);
+        }
+      }
+
+      batchDirty = false;
+    }
+
+    void invalidate() {
+      dirty = true;
+
+      if (objects.size == 0) {
+        bounds.set(0, 0, 0, 0);
+        return;
+      }
+
+      Rectangle first = objects.get(0).getWorldBounds();
+      float minX = first.x, minY = first.y, maxX = first.x + first.width, maxY = first.y + first.height;
+      for (int i = 1; i < objects.size; i++) {
+        Rectangle objectBounds = objects.get(i).getWorldBounds();
+        minX = Math.min(minX, objectBounds.x);
+        minY = Math.min(minY, objectBounds.y);
+        maxX = Math.max(maxX, objectBounds.x + objectBounds.width);
+        maxY = Math.max(maxY, objectBounds.y + objectBounds.height);
+      }
+
+      bounds.set(minX - BOUNDS_PADDING, minY - BOUNDS_PADDING, maxX - minX + 2 * BOUNDS_PADDING, maxY - minY + 2 * BOUNDS_PADDING);
+    }
+
+    public Array<GridObject> getObjects() {
+      return objects;
+    }
+
+    public Rectangle getBounds() {
+      return bounds;
+    }
+
+    public boolean isDirty() {
+      return dirty;
+    }
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.grid;
+
+import com.badlogic.gdx.utils.Array;
+import com.google.common.collect.Maps;
+import com.google.common.eventbus.Subscribe;
+import com.happydroids.droidtowers.entities.GridObject;
+import com.happydroids.droidtowers.events.GridObjectPlacedEvent;
+import com.happydroids.droidtowers.events.GridObjectRemovedEvent;
+import com.happydroids.droidtowers.events.GridObjectsLoadedEvent;
+import com.happydroids.droidtowers.types.GridObjectType;
+import com.happydroids.droidtowers.types.ProviderType;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Locale;
+
+/**
+ * Counts the placed objects on the GameGrid by type id and by the ProviderType they provide, so
+ * build requirements don't have to walk every object.
+ * <p/>
+ * Every change is numbered, and the number of the last change is kept for each type id and
+ * ProviderType. Anything that read the counts can ask whether the ones it read have changed since.
+ */
+public class PlacedObjectCounts {
+  private static final ProviderType[] PROVIDER_TYPES = ProviderType.values();
+
+  private final IdentityHashMap<GridObject, GridObjectType> counted;
+  private final HashMap<String, Counter> countsByTypeId;
+  private final Counter[] countsByProviderType;
+  private int changeCount;
+  private int clearedAt;
+
+  public PlacedObjectCounts(GameGrid gameGrid) {
+    counted = Maps.newIdentityHashMap();
+    countsByTypeId = Maps.newHashMap();
+    countsByProviderType = new Counter[PROVIDER_TYPES.length];
+    for (int i = 0; i < countsByProviderType.length; i++) {
+      countsByProviderType[i] = new Counter();
+    }
+
+    gameGrid.events().register(this);
+  }
+
+  @Subscribe
+  public void GameGrid_onGridObjectPlaced(GridObjectPlacedEvent event) {
+    count(event.getGridObject());
+  }
+
+  @Subscribe
+  public void GameGrid_onGridObjectsLoaded(GridObjectsLoadedEvent event) {
+    Array<GridObject> gridObjects = event.getGridObjects();
+    for (int i = 0; i < gridObjects.size; i++) {
+      if (gridObjects.get(i).isPlaced()) {
+        count(gridObjects.get(i));
+      }
+    }
+  }
+
+  private void count(GridObject gridObject) {
+    GridObjectType gridObjectType = gridObject.getGridObjectType();
+    if (gridObjectType == null || counted.containsKey(gridObject)) {
+      return;
+    }
+
+    counted.put(gridObject, gridObjectType);
+    changeCount++;
+    counterForTypeId(gridObjectType.getId()).add(1, changeCount);
+    if (gridObjectType.getProvides() != null) {
+      countsByProviderType[gridObjectType.getProvides().ordinal()].add(1, changeCount);
+    }
+  }
+
+  @Subscribe
+  public void GameGrid_onGridObjectRemoved(GridObjectRemovedEvent event) {
+    GridObjectType gridObjectType = counted.remove(event.getGridObject());
+    if (gridObjectType == null) {
+      return;
+    }
+
+    changeCount++;
+    counterForTypeId(gridObjectType.getId()).add(-1, changeCount);
+    if (gridObjectType.getProvides() != null) {
+      countsByProviderType[gridObjectType.getProvides().ordinal()].add(-1, changeCount);
+    }
+  }
+
+  public void clear() {
+    counted.clear();
+    countsByTypeId.clear();
+    for (Counter counter : countsByProviderType) {
+      counter.count = 0;
+    }
+    clearedAt = ++changeCount;
+  }
+
+  public int countOfType(String typeId) {
+    Counter counter = countsByTypeId.get(normalize(typeId));
+    return counter != null ? counter.count : 0;
+  }
+
+  /**
+   * @return the number of placed objects whose type provides any of the given ProviderTypes, matched
+   *         the way GridObjectType.provides matches them
+   */
+  public int countProviding(ProviderType... providerTypes) {
+    int count = 0;
+    for (int i = 0; i < PROVIDER_TYPES.length; i++) {
+      if (countsByProviderType[i].count > 0 && PROVIDER_TYPES[i].matches(providerTypes)) {
+        count += countsByProviderType[i].count;
+      }
+    }
+
+    return count;
+  }
+
+  public int getChangeCount() {
+    return changeCount;
+  }
+
+  public int lastChangeOfType(String typeId) {
+    Counter counter = countsByTypeId.get(normalize(typeId));
+    return Math.max(clearedAt, counter != null ? counter.changedAt : 0);
+  }
+
+  public int lastChangeProviding(ProviderType... providerTypes) {
+    int lastChange = clearedAt;
+    for (int i = 0; i < PROVIDER_TYPES.length; i++) {
+      if (countsByProviderType[i].changedAt > lastChange && PROVIDER_TYPES[i].matches(providerTypes)) {
+        lastChange = countsByProviderType[i].changedAt;
+      }
+    }
+
+    return lastChange;
+  }
+
+  private Counter counterForTypeId(String typeId) {
+    String key = normalize(typeId);
+    Counter counter = countsByTypeId.get(key);
+    if (counter == null) {
+      counter = new Counter();
+      countsByTypeId.put(key, counter);
+    }
+
+    return counter;
+  }
+
+  private static String normalize(String typeId) {
+    // type ids are compared ignoring case, like the requirements always have.
+    return typeId != null ? typeId.toLowerCase(Locale.ENGLISH) : "";
+  }
+
+  private static class Counter {
+    int count;
+    int changedAt;
+
+    void add(int amount, int change) {
+      count += amount;
+      changedAt = change;
+    }
+  }
+}
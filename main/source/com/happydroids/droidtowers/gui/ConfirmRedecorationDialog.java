@@ -25,6 +25,7 @@ public class ConfirmRedecorationDialog extends Dialog {
 
         gridObject.setVariationId(variationId);
         gridObject.updateSprite();
+        gridObject.getGameGrid().renderChunks().invalidate(gridObject);
 
         Player.instance().subtractCurrency(1000);
       }
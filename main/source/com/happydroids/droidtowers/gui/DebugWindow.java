@@ -5,6 +5,7 @@
 package com.happydroids.droidtowers.gui;
 
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
 import com.badlogic.gdx.scenes.scene2d.Actor;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.Stage;
@@ -12,11 +13,16 @@ import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
 import com.happydroids.HappyDroidConsts;
 import com.happydroids.droidtowers.TowerAssetManager;
 import com.happydroids.droidtowers.TowerConsts;
+import com.happydroids.droidtowers.actions.ActionManager;
+import com.happydroids.droidtowers.actions.ActionTimings;
 import com.happydroids.droidtowers.achievements.AchievementEngine;
 import com.happydroids.droidtowers.achievements.TutorialEngine;
 import com.happydroids.droidtowers.entities.Player;
 import com.happydroids.droidtowers.gamestate.server.TowerGameService;
+import com.happydroids.droidtowers.pathfinding.TransitRouteCache;
 import com.happydroids.droidtowers.platform.Display;
+import com.happydroids.droidtowers.profiling.FrameProfiler;
+import com.happydroids.droidtowers.profiling.ProfileSection;
 import com.happydroids.droidtowers.scenes.TowerScene;
 import com.happydroids.droidtowers.scenes.components.SceneManager;
 import com.happydroids.droidtowers.utils.Screenshot;
@@ -24,6 +30,10 @@ import com.happydroids.platform.Platform;
 import com.happydroids.platform.PlatformPurchaseManger;
 import com.happydroids.platform.purchase.DroidTowerVersions;
 
+import java.io.IOException;
+
+import static com.badlogic.gdx.Application.ApplicationType.Android;
+
 public class DebugWindow extends ScrollableTowerWindow {
   public DebugWindow(Stage stage) {
     super("Debug", stage);
@@ -46,7 +56,27 @@ public class DebugWindow extends ScrollableTowerWindow {
 
       row();
       add(makeTakeAllMoneyButton());
+
+      row();
+      add(makeRouteCacheStatsLabel(((TowerScene) SceneManager.activeScene()).getGameGrid().routeCache()));
+    }
+
+    for (ActionTimings timings : ActionManager.instance().getTimings()) {
+      row();
+      add(makeActionTimingsLabel(timings));
+    }
+
+    FrameProfiler profiler = FrameProfiler.instance();
+    row();
+    add(makeMemoryLabel(profiler));
+    for (ProfileSection section : profiler.getSections()) {
+      row();
+      add(makeProfileSectionLabel(section));
     }
+    row();
+    add(makeDumpFrameProfileButton());
+    row();
+    add(makeResetFrameProfileButton());
 
     row();
     add(makeInvalidateTexturesButton());
@@ -69,6 +99,76 @@ public class DebugWindow extends ScrollableTowerWindow {
     shoveContentUp();
   }
 
+  private Actor makeRouteCacheStatsLabel(TransitRouteCache routeCache) {
+    return FontManager.Roboto18.makeLabel(String.format("Route cache: %d routes, %d hits, %d misses (%.0f%%), %d evictions, %d invalidations",
+                                                               routeCache.size(),
+                                                               routeCache.getHits(),
+                                                               routeCache.getMisses(),
+                                                               routeCache.getHitRate() * 100f,
+                                                               routeCache.getEvictions(),
+                                                               routeCache.getInvalidations()));
+  }
+
+  private Actor makeActionTimingsLabel(ActionTimings timings) {
+    return FontManager.Roboto18.makeLabel(String.format("%s: %d runs, mean %.2fms, p95 %.2fms, max %.2fms, %d deferred",
+                                                               timings.getName(),
+                                                               timings.getRuns(),
+                                                               timings.getMeanMillis(),
+                                                               timings.getPercentileMillis(0.95f),
+                                                               timings.getMaxMillis(),
+                                                               timings.getDeferrals()));
+  }
+
+  private Actor makeMemoryLabel(FrameProfiler profiler) {
+    int numFrames = profiler.getNumFrames();
+    long allocatedBytes = profiler.getAllocatedBytesInWindow();
+    return FontManager.Roboto18.makeLabel(String.format("Last %d frames: ~%.1fMb allocated (%.0fKb/frame), %d GCs",
+                                                               numFrames,
+                                                               allocatedBytes / TowerConsts.ONE_MEGABYTE,
+                                                               numFrames > 0 ? allocatedBytes / 1024f / numFrames : 0f,
+                                                               profiler.getCollectionsInWindow()));
+  }
+
+  private Actor makeProfileSectionLabel(ProfileSection section) {
+    return FontManager.Roboto18.makeLabel(String.format("%s: p50 %.2fms, p95 %.2fms, p99 %.2fms, max %.2fms",
+                                                               section.getName(),
+                                                               section.getPercentileMillis(0.5f),
+                                                               section.getPercentileMillis(0.95f),
+                                                               section.getPercentileMillis(0.99f),
+                                                               section.getMaxMillis()));
+  }
+
+  private Actor makeDumpFrameProfileButton() {
+    TextButton button = FontManager.Roboto24.makeTextButton("Dump Frame Profile CSV");
+    button.addListener(new VibrateClickListener() {
+      @Override
+      public void onClick(InputEvent event, float x, float y) {
+        String fileName = "DroidTowers_profile_" + System.currentTimeMillis() + ".csv";
+        FileHandle storagePath = Gdx.files.external(Gdx.app.getType().equals(Android) ? "" : "Desktop/");
+        FileHandle profileFile = storagePath.child(fileName);
+        try {
+          FrameProfiler.instance().writeCsv(profileFile);
+          Gdx.app.log("DebugWindow", "Wrote frame profile to " + profileFile.path());
+        } catch (IOException e) {
+          Gdx.app.error("DebugWindow", "Could not write frame profile", e);
+        }
+      }
+    });
+    return button;
+  }
+
+  private Actor makeResetFrameProfileButton() {
+    TextButton button = FontManager.Roboto24.makeTextButton("Reset Frame Profile");
+    button.addListener(new VibrateClickListener() {
+      @Override
+      public void onClick(InputEvent event, float x, float y) {
+        FrameProfiler.instance().reset();
+        dismiss();
+      }
+    });
+    return button;
+  }
+
   private Actor makeTakeAllMoneyButton() {
     TextButton button = FontManager.Roboto24.makeTextButton("Take ALL Money");
     button.addListener(new VibrateClickListener() {
@@ -7,6 +7,7 @@ package com.happydroids.droidtowers.gui;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
 import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.happydroids.droidtowers.entities.Elevator;
+import com.happydroids.droidtowers.entities.elevator.ElevatorStatistics;
 import com.happydroids.droidtowers.gui.controls.ButtonBar;
 import com.happydroids.droidtowers.gui.dialogs.ConfirmElevatorAddCarDialog;
 import com.happydroids.droidtowers.gui.dialogs.ConfirmElevatorRemoveCarDialog;
@@ -16,6 +17,8 @@ public class ElevatorPopOver extends GridObjectPopOver<Elevator> {
   private Label numRidersLabel;
   private Label numPassengersWaitingLabel;
   private Label numCarsLabel;
+  private Label averageWaitLabel;
+  private Label throughputLabel;
 
 
   public ElevatorPopOver(Elevator elevator) {
@@ -27,6 +30,8 @@ public class ElevatorPopOver extends GridObjectPopOver<Elevator> {
     numCarsLabel = FontManager.RobotoBold18.makeLabel("1");
     numRidersLabel = FontManager.RobotoBold18.makeLabel("1");
     numPassengersWaitingLabel = FontManager.RobotoBold18.makeLabel("1");
+    averageWaitLabel = FontManager.RobotoBold18.makeLabel("1");
+    throughputLabel = FontManager.RobotoBold18.makeLabel("1");
 
     ButtonBar buttonBar = new ButtonBar();
     buttonBar.addButton("Add Car", new VibrateClickListener() {
@@ -58,6 +63,16 @@ public class ElevatorPopOver extends GridObjectPopOver<Elevator> {
     row();
     add(numPassengersWaitingLabel);
 
+    row();
+    add(FontManager.Roboto12.makeLabel("AVG. WAIT"));
+    row();
+    add(averageWaitLabel);
+
+    row();
+    add(FontManager.Roboto12.makeLabel("RIDERS PER MINUTE"));
+    row();
+    add(throughputLabel);
+
     row().fillX().pad(Display.devicePixel(-8)).padTop(Display.devicePixel(16));
     add(buttonBar).expandX().minWidth(200);
 
@@ -69,5 +84,9 @@ public class ElevatorPopOver extends GridObjectPopOver<Elevator> {
     numCarsLabel.setText("" + gridObject.getNumElevatorCars());
     numRidersLabel.setText("" + gridObject.getNumRiders());
     numPassengersWaitingLabel.setText("" + gridObject.getNumPassengersWaiting());
+
+    ElevatorStatistics statistics = gridObject.getStatistics();
+    averageWaitLabel.setText(String.format("%.1fs", statistics.getAverageWaitTime()));
+    throughputLabel.setText("" + statistics.getThroughputPerMinute());
   }
 }
@@ -137,7 +137,7 @@ public abstract class AStar<T> {
 
 
   protected int lastCost;
-  private int expandedCounter;
+  protected int expandedCounter;
 
   public int getExpandedCounter() {
     return expandedCounter;
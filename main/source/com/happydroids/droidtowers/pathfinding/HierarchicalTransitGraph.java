@@ -0,0 +1,497 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.pathfinding;
+
+import com.badlogic.gdx.utils.Array;
+import com.google.common.eventbus.Subscribe;
+import com.happydroids.droidtowers.TowerConsts;
+import com.happydroids.droidtowers.entities.Elevator;
+import com.happydroids.droidtowers.entities.GridObject;
+import com.happydroids.droidtowers.events.GameGridResizeEvent;
+import com.happydroids.droidtowers.events.GridObjectBoundsChangeEvent;
+import com.happydroids.droidtowers.events.GridObjectEvent;
+import com.happydroids.droidtowers.events.TransitChangeEvent;
+import com.happydroids.droidtowers.grid.GameGrid;
+import com.happydroids.droidtowers.grid.GridPosition;
+import com.happydroids.droidtowers.math.GridPoint;
+
+import java.util.Arrays;
+
+import static com.happydroids.droidtowers.types.ProviderType.SERVICE_ELEVATOR;
+
+/**
+ * An abstract transit graph whose nodes are the elevator and stair cells of each floor.
+ * <p/>
+ * Walking along a floor is collapsed into a single edge to the nearest node on either side, its
+ * cost read from per-floor prefix sums of TransitPathFinder's g() function, and shaft rides are
+ * edges between the nodes of neighbouring floors. Searches therefore only visit transit cells, and
+ * the chosen route is expanded back into the cell-by-cell path the AvatarSteeringManager expects.
+ * <p/>
+ * Floors are rebuilt lazily, only the floors touched by a grid event are recomputed before the next
+ * search. Cells a droid can walk through but has no cost for (rooms not connected to transit) are
+ * treated as impassable rather than overflowing the path cost. Game thread only.
+ */
+public class HierarchicalTransitGraph {
+  private static final byte WALKABLE = 1;
+  private static final byte CONNECTED_TO_TRANSIT = 1 << 1;
+  private static final byte HAS_STAIR = 1 << 2;
+  private static final byte TRANSIT_NODE = 1 << 3;
+
+  private static final int IMPASSABLE = Integer.MAX_VALUE;
+
+  private final GameGrid gameGrid;
+  private final SearchArena arena;
+  private final int[] successors;
+  private int numSuccessors;
+
+  private GridPosition[][] layoutPositions;
+  private int columns;
+  private int floors;
+  private byte[] cellFlags;
+  private Elevator[] cellElevator;
+  private int[] cellSegment;
+  private int[] nearestNodeLeft;
+  private int[] nearestNodeRight;
+  private int[] walkCost;
+  private int[] serviceWalkCost;
+  private int[] impassableCount;
+
+  private boolean[] dirtyFloors;
+  private boolean hasDirtyFloors;
+  private int floorsRebuilt;
+
+  private boolean canUseServiceRoutes;
+  private int goalCell;
+  private int minStepCost;
+  private int[] goalColumnCost;
+  private int expandedCounter;
+  private int lastCost;
+
+  public HierarchicalTransitGraph(GameGrid gameGrid) {
+    this.gameGrid = gameGrid;
+    arena = new SearchArena();
+    successors = new int[5];
+
+    gameGrid.events().register(this);
+  }
+
+  /**
+   * @return the cell-by-cell path from start to goal, or null if there is none
+   */
+  public Array<GridPosition> findPath(GridPosition start, GridPosition goal, boolean canUseServiceRoutes) {
+    updateLayout();
+    rebuildDirtyFloors();
+
+    this.canUseServiceRoutes = canUseServiceRoutes;
+    expandedCounter = 0;
+    lastCost = Integer.MAX_VALUE;
+
+    if (!contains(start.x, start.y) || !contains(goal.x, goal.y)) {
+      return null;
+    }
+
+    goalCell = cellIndex(goal.x, goal.y);
+    minStepCost = canUseServiceRoutes ? 5 : 25;
+    updateGoalColumnCosts();
+    arena.reset(cellFlags.length);
+
+    int root = arena.newNode(cellIndex(start.x, start.y), -1);
+    arena.nodeG[root] = 0;
+    arena.nodeF[root] = priority(0, arena.nodeCell[root]);
+    arena.offer(root);
+
+    while (!arena.isOpenSetEmpty()) {
+      int node = arena.poll();
+      int cell = arena.nodeCell[node];
+
+      if (cell == goalCell) {
+        lastCost = arena.nodeG[node];
+        return expandPath(node);
+      }
+
+      if (!arena.visit(node)) {
+        continue;
+      }
+
+      generateSuccessors(cell);
+      for (int i = 0; i < numSuccessors; i++) {
+        int successor = successors[i];
+        int cost = edgeCost(cell, successor);
+        if (cost == IMPASSABLE) {
+          continue;
+        }
+
+        int child = arena.newNode(successor, node);
+        arena.nodeG[child] = arena.nodeG[node] + cost;
+        arena.nodeF[child] = priority(arena.nodeG[child], successor);
+        arena.offer(child);
+      }
+
+      expandedCounter++;
+    }
+
+    return null;
+  }
+
+  public int getExpandedCounter() {
+    return expandedCounter;
+  }
+
+  public int getCost() {
+    return lastCost;
+  }
+
+  public int getFloorsRebuilt() {
+    return floorsRebuilt;
+  }
+
+  @Subscribe
+  public void GameGrid_onGridObjectEvent(GridObjectEvent event) {
+    GridObject gridObject = event.getGridObject();
+    if (gridObject == null) {
+      markAllFloorsDirty();
+      return;
+    }
+
+    markFloorsDirty(gridObject.getPosition(), gridObject.getSize());
+    if (event instanceof GridObjectBoundsChangeEvent) {
+      GridObjectBoundsChangeEvent boundsChangeEvent = (GridObjectBoundsChangeEvent) event;
+      markFloorsDirty(boundsChangeEvent.getPrevPosition(), boundsChangeEvent.getPrevSize());
+    }
+  }
+
+  @Subscribe
+  public void GameGrid_onTransitChange(TransitChangeEvent event) {
+    if (dirtyFloors == null) {
+      return;
+    }
+
+    int top = Math.min(floors - 1, event.maxFloor);
+    for (int y = Math.max(0, event.minFloor); y <= top; y++) {
+      dirtyFloors[y] = true;
+      hasDirtyFloors = true;
+    }
+  }
+
+  @Subscribe
+  public void GameGrid_onGameGridResize(GameGridResizeEvent event) {
+    cellFlags = null;
+  }
+
+  private void markFloorsDirty(GridPoint position, GridPoint size) {
+    if (dirtyFloors == null) {
+      return;
+    }
+
+    // stairs reach one floor above their bounds
+    int top = Math.min(floors - 1, position.y + size.y);
+    for (int y = Math.max(0, position.y); y <= top; y++) {
+      dirtyFloors[y] = true;
+      hasDirtyFloors = true;
+    }
+  }
+
+  private void markAllFloorsDirty() {
+    if (dirtyFloors != null) {
+      Arrays.fill(dirtyFloors, true);
+      hasDirtyFloors = true;
+    }
+  }
+
+  private void updateLayout() {
+    GridPosition[][] positions = gameGrid.positionCache().getPositions();
+    if (cellFlags != null && positions == layoutPositions) {
+      return;
+    }
+
+    layoutPositions = positions;
+    columns = positions.length;
+    floors = columns > 0 ? positions[0].length : 0;
+
+    int numCells = columns * floors;
+    cellFlags = new byte[numCells];
+    cellElevator = new Elevator[numCells];
+    cellSegment = new int[numCells];
+    nearestNodeLeft = new int[numCells];
+    nearestNodeRight = new int[numCells];
+    walkCost = new int[floors * (columns + 1)];
+    serviceWalkCost = new int[floors * (columns + 1)];
+    impassableCount = new int[floors * (columns + 1)];
+    goalColumnCost = new int[columns];
+    dirtyFloors = new boolean[floors];
+    markAllFloorsDirty();
+  }
+
+  private void rebuildDirtyFloors() {
+    if (!hasDirtyFloors) {
+      return;
+    }
+
+    GridPosition[][] positions = gameGrid.positionCache().getPositions();
+    for (int y = 0; y < floors; y++) {
+      if (dirtyFloors[y]) {
+        rebuildFloor(positions, y);
+        dirtyFloors[y] = false;
+        floorsRebuilt++;
+      }
+    }
+
+    hasDirtyFloors = false;
+  }
+
+  private void rebuildFloor(GridPosition[][] positions, int y) {
+    int rowStart = y * columns;
+    int prefixStart = y * (columns + 1);
+
+    int segment = -1;
+    int lastNode = -1;
+    for (int x = 0; x < columns; x++) {
+      GridPosition position = positions[x][y];
+      int cell = rowStart + x;
+
+      byte flags = 0;
+      if (!position.isEmpty() || y == TowerConsts.LOBBY_FLOOR) {
+        flags |= WALKABLE;
+      }
+      if (position.connectedToTransit) {
+        flags |= CONNECTED_TO_TRANSIT;
+      }
+      if (position.stair != null) {
+        flags |= HAS_STAIR;
+      }
+      if (position.elevator != null || position.stair != null) {
+        flags |= TRANSIT_NODE;
+      }
+      cellFlags[cell] = flags;
+      cellElevator[cell] = position.elevator;
+
+      if ((flags & WALKABLE) != 0) {
+        if (segment == -1 || (cellFlags[cell - 1] & WALKABLE) == 0) {
+          segment = cell;
+          lastNode = -1;
+        }
+        cellSegment[cell] = segment;
+        nearestNodeLeft[cell] = lastNode;
+        if ((flags & TRANSIT_NODE) != 0) {
+          lastNode = cell;
+        }
+      } else {
+        cellSegment[cell] = -1;
+        nearestNodeLeft[cell] = -1;
+        segment = -1;
+      }
+
+      int cost = cellCost(cell, false);
+      int serviceCost = cellCost(cell, true);
+      boolean impassable = cost == IMPASSABLE;
+      walkCost[prefixStart + x + 1] = walkCost[prefixStart + x] + (impassable ? 0 : cost);
+      serviceWalkCost[prefixStart + x + 1] = serviceWalkCost[prefixStart + x] + (impassable ? 0 : serviceCost);
+      impassableCount[prefixStart + x + 1] = impassableCount[prefixStart + x] + (impassable ? 1 : 0);
+    }
+
+    int nextNode = -1;
+    for (int x = columns - 1; x >= 0; x--) {
+      int cell = rowStart + x;
+      if (cellSegment[cell] == -1 || x == columns - 1 || cellSegment[cell + 1] != cellSegment[cell]) {
+        nextNode = -1;
+      }
+      nearestNodeRight[cell] = cellSegment[cell] == -1 ? -1 : nextNode;
+      if ((cellFlags[cell] & TRANSIT_NODE) != 0 && cellSegment[cell] != -1) {
+        nextNode = cell;
+      }
+    }
+  }
+
+  private void generateSuccessors(int cell) {
+    numSuccessors = 0;
+
+    int x = cellX(cell);
+    int y = cellY(cell);
+
+    if ((cellFlags[cell] & TRANSIT_NODE) != 0) {
+      Elevator elevator = cellElevator[cell];
+      if (elevator != null && elevator.getNumElevatorCars() > 0) {
+        boolean isServiceElevator = elevator.provides(SERVICE_ELEVATOR);
+        if (canUseServiceRoutes && isServiceElevator || !canUseServiceRoutes && !isServiceElevator) {
+          if (elevator.servicesFloor(y + 1)) {
+            checkVertical(x, y + 1);
+          }
+          if (elevator.servicesFloor(y - 1)) {
+            checkVertical(x, y - 1);
+          }
+        }
+      } else if ((cellFlags[cell] & HAS_STAIR) != 0) {
+        checkVertical(x, y + 1);
+        checkVertical(x, y - 1);
+      }
+    }
+
+    if (cellSegment[cell] != -1) {
+      if (nearestNodeLeft[cell] != -1) {
+        successors[numSuccessors++] = nearestNodeLeft[cell];
+      }
+      if (nearestNodeRight[cell] != -1) {
+        successors[numSuccessors++] = nearestNodeRight[cell];
+      }
+      if (cellSegment[goalCell] == cellSegment[cell] && goalCell != cell) {
+        successors[numSuccessors++] = goalCell;
+      }
+    }
+  }
+
+  private void checkVertical(int x, int y) {
+    if (!contains(x, y)) {
+      return;
+    }
+
+    int cell = cellIndex(x, y);
+    if ((cellFlags[cell] & CONNECTED_TO_TRANSIT) != 0 || y == TowerConsts.LOBBY_FLOOR) {
+      Elevator elevator = cellElevator[cell];
+      if (elevator != null && elevator.servicesFloor(y)) {
+        successors[numSuccessors++] = cell;
+      } else if ((cellFlags[cell] & HAS_STAIR) != 0) {
+        successors[numSuccessors++] = cell;
+      }
+    }
+  }
+
+  private int edgeCost(int from, int to) {
+    int y = cellY(from);
+    if (cellY(to) != y) {
+      return cellCost(to, canUseServiceRoutes);
+    }
+
+    int fromX = cellX(from);
+    int toX = cellX(to);
+    int first = Math.min(fromX, toX) + (toX > fromX ? 1 : 0);
+    int last = Math.max(fromX, toX) - (toX > fromX ? 0 : 1);
+
+    int prefixStart = y * (columns + 1);
+    if (impassableCount[prefixStart + last + 1] - impassableCount[prefixStart + first] > 0) {
+      return IMPASSABLE;
+    }
+
+    int[] prefix = canUseServiceRoutes ? serviceWalkCost : walkCost;
+    return prefix[prefixStart + last + 1] - prefix[prefixStart + first];
+  }
+
+  /**
+   * TransitPathFinder.g() for stepping into the given cell.
+   */
+  private int cellCost(int cell, boolean canUseServiceRoutes) {
+    int y = cellY(cell);
+    Elevator elevator = cellElevator[cell];
+    if (elevator != null && elevator.servicesFloor(y) && elevator.getNumElevatorCars() > 0) {
+      if (canUseServiceRoutes && elevator.provides(SERVICE_ELEVATOR)) {
+        return 5;
+      }
+
+      return 25;
+    } else if ((cellFlags[cell] & HAS_STAIR) != 0) {
+      return 75;
+    } else if ((cellFlags[cell] & CONNECTED_TO_TRANSIT) != 0) {
+      return 100;
+    }
+
+    if (y == TowerConsts.LOBBY_FLOOR) {
+      return 200;
+    }
+
+    return IMPASSABLE;
+  }
+
+  /**
+   * f = g + h in the high bits, ties go to the node that is furthest along (largest share of g).
+   * Towers are full of equally cheap routes, without this the search fans out across all of them.
+   */
+  private int priority(int g, int cell) {
+    int f = g + h(cell);
+    return f == 0 ? 0 : (f << 6) + 63 - (int) ((g * 63L) / f);
+  }
+
+  /**
+   * Every route ends by arriving on the goal's segment of the goal floor and walking the rest of the
+   * way, so the cheapest such ending, plus the cheapest step g() can return for each remaining unit
+   * of Manhattan distance, never overestimates. It is far tighter than the unit Manhattan distance
+   * TransitPathFinder uses, which lets long horizontal walks look almost free.
+   */
+  private int h(int cell) {
+    return minStepCost * Math.abs(cellY(goalCell) - cellY(cell)) + goalColumnCost[cellX(cell)];
+  }
+
+  /**
+   * goalColumnCost[x] = min over the goal segment's nodes n of minStepCost * |x - n.x| + walk(n, goal)
+   */
+  private void updateGoalColumnCosts() {
+    Arrays.fill(goalColumnCost, IMPASSABLE);
+    goalColumnCost[cellX(goalCell)] = 0;
+
+    int segment = cellSegment[goalCell];
+    if (segment != -1) {
+      int rowStart = cellY(goalCell) * columns;
+      for (int cell = segment; cell < rowStart + columns && cellSegment[cell] == segment; cell++) {
+        if ((cellFlags[cell] & TRANSIT_NODE) != 0 && cell != goalCell) {
+          int walk = edgeCost(cell, goalCell);
+          if (walk != IMPASSABLE) {
+            goalColumnCost[cellX(cell)] = Math.min(goalColumnCost[cellX(cell)], walk);
+          }
+        }
+      }
+    }
+
+    for (int x = 1; x < columns; x++) {
+      if (goalColumnCost[x - 1] != IMPASSABLE) {
+        goalColumnCost[x] = Math.min(goalColumnCost[x], goalColumnCost[x - 1] + minStepCost);
+      }
+    }
+    for (int x = columns - 2; x >= 0; x--) {
+      if (goalColumnCost[x + 1] != IMPASSABLE) {
+        goalColumnCost[x] = Math.min(goalColumnCost[x], goalColumnCost[x + 1] + minStepCost);
+      }
+    }
+  }
+
+  private Array<GridPosition> expandPath(int goalNode) {
+    GridPosition[][] positions = gameGrid.positionCache().getPositions();
+    int length = arena.tracePath(goalNode);
+
+    Array<GridPosition> path = new Array<GridPosition>(true, Math.max(length * 4, 20));
+    int previous = arena.pathCellFromEnd(length - 1);
+    path.add(positions[cellX(previous)][cellY(previous)]);
+
+    for (int i = length - 2; i >= 0; i--) {
+      int cell = arena.pathCellFromEnd(i);
+      int y = cellY(cell);
+      if (cellY(previous) == y) {
+        int step = cellX(cell) > cellX(previous) ? 1 : -1;
+        for (int x = cellX(previous) + step; x != cellX(cell) + step; x += step) {
+          path.add(positions[x][y]);
+        }
+      } else {
+        path.add(positions[cellX(cell)][y]);
+      }
+
+      previous = cell;
+    }
+
+    return path;
+  }
+
+  private boolean contains(int x, int y) {
+    return x >= 0 && x < columns && y >= 0 && y < floors;
+  }
+
+  private int cellIndex(int x, int y) {
+    return y * columns + x;
+  }
+
+  private int cellX(int cell) {
+    return cell % columns;
+  }
+
+  private int cellY(int cell) {
+    return cell / columns;
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.pathfinding;
+
+import com.happydroids.droidtowers.grid.GameGrid;
+
+/**
+ * TransitPathFinder that searches the GameGrid's HierarchicalTransitGraph, the whole search runs
+ * inside start() so the path is ready as soon as it returns and PathSearchManager never gets to
+ * spread it over several frames.
+ * <p/>
+ * Costs match TransitPathFinder wherever its path cost does not overflow. Rooms that are not
+ * connected to transit are impassable here, where TransitPathFinder still walks through them.
+ */
+public class HierarchicalTransitPathFinder extends TransitPathFinder {
+  public HierarchicalTransitPathFinder(GameGrid gameGrid, boolean canUseServiceRoutes) {
+    super(gameGrid, canUseServiceRoutes);
+  }
+
+  @Override
+  public void start() {
+    if (startFromRouteCache()) {
+      return;
+    }
+
+    HierarchicalTransitGraph transitGraph = gameGrid.transitGraph();
+    discoveredPath = transitGraph.findPath(start, goal, canUseServiceRoutes());
+    expandedCounter = transitGraph.getExpandedCounter();
+    lastCost = transitGraph.getCost();
+    working = false;
+  }
+
+  @Override
+  public void step() {
+  }
+
+  @Override
+  public void cancel() {
+    working = false;
+    lastCost = Integer.MAX_VALUE;
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.pathfinding;
+
+import com.badlogic.gdx.utils.Array;
+import com.happydroids.droidtowers.grid.GameGrid;
+import com.happydroids.droidtowers.grid.GridPosition;
+
+/**
+ * Allocation free variant of the TransitPathFinder.
+ * <p/>
+ * Search nodes live in a SearchArena that is reused from one search to the next and cells are
+ * addressed by their index into the GridPositionCache. The discovered paths are identical to the
+ * ones produced by AStar.
+ */
+public class IndexedTransitPathFinder extends TransitPathFinder {
+  private final SearchArena arena;
+  private GridPosition[][] cellPositions;
+  private int cellRows;
+
+  public IndexedTransitPathFinder(GameGrid gameGrid, boolean canUseServiceRoutes) {
+    super(gameGrid, canUseServiceRoutes);
+
+    arena = new SearchArena();
+  }
+
+  @Override
+  public void start() {
+    if (startFromRouteCache()) {
+      return;
+    }
+
+    try {
+      working = true;
+
+      expandedCounter = 0;
+      lastCost = 0;
+
+      cellPositions = gameGrid.positionCache().getPositions();
+      cellRows = cellPositions.length > 0 ? cellPositions[0].length : 0;
+      arena.reset(cellPositions.length * cellRows);
+
+      int root = arena.newNode(cellIndex(start), -1);
+      arena.nodeG[root] = g(start, start);
+      arena.nodeF[root] = arena.nodeG[root] + h(start, start);
+
+      expand(root);
+      step();
+    } catch (Exception e) {
+      e.printStackTrace();
+    }
+  }
+
+  @Override
+  public void step() {
+    if (!working) {
+      return;
+    }
+
+    if (cellPositions != gameGrid.positionCache().getPositions()) {
+      // the grid was resized underneath us, cell indexes are no longer valid.
+      start();
+      return;
+    }
+
+    if (arena.isOpenSetEmpty()) {
+      lastCost = Integer.MAX_VALUE;
+      working = false;
+      return;
+    }
+
+    int node = arena.poll();
+    GridPosition last = positionForCell(arena.nodeCell[node]);
+
+    lastCost = arena.nodeG[node];
+
+    if (isGoal(last)) {
+      int length = arena.tracePath(node);
+      discoveredPath = new Array<GridPosition>(true, Math.max(length, 20));
+      for (int i = length - 1; i >= 0; i--) {
+        discoveredPath.add(positionForCell(arena.pathCellFromEnd(i)));
+      }
+
+      working = false;
+      return;
+    }
+
+    expand(node);
+  }
+
+  @Override
+  public void cancel() {
+    working = false;
+    lastCost = Integer.MAX_VALUE;
+    arena.clearOpenSet();
+  }
+
+  private void expand(int node) {
+    if (!arena.visit(node)) {
+      return;
+    }
+
+    GridPosition point = positionForCell(arena.nodeCell[node]);
+    Array<GridPosition> successors = generateSuccessors(point);
+
+    for (int i = 0; i < successors.size; i++) {
+      GridPosition successor = successors.get(i);
+
+      int child = arena.newNode(cellIndex(successor), node);
+      arena.nodeG[child] = g(point, successor) + arena.nodeG[node];
+      arena.nodeF[child] = arena.nodeG[child] + h(point, successor);
+
+      arena.offer(child);
+    }
+
+    expandedCounter++;
+  }
+
+  private int cellIndex(GridPosition position) {
+    return position.x * cellRows + position.y;
+  }
+
+  private GridPosition positionForCell(int cell) {
+    return cellPositions[cell / cellRows][cell % cellRows];
+  }
+}
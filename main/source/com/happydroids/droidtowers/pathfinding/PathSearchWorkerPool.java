@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.pathfinding;
+
+import com.badlogic.gdx.utils.Array;
+import com.google.common.collect.Maps;
+import com.google.common.eventbus.Subscribe;
+import com.happydroids.droidtowers.events.GameGridResizeEvent;
+import com.happydroids.droidtowers.events.GridObjectEvent;
+import com.happydroids.droidtowers.events.TransitChangeEvent;
+import com.happydroids.droidtowers.grid.GameGrid;
+import com.happydroids.droidtowers.grid.GridPosition;
+import com.happydroids.droidtowers.grid.GridPositionCache;
+import com.happydroids.platform.Platform;
+
+import java.util.IdentityHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs TransitPathFinder searches on a fixed set of worker threads.
+ * <p/>
+ * Workers only ever see an immutable TransitGraphSnapshot. Everything that touches the live grid,
+ * taking snapshots and handing results back to the path finders, happens inside the methods below,
+ * which must all be called from the game thread.
+ */
+public class PathSearchWorkerPool {
+  private static final float SNAPSHOT_MAX_AGE = 1f;
+
+  private final ExecutorService threadPool;
+  private final int maxSearchesInFlight;
+  private final ConcurrentLinkedQueue<SearchJob> completedJobs;
+  private final IdentityHashMap<TransitPathFinder, SearchJob> jobsInFlight;
+  private final ThreadLocal<TransitGraphSearch> workerSearches;
+  private final Array<TransitPathFinder> retries;
+
+  private GameGrid gameGrid;
+  private TransitGraphSnapshot snapshot;
+  private boolean snapshotIsStale;
+  private float snapshotAge;
+
+  public PathSearchWorkerPool(int numThreads) {
+    maxSearchesInFlight = numThreads * 4;
+    completedJobs = new ConcurrentLinkedQueue<SearchJob>();
+    jobsInFlight = Maps.newIdentityHashMap();
+    retries = new Array<TransitPathFinder>();
+    workerSearches = new ThreadLocal<TransitGraphSearch>() {
+      @Override
+      protected TransitGraphSearch initialValue() {
+        return new TransitGraphSearch();
+      }
+    };
+
+    final AtomicInteger threadCount = new AtomicInteger();
+    threadPool = Executors.newFixedThreadPool(numThreads, new ThreadFactory() {
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "PathSearchThread-" + threadCount.incrementAndGet());
+        thread.setUncaughtExceptionHandler(Platform.getUncaughtExceptionHandler());
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+  }
+
+  public boolean canAcceptSearch() {
+    return jobsInFlight.size() + retries.size < maxSearchesInFlight;
+  }
+
+  public void submit(TransitPathFinder pathFinder) {
+    cancel(pathFinder);
+
+    if (pathFinder.gameGrid != gameGrid) {
+      trackGameGrid(pathFinder.gameGrid);
+    }
+
+    if (snapshot == null || snapshotIsStale || snapshotAge >= SNAPSHOT_MAX_AGE) {
+      snapshot = new TransitGraphSnapshot(gameGrid);
+      snapshotIsStale = false;
+      snapshotAge = 0f;
+    }
+
+    SearchJob job = new SearchJob(pathFinder, snapshot);
+    jobsInFlight.put(pathFinder, job);
+    threadPool.submit(job);
+  }
+
+  public void cancel(TransitPathFinder pathFinder) {
+    SearchJob job = jobsInFlight.remove(pathFinder);
+    if (job != null) {
+      job.canceled = true;
+    }
+
+    retries.removeValue(pathFinder, true);
+  }
+
+  /**
+   * Hands finished searches back to their path finders, searches that have to be run again because
+   * the grid shrank underneath them are resubmitted here as room frees up.
+   *
+   * @return the path finders whose search completed, their complete callbacks have not been run yet
+   */
+  public Array<TransitPathFinder> collectCompleted(float deltaTime, Array<TransitPathFinder> completed) {
+    snapshotAge += deltaTime;
+
+    SearchJob job;
+    while ((job = completedJobs.poll()) != null) {
+      if (job.canceled || jobsInFlight.get(job.pathFinder) != job) {
+        continue;
+      }
+
+      jobsInFlight.remove(job.pathFinder);
+      if (applyResult(job)) {
+        completed.add(job.pathFinder);
+      }
+    }
+
+    while (retries.size > 0 && jobsInFlight.size() < maxSearchesInFlight) {
+      submit(retries.removeIndex(0));
+    }
+
+    return completed;
+  }
+
+  public int getNumSearchesInFlight() {
+    return jobsInFlight.size();
+  }
+
+  public void dispose() {
+    for (SearchJob job : jobsInFlight.values()) {
+      job.canceled = true;
+    }
+    jobsInFlight.clear();
+    completedJobs.clear();
+    retries.clear();
+
+    if (gameGrid != null) {
+      gameGrid.events().unregister(this);
+      gameGrid = null;
+    }
+    snapshot = null;
+
+    threadPool.shutdownNow();
+    try {
+      threadPool.awaitTermination(1, TimeUnit.SECONDS);
+    } catch (InterruptedException ignored) {
+    }
+  }
+
+  private boolean applyResult(SearchJob job) {
+    TransitPathFinder pathFinder = job.pathFinder;
+    if (!job.wasSuccessful) {
+      pathFinder.discoveredPath = null;
+      pathFinder.lastCost = Integer.MAX_VALUE;
+      pathFinder.expandedCounter = job.expandedCounter;
+      pathFinder.working = false;
+      return true;
+    }
+
+    GridPositionCache positionCache = pathFinder.gameGrid.positionCache();
+    Array<GridPosition> path = new Array<GridPosition>(true, Math.max(job.discoveredCells.length, 20));
+    for (int cell : job.discoveredCells) {
+      GridPosition position = positionCache.getPosition(job.snapshot.cellX(cell), job.snapshot.cellY(cell));
+      if (position == null) {
+        // the grid shrank while we were searching, try again against the current layout.
+        retries.add(pathFinder);
+        return false;
+      }
+      path.add(position);
+    }
+
+    pathFinder.discoveredPath = path;
+    pathFinder.lastCost = job.cost;
+    pathFinder.expandedCounter = job.expandedCounter;
+    pathFinder.working = false;
+    return true;
+  }
+
+  private void trackGameGrid(GameGrid newGameGrid) {
+    if (gameGrid != null) {
+      gameGrid.events().unregister(this);
+    }
+
+    gameGrid = newGameGrid;
+    gameGrid.events().register(this);
+    snapshot = null;
+  }
+
+  @Subscribe
+  public void GameGrid_onGridObjectEvent(GridObjectEvent event) {
+    snapshotIsStale = true;
+  }
+
+  @Subscribe
+  public void GameGrid_onTransitChange(TransitChangeEvent event) {
+    snapshotIsStale = true;
+  }
+
+  @Subscribe
+  public void GameGrid_onGameGridResize(GameGridResizeEvent event) {
+    snapshotIsStale = true;
+  }
+
+  private class SearchJob implements Runnable {
+    final TransitPathFinder pathFinder;
+    final TransitGraphSnapshot snapshot;
+    final boolean canUseServiceRoutes;
+    final int startX;
+    final int startY;
+    final int goalX;
+    final int goalY;
+    volatile boolean canceled;
+
+    boolean wasSuccessful;
+    int cost;
+    int expandedCounter;
+    int[] discoveredCells;
+
+    SearchJob(TransitPathFinder pathFinder, TransitGraphSnapshot snapshot) {
+      this.pathFinder = pathFinder;
+      this.snapshot = snapshot;
+      canUseServiceRoutes = pathFinder.canUseServiceRoutes();
+      startX = pathFinder.start.x;
+      startY = pathFinder.start.y;
+      goalX = pathFinder.goal.x;
+      goalY = pathFinder.goal.y;
+    }
+
+    public void run() {
+      if (canceled) {
+        return;
+      }
+
+      TransitGraphSearch search = workerSearches.get();
+      if (snapshot.contains(startX, startY)) {
+        wasSuccessful = search.search(snapshot, canUseServiceRoutes, startX, startY, goalX, goalY);
+        cost = search.getCost();
+        expandedCounter = search.getExpandedCounter();
+        discoveredCells = search.getDiscoveredCells();
+      }
+
+      completedJobs.offer(this);
+    }
+  }
+}
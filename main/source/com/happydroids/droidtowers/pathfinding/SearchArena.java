@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.pathfinding;
+
+import java.util.Arrays;
+
+/**
+ * Primitive storage for an A* search over integer cell indexes.
+ * <p/>
+ * Nodes, the open set and the per-cell best costs are kept in arrays that survive from one search
+ * to the next. The open set is a binary heap that sifts exactly like java.util.PriorityQueue does
+ * with AStar.Path, so searches pop nodes in the same order AStar would.
+ */
+class SearchArena {
+  private static final int INITIAL_NODE_CAPACITY = 256;
+
+  int[] nodeCell;
+  int[] nodeParent;
+  int[] nodeG;
+  int[] nodeF;
+  private int numNodes;
+
+  private int[] openSet;
+  private int openSetSize;
+
+  private int[] cellMinDistance;
+  private int[] cellSearchId;
+  private int searchId;
+
+  private int[] pathScratch;
+  private int pathLength;
+
+  SearchArena() {
+    nodeCell = new int[INITIAL_NODE_CAPACITY];
+    nodeParent = new int[INITIAL_NODE_CAPACITY];
+    nodeG = new int[INITIAL_NODE_CAPACITY];
+    nodeF = new int[INITIAL_NODE_CAPACITY];
+    openSet = new int[INITIAL_NODE_CAPACITY];
+    pathScratch = new int[32];
+    cellMinDistance = new int[0];
+    cellSearchId = new int[0];
+  }
+
+  void reset(int numCells) {
+    openSetSize = 0;
+    numNodes = 0;
+
+    if (cellSearchId.length != numCells) {
+      cellSearchId = new int[numCells];
+      cellMinDistance = new int[numCells];
+      searchId = 0;
+    }
+
+    searchId++;
+  }
+
+  void clearOpenSet() {
+    openSetSize = 0;
+  }
+
+  boolean isOpenSetEmpty() {
+    return openSetSize == 0;
+  }
+
+  /**
+   * Records <code>f</code> as the best known cost through the node's cell.
+   *
+   * @return false if a cheaper path through the cell has already been expanded
+   */
+  boolean visit(int node) {
+    int cell = nodeCell[node];
+    int f = nodeF[node];
+
+    if (cellSearchId[cell] != searchId || cellMinDistance[cell] > f) {
+      cellSearchId[cell] = searchId;
+      cellMinDistance[cell] = f;
+      return true;
+    }
+
+    return false;
+  }
+
+  int newNode(int cell, int parent) {
+    if (numNodes == nodeCell.length) {
+      int capacity = numNodes * 2;
+      nodeCell = Arrays.copyOf(nodeCell, capacity);
+      nodeParent = Arrays.copyOf(nodeParent, capacity);
+      nodeG = Arrays.copyOf(nodeG, capacity);
+      nodeF = Arrays.copyOf(nodeF, capacity);
+    }
+
+    nodeCell[numNodes] = cell;
+    nodeParent[numNodes] = parent;
+    return numNodes++;
+  }
+
+  /**
+   * Walks the parents of <code>goalNode</code>, the cells are then available in reverse order
+   * through {@link #pathCellFromEnd(int)}.
+   */
+  int tracePath(int goalNode) {
+    pathLength = 0;
+    for (int i = goalNode; i != -1; i = nodeParent[i]) {
+      if (pathLength == pathScratch.length) {
+        pathScratch = Arrays.copyOf(pathScratch, pathLength * 2);
+      }
+      pathScratch[pathLength++] = nodeCell[i];
+    }
+
+    return pathLength;
+  }
+
+  int pathCellFromEnd(int index) {
+    return pathScratch[index];
+  }
+
+  private int compare(int nodeA, int nodeB) {
+    return nodeF[nodeA] - nodeF[nodeB];
+  }
+
+  void offer(int node) {
+    if (openSetSize == openSet.length) {
+      openSet = Arrays.copyOf(openSet, openSetSize * 2);
+    }
+
+    int k = openSetSize++;
+    while (k > 0) {
+      int parent = (k - 1) >>> 1;
+      int e = openSet[parent];
+      if (compare(node, e) >= 0) {
+        break;
+      }
+      openSet[k] = e;
+      k = parent;
+    }
+    openSet[k] = node;
+  }
+
+  int poll() {
+    int result = openSet[0];
+    int last = openSet[--openSetSize];
+    if (openSetSize > 0) {
+      int k = 0;
+      int half = openSetSize >>> 1;
+      while (k < half) {
+        int child = (k << 1) + 1;
+        int c = openSet[child];
+        int right = child + 1;
+        if (right < openSetSize && compare(c, openSet[right]) > 0) {
+          c = openSet[child = right];
+        }
+        if (compare(last, c) <= 0) {
+          break;
+        }
+        openSet[k] = c;
+        k = child;
+      }
+      openSet[k] = last;
+    }
+
+    return result;
+  }
+}
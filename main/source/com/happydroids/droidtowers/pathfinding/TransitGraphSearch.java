@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.pathfinding;
+
+import com.happydroids.droidtowers.TowerConsts;
+
+import static com.happydroids.droidtowers.pathfinding.TransitGraphSnapshot.CONNECTED_TO_TRANSIT;
+import static com.happydroids.droidtowers.pathfinding.TransitGraphSnapshot.HAS_STAIR;
+import static com.happydroids.droidtowers.pathfinding.TransitGraphSnapshot.OCCUPIED;
+
+/**
+ * Runs the TransitPathFinder search against a TransitGraphSnapshot.
+ * <p/>
+ * Costs, successors and node ordering mirror TransitPathFinder exactly, so the cells found here
+ * map back to the same path the game thread would have discovered. One instance per thread.
+ */
+public class TransitGraphSearch {
+  private final SearchArena arena;
+  private final int[] successors;
+  private int numSuccessors;
+
+  private TransitGraphSnapshot graph;
+  private boolean canUseServiceRoutes;
+  private int goalX;
+  private int goalY;
+
+  private int lastCost;
+  private int expandedCounter;
+  private int[] discoveredCells;
+
+  public TransitGraphSearch() {
+    arena = new SearchArena();
+    successors = new int[4];
+  }
+
+  /**
+   * @return true if a path from start to goal was found
+   */
+  public boolean search(TransitGraphSnapshot graph, boolean canUseServiceRoutes, int startX, int startY, int goalX, int goalY) {
+    this.graph = graph;
+    this.canUseServiceRoutes = canUseServiceRoutes;
+    this.goalX = goalX;
+    this.goalY = goalY;
+
+    expandedCounter = 0;
+    discoveredCells = null;
+    arena.reset(graph.getNumCells());
+
+    int start = graph.cellIndex(startX, startY);
+    int root = arena.newNode(start, -1);
+    arena.nodeG[root] = g(start, start);
+    arena.nodeF[root] = arena.nodeG[root] + h(start);
+    expand(root);
+
+    while (!arena.isOpenSetEmpty()) {
+      int node = arena.poll();
+      int cell = arena.nodeCell[node];
+
+      lastCost = arena.nodeG[node];
+
+      if (graph.cellX(cell) == goalX && graph.cellY(cell) == goalY) {
+        int length = arena.tracePath(node);
+        discoveredCells = new int[length];
+        for (int i = 0; i < length; i++) {
+          discoveredCells[i] = arena.pathCellFromEnd(length - 1 - i);
+        }
+        return true;
+      }
+
+      expand(node);
+    }
+
+    lastCost = Integer.MAX_VALUE;
+    return false;
+  }
+
+  public int getCost() {
+    return lastCost;
+  }
+
+  public int getExpandedCounter() {
+    return expandedCounter;
+  }
+
+  /**
+   * Cell indexes of the discovered path, from start to goal, in the snapshot's layout.
+   */
+  public int[] getDiscoveredCells() {
+    return discoveredCells;
+  }
+
+  private void expand(int node) {
+    if (!arena.visit(node)) {
+      return;
+    }
+
+    int cell = arena.nodeCell[node];
+    generateSuccessors(cell);
+
+    for (int i = 0; i < numSuccessors; i++) {
+      int successor = successors[i];
+
+      int child = arena.newNode(successor, node);
+      arena.nodeG[child] = g(cell, successor) + arena.nodeG[node];
+      arena.nodeF[child] = arena.nodeG[child] + h(successor);
+
+      arena.offer(child);
+    }
+
+    expandedCounter++;
+  }
+
+  private int g(int from, int to) {
+    if (from == to) {
+      return 0;
+    }
+
+    int toY = graph.cellY(to);
+    int elevator = graph.cellElevator[to];
+    if (elevator != -1 && graph.elevatorServicesFloor(elevator, toY) && graph.elevatorHasCars[elevator]) {
+      if (canUseServiceRoutes && graph.elevatorIsServiceElevator[elevator]) {
+        return 5;
+      }
+
+      return 25;
+    } else if (graph.hasFlag(to, HAS_STAIR)) {
+      return 75;
+    } else if (graph.hasFlag(to, CONNECTED_TO_TRANSIT)) {
+      return 100;
+    }
+
+    if (toY == TowerConsts.LOBBY_FLOOR) {
+      return 200;
+    }
+
+    return Integer.MAX_VALUE;
+  }
+
+  private int h(int to) {
+    return Math.abs(goalX - graph.cellX(to)) + Math.abs(goalY - graph.cellY(to));
+  }
+
+  private void generateSuccessors(int cell) {
+    numSuccessors = 0;
+
+    int x = graph.cellX(cell);
+    int y = graph.cellY(cell);
+
+    int elevator = graph.cellElevator[cell];
+    if (elevator != -1 && graph.elevatorHasCars[elevator]) {
+      boolean isServiceElevator = graph.elevatorIsServiceElevator[elevator];
+      if (canUseServiceRoutes && isServiceElevator || !canUseServiceRoutes && !isServiceElevator) {
+        if (graph.elevatorServicesFloor(elevator, y + 1)) {
+          checkGridPositionY(x, y + 1);
+        }
+        if (graph.elevatorServicesFloor(elevator, y - 1)) {
+          checkGridPositionY(x, y - 1);
+        }
+      }
+    } else if (graph.hasFlag(cell, HAS_STAIR)) {
+      checkGridPositionY(x, y + 1);
+      checkGridPositionY(x, y - 1);
+    }
+
+    checkGridPositionX(x + 1, y);
+    checkGridPositionX(x - 1, y);
+  }
+
+  private void checkGridPositionX(int x, int y) {
+    if (!graph.contains(x, y)) {
+      return;
+    }
+
+    int cell = graph.cellIndex(x, y);
+    if (graph.hasFlag(cell, OCCUPIED) || y == TowerConsts.LOBBY_FLOOR) {
+      successors[numSuccessors++] = cell;
+    }
+  }
+
+  private void checkGridPositionY(int x, int y) {
+    if (!graph.contains(x, y)) {
+      return;
+    }
+
+    int cell = graph.cellIndex(x, y);
+    if (graph.hasFlag(cell, CONNECTED_TO_TRANSIT) || y == TowerConsts.LOBBY_FLOOR) {
+      int elevator = graph.cellElevator[cell];
+      if (elevator != -1 && graph.elevatorServicesFloor(elevator, y)) {
+        successors[numSuccessors++] = cell;
+      } else if (graph.hasFlag(cell, HAS_STAIR)) {
+        successors[numSuccessors++] = cell;
+      }
+    }
+  }
+}
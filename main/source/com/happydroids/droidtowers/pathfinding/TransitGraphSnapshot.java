@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.pathfinding;
+
+import com.happydroids.droidtowers.entities.Elevator;
+import com.happydroids.droidtowers.grid.GameGrid;
+import com.happydroids.droidtowers.grid.GridPosition;
+
+import java.util.IdentityHashMap;
+
+import static com.happydroids.droidtowers.types.ProviderType.SERVICE_ELEVATOR;
+
+/**
+ * An immutable copy of everything TransitPathFinder reads from the GridPositionCache, so searches
+ * can run off the game thread while the live grid keeps changing.
+ * <p/>
+ * Must be created on the game thread.
+ */
+public class TransitGraphSnapshot {
+  static final byte OCCUPIED = 1;
+  static final byte CONNECTED_TO_TRANSIT = 1 << 1;
+  static final byte HAS_STAIR = 1 << 2;
+
+  final int columns;
+  final int rows;
+  final byte[] cellFlags;
+  final short[] cellElevator;
+  final int[] elevatorMinFloor;
+  final int[] elevatorMaxFloor;
+  final boolean[] elevatorHasCars;
+  final boolean[] elevatorIsServiceElevator;
+
+  public TransitGraphSnapshot(GameGrid gameGrid) {
+    GridPosition[][] positions = gameGrid.positionCache().getPositions();
+    columns = positions.length;
+    rows = columns > 0 ? positions[0].length : 0;
+
+    cellFlags = new byte[columns * rows];
+    cellElevator = new short[columns * rows];
+
+    IdentityHashMap<Elevator, Short> elevatorIds = new IdentityHashMap<Elevator, Short>();
+    for (int x = 0; x < columns; x++) {
+      for (int y = 0; y < rows; y++) {
+        GridPosition position = positions[x][y];
+        int cell = x * rows + y;
+
+        byte flags = 0;
+        if (!position.isEmpty()) {
+          flags |= OCCUPIED;
+        }
+        if (position.connectedToTransit) {
+          flags |= CONNECTED_TO_TRANSIT;
+        }
+        if (position.stair != null) {
+          flags |= HAS_STAIR;
+        }
+        cellFlags[cell] = flags;
+
+        if (position.elevator != null) {
+          Short elevatorId = elevatorIds.get(position.elevator);
+          if (elevatorId == null) {
+            elevatorId = (short) elevatorIds.size();
+            elevatorIds.put(position.elevator, elevatorId);
+          }
+          cellElevator[cell] = elevatorId;
+        } else {
+          cellElevator[cell] = -1;
+        }
+      }
+    }
+
+    int numElevators = elevatorIds.size();
+    elevatorMinFloor = new int[numElevators];
+    elevatorMaxFloor = new int[numElevators];
+    elevatorHasCars = new boolean[numElevators];
+    elevatorIsServiceElevator = new boolean[numElevators];
+    for (Elevator elevator : elevatorIds.keySet()) {
+      int id = elevatorIds.get(elevator);
+      elevatorMinFloor[id] = elevator.getPosition().y + 1;
+      elevatorMaxFloor[id] = elevatorMinFloor[id] + elevator.getSize().y - 3;
+      elevatorHasCars[id] = elevator.getNumElevatorCars() > 0;
+      elevatorIsServiceElevator[id] = elevator.provides(SERVICE_ELEVATOR);
+    }
+  }
+
+  public int getNumCells() {
+    return cellFlags.length;
+  }
+
+  boolean contains(int x, int y) {
+    return x >= 0 && x < columns && y >= 0 && y < rows;
+  }
+
+  int cellIndex(int x, int y) {
+    return x * rows + y;
+  }
+
+  int cellX(int cell) {
+    return cell / rows;
+  }
+
+  int cellY(int cell) {
+    return cell % rows;
+  }
+
+  boolean hasFlag(int cell, byte flag) {
+    return (cellFlags[cell] & flag) != 0;
+  }
+
+  boolean elevatorServicesFloor(int elevator, int floor) {
+    return elevatorMinFloor[elevator] <= floor && floor <= elevatorMaxFloor[elevator];
+  }
+}
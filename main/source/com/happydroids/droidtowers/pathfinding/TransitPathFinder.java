@@ -16,6 +16,7 @@ public class TransitPathFinder extends AStar<GridPosition> {
   protected final GameGrid gameGrid;
   private final boolean canUseServiceRoutes;
   private final Array<GridPosition> tmpArray;
+  private boolean usedCachedRoute;
 
   public TransitPathFinder(GameGrid gameGrid, boolean canUseServiceRoutes) {
     super();
@@ -24,6 +25,64 @@ public class TransitPathFinder extends AStar<GridPosition> {
     tmpArray = new Array<GridPosition>(4);
   }
 
+  public boolean canUseServiceRoutes() {
+    return canUseServiceRoutes;
+  }
+
+  @Override
+  public void start() {
+    if (!startFromRouteCache()) {
+      super.start();
+    }
+  }
+
+  /**
+   * Like start(), but leaves the search itself to a PathSearchWorkerPool, only the route cache is
+   * checked on the calling thread.
+   */
+  public void startDeferred() {
+    if (!startFromRouteCache()) {
+      working = true;
+    }
+  }
+
+  /**
+   * Finishes the search straight away if the route cache has a usable route.
+   */
+  protected boolean startFromRouteCache() {
+    Array<GridPosition> cachedRoute = gameGrid.routeCache().lookup(start, goal, canUseServiceRoutes);
+    usedCachedRoute = cachedRoute != null;
+    if (usedCachedRoute) {
+      discoveredPath = cachedRoute;
+      expandedCounter = 0;
+      lastCost = costOf(cachedRoute);
+      working = false;
+    }
+
+    return usedCachedRoute;
+  }
+
+  /**
+   * Adds up g() along a path, the same way AStar arrives at the cost of the paths it discovers.
+   */
+  protected int costOf(Array<GridPosition> path) {
+    int cost = 0;
+    for (int i = 1; i < path.size; i++) {
+      cost += g(path.get(i - 1), path.get(i));
+    }
+
+    return cost;
+  }
+
+  @Override
+  public void runCompleteCallback() {
+    if (!usedCachedRoute && isFinished() && discoveredPath != null) {
+      gameGrid.routeCache().store(discoveredPath, canUseServiceRoutes);
+    }
+
+    super.runCompleteCallback();
+  }
+
   @Override
   protected boolean isGoal(GridPosition gridPosition) {
     return goal.x == gridPosition.x && goal.y == gridPosition.y;
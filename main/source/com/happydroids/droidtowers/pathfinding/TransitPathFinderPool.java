@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.pathfinding;
+
+import com.badlogic.gdx.utils.Array;
+import com.happydroids.droidtowers.TowerConsts;
+import com.happydroids.droidtowers.grid.GameGrid;
+
+/**
+ * Lends TransitPathFinders out for one search at a time, so a tower needs as many path finders as
+ * it has searches running instead of one per avatar.
+ * <p/>
+ * A path finder must be freed once its complete callback has run or its search was removed from the
+ * PathSearchManager. The discovered path is a new Array for every search, so it can be kept after
+ * the path finder has gone back to the pool.
+ */
+public class TransitPathFinderPool {
+  private final GameGrid gameGrid;
+  private final Array<TransitPathFinder> freePathFinders;
+  private final Array<TransitPathFinder> freeServicePathFinders;
+  private int numCreated;
+
+  public TransitPathFinderPool(GameGrid gameGrid) {
+    this.gameGrid = gameGrid;
+    freePathFinders = new Array<TransitPathFinder>();
+    freeServicePathFinders = new Array<TransitPathFinder>();
+  }
+
+  public TransitPathFinder obtain(boolean canUseServiceRoutes) {
+    Array<TransitPathFinder> pathFinders = canUseServiceRoutes ? freeServicePathFinders : freePathFinders;
+    if (pathFinders.size > 0) {
+      return pathFinders.pop();
+    }
+
+    numCreated++;
+    if (TowerConsts.HIERARCHICAL_PATH_FINDING) {
+      return new HierarchicalTransitPathFinder(gameGrid, canUseServiceRoutes);
+    } else {
+      return new IndexedTransitPathFinder(gameGrid, canUseServiceRoutes);
+    }
+  }
+
+  public void free(TransitPathFinder pathFinder) {
+    pathFinder.setCompleteCallback(null);
+    pathFinder.setStart(null);
+    pathFinder.setGoal(null);
+    pathFinder.discoveredPath = null;
+
+    if (pathFinder.canUseServiceRoutes()) {
+      freeServicePathFinders.add(pathFinder);
+    } else {
+      freePathFinders.add(pathFinder);
+    }
+  }
+
+  /**
+   * @return how many path finders the pool has made, in use or not
+   */
+  public int getNumCreated() {
+    return numCreated;
+  }
+
+  public int getNumFree() {
+    return freePathFinders.size + freeServicePathFinders.size;
+  }
+}
@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.pathfinding;
+
+import com.badlogic.gdx.utils.Array;
+import com.google.common.eventbus.Subscribe;
+import com.happydroids.droidtowers.TowerConsts;
+import com.happydroids.droidtowers.entities.GridObject;
+import com.happydroids.droidtowers.entities.Transit;
+import com.happydroids.droidtowers.events.ElevatorHeightChangeEvent;
+import com.happydroids.droidtowers.events.GridObjectBoundsChangeEvent;
+import com.happydroids.droidtowers.events.GridObjectPlacedEvent;
+import com.happydroids.droidtowers.events.GridObjectRemovedEvent;
+import com.happydroids.droidtowers.events.GridObjectsLoadedEvent;
+import com.happydroids.droidtowers.grid.GameGrid;
+import com.happydroids.droidtowers.grid.GridPosition;
+import com.happydroids.droidtowers.math.GridPoint;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Remembers the routes TransitPathFinder discovered, keyed by start floor, goal floor and whether
+ * service routes were allowed.
+ * <p/>
+ * A cached route is reused for any start and goal on the same floors: the walk along the start
+ * floor up to the route's first floor change and the walk along the goal floor after its last one
+ * are replaced by a straight walk from/to the requested cells. If either walk is blocked the
+ * lookup is a miss.
+ * <p/>
+ * Placing, removing or moving a room drops the routes that walk along one of its floors, the same
+ * change to a transit object drops every route whose floors overlap the ones it serves. Whether a
+ * room is connected to transit only depends on the transit and rooms on its own floor, so these
+ * two rules also cover the connections TransportCalculator recalculates.
+ */
+public class TransitRouteCache {
+  private static final int MAX_ROUTES = 512;
+
+  private final GameGrid gameGrid;
+  private final LinkedHashMap<Long, CachedRoute> routes;
+  private int hits;
+  private int misses;
+  private int evictions;
+  private int invalidations;
+
+  public TransitRouteCache(GameGrid gameGrid) {
+    this.gameGrid = gameGrid;
+
+    routes = new LinkedHashMap<Long, CachedRoute>(64, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, CachedRoute> eldest) {
+        if (size() > MAX_ROUTES) {
+          evictions++;
+          return true;
+        }
+
+        return false;
+      }
+    };
+
+    gameGrid.events().register(this);
+  }
+
+  /**
+   * @return a new path from start to goal, or null if no usable route is cached
+   */
+  public Array<GridPosition> lookup(GridPosition start, GridPosition goal, boolean canUseServiceRoutes) {
+    CachedRoute cachedRoute = routes.get(key(start.y, goal.y, canUseServiceRoutes));
+    if (cachedRoute != null) {
+      Array<GridPosition> path = cachedRoute.stitch(start, goal);
+      if (path != null) {
+        hits++;
+        return path;
+      }
+    }
+
+    misses++;
+    return null;
+  }
+
+  public void store(Array<GridPosition> path, boolean canUseServiceRoutes) {
+    if (path == null || path.size == 0) {
+      return;
+    }
+
+    GridPosition first = path.first();
+    GridPosition last = path.peek();
+    routes.put(key(first.y, last.y, canUseServiceRoutes), new CachedRoute(path));
+  }
+
+  public void invalidate() {
+    invalidations += routes.size();
+    routes.clear();
+  }
+
+  /**
+   * Drops the routes that walk along any floor from minFloor to maxFloor.
+   */
+  public void invalidateFloors(int minFloor, int maxFloor) {
+    for (Iterator<CachedRoute> iterator = routes.values().iterator(); iterator.hasNext(); ) {
+      if (iterator.next().walksAlong(minFloor, maxFloor)) {
+        iterator.remove();
+        invalidations++;
+      }
+    }
+  }
+
+  /**
+   * Drops the routes that pass through any floor from minFloor to maxFloor.
+   */
+  public void invalidateTransit(int minFloor, int maxFloor) {
+    for (Iterator<CachedRoute> iterator = routes.values().iterator(); iterator.hasNext(); ) {
+      CachedRoute route = iterator.next();
+      if (route.minFloor <= maxFloor && route.maxFloor >= minFloor) {
+        iterator.remove();
+        invalidations++;
+      }
+    }
+  }
+
+  private void invalidate(GridObject gridObject) {
+    if (gridObject == null) {
+      invalidate();
+    } else {
+      invalidate(gridObject, gridObject.getPosition(), gridObject.getSize());
+    }
+  }
+
+  private void invalidate(GridObject gridObject, GridPoint position, GridPoint size) {
+    if (gridObject instanceof Transit) {
+      // stairs lead onto the floor above their bounds
+      invalidateTransit(position.y, position.y + size.y);
+    } else {
+      invalidateFloors(position.y, position.y + Math.max(1, size.y) - 1);
+    }
+  }
+
+  @Subscribe
+  public void GameGrid_onGridObjectPlaced(GridObjectPlacedEvent event) {
+    invalidate(event.getGridObject());
+  }
+
+  @Subscribe
+  public void GameGrid_onGridObjectsLoaded(GridObjectsLoadedEvent event) {
+    invalidate();
+  }
+
+  @Subscribe
+  public void GameGrid_onGridObjectRemoved(GridObjectRemovedEvent event) {
+    invalidate(event.getGridObject());
+  }
+
+  @Subscribe
+  public void GameGrid_onGridObjectBoundsChange(GridObjectBoundsChangeEvent event) {
+    GridObject gridObject = event.getGridObject();
+    if (gridObject != null) {
+      invalidate(gridObject, event.getPrevPosition(), event.getPrevSize());
+    }
+    invalidate(gridObject);
+  }
+
+  @Subscribe
+  public void GameGrid_onElevatorHeightChange(ElevatorHeightChangeEvent event) {
+    invalidate(event.getGridObject());
+  }
+
+  public int size() {
+    return routes.size();
+  }
+
+  public int getHits() {
+    return hits;
+  }
+
+  public int getMisses() {
+    return misses;
+  }
+
+  public float getHitRate() {
+    int lookups = hits + misses;
+    return lookups == 0 ? 0f : hits / (float) lookups;
+  }
+
+  public int getEvictions() {
+    return evictions;
+  }
+
+  public int getInvalidations() {
+    return invalidations;
+  }
+
+  private static long key(int startFloor, int goalFloor, boolean canUseServiceRoutes) {
+    return ((long) startFloor << 32) | ((goalFloor & 0x7fffffffL) << 1) | (canUseServiceRoutes ? 1 : 0);
+  }
+
+  private class CachedRoute {
+    private final GridPosition[] route;
+    private final int leavesStartFloorAt;
+    private final int arrivesOnGoalFloorAt;
+    private final int[] walkedFloors;
+    final int minFloor;
+    final int maxFloor;
+
+    CachedRoute(Array<GridPosition> path) {
+      route = new GridPosition[path.size];
+      for (int i = 0; i < path.size; i++) {
+        route[i] = path.get(i);
+      }
+
+      int lowest = route[0].y;
+      int highest = route[0].y;
+      int[] floors = new int[route.length + 1];
+      int numFloors = 0;
+      floors[numFloors++] = route[0].y;
+      floors[numFloors++] = route[route.length - 1].y;
+      for (int i = 1; i < route.length; i++) {
+        lowest = Math.min(lowest, route[i].y);
+        highest = Math.max(highest, route[i].y);
+        if (route[i].y == route[i - 1].y && route[i].y != floors[numFloors - 1]) {
+          floors[numFloors++] = route[i].y;
+        }
+      }
+      minFloor = lowest;
+      maxFloor = highest;
+      walkedFloors = Arrays.copyOf(floors, numFloors);
+
+      int startFloor = route[0].y;
+      int leaves = 0;
+      while (leaves + 1 < route.length && route[leaves + 1].y == startFloor) {
+        leaves++;
+      }
+      leavesStartFloorAt = leaves;
+
+      int goalFloor = route[route.length - 1].y;
+      int arrives = route.length - 1;
+      while (arrives - 1 > leavesStartFloorAt && route[arrives - 1].y == goalFloor) {
+        arrives--;
+      }
+      arrivesOnGoalFloorAt = arrives;
+    }
+
+    /**
+     * The start and goal floors count as walked, a change there can bring a closer transit in reach.
+     */
+    boolean walksAlong(int lowestFloor, int highestFloor) {
+      for (int floor : walkedFloors) {
+        if (floor >= lowestFloor && floor <= highestFloor) {
+          return true;
+        }
+      }
+
+      return false;
+    }
+
+    Array<GridPosition> stitch(GridPosition start, GridPosition goal) {
+      Array<GridPosition> path = new Array<GridPosition>(true, route.length + 8);
+
+      if (leavesStartFloorAt == route.length - 1) {
+        return walk(path, start, goal) ? path : null;
+      }
+
+      if (!walk(path, start, route[leavesStartFloorAt])) {
+        return null;
+      }
+
+      for (int i = leavesStartFloorAt + 1; i < arrivesOnGoalFloorAt; i++) {
+        path.add(route[i]);
+      }
+
+      return walk(path, route[arrivesOnGoalFloorAt], goal) ? path : null;
+    }
+
+    /**
+     * Adds every cell along the floor from one position to the other, checking each step the same
+     * way TransitPathFinder does for horizontal moves.
+     */
+    private boolean walk(Array<GridPosition> path, GridPosition from, GridPosition to) {
+      path.add(from);
+
+      int step = to.x > from.x ? 1 : -1;
+      for (int x = from.x; x != to.x; ) {
+        x += step;
+        GridPosition position = gameGrid.positionCache().getPosition(x, from.y);
+        if (position == null || (position.isEmpty() && from.y != TowerConsts.LOBBY_FLOOR)) {
+          return false;
+        }
+        path.add(position);
+      }
+
+      return true;
+    }
+  }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.profiling;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.Array;
+import com.google.common.collect.Maps;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Times the parts of each frame, keeping the last WINDOW frames so the DebugWindow can show their
+ * percentiles and they can be written out as a CSV trace.
+ * <p/>
+ * Code being timed holds on to its ProfileSection and wraps the work in start() and stop(), and
+ * DroidTowersGame ends each frame. The frame section holds the time between the ends of two frames.
+ * <p/>
+ * Memory is estimated from the used heap at the end of each frame, as Android has no
+ * java.lang.management: growth counts as allocation, and a drop counts as a garbage collection.
+ */
+public class FrameProfiler {
+  public static final int WINDOW = 600;
+  public static final String FRAME = "frame";
+
+  private static FrameProfiler _instance;
+
+  private final Map<String, ProfileSection> sectionsByName;
+  private final Array<ProfileSection> sections;
+  private final ProfileSection frameSection;
+  private final long[] allocatedBytes;
+  private final boolean[] collected;
+  private boolean enabled;
+  private int framesRecorded;
+  private long lastFrameTime;
+  private long lastUsedHeap;
+  private long totalAllocatedBytes;
+  private int totalCollections;
+
+  public static FrameProfiler instance() {
+    if (_instance == null) {
+      _instance = new FrameProfiler();
+    }
+
+    return _instance;
+  }
+
+  FrameProfiler() {
+    sectionsByName = Maps.newHashMap();
+    sections = new Array<ProfileSection>();
+    allocatedBytes = new long[WINDOW];
+    collected = new boolean[WINDOW];
+    enabled = true;
+    frameSection = section(FRAME);
+  }
+
+  /**
+   * @return the section with the given name, made the first time it is asked for
+   */
+  public ProfileSection section(String name) {
+    ProfileSection section = sectionsByName.get(name);
+    if (section == null) {
+      section = new ProfileSection(this, name, WINDOW);
+      sectionsByName.put(name, section);
+      sections.add(section);
+    }
+
+    return section;
+  }
+
+  public void endFrame() {
+    if (!enabled) {
+      return;
+    }
+
+    long now = System.nanoTime();
+    if (lastFrameTime != 0) {
+      frameSection.add(now - lastFrameTime);
+    }
+    lastFrameTime = now;
+
+    int slot = framesRecorded % WINDOW;
+    recordHeap(slot);
+    for (int i = 0; i < sections.size; i++) {
+      sections.get(i).endFrame(slot);
+    }
+
+    framesRecorded++;
+  }
+
+  private void recordHeap(int slot) {
+    Runtime runtime = Runtime.getRuntime();
+    long usedHeap = runtime.totalMemory() - runtime.freeMemory();
+
+    allocatedBytes[slot] = 0;
+    collected[slot] = false;
+    if (framesRecorded > 0) {
+      if (usedHeap >= lastUsedHeap) {
+        allocatedBytes[slot] = usedHeap - lastUsedHeap;
+        totalAllocatedBytes += allocatedBytes[slot];
+      } else {
+        collected[slot] = true;
+        totalCollections++;
+      }
+    }
+
+    lastUsedHeap = usedHeap;
+  }
+
+  /**
+   * @param i    which of the last numFrames frames, 0 being the oldest
+   * @return where that frame is kept in the sections' rings
+   */
+  int slotOf(int i, int numFrames) {
+    return (framesRecorded - numFrames + i) % WINDOW;
+  }
+
+  public void reset() {
+    for (int i = 0; i < sections.size; i++) {
+      sections.get(i).reset();
+    }
+
+    Arrays.fill(allocatedBytes, 0);
+    Arrays.fill(collected, false);
+    framesRecorded = 0;
+    lastFrameTime = 0;
+    totalAllocatedBytes = 0;
+    totalCollections = 0;
+  }
+
+  /**
+   * Writes one row per frame in the window, oldest first, with the time each section took in
+   * milliseconds. Sections made after a frame have an empty cell for it.
+   */
+  public void writeCsv(Writer writer) throws IOException {
+    writer.write("frame");
+    for (int i = 0; i < sections.size; i++) {
+      writer.write(',');
+      writer.write(sections.get(i).getName());
+    }
+    writer.write(",allocatedBytes,gc\n");
+
+    int numFrames = getNumFrames();
+    for (int frame = 0; frame < numFrames; frame++) {
+      int age = numFrames - 1 - frame;
+      writer.write(String.valueOf(framesRecorded - numFrames + frame));
+      for (int i = 0; i < sections.size; i++) {
+        writer.write(',');
+        float millis = sections.get(i).getFrameMillis(age);
+        if (millis >= 0) {
+          writer.write(String.format(Locale.US, "%.3f", millis));
+        }
+      }
+
+      int slot = slotOf(frame, numFrames);
+      writer.write(',');
+      writer.write(String.valueOf(allocatedBytes[slot]));
+      writer.write(',');
+      writer.write(collected[slot] ? "1" : "0");
+      writer.write('\n');
+    }
+
+    writer.flush();
+  }
+
+  public void writeCsv(FileHandle file) throws IOException {
+    Writer writer = file.writer(false);
+    try {
+      writeCsv(writer);
+    } finally {
+      writer.close();
+    }
+  }
+
+  /**
+   * @return the bytes allocated in the frames in the window, as estimated from the heap
+   */
+  public long getAllocatedBytesInWindow() {
+    long total = 0;
+    for (int i = 0, numFrames = getNumFrames(); i < numFrames; i++) {
+      total += allocatedBytes[slotOf(i, numFrames)];
+    }
+
+    return total;
+  }
+
+  public int getCollectionsInWindow() {
+    int total = 0;
+    for (int i = 0, numFrames = getNumFrames(); i < numFrames; i++) {
+      if (collected[slotOf(i, numFrames)]) {
+        total++;
+      }
+    }
+
+    return total;
+  }
+
+  public long getTotalAllocatedBytes() {
+    return totalAllocatedBytes;
+  }
+
+  public int getTotalCollections() {
+    return totalCollections;
+  }
+
+  public int getNumFrames() {
+    return Math.min(framesRecorded, WINDOW);
+  }
+
+  public Array<ProfileSection> getSections() {
+    return sections;
+  }
+
+  public ProfileSection getFrameSection() {
+    return frameSection;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+    lastFrameTime = 0;
+  }
+}
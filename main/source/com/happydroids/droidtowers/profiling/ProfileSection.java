@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.profiling;
+
+import java.util.Arrays;
+
+/**
+ * The time one part of the game took in each of the last FrameProfiler.WINDOW frames. Everything
+ * timed between two FrameProfiler.endFrame calls counts towards the same frame, however many times
+ * the section ran in it.
+ */
+public class ProfileSection {
+  private final FrameProfiler profiler;
+  private final String name;
+  private final long[] frames;
+  private long currentFrameNanos;
+  private long startTime;
+  private int framesRecorded;
+
+  ProfileSection(FrameProfiler profiler, String name, int window) {
+    this.profiler = profiler;
+    this.name = name;
+    frames = new long[window];
+  }
+
+  public void start() {
+    if (profiler.isEnabled()) {
+      startTime = System.nanoTime();
+    }
+  }
+
+  public void stop() {
+    if (startTime != 0) {
+      currentFrameNanos += System.nanoTime() - startTime;
+      startTime = 0;
+    }
+  }
+
+  public void add(long nanos) {
+    if (profiler.isEnabled()) {
+      currentFrameNanos += nanos;
+    }
+  }
+
+  void endFrame(int slot) {
+    frames[slot] = currentFrameNanos;
+    currentFrameNanos = 0;
+    framesRecorded++;
+  }
+
+  void reset() {
+    Arrays.fill(frames, 0);
+    currentFrameNanos = 0;
+    startTime = 0;
+    framesRecorded = 0;
+  }
+
+  /**
+   * @return the given fraction (0.95 for the 95th percentile) of the recorded frames took at most this
+   *         long, in milliseconds
+   */
+  public float getPercentileMillis(float fraction) {
+    int numFrames = getNumFrames();
+    if (numFrames == 0) {
+      return 0;
+    }
+
+    long[] sorted = new long[numFrames];
+    for (int i = 0; i < numFrames; i++) {
+      sorted[i] = frames[profiler.slotOf(i, numFrames)];
+    }
+    Arrays.sort(sorted);
+
+    int rank = (int) Math.ceil(numFrames * fraction);
+    return sorted[Math.max(0, Math.min(numFrames - 1, rank - 1))] / 1000000f;
+  }
+
+  public float getMeanMillis() {
+    int numFrames = getNumFrames();
+    if (numFrames == 0) {
+      return 0;
+    }
+
+    long total = 0;
+    for (int i = 0; i < numFrames; i++) {
+      total += frames[profiler.slotOf(i, numFrames)];
+    }
+
+    return total / (numFrames * 1000000f);
+  }
+
+  public float getMaxMillis() {
+    long max = 0;
+    for (int i = 0, numFrames = getNumFrames(); i < numFrames; i++) {
+      max = Math.max(max, frames[profiler.slotOf(i, numFrames)]);
+    }
+
+    return max / 1000000f;
+  }
+
+  /**
+   * @param age 0 for the most recent frame
+   * @return the time taken in that frame in milliseconds, or -1 if this section didn't exist yet
+   */
+  public float getFrameMillis(int age) {
+    int numFrames = getNumFrames();
+    if (age >= numFrames) {
+      return -1;
+    }
+
+    return frames[profiler.slotOf(numFrames - 1 - age, numFrames)] / 1000000f;
+  }
+
+  /**
+   * @return how many of the frames in the window were recorded since this section was made
+   */
+  public int getNumFrames() {
+    return Math.min(framesRecorded, frames.length);
+  }
+
+  public String getName() {
+    return name;
+  }
+}
@@ -15,6 +15,7 @@ import com.google.common.eventbus.EventBus;
 import com.happydroids.droidtowers.TowerConsts;
 import com.happydroids.droidtowers.events.GameSpeedChangeEvent;
 import com.happydroids.droidtowers.events.SafeEventBus;
+import com.happydroids.droidtowers.gamestate.SimulationKernel;
 import com.happydroids.droidtowers.graphics.Effects;
 import com.happydroids.droidtowers.input.CameraController;
 import com.happydroids.droidtowers.platform.Display;
@@ -61,6 +62,14 @@ public abstract class Scene {
     events().post(new GameSpeedChangeEvent(this));
   }
 
+  /**
+   * @return the kernel stepping this scene's simulation, or null when the game should update the
+   *         ActionManager and TweenSystem every frame itself
+   */
+  public SimulationKernel getSimulationKernel() {
+    return null;
+  }
+
   public SpriteBatch getSpriteBatch() {
     return spriteBatch;
   }
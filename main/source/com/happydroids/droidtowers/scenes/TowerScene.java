@@ -27,6 +27,7 @@ import com.happydroids.droidtowers.events.GameGridResizeEvent;
 import com.happydroids.droidtowers.events.RespondsToWorldSizeChange;
 import com.happydroids.droidtowers.gamestate.GameSave;
 import com.happydroids.droidtowers.gamestate.GameState;
+import com.happydroids.droidtowers.gamestate.SimulationKernel;
 import com.happydroids.droidtowers.gamestate.actions.*;
 import com.happydroids.droidtowers.graphics.*;
 import com.happydroids.droidtowers.grid.GameGrid;
@@ -37,6 +38,8 @@ import com.happydroids.droidtowers.input.GestureDelegater;
 import com.happydroids.droidtowers.input.GestureTool;
 import com.happydroids.droidtowers.input.InputSystem;
 import com.happydroids.droidtowers.platform.Display;
+import com.happydroids.droidtowers.profiling.FrameProfiler;
+import com.happydroids.droidtowers.profiling.ProfileSection;
 import com.happydroids.droidtowers.types.GridObjectType;
 import com.happydroids.droidtowers.types.GridObjectTypeFactory;
 
@@ -46,6 +49,8 @@ import java.util.Set;
 
 public class TowerScene extends Scene {
   private List<GameLayer> gameLayers;
+  private List<ProfileSection> layerRenderSections;
+  private ProfileSection assetUpdateSection;
   private GameGrid gameGrid;
   private GameGridRenderer gameGridRenderer;
   private GameState gameState;
@@ -65,7 +70,9 @@ public class TowerScene extends Scene {
   private DefaultKeybindings keybindings;
   private AchievementEngineCheck achievementEngineCheck;
   private AvatarLayer avatarLayer;
+  private SimulationKernel simulationKernel;
   private StarRatingCalculator starRatingCalculator;
+  private CalculatorPipeline calculatorPipeline;
   private CrimeCalculator crimeCalculator;
   private ParticleEffectPool effectPool;
   private Set<ParticleEffect> activeEffects;
@@ -121,6 +128,14 @@ public class TowerScene extends Scene {
     gameLayers.add(gameGrid);
     gameLayers.add(avatarLayer);
 
+    simulationKernel = new SimulationKernel();
+    layerRenderSections = Lists.newArrayList();
+    for (GameLayer layer : gameLayers) {
+      simulationKernel.addLayer(layer);
+      layerRenderSections.add(FrameProfiler.instance().section("render:" + layer.getClass().getSimpleName()));
+    }
+    assetUpdateSection = FrameProfiler.instance().section("assetManager");
+
     gestureDelegater = new GestureDelegater(camera, gameLayers, gameGrid, getCameraController());
     gestureDetector = new GestureDetector(20 * Display.getScaledDensity(), 0.5f, 1, 0.15f, gestureDelegater);
     keybindings = new DefaultKeybindings(this);
@@ -131,9 +146,14 @@ public class TowerScene extends Scene {
 
     populationCalculator = new PopulationCalculator(gameGrid, avatarLayer, TowerConsts.ROOM_UPDATE_FREQUENCY);
     budgetCalculator = new BudgetCalculator(gameGrid, TowerConsts.PLAYER_EARNOUT_FREQUENCY);
-    employmentCalculator = new EmploymentCalculator(gameGrid, TowerConsts.JOB_UPDATE_FREQUENCY);
+    employmentCalculator = new EmploymentCalculator(gameGrid, TowerConsts.ROOM_UPDATE_FREQUENCY);
     desirabilityCalculator = new DesirabilityCalculator(gameGrid, TowerConsts.ROOM_UPDATE_FREQUENCY);
     starRatingCalculator = new StarRatingCalculator(gameGrid, TowerConsts.ROOM_UPDATE_FREQUENCY);
+    calculatorPipeline = new CalculatorPipeline(gameGrid, TowerConsts.ROOM_UPDATE_FREQUENCY);
+    calculatorPipeline.add(employmentCalculator);
+    calculatorPipeline.add(desirabilityCalculator, employmentCalculator);
+    calculatorPipeline.add(populationCalculator, desirabilityCalculator);
+    calculatorPipeline.add(starRatingCalculator, employmentCalculator, populationCalculator, desirabilityCalculator);
     achievementEngineCheck = new AchievementEngineCheck(gameGrid, TowerConsts.ACHIEVEMENT_ENGINE_FREQUENCY);
     saveAction = new GameSaveAction(gameState);
     transportCalculator = new TransportCalculator(gameGrid, TowerConsts.TRANSPORT_CALCULATOR_FREQUENCY);
@@ -156,18 +176,12 @@ public class TowerScene extends Scene {
   private void attachActions() {
     ActionManager.instance().addAction(transportCalculator);
     ActionManager.instance().addAction(crimeCalculator);
-    ActionManager.instance().addAction(populationCalculator);
+    ActionManager.instance().addAction(calculatorPipeline);
     ActionManager.instance().addAction(budgetCalculator);
-    ActionManager.instance().addAction(employmentCalculator);
-    ActionManager.instance().addAction(desirabilityCalculator);
-    ActionManager.instance().addAction(starRatingCalculator);
     ActionManager.instance().addAction(achievementEngineCheck);
     transportCalculator.run();
     crimeCalculator.run();
-    desirabilityCalculator.run();
-    populationCalculator.run();
-    employmentCalculator.run();
-    starRatingCalculator.run();
+    calculatorPipeline.run();
     achievementEngineCheck.run();
 
     // SHOULD ALWAYS BE LAST.
@@ -178,11 +192,8 @@ public class TowerScene extends Scene {
     ActionManager.instance().removeAction(achievementEngineCheck);
     ActionManager.instance().removeAction(transportCalculator);
     ActionManager.instance().removeAction(crimeCalculator);
-    ActionManager.instance().removeAction(populationCalculator);
+    ActionManager.instance().removeAction(calculatorPipeline);
     ActionManager.instance().removeAction(budgetCalculator);
-    ActionManager.instance().removeAction(employmentCalculator);
-    ActionManager.instance().removeAction(desirabilityCalculator);
-    ActionManager.instance().removeAction(starRatingCalculator);
 
     // SHOULD ALWAYS BE LAST.
     ActionManager.instance().removeAction(saveAction);
@@ -223,12 +234,17 @@ public class TowerScene extends Scene {
 
   @Override
   public void render(float deltaTime) {
+    assetUpdateSection.start();
     TowerAssetManager.assetManager().update();
+    assetUpdateSection.stop();
 
     updateGameObjects(deltaTime);
 
-    for (GameLayer layer : gameLayers) {
-      layer.render(getSpriteBatch(), getCamera());
+    for (int i = 0; i < gameLayers.size(); i++) {
+      ProfileSection section = layerRenderSections.get(i);
+      section.start();
+      gameLayers.get(i).render(getSpriteBatch(), getCamera());
+      section.stop();
     }
   }
 
@@ -244,22 +260,30 @@ public class TowerScene extends Scene {
     }
 
     detachActions();
+    gameState.dispose();
 
     gameGrid.events().unregister(DroidTowersGame.getSoundController());
   }
 
 
   private void updateGameObjects(float deltaTime) {
-    deltaTime *= getTimeMultiplier();
-
-    for (GameLayer layer : gameLayers) {
-      layer.update(deltaTime);
-    }
+    simulationKernel.setTimeMultiplier(getTimeMultiplier());
+    simulationKernel.update(deltaTime);
 
+    deltaTime *= getTimeMultiplier();
     headsUpDisplay.act(deltaTime);
     weatherService.update(deltaTime);
   }
 
+  @Override
+  public SimulationKernel getSimulationKernel() {
+    return simulationKernel;
+  }
+
+  public GameGrid getGameGrid() {
+    return gameGrid;
+  }
+
   public GameGridRenderer getGameGridRenderer() {
     return gameGridRenderer;
   }
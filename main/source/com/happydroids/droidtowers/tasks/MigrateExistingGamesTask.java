@@ -6,9 +6,13 @@ package com.happydroids.droidtowers.tasks;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
+import com.happydroids.droidtowers.gamestate.GameSave;
 import com.happydroids.droidtowers.gamestate.GameSaveFactory;
 import com.happydroids.utils.BackgroundTask;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 import static com.badlogic.gdx.Application.ApplicationType.Android;
 
 public class MigrateExistingGamesTask extends BackgroundTask {
@@ -33,9 +37,11 @@ public class MigrateExistingGamesTask extends BackgroundTask {
 
     if (localSaveFiles != null && localSaveFiles.length > 0) {
       for (FileHandle file : localSaveFiles) {
-        if (file.name().endsWith(".json")) {
+        if (file.name().endsWith(".json") && !GameSaveFactory.isBinary(file)) {
           try {
-            GameSaveFactory.upgradeGameSave(file.read(), file.name());
+            // written back in the binary format, so listing the towers only reads their headers
+            GameSave gameSave = upgrade(file);
+            GameSaveFactory.write(gameSave, file);
           } catch (Throwable ignored) {
             // move game files we cannot understand into an invalid root. maybe
             // we can understand them in the future?
@@ -60,4 +66,13 @@ public class MigrateExistingGamesTask extends BackgroundTask {
       }
     }
   }
+
+  private GameSave upgrade(FileHandle file) throws IOException {
+    InputStream inputStream = file.read();
+    try {
+      return GameSaveFactory.upgradeGameSave(inputStream, file.name());
+    } finally {
+      inputStream.close();
+    }
+  }
 }
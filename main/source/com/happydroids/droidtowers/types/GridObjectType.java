@@ -166,6 +166,10 @@ public abstract class GridObjectType {
     return id;
   }
 
+  public ProviderType getProvides() {
+    return provides;
+  }
+
   public boolean provides(ProviderType... thingProviderTypes) {
     return provides != null && provides.matches(thingProviderTypes);
   }
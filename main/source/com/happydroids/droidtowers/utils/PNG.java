@@ -5,197 +5,240 @@
 package com.happydroids.droidtowers.utils;
 
 
-import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Pixmap;
 
 import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.IOException;
-
-@SuppressWarnings({"PointlessBitwiseExpression", "NumericOverflow"})
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes pixels out as an 8 bit RGB PNG, any alpha is dropped.
+ * <p/>
+ * RGB888 and RGBA8888 pixmaps are read straight out of their ByteBuffer, other formats one pixel at
+ * a time. Unless nothing is compressed, each row is stored with whichever of the five PNG filters
+ * leaves the smallest sum of absolute byte values, the usual guess at what deflates best.
+ */
 public class PNG {
-  public static byte[] toPNG(Pixmap pixmap) throws IOException {
-    byte[] signature = new byte[]{(byte) 137, (byte) 80, (byte) 78,
-                                         (byte) 71, (byte) 13, (byte) 10, (byte) 26, (byte) 10};
-    byte[] header = createHeaderChunk(pixmap.getWidth(), pixmap.getHeight());
-    byte[] data = createDataChunk(pixmap);
-    byte[] trailer = createTrailerChunk();
-
-    ByteArrayOutputStream png = new ByteArrayOutputStream(signature.length
-                                                                  + header.length + data.length + trailer.length);
-    png.write(signature);
-    png.write(header);
-    png.write(data);
-    png.write(trailer);
-    pixmap.dispose();
-    return png.toByteArray();
-  }
-
-  public static byte[] createHeaderChunk(int width, int height)
-          throws IOException {
-    ByteArrayOutputStream baos = new ByteArrayOutputStream(13);
-    DataOutputStream chunk = new DataOutputStream(baos);
-    chunk.writeInt(width);
-    chunk.writeInt(height);
-    chunk.writeByte(8); // Bitdepth
-    chunk.writeByte(2); // Colortype ARGB
-    chunk.writeByte(0); // Compression
-    chunk.writeByte(0); // Filter
-    chunk.writeByte(0); // Interlace
-    return toChunk("IHDR", baos.toByteArray());
-  }
+  public static final int DEFAULT_COMPRESSION_LEVEL = Deflater.BEST_SPEED;
 
-  public static byte[] createDataChunk(Pixmap pixmap) throws IOException {
-    int width = pixmap.getWidth();
-    int height = pixmap.getHeight();
-    int source = 0;
-    int dest = 0;
-    byte[] raw = new byte[3 * (width * height) + height];
-    Color color8888 = new Color();
-    for (int y = 0; y < height; y++) {
-      raw[dest++] = 0; // No filter
-      for (int x = 0; x < width; x++) {
+  private static final byte[] SIGNATURE = new byte[]{(byte) 137, (byte) 80, (byte) 78, (byte) 71, (byte) 13, (byte) 10, (byte) 26, (byte) 10};
+  private static final int NUM_FILTERS = 5;
+  private static final byte FILTER_NONE = 0;
+  private static final byte FILTER_SUB = 1;
+  private static final byte FILTER_UP = 2;
+  private static final byte FILTER_AVERAGE = 3;
+  private static final byte FILTER_PAETH = 4;
+  private static final int RGB = 3;
 
-        // 32-bit RGBA8888
-        int pixel = pixmap.getPixel(x, y);
-        Color.rgba8888ToColor(color8888, pixel);
-        pixel = Color.rgb888(color8888);
-
-        int mask = pixel & 0xFFFFFF;
-        int rr = (mask >> 16) & 0xff;
-        int gg = (mask >> 8) & 0xff;
-        int bb = (mask) & 0xff;
-
-        if (rr < 0 || rr > 255 || gg < 0 || gg > 255 || bb < 0
-                    || bb > 255) {
-          // break ! (assert doesn't always kick-in with the
-          // Eclipse
-          // debugger...)
-          int divide_by_zero = 0 / 0;
-        }
+  public static byte[] toPNG(Pixmap pixmap) throws IOException {
+    return toPNG(pixmap, DEFAULT_COMPRESSION_LEVEL);
+  }
 
-        raw[dest++] = (byte) rr;
-        raw[dest++] = (byte) gg;
-        raw[dest++] = (byte) bb;
-        source++;
+  /**
+   * Encodes the pixmap, then disposes it.
+   *
+   * @param compressionLevel a Deflater level, from NO_COMPRESSION to BEST_COMPRESSION
+   */
+  public static byte[] toPNG(Pixmap pixmap, int compressionLevel) throws IOException {
+    try {
+      Pixmap.Format format = pixmap.getFormat();
+      if (format == Pixmap.Format.RGB888) {
+        return toPNG(pixmap.getPixels(), pixmap.getWidth(), pixmap.getHeight(), 3, compressionLevel);
+      } else if (format == Pixmap.Format.RGBA8888) {
+        return toPNG(pixmap.getPixels(), pixmap.getWidth(), pixmap.getHeight(), 4, compressionLevel);
       }
+
+      return toPNG(toRGB888(pixmap), pixmap.getWidth(), pixmap.getHeight(), 3, compressionLevel);
+    } finally {
+      pixmap.dispose();
     }
-    return toChunk("IDAT", toZLIB(raw));
   }
 
-  public static byte[] createTrailerChunk() throws IOException {
-    return toChunk("IEND", new byte[]{});
+  /**
+   * @param pixels        rows of pixels from the top down, laid out the way a Pixmap keeps them
+   * @param bytesPerPixel 3 for RGB, 4 for RGBA
+   */
+  public static byte[] toPNG(ByteBuffer pixels, int width, int height, int bytesPerPixel, int compressionLevel) throws IOException {
+    byte[] data = createDataChunk(pixels, width, height, bytesPerPixel, compressionLevel);
+
+    ByteArrayOutputStream png = new ByteArrayOutputStream(SIGNATURE.length + 25 + data.length + 12);
+    DataOutputStream out = new DataOutputStream(png);
+    out.write(SIGNATURE);
+    writeChunk(out, "IHDR", createHeader(width, height));
+    writeChunk(out, "IDAT", data);
+    writeChunk(out, "IEND", new byte[0]);
+    return png.toByteArray();
   }
 
-  public static byte[] toChunk(String id, byte[] raw) throws IOException {
-    ByteArrayOutputStream baos = new ByteArrayOutputStream(raw.length + 12);
-    DataOutputStream chunk = new DataOutputStream(baos);
-
-    chunk.writeInt(raw.length);
+  private static byte[] createHeader(int width, int height) throws IOException {
+    ByteArrayOutputStream baos = new ByteArrayOutputStream(13);
+    DataOutputStream header = new DataOutputStream(baos);
+    header.writeInt(width);
+    header.writeInt(height);
+    header.writeByte(8); // Bitdepth
+    header.writeByte(2); // Colortype RGB
+    header.writeByte(0); // Compression
+    header.writeByte(0); // Filter
+    header.writeByte(0); // Interlace
+    return baos.toByteArray();
+  }
 
-    byte[] bid = new byte[4];
-    for (int i = 0; i < 4; i++) {
-      bid[i] = (byte) id.charAt(i);
+  private static byte[] createDataChunk(ByteBuffer pixels, int width, int height, int bytesPerPixel, int compressionLevel) throws IOException {
+    int rowLength = width * RGB;
+    ByteBuffer source = pixels.duplicate();
+    byte[] pixelRow = bytesPerPixel == RGB ? null : new byte[width * bytesPerPixel];
+    byte[] previousRow = new byte[rowLength];
+    byte[] row = new byte[rowLength];
+    byte[][] filteredRows = new byte[NUM_FILTERS][rowLength + 1];
+    for (int filter = 0; filter < NUM_FILTERS; filter++) {
+      filteredRows[filter][0] = (byte) filter;
     }
 
-    chunk.write(bid);
+    Deflater deflater = new Deflater(compressionLevel);
+    ByteArrayOutputStream baos = new ByteArrayOutputStream(compressionLevel == Deflater.NO_COMPRESSION ? (rowLength + 1) * height + 64 : rowLength * height / 4 + 64);
+    DeflaterOutputStream zlib = new DeflaterOutputStream(baos, deflater, 8192);
+    try {
+      for (int y = 0; y < height; y++) {
+        source.position(y * width * bytesPerPixel);
+        if (pixelRow == null) {
+          source.get(row);
+        } else {
+          source.get(pixelRow);
+          for (int x = 0, from = 0, to = 0; x < width; x++, from += bytesPerPixel) {
+            row[to++] = pixelRow[from];
+            row[to++] = pixelRow[from + 1];
+            row[to++] = pixelRow[from + 2];
+          }
+        }
 
-    chunk.write(raw);
+        if (compressionLevel == Deflater.NO_COMPRESSION) {
+          System.arraycopy(row, 0, filteredRows[FILTER_NONE], 1, rowLength);
+          zlib.write(filteredRows[FILTER_NONE]);
+        } else {
+          zlib.write(filteredRows[filterRow(row, previousRow, filteredRows)]);
+        }
 
-    int crc = 0xFFFFFFFF;
-    crc = updateCRC(crc, bid);
-    crc = updateCRC(crc, raw);
-    chunk.writeInt(~crc);
+        byte[] swap = previousRow;
+        previousRow = row;
+        row = swap;
+      }
+      zlib.finish();
+    } finally {
+      deflater.end();
+    }
 
     return baos.toByteArray();
   }
 
-  static int[] crcTable = null;
-
-  public static void createCRCTable() {
-    crcTable = new int[256];
-
-    for (int i = 0; i < 256; i++) {
-      int c = i;
-      for (int k = 0; k < 8; k++) {
-        c = ((c & 1) > 0) ? 0xedb88320 ^ (c >>> 1) : c >>> 1;
-      }
-      crcTable[i] = c;
+  /**
+   * Fills in every filtered version of the row.
+   *
+   * @return the filter whose version is the smallest
+   */
+  private static int filterRow(byte[] row, byte[] previousRow, byte[][] filteredRows) {
+    byte[] none = filteredRows[FILTER_NONE];
+    byte[] sub = filteredRows[FILTER_SUB];
+    byte[] up = filteredRows[FILTER_UP];
+    byte[] average = filteredRows[FILTER_AVERAGE];
+    byte[] paeth = filteredRows[FILTER_PAETH];
+    int noneSum = 0, subSum = 0, upSum = 0, averageSum = 0, paethSum = 0;
+
+    for (int i = 0; i < row.length; i++) {
+      int value = row[i] & 0xff;
+      int left = i >= RGB ? row[i - RGB] & 0xff : 0;
+      int above = previousRow[i] & 0xff;
+      int aboveLeft = i >= RGB ? previousRow[i - RGB] & 0xff : 0;
+
+      byte filtered = (byte) value;
+      none[i + 1] = filtered;
+      noneSum += Math.abs(filtered);
+
+      filtered = (byte) (value - left);
+      sub[i + 1] = filtered;
+      subSum += Math.abs(filtered);
+
+      filtered = (byte) (value - above);
+      up[i + 1] = filtered;
+      upSum += Math.abs(filtered);
+
+      filtered = (byte) (value - ((left + above) >> 1));
+      average[i + 1] = filtered;
+      averageSum += Math.abs(filtered);
+
+      filtered = (byte) (value - paethPredictor(left, above, aboveLeft));
+      paeth[i + 1] = filtered;
+      paethSum += Math.abs(filtered);
     }
-  }
 
-  public static int updateCRC(int crc, byte[] raw) {
-    if (crcTable == null) {
-      createCRCTable();
+    int best = FILTER_NONE;
+    int bestSum = noneSum;
+    if (subSum < bestSum) {
+      best = FILTER_SUB;
+      bestSum = subSum;
     }
-
-    for (byte aRaw : raw) {
-      crc = crcTable[(crc ^ aRaw) & 0xFF] ^ (crc >>> 8);
+    if (upSum < bestSum) {
+      best = FILTER_UP;
+      bestSum = upSum;
+    }
+    if (averageSum < bestSum) {
+      best = FILTER_AVERAGE;
+      bestSum = averageSum;
+    }
+    if (paethSum < bestSum) {
+      best = FILTER_PAETH;
     }
 
-    return crc;
-  }
-
-  /*
-  * This method is called to encode the image data as a zlib block as
-  * required by the PNG specification. This file comes with a minimal ZLIB
-  * encoder which uses uncompressed deflate blocks (fast, short, easy, but no
-  * compression). If you want compression, call another encoder (such as
-  * JZLib?) here.
-  */
-  public static byte[] toZLIB(byte[] raw) throws IOException {
-    return ZLIB.toZLIB(raw);
+    return best;
   }
-}
-
-class ZLIB {
-  static final int BLOCK_SIZE = 32000;
 
-  public static byte[] toZLIB(byte[] raw) throws IOException {
-    ByteArrayOutputStream baos = new ByteArrayOutputStream(raw.length + 6
-                                                                   + (raw.length / BLOCK_SIZE) * 5);
-    DataOutputStream zlib = new DataOutputStream(baos);
-
-    byte tmp = (byte) 8;
-    zlib.writeByte(tmp); // CM = 8, CMINFO = 0
-    zlib.writeByte((31 - ((tmp << 8) % 31)) % 31); // FCHECK
-    // (FDICT/FLEVEL=0)
-
-    int pos = 0;
-    while (raw.length - pos > BLOCK_SIZE) {
-      writeUncompressedDeflateBlock(zlib, false, raw, pos,
-                                           (char) BLOCK_SIZE);
-      pos += BLOCK_SIZE;
+  private static int paethPredictor(int left, int above, int aboveLeft) {
+    int estimate = left + above - aboveLeft;
+    int toLeft = Math.abs(estimate - left);
+    int toAbove = Math.abs(estimate - above);
+    int toAboveLeft = Math.abs(estimate - aboveLeft);
+    if (toLeft <= toAbove && toLeft <= toAboveLeft) {
+      return left;
+    } else if (toAbove <= toAboveLeft) {
+      return above;
     }
 
-    writeUncompressedDeflateBlock(zlib, true, raw, pos,
-                                         (char) (raw.length - pos));
-
-    // zlib check sum of uncompressed data
-    zlib.writeInt(calcADLER32(raw));
-
-    return baos.toByteArray();
+    return aboveLeft;
   }
 
-  private static void writeUncompressedDeflateBlock(DataOutputStream zlib,
-                                                    boolean last, byte[] raw, int off, char len) throws IOException {
-    zlib.writeByte((byte) (last ? 1 : 0)); // Final flag, Compression type 0
-    zlib.writeByte((byte) (len & 0xFF)); // Length LSB
-    zlib.writeByte((byte) ((len & 0xFF00) >> 8)); // Length MSB
-    zlib.writeByte((byte) (~len & 0xFF)); // Length 1st complement LSB
-    zlib.writeByte((byte) ((~len & 0xFF00) >> 8)); // Length 1st complement
-    // MSB
-    zlib.write(raw, off, len); // Data
+  private static ByteBuffer toRGB888(Pixmap pixmap) {
+    int width = pixmap.getWidth();
+    int height = pixmap.getHeight();
+    ByteBuffer rgb = ByteBuffer.allocate(width * height * RGB);
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        // 32-bit RGBA8888
+        int pixel = pixmap.getPixel(x, y);
+        rgb.put((byte) (pixel >>> 24));
+        rgb.put((byte) (pixel >>> 16));
+        rgb.put((byte) (pixel >>> 8));
+      }
+    }
+    rgb.flip();
+    return rgb;
   }
 
-  private static int calcADLER32(byte[] raw) {
-    int s1 = 1;
-    int s2 = 0;
-    for (byte aRaw : raw) {
-      int abs = aRaw >= 0 ? aRaw : (aRaw + 256);
-      s1 = (s1 + abs) % 65521;
-      s2 = (s2 + s1) % 65521;
+  private static void writeChunk(DataOutputStream out, String id, byte[] data) throws IOException {
+    byte[] type = new byte[4];
+    for (int i = 0; i < 4; i++) {
+      type[i] = (byte) id.charAt(i);
     }
-    return (s2 << 16) + s1;
+
+    CRC32 crc = new CRC32();
+    crc.update(type);
+    crc.update(data);
+
+    out.writeInt(data.length);
+    out.write(type);
+    out.write(data);
+    out.writeInt((int) crc.getValue());
   }
 }
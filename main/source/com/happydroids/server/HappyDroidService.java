@@ -23,13 +23,11 @@ import org.apach3.http.client.utils.URLEncodedUtils;
 import org.apach3.http.conn.HttpHostConnectException;
 import org.apach3.http.entity.BufferedHttpEntity;
 import org.apach3.http.entity.StringEntity;
-import org.apach3.http.impl.client.DefaultHttpClient;
-import org.apach3.http.impl.client.cache.CacheConfig;
-import org.apach3.http.impl.client.cache.CachingHttpClient;
 import org.apach3.http.message.BasicNameValuePair;
 import org.apach3.http.protocol.BasicHttpContext;
 import org.apach3.http.util.EntityUtils;
 
+import java.io.IOException;
 import java.net.URI;
 import java.util.HashMap;
 import java.util.List;
@@ -47,6 +45,7 @@ public class HappyDroidService {
 
   private final Set<Runnable> withNetworkConnectionRunnables = Sets.newHashSet();
   protected HappyDroidObjectMapper objectMapper;
+  private HttpClientPool httpClientPool;
 
   public static HappyDroidService instance() {
     if (_instance == null) {
@@ -99,6 +98,22 @@ public class HappyDroidService {
     return objectMapper;
   }
 
+  public synchronized HttpClientPool getHttpClientPool() {
+    if (httpClientPool == null) {
+      httpClientPool = new HttpClientPool();
+    }
+
+    return httpClientPool;
+  }
+
+  public synchronized void setHttpClientPool(HttpClientPool httpClientPool) {
+    if (this.httpClientPool != null && this.httpClientPool != httpClientPool) {
+      this.httpClientPool.shutdown();
+    }
+
+    this.httpClientPool = httpClientPool;
+  }
+
   public static <T> T materializeObject(HttpResponse response, Class<T> aClazz) {
     ObjectMapper mapper = instance().getObjectMapper();
     if (response != null) {
@@ -120,7 +135,7 @@ public class HappyDroidService {
   }
 
   public HttpResponse makePutRequest(String uri, Object objectForServer) {
-    HttpClient client = new DefaultHttpClient();
+    HttpClient client = getHttpClientPool().client();
     try {
       if (HappyDroidConsts.DEBUG) {
         System.out.println("PUT " + uri);
@@ -139,7 +154,7 @@ public class HappyDroidService {
         request.setEntity(entity);
       }
 
-      HttpResponse response = client.execute(request);
+      HttpResponse response = bufferEntity(client.execute(request));
       Gdx.app.debug(TAG, "\t" + response.getStatusLine());
       int statusCode = response.getStatusLine().getStatusCode();
       if (statusCode != 201 && statusCode != 200) {
@@ -164,7 +179,7 @@ public class HappyDroidService {
   }
 
   public HttpResponse makePostRequest(String uri, Object objectForServer) {
-    HttpClient client = new DefaultHttpClient();
+    HttpClient client = getHttpClientPool().client();
     try {
       Gdx.app.debug(TAG, "POST " + uri);
       HttpPost request = new HttpPost(uri);
@@ -178,7 +193,7 @@ public class HappyDroidService {
         request.setEntity(entity);
       }
 
-      HttpResponse response = client.execute(request);
+      HttpResponse response = bufferEntity(client.execute(request));
       Gdx.app.debug(TAG, "RES: " + response.getStatusLine());
 
       int statusCode = response.getStatusLine().getStatusCode();
@@ -222,19 +237,9 @@ public class HappyDroidService {
       addDefaultHeaders(request);
       Gdx.app.debug(TAG, "REQ: GET " + uri);
 
-      HttpClient client = new DefaultHttpClient();
-      if (enableCache) {
-        CacheConfig config = new CacheConfig();
-        config.setSharedCache(true);
-        config.setMaxCacheEntries(256);
-        config.setMaxObjectSize(10485760);
-        config.setHeuristicCachingEnabled(true);
-        config.setHeuristicDefaultLifetime(cacheMaxAge);
-        client = new CachingHttpClient(client, new HttpCacheDiskStorage(), config);
-      }
-
+      HttpClient client = enableCache ? getHttpClientPool().cachingClient(cacheMaxAge) : getHttpClientPool().client();
       BasicHttpContext context = new BasicHttpContext();
-      HttpResponse response = client.execute(request, context);
+      HttpResponse response = bufferEntity(client.execute(request, context));
       CacheResponseStatus responseStatus = (CacheResponseStatus) context.getAttribute(CACHE_RESPONSE_STATUS);
 
       if (responseStatus == CACHE_HIT) {
@@ -250,6 +255,20 @@ public class HappyDroidService {
     }
   }
 
+  /**
+   * Reads the whole response in, which hands its connection back to the pool. Callers can then read
+   * the entity as often as they like, or not at all.
+   */
+  private static HttpResponse bufferEntity(HttpResponse response) throws IOException {
+    HttpEntity entity = response.getEntity();
+    if (entity != null && !entity.isRepeatable()) {
+      response.setEntity(new BufferedHttpEntity(entity));
+      EntityUtils.consume(entity);
+    }
+
+    return response;
+  }
+
   public String getDeviceId() {
     return null;
   }
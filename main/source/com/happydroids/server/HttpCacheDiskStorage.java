@@ -12,20 +12,89 @@ import org.apach3.http.impl.client.cache.DefaultHttpCacheEntrySerializer;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
+/**
+ * Keeps cached responses in cache/, one file per entry, and stops it growing past maxBytes by
+ * deleting the least recently used entries. Which entries exist and how big they are is kept in
+ * memory, read from the directory when the storage is made, so a miss never touches the disk. Small
+ * entries are also kept in memory once read, so repeated hits skip reading and deserializing them.
+ * <p/>
+ * Entries are written to a temporary file and renamed into place, so a crash never leaves half of an
+ * entry behind.
+ */
 public class HttpCacheDiskStorage implements HttpCacheStorage {
-  private final HttpCacheEntrySerializer serializer;
-  private final FileHandle cacheDir;
+  public static final long DEFAULT_MAX_BYTES = 20 * 1024 * 1024;
+  public static final int DEFAULT_MAX_MEMORY_ENTRY_BYTES = 16 * 1024;
+  public static final long DEFAULT_MAX_MEMORY_BYTES = 1024 * 1024;
+  private static final String TEMP_SUFFIX = ".tmp";
 
+  private final HttpCacheEntrySerializer serializer;
+  private final File cacheDir;
+  private final long maxBytes;
+  private final int maxMemoryEntryBytes;
+  private final long maxMemoryBytes;
+  private final LinkedHashMap<String, Long> index;
+  private final LinkedHashMap<String, MemoryEntry> memory;
+  private long totalBytes;
+  private long memoryBytes;
+  private int hits;
+  private int misses;
+  private int evictions;
 
   public HttpCacheDiskStorage() {
+    this(GameSaveFactory.getStorageRoot().child("cache/"), DEFAULT_MAX_BYTES, DEFAULT_MAX_MEMORY_ENTRY_BYTES, DEFAULT_MAX_MEMORY_BYTES);
+  }
+
+  public HttpCacheDiskStorage(FileHandle cacheDir, long maxBytes, int maxMemoryEntryBytes, long maxMemoryBytes) {
+    this.maxBytes = maxBytes;
+    this.maxMemoryEntryBytes = maxMemoryEntryBytes;
+    this.maxMemoryBytes = maxMemoryBytes;
+    this.cacheDir = cacheDir.file();
     serializer = new DefaultHttpCacheEntrySerializer();
-    cacheDir = GameSaveFactory.getStorageRoot().child("cache/");
+    index = new LinkedHashMap<String, Long>(16, 0.75f, true);
+    memory = new LinkedHashMap<String, MemoryEntry>(16, 0.75f, true);
 
     if (!cacheDir.exists()) {
       cacheDir.mkdirs();
     }
+
+    loadIndex();
+  }
+
+  /**
+   * Files are indexed oldest first, so the entries written longest ago are the first to go.
+   */
+  private void loadIndex() {
+    File[] files = cacheDir.listFiles();
+    if (files == null) {
+      return;
+    }
+
+    Arrays.sort(files, new Comparator<File>() {
+      @Override
+      public int compare(File a, File b) {
+        return a.lastModified() < b.lastModified() ? -1 : (a.lastModified() == b.lastModified() ? 0 : 1);
+      }
+    });
+
+    for (File file : files) {
+      if (file.getName().endsWith(TEMP_SUFFIX)) {
+        file.delete();
+      } else if (file.isFile()) {
+        index.put(file.getName(), file.length());
+        totalBytes += file.length();
+      }
+    }
+
+    evictToFit(0);
   }
 
   private String getKey(String key) {
@@ -33,36 +102,164 @@ public class HttpCacheDiskStorage implements HttpCacheStorage {
   }
 
   @Override
-  public void putEntry(String key, HttpCacheEntry entry) throws IOException {
-    if (entry.getStatusCode() == 200) {
-      ByteArrayOutputStream bos = new ByteArrayOutputStream();
-      serializer.writeTo(entry, bos);
-      cacheDir.child(getKey(key)).writeBytes(bos.toByteArray(), false);
+  public synchronized void putEntry(String key, HttpCacheEntry entry) throws IOException {
+    if (entry == null || entry.getStatusCode() != 200) {
+      return;
+    }
+
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    serializer.writeTo(entry, bos);
+    byte[] bytes = bos.toByteArray();
+
+    String fileName = getKey(key);
+    remove(fileName);
+    if (bytes.length > maxBytes) {
+      return;
     }
+
+    evictToFit(bytes.length);
+    writeAtomically(fileName, bytes);
+    index.put(fileName, (long) bytes.length);
+    totalBytes += bytes.length;
+    remember(fileName, entry, bytes.length);
   }
 
   @Override
-  public HttpCacheEntry getEntry(String key) throws IOException {
-    FileHandle file = cacheDir.child(getKey(key));
-    if (file.exists()) {
-      return serializer.readFrom(new ByteArrayInputStream(file.readBytes()));
+  public synchronized HttpCacheEntry getEntry(String key) throws IOException {
+    String fileName = getKey(key);
+    if (index.get(fileName) == null) {
+      misses++;
+      return null;
+    }
+
+    hits++;
+    MemoryEntry memoryEntry = memory.get(fileName);
+    if (memoryEntry != null) {
+      return memoryEntry.entry;
     }
 
-    return null;
+    File file = new File(cacheDir, fileName);
+    HttpCacheEntry entry;
+    try {
+      entry = serializer.readFrom(new ByteArrayInputStream(new FileHandle(file).readBytes()));
+    } catch (Exception e) {
+      hits--;
+      misses++;
+      remove(fileName);
+      return null;
+    }
+
+    remember(fileName, entry, file.length());
+    return entry;
   }
 
   @Override
-  public void removeEntry(String key) throws IOException {
-    FileHandle file = cacheDir.child(getKey(key));
-    if (file.exists()) {
-      file.delete();
-    }
+  public synchronized void removeEntry(String key) throws IOException {
+    remove(getKey(key));
   }
 
   @Override
-  public void updateEntry(String key, HttpCacheUpdateCallback callback) throws IOException, HttpCacheUpdateException {
+  public synchronized void updateEntry(String key, HttpCacheUpdateCallback callback) throws IOException, HttpCacheUpdateException {
     HttpCacheEntry cacheEntry = getEntry(key);
     HttpCacheEntry updatedEntry = callback.update(cacheEntry);
     putEntry(key, updatedEntry);
   }
+
+  private void writeAtomically(String fileName, byte[] bytes) throws IOException {
+    File tempFile = new File(cacheDir, fileName + TEMP_SUFFIX);
+    FileOutputStream outputStream = new FileOutputStream(tempFile);
+    try {
+      outputStream.write(bytes);
+      outputStream.getFD().sync();
+    } finally {
+      outputStream.close();
+    }
+
+    File file = new File(cacheDir, fileName);
+    if (!tempFile.renameTo(file)) {
+      file.delete();
+      if (!tempFile.renameTo(file)) {
+        tempFile.delete();
+        throw new IOException("Could not move " + tempFile + " to " + file);
+      }
+    }
+  }
+
+  private void remember(String fileName, HttpCacheEntry entry, long size) {
+    if (size > maxMemoryEntryBytes) {
+      return;
+    }
+
+    MemoryEntry previous = memory.put(fileName, new MemoryEntry(entry, size));
+    if (previous != null) {
+      memoryBytes -= previous.size;
+    }
+    memoryBytes += size;
+
+    Iterator<MemoryEntry> iterator = memory.values().iterator();
+    while (memoryBytes > maxMemoryBytes && iterator.hasNext()) {
+      memoryBytes -= iterator.next().size;
+      iterator.remove();
+    }
+  }
+
+  private void remove(String fileName) {
+    Long size = index.remove(fileName);
+    if (size != null) {
+      totalBytes -= size;
+      new File(cacheDir, fileName).delete();
+    }
+
+    MemoryEntry memoryEntry = memory.remove(fileName);
+    if (memoryEntry != null) {
+      memoryBytes -= memoryEntry.size;
+    }
+  }
+
+  private void evictToFit(long bytesNeeded) {
+    Iterator<Map.Entry<String, Long>> iterator = index.entrySet().iterator();
+    while (totalBytes + bytesNeeded > maxBytes && iterator.hasNext()) {
+      Map.Entry<String, Long> eldest = iterator.next();
+      iterator.remove();
+      totalBytes -= eldest.getValue();
+      new File(cacheDir, eldest.getKey()).delete();
+
+      MemoryEntry memoryEntry = memory.remove(eldest.getKey());
+      if (memoryEntry != null) {
+        memoryBytes -= memoryEntry.size;
+      }
+
+      evictions++;
+    }
+  }
+
+  public synchronized int getHits() {
+    return hits;
+  }
+
+  public synchronized int getMisses() {
+    return misses;
+  }
+
+  public synchronized int getEvictions() {
+    return evictions;
+  }
+
+  public synchronized int getEntryCount() {
+    return index.size();
+  }
+
+  public synchronized long getTotalBytes() {
+    return totalBytes;
+  }
+
+  private static class MemoryEntry {
+    final HttpCacheEntry entry;
+    final long size;
+
+    MemoryEntry(HttpCacheEntry entry, long size) {
+      this.entry = entry;
+      this.size = size;
+    }
+  }
 }
@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.server;
+
+import org.apach3.http.HttpResponse;
+import org.apach3.http.client.HttpClient;
+import org.apach3.http.client.cache.HttpCacheStorage;
+import org.apach3.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apach3.http.impl.client.DefaultHttpClient;
+import org.apach3.http.impl.client.cache.CacheConfig;
+import org.apach3.http.impl.client.cache.CachingHttpClient;
+import org.apach3.http.impl.conn.tsccm.ThreadSafeClientConnManager;
+import org.apach3.http.protocol.HttpContext;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The HttpClient shared by every request HappyDroidService makes, so connections to the server are
+ * kept alive and reused instead of being opened for every request.
+ * <p/>
+ * Connections idle for longer than the idle timeout are closed before the next request goes out,
+ * and are never kept alive for longer than that, whatever the server says. A response's connection
+ * only goes back to the pool once its entity has been read.
+ */
+public class HttpClientPool {
+  public static final int DEFAULT_MAX_TOTAL = 8;
+  public static final int DEFAULT_MAX_PER_ROUTE = 4;
+  public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = 30000;
+
+  private final ThreadSafeClientConnManager connectionManager;
+  private final DefaultHttpClient client;
+  private final Map<Integer, HttpClient> cachingClients;
+  private HttpCacheStorage cacheStorage;
+  private long idleTimeoutMillis;
+
+  public HttpClientPool() {
+    this(DEFAULT_MAX_TOTAL, DEFAULT_MAX_PER_ROUTE, DEFAULT_IDLE_TIMEOUT_MILLIS);
+  }
+
+  public HttpClientPool(int maxTotal, int maxPerRoute, long idleTimeoutMillis) {
+    this.idleTimeoutMillis = idleTimeoutMillis;
+
+    connectionManager = new ThreadSafeClientConnManager();
+    connectionManager.setMaxTotal(maxTotal);
+    connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+
+    client = new DefaultHttpClient(connectionManager);
+    client.setKeepAliveStrategy(new DefaultConnectionKeepAliveStrategy() {
+      @Override
+      public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+        long duration = super.getKeepAliveDuration(response, context);
+        return duration > 0 ? Math.min(duration, HttpClientPool.this.idleTimeoutMillis) : HttpClientPool.this.idleTimeoutMillis;
+      }
+    });
+
+    cachingClients = new HashMap<Integer, HttpClient>();
+  }
+
+  public HttpClient client() {
+    evictIdleConnections();
+    return client;
+  }
+
+  /**
+   * @return a client that answers from the disk cache when it can, with one per cache lifetime as
+   *         the lifetime is part of its config. They all share the pooled connections and the cache.
+   */
+  public synchronized HttpClient cachingClient(int cacheMaxAge) {
+    evictIdleConnections();
+
+    HttpClient cachingClient = cachingClients.get(cacheMaxAge);
+    if (cachingClient == null) {
+      if (cacheStorage == null) {
+        cacheStorage = new HttpCacheDiskStorage();
+      }
+
+      CacheConfig config = new CacheConfig();
+      config.setSharedCache(true);
+      config.setMaxCacheEntries(256);
+      config.setMaxObjectSize(10485760);
+      config.setHeuristicCachingEnabled(true);
+      config.setHeuristicDefaultLifetime(cacheMaxAge);
+      cachingClient = new CachingHttpClient(client, cacheStorage, config);
+      cachingClients.put(cacheMaxAge, cachingClient);
+    }
+
+    return cachingClient;
+  }
+
+  public void evictIdleConnections() {
+    connectionManager.closeExpiredConnections();
+    connectionManager.closeIdleConnections(idleTimeoutMillis, TimeUnit.MILLISECONDS);
+  }
+
+  public void setMaxTotal(int maxTotal) {
+    connectionManager.setMaxTotal(maxTotal);
+  }
+
+  public void setMaxPerRoute(int maxPerRoute) {
+    connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+  }
+
+  public void setIdleTimeoutMillis(long idleTimeoutMillis) {
+    this.idleTimeoutMillis = idleTimeoutMillis;
+  }
+
+  public int getConnectionsInPool() {
+    return connectionManager.getConnectionsInPool();
+  }
+
+  public void shutdown() {
+    connectionManager.shutdown();
+  }
+}
@@ -12,7 +12,7 @@ import org.apach3.http.HttpResponse;
 
 import java.util.HashMap;
 
-class TestTowerGameService extends TowerGameService {
+public class TestTowerGameService extends TowerGameService {
   public TestTowerGameService() {
     super();
     Platform.setConnectionMonitor(new PlatformConnectionMonitor() {
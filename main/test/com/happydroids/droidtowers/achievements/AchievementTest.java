@@ -6,6 +6,9 @@ package com.happydroids.droidtowers.achievements;
 
 
 import com.happydroids.droidtowers.NonGLTestRunner;
+import com.happydroids.droidtowers.grid.BuildableTower;
+import com.happydroids.droidtowers.grid.GameGrid;
+import com.happydroids.droidtowers.types.ProviderType;
 import com.happydroids.droidtowers.types.ServiceRoomTypeFactory;
 import org.junit.Before;
 import org.junit.Test;
@@ -44,4 +47,40 @@ public class AchievementTest {
 
     expect(achievement.toRewardString()).toEqual("Complete: Sample!\nAwarded $100\nUnlocked Maids Closet");
   }
+
+  @Test
+  public void checkRequirements_shouldOnlyValidateAgainWhenTheCountedObjectsChange() {
+    final int[] validations = new int[1];
+    Requirement requirement = new Requirement() {
+      @Override
+      public boolean validate(GameGrid gameGrid) {
+        validations[0]++;
+        return super.validate(gameGrid);
+      }
+    };
+    requirement.setType(RequirementType.BUILD);
+    requirement.setThing(AchievementThing.PROVIDER_TYPE);
+    requirement.setThingProviderTypes(ProviderType.LOBBY);
+    requirement.setAmount(2);
+
+    Achievement achievement = new Achievement("Sample");
+    achievement.getRequirements().add(requirement);
+    achievement.resetState();
+
+    BuildableTower tower = new BuildableTower(40, 20);
+    tower.addLobby(0, 20);
+    achievement.checkRequirements(tower.getGameGrid());
+    achievement.checkRequirements(tower.getGameGrid());
+    tower.addRoom(0, 5, 4);
+    achievement.checkRequirements(tower.getGameGrid());
+
+    expect(validations[0]).toEqual(1);
+    expect(achievement.isCompleted()).toBeFalse();
+
+    tower.addLobby(20, 20);
+    achievement.checkRequirements(tower.getGameGrid());
+
+    expect(validations[0]).toEqual(2);
+    expect(achievement.isCompleted()).toBeTrue();
+  }
 }
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.actions;
+
+import com.google.common.collect.Lists;
+import com.happydroids.droidtowers.NonGLTestRunner;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static com.happydroids.droidtowers.Expect.expect;
+
+@RunWith(NonGLTestRunner.class)
+public class ActionManagerTest {
+  private final List<Action> added = Lists.newArrayList();
+  private final List<String> runs = Lists.newArrayList();
+
+  @After
+  public void tearDown() {
+    for (Action action : added) {
+      ActionManager.instance().removeAction(action);
+    }
+    ActionManager.instance().setFrameBudgetMillis(ActionManager.DEFAULT_FRAME_BUDGET_MILLIS);
+    ActionManager.instance().beginFrame();
+  }
+
+  @Test
+  public void addAction_shouldStaggerActionsOfTheSameFrequency() {
+    RecordingAction population = add(new RecordingAction("population", 1f, 0));
+    RecordingAction desirability = add(new RecordingAction("desirability", 1f, 0));
+    RecordingAction starRating = add(new RecordingAction("starRating", 1f, 0));
+
+    int mostRunsInOneUpdate = 0;
+    for (int i = 0; i < 100; i++) {
+      runs.clear();
+      ActionManager.instance().beginFrame();
+      ActionManager.instance().update(0.05f);
+      mostRunsInOneUpdate = Math.max(mostRunsInOneUpdate, runs.size());
+    }
+
+    expect(mostRunsInOneUpdate).toEqual(1);
+    expect(population.numRuns).toEqual(5);
+    expect(desirability.numRuns >= 4).toBeTrue();
+    expect(starRating.numRuns >= 4).toBeTrue();
+  }
+
+  @Test
+  public void update_shouldDeferDueActionsOverTheBudget_inTheOrderTheyWereAdded() {
+    ActionManager.instance().setFrameBudgetMillis(1f);
+    add(new RecordingAction("first", 1f, 2));
+    add(new RecordingAction("second", 2f, 2));
+    add(new RecordingAction("third", 3f, 2));
+
+    ActionManager.instance().beginFrame();
+    ActionManager.instance().update(3f);
+    expect(runs).toEqual(Lists.newArrayList("first"));
+    expect(ActionManager.instance().getNumDueActions()).toEqual(2);
+
+    ActionManager.instance().beginFrame();
+    ActionManager.instance().update(0f);
+    ActionManager.instance().beginFrame();
+    ActionManager.instance().update(0f);
+    expect(runs).toEqual(Lists.newArrayList("first", "second", "third"));
+    expect(ActionManager.instance().getNumDueActions()).toEqual(0);
+
+    ActionTimings timings = findTimings(RecordingAction.class.getSimpleName());
+    expect(timings.getRuns() >= 3).toBeTrue();
+    expect(timings.getDeferrals() >= 3).toBeTrue();
+    expect(timings.getPercentileMillis(1f) >= 2f).toBeTrue();
+  }
+
+  @Test
+  public void update_shouldShareTheBudget_betweenTheUpdatesOfAFrame() {
+    ActionManager.instance().setFrameBudgetMillis(1f);
+    add(new RecordingAction("first", 1f, 2));
+    add(new RecordingAction("second", 2f, 2));
+
+    ActionManager.instance().beginFrame();
+    ActionManager.instance().update(3f);
+    ActionManager.instance().update(0f);
+    ActionManager.instance().update(0f);
+    expect(runs).toEqual(Lists.newArrayList("first"));
+
+    ActionManager.instance().beginFrame();
+    ActionManager.instance().update(0f);
+    expect(runs).toEqual(Lists.newArrayList("first", "second"));
+  }
+
+  @Test
+  public void update_shouldRunEveryDueAction_withoutABudget() {
+    ActionManager.instance().setFrameBudgetMillis(0);
+    add(new RecordingAction("first", 1f, 2));
+    add(new RecordingAction("second", 2f, 2));
+
+    ActionManager.instance().update(3f);
+
+    expect(runs).toEqual(Lists.newArrayList("first", "second"));
+  }
+
+  private <T extends Action> T add(T action) {
+    added.add(action);
+    ActionManager.instance().addAction(action);
+    return action;
+  }
+
+  private ActionTimings findTimings(String name) {
+    for (ActionTimings timings : ActionManager.instance().getTimings()) {
+      if (timings.getName().equals(name)) {
+        return timings;
+      }
+    }
+
+    return null;
+  }
+
+  private class RecordingAction extends TimeDelayedAction {
+    private final String name;
+    private final long busyMillis;
+    int numRuns;
+
+    RecordingAction(String name, float frequency, long busyMillis) {
+      super(frequency);
+      this.name = name;
+      this.busyMillis = busyMillis;
+    }
+
+    @Override
+    public void run() {
+      long until = System.nanoTime() + busyMillis * 1000000;
+      while (System.nanoTime() < until) {
+        // busy, like a calculator on a big tower
+      }
+
+      numRuns++;
+      runs.add(name);
+    }
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.benchmark;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.g2d.Animation;
+import com.badlogic.gdx.graphics.g2d.TextureRegion;
+import com.badlogic.gdx.utils.Array;
+import com.happydroids.droidtowers.TestGdxApplication;
+import com.happydroids.droidtowers.TestGdxFiles;
+import com.happydroids.droidtowers.TestTowerGameService;
+import com.happydroids.droidtowers.TowerConsts;
+import com.happydroids.droidtowers.controllers.WalkingAvatars;
+import com.happydroids.droidtowers.entities.Avatar;
+import com.happydroids.droidtowers.entities.GridObject;
+import com.happydroids.droidtowers.gamestate.server.TowerGameService;
+import com.happydroids.droidtowers.grid.BuildableTower;
+import com.happydroids.droidtowers.grid.GameGrid;
+import com.happydroids.droidtowers.pathfinding.HierarchicalTransitPathFinder;
+import com.happydroids.droidtowers.pathfinding.IndexedTransitPathFinder;
+
+import java.io.File;
+import java.util.LinkedList;
+
+/**
+ * Measures how much heap the parts of an avatar take, comparing what every avatar used to own with
+ * what the avatars now share: a path finder borrowed from the grid's TransitPathFinderPool, one walk
+ * Animation per kind of avatar and a three slot array of recently visited places.
+ * <p/>
+ * Each part is made once per avatar and kept, and the growth of the heap after a full collection
+ * divided by the number of avatars is reported in bytes. The pooled total assumes the pool holds one
+ * path finder per search waiting or running at once.
+ * <p/>
+ * Usage: AvatarHeapBenchmark [--avatars 2000] [--width 100] [--floors 60] [--searches 16]
+ * [--report heap-report.json]
+ */
+public class AvatarHeapBenchmark {
+  private static final int WALK_FRAMES = 3;
+
+  public static void main(String[] args) throws Exception {
+    int avatars = 2000;
+    int width = 100;
+    int floors = 60;
+    int searches = 16;
+    String reportFile = null;
+
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      String value = args[i + 1];
+      if (args[i].equals("--avatars")) {
+        avatars = Integer.parseInt(value);
+      } else if (args[i].equals("--width")) {
+        width = Integer.parseInt(value);
+      } else if (args[i].equals("--floors")) {
+        floors = Integer.parseInt(value);
+      } else if (args[i].equals("--searches")) {
+        searches = Integer.parseInt(value);
+      } else if (args[i].equals("--report")) {
+        reportFile = value;
+      } else {
+        throw new IllegalArgumentException("Unknown option: " + args[i]);
+      }
+    }
+
+    Gdx.files = new TestGdxFiles();
+    Gdx.app = new TestGdxApplication(null, null);
+    TowerGameService.setInstance(new TestTowerGameService());
+
+    int exitCode = 1;
+    try {
+      System.out.println(String.format("tower: %dx%d, %d avatars, %d searches at once", width, floors, avatars, searches));
+      BenchmarkReport report = new BenchmarkReport();
+      report.parameters.put("avatars", String.valueOf(avatars));
+      report.parameters.put("width", String.valueOf(width));
+      report.parameters.put("floors", String.valueOf(floors));
+      report.parameters.put("searches", String.valueOf(searches));
+      measure(report, avatars, width, floors, searches);
+
+      if (reportFile != null) {
+        report.write(new File(reportFile));
+        System.out.println("report written to " + new File(reportFile).getAbsolutePath());
+      }
+      exitCode = 0;
+    } catch (Exception e) {
+      e.printStackTrace();
+    } finally {
+      // the connection monitor thread started by TowerGameService would keep the VM running.
+      System.exit(exitCode);
+    }
+  }
+
+  private static void measure(BenchmarkReport report, int avatars, int width, int floors, final int searches) throws InterruptedException {
+    final GameGrid gameGrid = BuildableTower.withRooms(width, floors).getGameGrid();
+    final WalkingAvatars walkingAvatars = new WalkingAvatars(gameGrid);
+    final TextureRegion[] walkFrames = new TextureRegion[WALK_FRAMES];
+    for (int i = 0; i < walkFrames.length; i++) {
+      walkFrames[i] = new TextureRegion();
+    }
+    final Object[] visited = {new Object(), new Object(), new Object()};
+
+    double avatar = addResult(report, "Avatar(steering manager, transit line, timeline)", avatars, new Part() {
+      public Object make() {
+        return walkingAvatars.makeSteeringManager(0, TowerConsts.LOBBY_FLOOR).getAvatar();
+      }
+    });
+    double hierarchical = addResult(report, "HierarchicalTransitPathFinder", avatars, new Part() {
+      public Object make() {
+        return new HierarchicalTransitPathFinder(gameGrid, false);
+      }
+    });
+    double indexed = addResult(report, "IndexedTransitPathFinder", Math.max(1, avatars / 10), new Part() {
+      public Object make() {
+        return new IndexedTransitPathFinder(gameGrid, false);
+      }
+    });
+    double animation = addResult(report, "Animation(walk)", avatars, new Part() {
+      public Object make() {
+        // findRegions handed every avatar its own Array, which Animation copies into its own frames
+        Array<TextureRegion> walkRegions = new Array<TextureRegion>(walkFrames);
+        return new Animation(Avatar.FRAME_DURATION, walkRegions);
+      }
+    });
+    double linkedList = addResult(report, "LinkedList(3 last visited places)", avatars, new Part() {
+      public Object make() {
+        LinkedList<Object> lastVisitedPlaces = new LinkedList<Object>();
+        for (Object place : visited) {
+          lastVisitedPlaces.add(place);
+        }
+        return lastVisitedPlaces;
+      }
+    });
+    double recentlyVisited = addResult(report, "GridObject[3](recently visited)", avatars, new Part() {
+      public Object make() {
+        return new GridObject[3];
+      }
+    });
+
+    double pathFinder = TowerConsts.HIERARCHICAL_PATH_FINDING ? hierarchical : indexed;
+    // a built avatar already holds its recently visited array, the old one held the list instead
+    double before = avatar - recentlyVisited + linkedList + pathFinder + animation;
+    double now = avatar + pathFinder * searches / avatars;
+    addResult(report, "Avatar total, each owning its parts", before);
+    addResult(report, "Avatar total, sharing them", now);
+  }
+
+  private static double addResult(BenchmarkReport report, String name, int count, Part part) throws InterruptedException {
+    Object[] parts = new Object[count];
+    long before = usedHeap();
+    for (int i = 0; i < count; i++) {
+      parts[i] = part.make();
+    }
+    long after = usedHeap();
+
+    double bytes = (after - before) / (double) parts.length;
+    return addResult(report, name, bytes);
+  }
+
+  private static double addResult(BenchmarkReport report, String name, double bytes) {
+    BenchmarkResult result = new BenchmarkResult(name, new double[]{bytes}, 1);
+    result.unit = "bytes/avatar";
+    report.results.add(result);
+    System.out.println(result);
+    return bytes;
+  }
+
+  private static long usedHeap() throws InterruptedException {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 4; i++) {
+      System.gc();
+      Thread.sleep(50);
+    }
+
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private interface Part {
+    Object make();
+  }
+}
@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.benchmark;
+
+/**
+ * One operation to be timed by BenchmarkRunner.
+ * <p/>
+ * setUp() runs once before warming up and is not timed. run() performs a single operation and
+ * returns something derived from its work, which the runner keeps so the JIT can't drop the work.
+ */
+public abstract class Benchmark {
+  private final String name;
+
+  protected Benchmark(String name) {
+    this.name = name;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setUp() throws Exception {
+  }
+
+  public abstract int run() throws Exception;
+
+  public void tearDown() throws Exception {
+  }
+}
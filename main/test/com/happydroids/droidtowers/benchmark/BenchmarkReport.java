@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything one run of the benchmarks measured, written as JSON so runs can be compared.
+ */
+public class BenchmarkReport {
+  public String date;
+  public String javaVersion;
+  public String osName;
+  public int availableProcessors;
+  public Map<String, String> parameters = Maps.newLinkedHashMap();
+  public List<BenchmarkResult> results = Lists.newArrayList();
+
+  public BenchmarkResult findResult(String name) {
+    for (BenchmarkResult result : results) {
+      if (result.name.equals(name)) {
+        return result;
+      }
+    }
+
+    return null;
+  }
+
+  public List<String> findRegressions(BenchmarkReport baseline, double threshold) {
+    List<String> regressions = Lists.newArrayList();
+    for (BenchmarkResult result : results) {
+      BenchmarkResult baselineResult = baseline.findResult(result.name);
+      if (baselineResult != null && result.isRegressionOf(baselineResult, threshold)) {
+        regressions.add(result.name);
+      }
+    }
+
+    return regressions;
+  }
+
+  public void write(File file) throws IOException {
+    new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(file, this);
+  }
+
+  public static BenchmarkReport read(File file) throws IOException {
+    return new ObjectMapper().readValue(file, BenchmarkReport.class);
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.benchmark;
+
+public class BenchmarkResult {
+  public String name;
+  public String unit = "ns/op";
+  public double mean;
+  public double error;
+  public double min;
+  public double max;
+  public long operations;
+  public double[] samples;
+
+  public BenchmarkResult() {
+  }
+
+  public BenchmarkResult(String name, double[] samples, long operations) {
+    this.name = name;
+    this.samples = samples;
+    this.operations = operations;
+
+    min = Double.MAX_VALUE;
+    max = 0;
+    double total = 0;
+    for (double sample : samples) {
+      total += sample;
+      min = Math.min(min, sample);
+      max = Math.max(max, sample);
+    }
+    mean = total / samples.length;
+
+    if (samples.length > 1) {
+      double squares = 0;
+      for (double sample : samples) {
+        squares += (sample - mean) * (sample - mean);
+      }
+      error = Math.sqrt(squares / (samples.length - 1));
+    }
+  }
+
+  /**
+   * @return true when this result is slower than the baseline by more than the threshold (0.1 for
+   *         10%), and by more than the spread of both measurements
+   */
+  public boolean isRegressionOf(BenchmarkResult baseline, double threshold) {
+    return mean > baseline.mean * (1 + threshold) && mean - error > baseline.mean + baseline.error;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%-40s %14.1f +- %10.1f %s", name, mean, error, unit);
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.benchmark;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Times benchmarks the way JMH does in its default mode, without needing JMH on the classpath: a
+ * number of warmup iterations whose results are thrown away, then measurement iterations. Every
+ * iteration calls run() for at least iterationMillis and records the average time per operation.
+ */
+public class BenchmarkRunner {
+  private int warmupIterations = 3;
+  private int measurementIterations = 5;
+  private long iterationMillis = 500;
+  private Pattern filter;
+  private int sink;
+
+  public BenchmarkReport runAll(List<Benchmark> benchmarks) throws Exception {
+    BenchmarkReport report = new BenchmarkReport();
+    report.date = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ssZ").format(new Date());
+    report.javaVersion = System.getProperty("java.version");
+    report.osName = System.getProperty("os.name");
+    report.availableProcessors = Runtime.getRuntime().availableProcessors();
+    report.parameters.put("warmupIterations", String.valueOf(warmupIterations));
+    report.parameters.put("measurementIterations", String.valueOf(measurementIterations));
+    report.parameters.put("iterationMillis", String.valueOf(iterationMillis));
+
+    for (Benchmark benchmark : benchmarks) {
+      if (filter != null && !filter.matcher(benchmark.getName()).find()) {
+        continue;
+      }
+
+      BenchmarkResult result = run(benchmark);
+      report.results.add(result);
+      System.out.println(result);
+    }
+
+    return report;
+  }
+
+  public BenchmarkResult run(Benchmark benchmark) throws Exception {
+    benchmark.setUp();
+    try {
+      for (int i = 0; i < warmupIterations; i++) {
+        runIteration(benchmark);
+      }
+
+      double[] samples = new double[measurementIterations];
+      long operations = 0;
+      for (int i = 0; i < measurementIterations; i++) {
+        long[] iteration = runIteration(benchmark);
+        operations += iteration[0];
+        samples[i] = iteration[1] / (double) iteration[0];
+      }
+
+      return new BenchmarkResult(benchmark.getName(), samples, operations);
+    } finally {
+      benchmark.tearDown();
+    }
+  }
+
+  private long[] runIteration(Benchmark benchmark) throws Exception {
+    long iterationNanos = iterationMillis * 1000000;
+    long operations = 0;
+    long startTime = System.nanoTime();
+    long elapsed;
+    do {
+      sink += benchmark.run();
+      operations++;
+      elapsed = System.nanoTime() - startTime;
+    } while (elapsed < iterationNanos);
+
+    return new long[]{operations, elapsed};
+  }
+
+  public void setWarmupIterations(int warmupIterations) {
+    this.warmupIterations = warmupIterations;
+  }
+
+  public void setMeasurementIterations(int measurementIterations) {
+    this.measurementIterations = measurementIterations;
+  }
+
+  public void setIterationMillis(long iterationMillis) {
+    this.iterationMillis = iterationMillis;
+  }
+
+  public void setFilter(String filter) {
+    this.filter = filter != null ? Pattern.compile(filter) : null;
+  }
+
+  public int getSink() {
+    return sink;
+  }
+}
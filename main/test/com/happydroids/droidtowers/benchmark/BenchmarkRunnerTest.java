@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.benchmark;
+
+import com.google.common.collect.Lists;
+import com.happydroids.droidtowers.NonGLTestRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.List;
+
+import static com.happydroids.droidtowers.Expect.expect;
+
+@RunWith(NonGLTestRunner.class)
+public class BenchmarkRunnerTest {
+  @Test
+  public void runAll_shouldWriteAReportThatReadsBack() throws Exception {
+    final int[] setUps = new int[1];
+    BenchmarkRunner runner = new BenchmarkRunner();
+    runner.setWarmupIterations(1);
+    runner.setMeasurementIterations(3);
+    runner.setIterationMillis(5);
+    runner.setFilter("counting");
+
+    List<Benchmark> benchmarks = Lists.newArrayList();
+    benchmarks.add(new Benchmark("counting") {
+      @Override
+      public void setUp() {
+        setUps[0]++;
+      }
+
+      @Override
+      public int run() {
+        return 1;
+      }
+    });
+    benchmarks.add(new Benchmark("filtered") {
+      @Override
+      public int run() {
+        throw new IllegalStateException("should have been filtered out");
+      }
+    });
+
+    BenchmarkReport report = runner.runAll(benchmarks);
+    File file = File.createTempFile("benchmark", ".json");
+    report.write(file);
+    BenchmarkReport readBack = BenchmarkReport.read(file);
+    file.delete();
+
+    expect(setUps[0]).toEqual(1);
+    expect(readBack.results.size()).toEqual(1);
+    BenchmarkResult result = readBack.findResult("counting");
+    expect(result.samples.length).toEqual(3);
+    expect(result.operations >= 3).toBeTrue();
+    expect(result.min <= result.mean && result.mean <= result.max).toBeTrue();
+    expect(readBack.parameters.get("measurementIterations")).toEqual("3");
+  }
+
+  @Test
+  public void findRegressions_shouldOnlyReportResultsSlowerThanTheThreshold() {
+    BenchmarkReport baseline = new BenchmarkReport();
+    baseline.results.add(new BenchmarkResult("steady", new double[]{100, 102, 98}, 3));
+    baseline.results.add(new BenchmarkResult("slower", new double[]{100, 102, 98}, 3));
+    baseline.results.add(new BenchmarkResult("noisy", new double[]{100, 102, 98}, 3));
+
+    BenchmarkReport report = new BenchmarkReport();
+    report.results.add(new BenchmarkResult("steady", new double[]{105, 107, 103}, 3));
+    report.results.add(new BenchmarkResult("slower", new double[]{150, 152, 148}, 3));
+    report.results.add(new BenchmarkResult("noisy", new double[]{20, 250, 100}, 3));
+    report.results.add(new BenchmarkResult("new", new double[]{1000, 1000, 1000}, 3));
+
+    List<String> regressions = report.findRegressions(baseline, 0.1);
+    expect(regressions.size()).toEqual(1);
+    expect(regressions.get(0)).toEqual("slower");
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.benchmark;
+
+import com.badlogic.gdx.Gdx;
+import com.happydroids.droidtowers.TestGdxApplication;
+import com.happydroids.droidtowers.TestGdxFiles;
+import com.happydroids.droidtowers.TestTowerGameService;
+import com.happydroids.droidtowers.TowerConsts;
+import com.happydroids.droidtowers.entities.Elevator;
+import com.happydroids.droidtowers.entities.ElevatorTraffic;
+import com.happydroids.droidtowers.entities.elevator.DestinationDispatcher;
+import com.happydroids.droidtowers.entities.elevator.ElevatorDispatcher;
+import com.happydroids.droidtowers.entities.elevator.ElevatorStatistics;
+import com.happydroids.droidtowers.entities.elevator.FirstIdleCarDispatcher;
+import com.happydroids.droidtowers.gamestate.server.TowerGameService;
+import com.happydroids.droidtowers.grid.BuildableTower;
+
+import java.io.File;
+
+/**
+ * Sends the same rush hour traffic through one elevator shaft with each dispatcher, and compares
+ * how many riders per minute they deliver and how long the riders wait for a car.
+ * <p/>
+ * By default the shaft gets more calls than its cars can serve, below that every dispatcher
+ * delivers every call and only the waits differ.
+ * <p/>
+ * Usage: ElevatorDispatchBenchmark [--cars 4] [--floors 18] [--seconds 1800] [--calls-per-second 20]
+ * [--runs 8] [--report elevator-report.json]
+ */
+public class ElevatorDispatchBenchmark {
+  public static final int CARS = 4;
+  public static final int FLOORS = 18;
+  public static final float SATURATING_CALLS_PER_SECOND = 20f;
+
+  public static void main(String[] args) throws Exception {
+    int cars = CARS;
+    int floors = FLOORS;
+    float seconds = 1800;
+    float callsPerSecond = SATURATING_CALLS_PER_SECOND;
+    int runs = 8;
+    String reportFile = null;
+
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      String value = args[i + 1];
+      if (args[i].equals("--cars")) {
+        cars = Integer.parseInt(value);
+      } else if (args[i].equals("--floors")) {
+        floors = Integer.parseInt(value);
+      } else if (args[i].equals("--seconds")) {
+        seconds = Float.parseFloat(value);
+      } else if (args[i].equals("--calls-per-second")) {
+        callsPerSecond = Float.parseFloat(value);
+      } else if (args[i].equals("--runs")) {
+        runs = Integer.parseInt(value);
+      } else if (args[i].equals("--report")) {
+        reportFile = value;
+      } else {
+        throw new IllegalArgumentException("Unknown option: " + args[i]);
+      }
+    }
+
+    Gdx.files = new TestGdxFiles();
+    Gdx.app = new TestGdxApplication(null, null);
+    TowerGameService.setInstance(new TestTowerGameService());
+
+    int exitCode = 1;
+    try {
+      System.out.println(String.format("shaft: %d cars, %d floors, %.2f calls/s for %.0fs", cars, floors, callsPerSecond, seconds));
+      BenchmarkReport report = new BenchmarkReport();
+      report.parameters.put("cars", String.valueOf(cars));
+      report.parameters.put("floors", String.valueOf(floors));
+      report.parameters.put("seconds", String.valueOf(seconds));
+      report.parameters.put("callsPerSecond", String.valueOf(callsPerSecond));
+
+      compare(report, new FirstIdleCarDispatcher(), cars, floors, seconds, callsPerSecond, runs);
+      compare(report, new DestinationDispatcher(), cars, floors, seconds, callsPerSecond, runs);
+
+      if (reportFile != null) {
+        report.write(new File(reportFile));
+        System.out.println("report written to " + new File(reportFile).getAbsolutePath());
+      }
+      exitCode = 0;
+    } catch (Exception e) {
+      e.printStackTrace();
+    } finally {
+      // the connection monitor thread started by TowerGameService would keep the VM running.
+      System.exit(exitCode);
+    }
+  }
+
+  private static void compare(BenchmarkReport report, ElevatorDispatcher dispatcher, int cars, int floors, float seconds, float callsPerSecond, int runs) {
+    String name = dispatcher.getClass().getSimpleName();
+    double[] throughput = new double[runs];
+    double[] averageWait = new double[runs];
+    double[] maxWait = new double[runs];
+    for (int run = 0; run < runs; run++) {
+      Elevator elevator = makeShaft(cars, floors);
+      elevator.setDispatcher(dispatcher);
+
+      ElevatorTraffic traffic = new ElevatorTraffic(elevator, run);
+      traffic.run(seconds, callsPerSecond);
+
+      ElevatorStatistics statistics = elevator.getStatistics();
+      throughput[run] = statistics.getNumDelivered() / (seconds / 60f);
+      averageWait[run] = statistics.getAverageWaitTime();
+      maxWait[run] = statistics.getMaxWaitTime();
+    }
+
+    addResult(report, name + ".throughput", "riders/min", throughput);
+    addResult(report, name + ".averageWait", "s", averageWait);
+    addResult(report, name + ".maxWait", "s", maxWait);
+  }
+
+  private static void addResult(BenchmarkReport report, String name, String unit, double[] samples) {
+    BenchmarkResult result = new BenchmarkResult(name, samples, samples.length);
+    result.unit = unit;
+    report.results.add(result);
+    System.out.println(result);
+  }
+
+  public static Elevator makeShaft(int cars, int floors) {
+    BuildableTower tower = new BuildableTower(3, TowerConsts.LOBBY_FLOOR + floors + TowerConsts.GAME_GRID_EXPAND_LAND_SIZE);
+    return tower.addElevator(1, TowerConsts.LOBBY_FLOOR, TowerConsts.LOBBY_FLOOR + floors - 1, cars);
+  }
+}
@@ -0,0 +1,841 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.benchmark;
+
+import aurelienribon.tweenengine.TweenManager;
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.graphics.OrthographicCamera;
+import com.badlogic.gdx.utils.Array;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import com.google.common.collect.Lists;
+import com.happydroids.droidtowers.DifficultyLevel;
+import com.happydroids.droidtowers.TestGdxApplication;
+import com.happydroids.droidtowers.TestGdxFiles;
+import com.happydroids.droidtowers.TestTowerGameService;
+import com.happydroids.droidtowers.TowerConsts;
+import com.happydroids.droidtowers.achievements.TestAchievements;
+import com.happydroids.droidtowers.controllers.AvatarLayer;
+import com.happydroids.droidtowers.controllers.AvatarSteeringManager;
+import com.happydroids.droidtowers.controllers.WalkingAvatars;
+import com.happydroids.droidtowers.entities.Elevator;
+import com.happydroids.droidtowers.entities.ElevatorTraffic;
+import com.happydroids.droidtowers.entities.GameLayer;
+import com.happydroids.droidtowers.entities.GameObject;
+import com.happydroids.droidtowers.entities.Player;
+import com.happydroids.droidtowers.entities.Room;
+import com.happydroids.droidtowers.entities.elevator.DestinationDispatcher;
+import com.happydroids.droidtowers.entities.elevator.ElevatorDispatcher;
+import com.happydroids.droidtowers.entities.elevator.FirstIdleCarDispatcher;
+import com.happydroids.droidtowers.events.GameGridResizeEvent;
+import com.happydroids.droidtowers.gamestate.GameSave;
+import com.happydroids.droidtowers.gamestate.GameSaveFactory;
+import com.happydroids.droidtowers.gamestate.GameState;
+import com.happydroids.droidtowers.gamestate.SimulationKernel;
+import com.happydroids.droidtowers.gamestate.actions.AchievementEngineCheck;
+import com.happydroids.droidtowers.gamestate.actions.BudgetCalculator;
+import com.happydroids.droidtowers.gamestate.actions.CalculatorPipeline;
+import com.happydroids.droidtowers.gamestate.actions.CrimeCalculator;
+import com.happydroids.droidtowers.gamestate.actions.DesirabilityCalculator;
+import com.happydroids.droidtowers.gamestate.actions.EmploymentCalculator;
+import com.happydroids.droidtowers.gamestate.actions.GameGridAction;
+import com.happydroids.droidtowers.gamestate.actions.PopulationCalculator;
+import com.happydroids.droidtowers.gamestate.actions.StarRatingCalculator;
+import com.happydroids.droidtowers.gamestate.actions.TransportCalculator;
+import com.happydroids.droidtowers.gamestate.server.TowerGameService;
+import com.happydroids.droidtowers.graphics.MiniMapRaster;
+import com.happydroids.droidtowers.grid.BuildableTower;
+import com.happydroids.droidtowers.grid.GameGrid;
+import com.happydroids.droidtowers.grid.GeneratedTower;
+import com.happydroids.droidtowers.grid.GridPosition;
+import com.happydroids.droidtowers.grid.GridPositionCache;
+import com.happydroids.droidtowers.math.GridPoint;
+import com.happydroids.droidtowers.pathfinding.AStar;
+import com.happydroids.droidtowers.pathfinding.HierarchicalTransitPathFinder;
+import com.happydroids.droidtowers.pathfinding.IndexedTransitPathFinder;
+import com.happydroids.droidtowers.pathfinding.TransitPathFinder;
+import com.happydroids.droidtowers.tween.TweenSystem;
+import com.happydroids.droidtowers.utils.PNG;
+import com.happydroids.platform.DebugPurchaseManager;
+import com.happydroids.platform.Platform;
+import com.happydroids.server.HttpClientPool;
+import com.happydroids.server.StubHttpServer;
+import org.apach3.http.HttpResponse;
+import org.apach3.http.client.HttpClient;
+import org.apach3.http.client.methods.HttpGet;
+import org.apach3.http.impl.client.DefaultHttpClient;
+import org.apach3.http.util.EntityUtils;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Benchmarks for the simulation hot paths, run against generated towers of a configurable size.
+ * Must be started from main/assets, like the tests, so the achievements can be loaded.
+ * <p/>
+ * Writes every result to a JSON report. Given the report of an earlier run as a baseline, it lists
+ * the benchmarks that got slower and exits with 1 if there were any.
+ * <p/>
+ * Usage: SimulationBenchmarks [--width 100] [--floors 60] [--warmup 3] [--iterations 5]
+ * [--iteration-millis 500] [--filter regex] [--report benchmark-report.json]
+ * [--baseline earlier-report.json] [--threshold 0.1]
+ */
+public class SimulationBenchmarks {
+  private final int width;
+  private final int floors;
+
+  public SimulationBenchmarks(int width, int floors) {
+    this.width = width;
+    this.floors = floors;
+  }
+
+  public static void main(String[] args) throws Exception {
+    int width = 100;
+    int floors = 60;
+    String reportFile = "benchmark-report.json";
+    String baselineFile = null;
+    double threshold = 0.1;
+    BenchmarkRunner runner = new BenchmarkRunner();
+
+    for (int i = 0; i + 1 < args.length; i += 2) {
+      String value = args[i + 1];
+      if (args[i].equals("--width")) {
+        width = Integer.parseInt(value);
+      } else if (args[i].equals("--floors")) {
+        floors = Integer.parseInt(value);
+      } else if (args[i].equals("--warmup")) {
+        runner.setWarmupIterations(Integer.parseInt(value));
+      } else if (args[i].equals("--iterations")) {
+        runner.setMeasurementIterations(Integer.parseInt(value));
+      } else if (args[i].equals("--iteration-millis")) {
+        runner.setIterationMillis(Long.parseLong(value));
+      } else if (args[i].equals("--filter")) {
+        runner.setFilter(value);
+      } else if (args[i].equals("--report")) {
+        reportFile = value;
+      } else if (args[i].equals("--baseline")) {
+        baselineFile = value;
+      } else if (args[i].equals("--threshold")) {
+        threshold = Double.parseDouble(value);
+      } else {
+        throw new IllegalArgumentException("Unknown option: " + args[i]);
+      }
+    }
+
+    Gdx.files = new TestGdxFiles();
+    Gdx.app = new TestGdxApplication(null, null);
+    TweenSystem.manager();
+    TowerGameService.setInstance(new TestTowerGameService());
+    Platform.setPurchaseManager(new DebugPurchaseManager());
+    GdxNativesLoader.load();
+
+    int exitCode = 1;
+    try {
+      exitCode = runBenchmarks(runner, width, floors, reportFile, baselineFile, threshold);
+    } catch (Exception e) {
+      e.printStackTrace();
+    } finally {
+      // the connection monitor thread started by TowerGameService would keep the VM running.
+      System.exit(exitCode);
+    }
+  }
+
+  private static int runBenchmarks(BenchmarkRunner runner, int width, int floors, String reportFile, String baselineFile, double threshold) throws Exception {
+    System.out.println(String.format("tower: %dx%d", width, floors));
+    BenchmarkReport report = runner.runAll(new SimulationBenchmarks(width, floors).benchmarks());
+    report.parameters.put("width", String.valueOf(width));
+    report.parameters.put("floors", String.valueOf(floors));
+    report.write(new File(reportFile));
+    System.out.println("report written to " + new File(reportFile).getAbsolutePath());
+
+    List<String> regressions = Lists.newArrayList();
+    if (baselineFile != null) {
+      regressions = report.findRegressions(BenchmarkReport.read(new File(baselineFile)), threshold);
+      for (String regression : regressions) {
+        System.out.println("REGRESSION: " + regression);
+      }
+    }
+
+    return regressions.isEmpty() ? 0 : 1;
+  }
+
+  public List<Benchmark> benchmarks() {
+    List<Benchmark> benchmarks = Lists.newArrayList();
+
+    benchmarks.add(new PathSearchBenchmark("TransitPathFinder.search") {
+      @Override
+      protected AStar<GridPosition> makePathFinder(GameGrid gameGrid) {
+        return new TransitPathFinder(gameGrid, false);
+      }
+    });
+    benchmarks.add(new PathSearchBenchmark("IndexedTransitPathFinder.search") {
+      @Override
+      protected AStar<GridPosition> makePathFinder(GameGrid gameGrid) {
+        return new IndexedTransitPathFinder(gameGrid, false);
+      }
+    });
+    benchmarks.add(new PathSearchBenchmark("HierarchicalTransitPathFinder.search") {
+      @Override
+      protected AStar<GridPosition> makePathFinder(GameGrid gameGrid) {
+        return new HierarchicalTransitPathFinder(gameGrid, false);
+      }
+    });
+
+    benchmarks.add(new GameThreadSearchBenchmark("TransitPathFinderPool search on the game thread(route cache miss)", false));
+    benchmarks.add(new GameThreadSearchBenchmark("TransitPathFinderPool search on the game thread(route cache hit)", true));
+
+    benchmarks.add(new PositionCacheResizeBenchmark());
+    benchmarks.add(new GetObjectsAtBenchmark());
+    benchmarks.add(new GetPositionBenchmark());
+    benchmarks.add(new GameGridLoadBenchmark("GameGrid.addObject(whole tower, one at a time)", false));
+    benchmarks.add(new GameGridLoadBenchmark("GameGrid.addObjects(whole tower)", true));
+
+    benchmarks.add(new GameGridActionBenchmark("AchievementEngineCheck.run") {
+      @Override
+      protected GameGridAction makeAction(BuildableTower tower) {
+        return new AchievementEngineCheck(tower.getGameGrid(), 1f);
+      }
+
+      @Override
+      protected void beforeRun(GameGridAction action) {
+        // completed achievements are skipped, so every requirement is checked on every run.
+        TestAchievements.markAllIncomplete();
+      }
+    });
+    benchmarks.add(new GameGridActionBenchmark("BudgetCalculator.run") {
+      @Override
+      protected GameGridAction makeAction(BuildableTower tower) {
+        return new BudgetCalculator(tower.getGameGrid(), 1f);
+      }
+    });
+    benchmarks.add(new GameGridActionBenchmark("CrimeCalculator.run") {
+      @Override
+      protected GameGridAction makeAction(BuildableTower tower) {
+        return new CrimeCalculator(tower.getGameGrid(), 1f);
+      }
+    });
+    benchmarks.add(new GameGridActionBenchmark("DesirabilityCalculator.run") {
+      @Override
+      protected GameGridAction makeAction(BuildableTower tower) {
+        return new DesirabilityCalculator(tower.getGameGrid(), 1f);
+      }
+    });
+    benchmarks.add(new GameGridActionBenchmark("EmploymentCalculator.run") {
+      @Override
+      protected GameGridAction makeAction(BuildableTower tower) {
+        return new EmploymentCalculator(tower.getGameGrid(), 1f);
+      }
+    });
+    benchmarks.add(new GameGridActionBenchmark("PopulationCalculator.run") {
+      @Override
+      protected GameGridAction makeAction(BuildableTower tower) {
+        return new PopulationCalculator(tower.getGameGrid(), new AvatarLayer(tower.getGameGrid()), 1f);
+      }
+    });
+    benchmarks.add(new GameGridActionBenchmark("StarRatingCalculator.run") {
+      @Override
+      protected GameGridAction makeAction(BuildableTower tower) {
+        return new StarRatingCalculator(tower.getGameGrid(), 1f);
+      }
+    });
+    benchmarks.add(new GameGridActionBenchmark("CalculatorPipeline.run") {
+      @Override
+      protected GameGridAction makeAction(BuildableTower tower) {
+        return makeCalculatorPipeline(tower.getGameGrid());
+      }
+    });
+    benchmarks.add(new GameGridActionBenchmark("TransportCalculator.run(all floors)") {
+      @Override
+      protected GameGridAction makeAction(BuildableTower tower) {
+        return new TransportCalculator(tower.getGameGrid(), 1f);
+      }
+
+      @Override
+      protected void beforeRun(GameGridAction action) {
+        // only floors changed since the last run are recalculated, unpausing marks them all.
+        action.pause();
+        action.unpause();
+      }
+    });
+
+    benchmarks.add(new GameSaveBenchmark("GameSaveFactory.save") {
+      @Override
+      public int run() throws Exception {
+        GameSaveFactory.save(gameSave, gameFile);
+        return (int) gameFile.length();
+      }
+    });
+    benchmarks.add(new GameSaveBenchmark("GameSaveFactory.readFile") {
+      @Override
+      public void setUp() throws Exception {
+        super.setUp();
+        GameSaveFactory.save(gameSave, gameFile);
+      }
+
+      @Override
+      public int run() throws Exception {
+        return GameSaveFactory.readFile(gameFile).getFileGeneration();
+      }
+    });
+    benchmarks.add(new GameSaveBenchmark("GameSaveFactory.readMetadata") {
+      @Override
+      public void setUp() throws Exception {
+        super.setUp();
+        GameSaveFactory.save(gameSave, gameFile);
+      }
+
+      @Override
+      public int run() throws Exception {
+        InputStream inputStream = gameFile.read();
+        try {
+          return GameSaveFactory.readMetadata(inputStream).getFileGeneration();
+        } finally {
+          inputStream.close();
+        }
+      }
+    });
+
+    benchmarks.add(new MiniMapPNGBenchmark());
+    benchmarks.add(new MiniMapSaveBenchmark());
+
+    benchmarks.add(new AvatarSteeringBenchmark("AvatarSteeringManager.update(all on screen)", 1f));
+    benchmarks.add(new AvatarSteeringBenchmark("AvatarSteeringManager.update(10% on screen)", 0.1f));
+    benchmarks.add(new AvatarSteeringBenchmark("AvatarSteeringManager.update(none on screen)", 0f));
+
+    benchmarks.add(new HttpRequestBenchmark("HttpClient request(new DefaultHttpClient)", false, 0));
+    benchmarks.add(new HttpRequestBenchmark("HttpClient request(HttpClientPool)", true, 0));
+    benchmarks.add(new HttpRequestBenchmark("HttpClient request(new DefaultHttpClient, 10ms to connect)", false, 10));
+    benchmarks.add(new HttpRequestBenchmark("HttpClient request(HttpClientPool, 10ms to connect)", true, 10));
+
+    benchmarks.add(new ElevatorShaftBenchmark(new FirstIdleCarDispatcher()));
+    benchmarks.add(new ElevatorShaftBenchmark(new DestinationDispatcher()));
+
+    benchmarks.add(new SimulationFrameBenchmark("SimulationKernel.update(30fps frame at 4x, layers every tick)", 1));
+    benchmarks.add(new SimulationFrameBenchmark("SimulationKernel.update(30fps frame at 4x, layers every " + TowerConsts.SIMULATION_TICKS_PER_LAYER_UPDATE + " ticks)", TowerConsts.SIMULATION_TICKS_PER_LAYER_UPDATE));
+
+    return benchmarks;
+  }
+
+  private abstract class PathSearchBenchmark extends Benchmark {
+    private static final int NUM_SEARCHES = 256;
+    private AStar<GridPosition> pathFinder;
+    private GridPosition[] starts;
+    private GridPosition[] goals;
+    private int nextSearch;
+
+    PathSearchBenchmark(String name) {
+      super(name);
+    }
+
+    protected abstract AStar<GridPosition> makePathFinder(GameGrid gameGrid);
+
+    @Override
+    public void setUp() {
+      GeneratedTower tower = new GeneratedTower(width, floors, 1337);
+      pathFinder = makePathFinder(tower.getGameGrid());
+      starts = new GridPosition[NUM_SEARCHES];
+      goals = new GridPosition[NUM_SEARCHES];
+      for (int i = 0; i < NUM_SEARCHES; i++) {
+        starts[i] = tower.randomPosition();
+        goals[i] = tower.randomPosition();
+      }
+    }
+
+    @Override
+    public int run() {
+      int search = nextSearch++ % NUM_SEARCHES;
+      pathFinder.setStart(starts[search]);
+      pathFinder.setGoal(goals[search]);
+      pathFinder.start();
+      while (pathFinder.isWorking()) {
+        pathFinder.step();
+      }
+
+      return pathFinder.getExpandedCounter();
+    }
+  }
+
+  /**
+   * A search the way Avatar.navigateToGridObject makes one: a path finder from the grid's pool,
+   * started, its callback run and handed back. With HIERARCHICAL_PATH_FINDING all of it is game
+   * thread time, nothing goes to the PathSearchManager.
+   */
+  private class GameThreadSearchBenchmark extends Benchmark {
+    private static final int NUM_SEARCHES = 256;
+    private final boolean routeCacheHits;
+    private GameGrid gameGrid;
+    private GridPosition[] starts;
+    private GridPosition[] goals;
+    private int nextSearch;
+
+    GameThreadSearchBenchmark(String name, boolean routeCacheHits) {
+      super(name);
+      this.routeCacheHits = routeCacheHits;
+    }
+
+    @Override
+    public void setUp() {
+      GeneratedTower tower = new GeneratedTower(width, floors, 1337);
+      gameGrid = tower.getGameGrid();
+      starts = new GridPosition[NUM_SEARCHES];
+      goals = new GridPosition[NUM_SEARCHES];
+      for (int i = 0; i < NUM_SEARCHES; i++) {
+        starts[i] = tower.randomPosition();
+        goals[i] = tower.randomPosition();
+      }
+    }
+
+    @Override
+    public int run() {
+      if (!routeCacheHits) {
+        gameGrid.routeCache().invalidate();
+      }
+
+      int search = nextSearch++ % NUM_SEARCHES;
+      TransitPathFinder pathFinder = gameGrid.pathFinderPool().obtain(false);
+      pathFinder.setStart(starts[search]);
+      pathFinder.setGoal(goals[search]);
+      pathFinder.start();
+      while (pathFinder.isWorking()) {
+        pathFinder.step();
+      }
+      pathFinder.runCompleteCallback();
+
+      int expanded = pathFinder.getExpandedCounter();
+      gameGrid.pathFinderPool().free(pathFinder);
+      return expanded;
+    }
+  }
+
+  private class PositionCacheResizeBenchmark extends Benchmark {
+    private GameGrid gameGrid;
+    private GridPositionCache positionCache;
+    private GameGridResizeEvent event;
+    private boolean grow;
+
+    PositionCacheResizeBenchmark() {
+      super("GridPositionCache.resize");
+    }
+
+    @Override
+    public void setUp() {
+      gameGrid = BuildableTower.withRooms(width, floors).getGameGrid();
+      positionCache = gameGrid.positionCache();
+      event = new GameGridResizeEvent(gameGrid, true);
+    }
+
+    @Override
+    public int run() {
+      // only the cache is told about the new size, the grid is thrown away afterwards.
+      grow = !grow;
+      gameGrid.setGridSize(width + (grow ? 1 : 0), gameGrid.getGridSize().y);
+      positionCache.handleGameGridResizeEvent(event);
+
+      return positionCache.getPositions().length;
+    }
+  }
+
+  private class GetObjectsAtBenchmark extends Benchmark {
+    private static final int NUM_AREAS = 1024;
+    private GridPositionCache positionCache;
+    private GridPoint[] positions;
+    private GridPoint[] sizes;
+    private int nextArea;
+
+    GetObjectsAtBenchmark() {
+      super("GridPositionCache.getObjectsAt");
+    }
+
+    @Override
+    public void setUp() {
+      GameGrid gameGrid = BuildableTower.withRooms(width, floors).getGameGrid();
+      positionCache = gameGrid.positionCache();
+      positions = new GridPoint[NUM_AREAS];
+      sizes = new GridPoint[NUM_AREAS];
+      Random random = new Random(42);
+      for (int i = 0; i < NUM_AREAS; i++) {
+        positions[i] = new GridPoint(random.nextInt(gameGrid.getGridSize().x), random.nextInt(gameGrid.getGridSize().y));
+        sizes[i] = new GridPoint(1 + random.nextInt(8), 1 + random.nextInt(4));
+      }
+    }
+
+    @Override
+    public int run() {
+      int area = nextArea++ % NUM_AREAS;
+      return positionCache.getObjectsAt(positions[area], sizes[area]).size;
+    }
+  }
+
+  private class GetPositionBenchmark extends Benchmark {
+    private GridPositionCache positionCache;
+    private GridPoint gridSize;
+
+    GetPositionBenchmark() {
+      super("GridPositionCache.getPosition(all cells)");
+    }
+
+    @Override
+    public void setUp() {
+      GameGrid gameGrid = BuildableTower.withRooms(width, floors).getGameGrid();
+      positionCache = gameGrid.positionCache();
+      gridSize = gameGrid.getGridSize();
+    }
+
+    @Override
+    public int run() {
+      int occupied = 0;
+      for (int x = 0; x < gridSize.x; x++) {
+        for (int y = 0; y < gridSize.y; y++) {
+          if (!positionCache.getPosition(x, y).isEmpty()) {
+            occupied++;
+          }
+        }
+      }
+
+      return occupied;
+    }
+  }
+
+  private static CalculatorPipeline makeCalculatorPipeline(GameGrid gameGrid) {
+    EmploymentCalculator employment = new EmploymentCalculator(gameGrid, 1f);
+    DesirabilityCalculator desirability = new DesirabilityCalculator(gameGrid, 1f);
+    PopulationCalculator population = new PopulationCalculator(gameGrid, new AvatarLayer(gameGrid), 1f);
+    BudgetCalculator budget = new BudgetCalculator(gameGrid, 1f);
+
+    CalculatorPipeline pipeline = new CalculatorPipeline(gameGrid, 1f);
+    pipeline.add(employment);
+    pipeline.add(desirability, employment);
+    pipeline.add(population, desirability);
+    pipeline.add(budget, employment, desirability);
+    pipeline.add(new StarRatingCalculator(gameGrid, 1f), employment, population, budget, desirability);
+    return pipeline;
+  }
+
+  /**
+   * Loading a tower into its grid, the way GridObjectState.materialize adds the objects one at a time
+   * or the way GameSave.attachToGame hands them over all at once. Making the objects needs their
+   * textures and costs the same either way, so only the grid's side is timed. The calculators the
+   * game registers on the grid are listening, like they do in game.
+   */
+  private class GameGridLoadBenchmark extends Benchmark {
+    private final boolean inBulk;
+    private BuildableTower tower;
+
+    GameGridLoadBenchmark(String name, boolean inBulk) {
+      super(name);
+      this.inBulk = inBulk;
+    }
+
+    @Override
+    public void setUp() {
+      tower = BuildableTower.withRooms(width, floors);
+      new TransportCalculator(tower.getGameGrid(), 1f);
+      new CrimeCalculator(tower.getGameGrid(), 1f);
+    }
+
+    @Override
+    public int run() {
+      return tower.reload(inBulk).size;
+    }
+  }
+
+  private abstract class GameGridActionBenchmark extends Benchmark {
+    private GameGridAction action;
+
+    GameGridActionBenchmark(String name) {
+      super(name);
+    }
+
+    protected abstract GameGridAction makeAction(BuildableTower tower);
+
+    protected void beforeRun(GameGridAction action) {
+    }
+
+    @Override
+    public void setUp() {
+      Player.setInstance(new Player(DifficultyLevel.EASY.getStartingMoney()));
+      action = makeAction(BuildableTower.withRooms(width, floors));
+    }
+
+    @Override
+    public int run() {
+      beforeRun(action);
+      action.run();
+      return 0;
+    }
+  }
+
+  private abstract class GameSaveBenchmark extends Benchmark {
+    protected GameSave gameSave;
+    protected FileHandle gameFile;
+
+    GameSaveBenchmark(String name) {
+      super(name);
+    }
+
+    @Override
+    public void setUp() throws Exception {
+      Player.setInstance(new Player(DifficultyLevel.EASY.getStartingMoney()));
+      GameGrid gameGrid = BuildableTower.withRooms(width, floors).getGameGrid();
+      gameSave = new GameSave("Benchmark Tower", DifficultyLevel.EASY);
+      gameSave.update(new OrthographicCamera(), gameGrid, Lists.<String>newArrayList());
+      gameFile = new FileHandle(File.createTempFile("benchmark", ".json"));
+    }
+
+    @Override
+    public void tearDown() {
+      gameFile.delete();
+    }
+  }
+
+  private class MiniMapPNGBenchmark extends Benchmark {
+    private MiniMapRaster miniMapRaster;
+    private ByteBuffer pixels;
+
+    MiniMapPNGBenchmark() {
+      super("PNG.toPNG(minimap)");
+    }
+
+    @Override
+    public void setUp() {
+      GameGrid gameGrid = BuildableTower.withRooms(width, floors).getGameGrid();
+      miniMapRaster = new MiniMapRaster(gameGrid, GameState.MINI_MAP_PIXELS_PER_CELL);
+      pixels = miniMapRaster.copyPixels();
+    }
+
+    @Override
+    public int run() throws Exception {
+      return PNG.toPNG(pixels, miniMapRaster.getWidth(), miniMapRaster.getHeight(), 3, PNG.DEFAULT_COMPRESSION_LEVEL).length;
+    }
+
+    @Override
+    public void tearDown() {
+      miniMapRaster.dispose();
+    }
+  }
+
+  /**
+   * What a save spends on the minimap after the player built one room: repainting its cells, copying
+   * the raster for the save thread and encoding it.
+   */
+  private class MiniMapSaveBenchmark extends Benchmark {
+    private BuildableTower tower;
+    private MiniMapRaster miniMapRaster;
+    private Room room;
+
+    MiniMapSaveBenchmark() {
+      super("MiniMapRaster.update+PNG.toPNG(one room changed)");
+    }
+
+    @Override
+    public void setUp() {
+      tower = BuildableTower.withRooms(width, floors);
+      miniMapRaster = new MiniMapRaster(tower.getGameGrid(), GameState.MINI_MAP_PIXELS_PER_CELL);
+      miniMapRaster.update();
+    }
+
+    @Override
+    public int run() throws Exception {
+      if (room == null) {
+        room = tower.addRoom(0, TowerConsts.LOBBY_FLOOR + floors, 6);
+      } else {
+        tower.remove(room);
+        room = null;
+      }
+      miniMapRaster.update();
+      return PNG.toPNG(miniMapRaster.copyPixels(), miniMapRaster.getWidth(), miniMapRaster.getHeight(), 3, PNG.DEFAULT_COMPRESSION_LEVEL).length;
+    }
+
+    @Override
+    public void tearDown() {
+      miniMapRaster.dispose();
+    }
+  }
+
+  /**
+   * One simulation tick of avatars walking up and down the floors, the ones off screen in low detail.
+   */
+  private class AvatarSteeringBenchmark extends Benchmark {
+    private static final int NUM_AVATARS = 500;
+    private final float onScreenFraction;
+    private Array<AvatarSteeringManager> steeringManagers;
+
+    AvatarSteeringBenchmark(String name, float onScreenFraction) {
+      super(name);
+      this.onScreenFraction = onScreenFraction;
+    }
+
+    @Override
+    public void setUp() {
+      TweenSystem.setTweenManager(new TweenManager());
+      WalkingAvatars walkingAvatars = new WalkingAvatars(BuildableTower.withRooms(width, floors).getGameGrid());
+      steeringManagers = new Array<AvatarSteeringManager>(NUM_AVATARS);
+      for (int i = 0; i < NUM_AVATARS; i++) {
+        Array<GridPosition> path = walkingAvatars.pathAlongFloor(TowerConsts.LOBBY_FLOOR + 1 + i % floors, 0, width - 1);
+        AvatarSteeringManager steeringManager = walkingAvatars.makeSteeringManager();
+        steeringManager.getAvatar().setPosition(path.first().worldPoint());
+        steeringManager.setLowDetail(i >= NUM_AVATARS * onScreenFraction);
+        steeringManager.setPath(path);
+        steeringManager.start();
+        steeringManagers.add(steeringManager);
+      }
+    }
+
+    @Override
+    public int run() {
+      int restarted = 0;
+      for (int i = 0; i < steeringManagers.size; i++) {
+        AvatarSteeringManager steeringManager = steeringManagers.get(i);
+        steeringManager.update(TowerConsts.SIMULATION_TICK_LENGTH);
+        if (!steeringManager.isRunning()) {
+          steeringManager.start();
+          restarted++;
+        }
+      }
+      TweenSystem.manager().update((int) (TowerConsts.SIMULATION_TICK_LENGTH * 1000));
+
+      return restarted;
+    }
+
+    @Override
+    public void tearDown() {
+      TweenSystem.setTweenManager(new TweenManager());
+    }
+  }
+
+  /**
+   * One frame at 30fps and the top game speed: the game grid plus a layer of avatars walking the
+   * floors, stepped by the kernel in fixed ticks.
+   */
+  private class SimulationFrameBenchmark extends Benchmark {
+    private static final int NUM_AVATARS = 120;
+    private final int ticksPerLayerUpdate;
+    private SimulationKernel kernel;
+
+    SimulationFrameBenchmark(String name, int ticksPerLayerUpdate) {
+      super(name);
+      this.ticksPerLayerUpdate = ticksPerLayerUpdate;
+    }
+
+    @Override
+    public void setUp() {
+      TweenSystem.setTweenManager(new TweenManager());
+      GameGrid gameGrid = BuildableTower.withRooms(width, floors).getGameGrid();
+      WalkingAvatars walkingAvatars = new WalkingAvatars(gameGrid);
+      final Array<AvatarSteeringManager> steeringManagers = new Array<AvatarSteeringManager>(NUM_AVATARS);
+      for (int i = 0; i < NUM_AVATARS; i++) {
+        Array<GridPosition> path = walkingAvatars.pathAlongFloor(TowerConsts.LOBBY_FLOOR + 1 + i % floors, 0, width - 1);
+        AvatarSteeringManager steeringManager = walkingAvatars.makeSteeringManager();
+        steeringManager.getAvatar().setPosition(path.first().worldPoint());
+        steeringManager.setPath(path);
+        steeringManager.start();
+        steeringManagers.add(steeringManager);
+      }
+
+      kernel = new SimulationKernel(TowerConsts.SIMULATION_TICK_LENGTH, ticksPerLayerUpdate, TowerConsts.SIMULATION_MAX_TICKS_PER_UPDATE);
+      kernel.setUpdateActions(false);
+      kernel.setTimeMultiplier(4f);
+      kernel.addLayer(gameGrid);
+      kernel.addLayer(new GameLayer<GameObject>() {
+        @Override
+        public void update(float timeDelta) {
+          for (int i = 0; i < steeringManagers.size; i++) {
+            AvatarSteeringManager steeringManager = steeringManagers.get(i);
+            steeringManager.update(timeDelta);
+            if (!steeringManager.isRunning()) {
+              steeringManager.start();
+            }
+          }
+        }
+      });
+    }
+
+    @Override
+    public int run() {
+      return kernel.update(1f / 30f);
+    }
+
+    @Override
+    public void tearDown() {
+      TweenSystem.setTweenManager(new TweenManager());
+    }
+  }
+
+  /**
+   * A minute of rush hour traffic through one shaft with more calls than its cars can keep up with.
+   * ElevatorDispatchBenchmark compares what the dispatchers deliver, this times what they cost.
+   */
+  private class ElevatorShaftBenchmark extends Benchmark {
+    private final ElevatorDispatcher dispatcher;
+    private int seed;
+
+    ElevatorShaftBenchmark(ElevatorDispatcher dispatcher) {
+      super("ElevatorTraffic.run(" + dispatcher.getClass().getSimpleName() + ", saturated minute)");
+      this.dispatcher = dispatcher;
+    }
+
+    @Override
+    public int run() {
+      Elevator elevator = ElevatorDispatchBenchmark.makeShaft(ElevatorDispatchBenchmark.CARS, ElevatorDispatchBenchmark.FLOORS);
+      elevator.setDispatcher(dispatcher);
+
+      ElevatorTraffic traffic = new ElevatorTraffic(elevator, seed++);
+      traffic.run(60f, ElevatorDispatchBenchmark.SATURATING_CALLS_PER_SECOND);
+
+      return traffic.getNumDelivered();
+    }
+
+    @Override
+    public void tearDown() {
+      TweenSystem.setTweenManager(new TweenManager());
+    }
+  }
+
+  /**
+   * One request to a StubHttpServer on this machine, with a new DefaultHttpClient like
+   * HappyDroidService used to make for every request, or with the pooled client it uses now. The
+   * server can be told to take a while to open a connection, like a real network does.
+   */
+  private class HttpRequestBenchmark extends Benchmark {
+    private final boolean pooled;
+    private final long connectDelayMillis;
+    private StubHttpServer server;
+    private HttpClientPool pool;
+    private int requests;
+
+    HttpRequestBenchmark(String name, boolean pooled, long connectDelayMillis) {
+      super(name);
+      this.pooled = pooled;
+      this.connectDelayMillis = connectDelayMillis;
+    }
+
+    @Override
+    public void setUp() throws Exception {
+      server = new StubHttpServer(connectDelayMillis);
+      pool = new HttpClientPool();
+    }
+
+    @Override
+    public int run() throws Exception {
+      HttpClient client = pooled ? pool.client() : new DefaultHttpClient();
+      HttpResponse response = client.execute(new HttpGet(server.getUri("/api/v1/objects/" + requests++ + "/")));
+      EntityUtils.consume(response.getEntity());
+      if (!pooled) {
+        client.getConnectionManager().shutdown();
+      }
+
+      return response.getStatusLine().getStatusCode();
+    }
+
+    @Override
+    public void tearDown() throws Exception {
+      pool.shutdown();
+      server.stop();
+    }
+  }
+}
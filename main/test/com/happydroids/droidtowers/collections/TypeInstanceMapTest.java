@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.collections;
+
+import com.badlogic.gdx.utils.Array;
+import com.happydroids.droidtowers.NonGLTestRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.happydroids.droidtowers.Expect.expect;
+
+@RunWith(NonGLTestRunner.class)
+public class TypeInstanceMapTest {
+  @Test
+  public void setForSupertype_shouldIncludeSubclasses() {
+    TypeInstanceMap<Shape> map = new TypeInstanceMap<Shape>();
+    Shape shape = new Shape();
+    Square square = new Square();
+    Circle circle = new Circle();
+    map.add(shape);
+    map.add(square);
+    map.add(circle);
+
+    Array<Shape> shapes = map.setForSupertype(Shape.class);
+    expect(shapes.size).toEqual(3);
+    expect(map.setForType(Shape.class).size).toEqual(1);
+    expect(map.setForSupertype(Square.class).size).toEqual(1);
+    expect(map.setForSupertype(Square.class).get(0) == square).toBeTrue();
+  }
+
+  @Test
+  public void setForTypes_shouldReuseTheSameArray_untilTheMapChanges() {
+    TypeInstanceMap<Shape> map = new TypeInstanceMap<Shape>();
+    Class[] classes = {Circle.class, Square.class};
+    Square square = new Square();
+    map.add(square);
+    map.add(new Circle());
+
+    Array<Shape> found = map.setForTypes(classes);
+    expect(found.size).toEqual(2);
+    expect(found.get(1) == square).toBeTrue();
+    expect(map.setForTypes(Circle.class, Square.class) == found).toBeTrue();
+
+    map.remove(square);
+    expect(map.setForTypes(classes).size).toEqual(1);
+    expect(map.getInstances().size).toEqual(1);
+  }
+
+  @Test
+  public void remove_shouldKeepTheOtherInstancesOfTheType() {
+    TypeInstanceMap<Shape> map = new TypeInstanceMap<Shape>();
+    Square first = new Square();
+    Square second = new Square();
+    Square third = new Square();
+    map.add(first);
+    map.add(second);
+    map.add(third);
+
+    map.remove(first);
+    map.remove(first);
+    map.remove(third);
+
+    expect(map.setForType(Square.class).size).toEqual(1);
+    expect(map.setForType(Square.class).get(0) == second).toBeTrue();
+
+    map.remove(second);
+    expect(map.setForType(Square.class).size).toEqual(0);
+    expect(map.getInstances().size).toEqual(0);
+  }
+
+  @Test
+  public void remove_shouldKeepTheOrderTheOthersWereAddedIn() {
+    TypeInstanceMap<Shape> map = new TypeInstanceMap<Shape>();
+    Square first = new Square();
+    Square second = new Square();
+    Square third = new Square();
+    map.add(first);
+    map.add(second);
+    map.add(third);
+
+    map.remove(first);
+
+    expect(map.setForType(Square.class).get(0) == second).toBeTrue();
+    expect(map.setForType(Square.class).get(1) == third).toBeTrue();
+    expect(map.setForSupertype(Shape.class).get(0) == second).toBeTrue();
+  }
+
+  @Test
+  public void remove_shouldKeepTheOrderCallersSortedTheInstancesInto() {
+    TypeInstanceMap<Shape> map = new TypeInstanceMap<Shape>();
+    Square first = new Square();
+    Circle second = new Circle();
+    Square third = new Square();
+    map.add(first);
+    map.add(second);
+    map.add(third);
+    map.getInstances().reverse();
+
+    map.remove(second);
+
+    expect(map.getInstances().size).toEqual(2);
+    expect(map.getInstances().get(0) == third).toBeTrue();
+    expect(map.getInstances().get(1) == first).toBeTrue();
+    expect(map.setForType(Circle.class).size).toEqual(0);
+  }
+
+  @Test
+  public void add_shouldPutAnInstanceRemovedEarlierAtTheBack() {
+    TypeInstanceMap<Shape> map = new TypeInstanceMap<Shape>();
+    Square first = new Square();
+    Square second = new Square();
+    map.add(first);
+    map.add(second);
+
+    map.remove(first);
+    map.add(first);
+
+    expect(map.getInstances().size).toEqual(2);
+    expect(map.getInstances().get(1) == first).toBeTrue();
+    expect(map.setForType(Square.class).get(0) == second).toBeTrue();
+    expect(map.setForType(Square.class).get(1) == first).toBeTrue();
+  }
+
+  private static class Shape {
+  }
+
+  private static class Square extends Shape {
+  }
+
+  private static class Circle extends Shape {
+  }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.controllers;
+
+import com.badlogic.gdx.math.MathUtils;
+import com.badlogic.gdx.utils.Array;
+import com.happydroids.droidtowers.NonGLTestRunner;
+import com.happydroids.droidtowers.TowerConsts;
+import com.happydroids.droidtowers.entities.Avatar;
+import com.happydroids.droidtowers.grid.BuildableTower;
+import com.happydroids.droidtowers.grid.GridPosition;
+import com.happydroids.droidtowers.tween.TweenSystem;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.happydroids.droidtowers.Expect.expect;
+
+@RunWith(NonGLTestRunner.class)
+public class AvatarSteeringManagerTest {
+  private static final int STEP_MILLIS = 20;
+
+  private WalkingAvatars walkingAvatars;
+  private Array<GridPosition> path;
+
+  @Before
+  public void setUp() {
+    BuildableTower tower = new BuildableTower(40, 20);
+    tower.addLobby(0, 40);
+    walkingAvatars = new WalkingAvatars(tower.getGameGrid());
+    path = walkingAvatars.pathAlongFloor(TowerConsts.LOBBY_FLOOR, 2, 14);
+  }
+
+  @Test
+  public void lowDetail_shouldWalkThePathWithoutTweensOrATransitLine_asFastAsFullSteering() {
+    AvatarSteeringManager full = start(walkingAvatars.makeSteeringManager(), false);
+    int fullSteps = walkToTheEnd(full);
+
+    AvatarSteeringManager lowDetail = start(walkingAvatars.makeSteeringManager(), true);
+    int lowDetailSteps = 0;
+    while (lowDetail.isRunning()) {
+      expect(TweenSystem.manager().containsTarget(lowDetail.getAvatar())).toBeFalse();
+      step(lowDetail);
+      lowDetailSteps++;
+    }
+
+    expect(lowDetail.getTransitLine().getPoints().size()).toEqual(0);
+    expect(lowDetail.getAvatar().getX()).toEqual(full.getAvatar().getX());
+    expect(lowDetail.getAvatar().getY()).toEqual(full.getAvatar().getY());
+    // each tween starts on the step after the last one finished, the timeline carries the time over.
+    expect(lowDetailSteps <= fullSteps).toBeTrue();
+    expect(lowDetailSteps >= fullSteps - path.size).toBeTrue();
+  }
+
+  @Test
+  public void setLowDetail_false_shouldCarryOnWithTweensFromWhereTheAvatarIs() {
+    AvatarSteeringManager steeringManager = start(walkingAvatars.makeSteeringManager(), true);
+    for (int i = 0; i < 100; i++) {
+      step(steeringManager);
+    }
+    Avatar avatar = steeringManager.getAvatar();
+    float x = avatar.getX();
+
+    steeringManager.setLowDetail(false);
+
+    expect(avatar.getX()).toEqual(x);
+    expect(TweenSystem.manager().containsTarget(avatar)).toBeTrue();
+    expect(steeringManager.getTransitLine().getPoints().size()).toEqual(path.size);
+    step(steeringManager);
+    expect(avatar.getX() > x).toBeTrue();
+
+    walkToTheEnd(steeringManager);
+    expect(avatar.getX()).toEqual(path.peek().worldPoint().x - avatar.getWidth());
+  }
+
+  @Test
+  public void setLowDetail_true_shouldTakeOverTheTweenUnderWay() {
+    AvatarSteeringManager steeringManager = start(walkingAvatars.makeSteeringManager(), false);
+    for (int i = 0; i < 10; i++) {
+      step(steeringManager);
+    }
+    Avatar avatar = steeringManager.getAvatar();
+    float x = avatar.getX();
+
+    steeringManager.setLowDetail(true);
+
+    expect(avatar.getX()).toEqual(x);
+    expect(steeringManager.getTransitLine().getPoints().size()).toEqual(0);
+    // killed tweens are dropped by the manager's next update.
+    step(steeringManager);
+    expect(TweenSystem.manager().containsTarget(avatar)).toBeFalse();
+    expect(avatar.getX() > x).toBeTrue();
+
+    walkToTheEnd(steeringManager);
+    expect(TweenSystem.manager().containsTarget(avatar)).toBeFalse();
+    expect(avatar.getX()).toEqual(path.peek().worldPoint().x - avatar.getWidth());
+  }
+
+  private AvatarSteeringManager start(AvatarSteeringManager steeringManager, boolean lowDetail) {
+    Avatar avatar = steeringManager.getAvatar();
+    GridPosition first = path.first();
+    avatar.setPosition(first.worldPoint().x - avatar.getWidth(), first.worldPoint().y);
+
+    steeringManager.setLowDetail(lowDetail);
+    steeringManager.setPath(path);
+    MathUtils.random.setSeed(42);
+    steeringManager.start();
+    return steeringManager;
+  }
+
+  private static int walkToTheEnd(AvatarSteeringManager steeringManager) {
+    int steps = 0;
+    while (steeringManager.isRunning()) {
+      step(steeringManager);
+      steps++;
+    }
+
+    return steps;
+  }
+
+  private static void step(AvatarSteeringManager steeringManager) {
+    steeringManager.update(STEP_MILLIS / 1000f);
+    TweenSystem.manager().update(STEP_MILLIS);
+  }
+}
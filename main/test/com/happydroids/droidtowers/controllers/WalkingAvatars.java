@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.controllers;
+
+import aurelienribon.tweenengine.Tween;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.utils.Array;
+import com.google.common.collect.Lists;
+import com.happydroids.droidtowers.entities.Avatar;
+import com.happydroids.droidtowers.entities.GameObject;
+import com.happydroids.droidtowers.entities.GridObject;
+import com.happydroids.droidtowers.grid.GameGrid;
+import com.happydroids.droidtowers.grid.GameGridRenderer;
+import com.happydroids.droidtowers.grid.GridPosition;
+import com.happydroids.droidtowers.tween.GameObjectAccessor;
+import org.objenesis.Objenesis;
+import org.objenesis.ObjenesisStd;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import static com.happydroids.droidtowers.grid.GeneratedTower.getField;
+import static com.happydroids.droidtowers.grid.GeneratedTower.setField;
+
+/**
+ * Makes avatars that can be steered along a path on a GameGrid without the textures their
+ * constructor loads.
+ */
+public class WalkingAvatars {
+  private static final Objenesis objenesis = new ObjenesisStd(true);
+
+  private final GameGrid gameGrid;
+
+  public WalkingAvatars(GameGrid gameGrid) {
+    this.gameGrid = gameGrid;
+
+    Tween.registerAccessor(GameObject.class, new GameObjectAccessor());
+
+    GameGridRenderer renderer = gameGrid.getRenderer();
+    if (getField(GameGridRenderer.class, renderer, "transitLines") == null) {
+      setField(GameGridRenderer.class, renderer, "transitLines", Lists.newArrayList());
+    }
+  }
+
+  public AvatarSteeringManager makeSteeringManager() {
+    Avatar avatar = (Avatar) objenesis.newInstance(Avatar.class);
+    setField(Sprite.class, avatar, "vertices", new float[20]);
+    setField(Sprite.class, avatar, "color", new Color(Color.WHITE));
+    setField(Sprite.class, avatar, "dirty", true);
+    avatar.setSize(16, 32);
+
+    AvatarSteeringManager steeringManager = new AvatarSteeringManager(avatar, gameGrid);
+    setField(Avatar.class, avatar, "steeringManager", steeringManager);
+    return steeringManager;
+  }
+
+  /**
+   * @return the steering manager of an avatar standing on the given cell, which can also search for
+   *         paths the way a real one does
+   */
+  public AvatarSteeringManager makeSteeringManager(int x, int y) {
+    AvatarSteeringManager steeringManager = makeSteeringManager();
+    final Avatar avatar = steeringManager.getAvatar();
+    setField(Avatar.class, avatar, "gameGrid", gameGrid);
+    setField(Avatar.class, avatar, "recentlyVisited", new GridObject[3]);
+    setField(Avatar.class, avatar, "wanderPath", new Array<GridPosition>());
+    setField(Avatar.class, avatar, "pathFinderCompleteCallback", new Runnable() {
+      public void run() {
+        try {
+          Method pathFinderComplete = Avatar.class.getDeclaredMethod("pathFinderComplete");
+          pathFinderComplete.setAccessible(true);
+          pathFinderComplete.invoke(avatar);
+        } catch (InvocationTargetException e) {
+          throw new RuntimeException(e.getCause());
+        } catch (Exception e) {
+          throw new RuntimeException(e);
+        }
+      }
+    });
+
+    GridPosition position = gameGrid.positionCache().getPosition(x, y);
+    avatar.setPosition(position.worldPoint().x, position.worldPoint().y);
+    return steeringManager;
+  }
+
+  /**
+   * @return the cells from fromX to toX on the given floor
+   */
+  public Array<GridPosition> pathAlongFloor(int floor, int fromX, int toX) {
+    Array<GridPosition> path = new Array<GridPosition>();
+    int step = fromX <= toX ? 1 : -1;
+    for (int x = fromX; x != toX + step; x += step) {
+      path.add(gameGrid.positionCache().getPosition(x, floor));
+    }
+
+    return path;
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.entities;
+
+import com.happydroids.droidtowers.NonGLTestRunner;
+import com.happydroids.droidtowers.TowerConsts;
+import com.happydroids.droidtowers.controllers.AvatarSteeringManager;
+import com.happydroids.droidtowers.controllers.WalkingAvatars;
+import com.happydroids.droidtowers.gamestate.actions.TransportCalculator;
+import com.happydroids.droidtowers.grid.BuildableTower;
+import com.happydroids.droidtowers.grid.GameGrid;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.happydroids.droidtowers.Expect.expect;
+
+@RunWith(NonGLTestRunner.class)
+public class AvatarTest {
+  private GameGrid gameGrid;
+  private WalkingAvatars walkingAvatars;
+  private Room room;
+
+  @Before
+  public void setUp() {
+    BuildableTower tower = BuildableTower.withRooms(24, 4);
+    room = tower.addRoom(8, TowerConsts.LOBBY_FLOOR + 2, 4);
+    gameGrid = tower.getGameGrid();
+    new TransportCalculator(gameGrid, 1f).run();
+    walkingAvatars = new WalkingAvatars(gameGrid);
+  }
+
+  @Test
+  public void navigateToGridObject_shouldStartWalkingThePathItFound() {
+    AvatarSteeringManager steeringManager = walkingAvatars.makeSteeringManager(2, TowerConsts.LOBBY_FLOOR);
+
+    steeringManager.getAvatar().navigateToGridObject(room);
+
+    expect(steeringManager.isRunning()).toBeTrue();
+    expect(gameGrid.pathFinderPool().getNumFree()).toEqual(gameGrid.pathFinderPool().getNumCreated());
+  }
+
+  @Test
+  public void navigateToGridObject_shouldStartWalkingACachedRoute_inLowDetail() {
+    walkingAvatars.makeSteeringManager(2, TowerConsts.LOBBY_FLOOR).getAvatar().navigateToGridObject(room);
+    int hits = gameGrid.routeCache().getHits();
+
+    AvatarSteeringManager steeringManager = walkingAvatars.makeSteeringManager(3, TowerConsts.LOBBY_FLOOR);
+    steeringManager.setLowDetail(true);
+    steeringManager.getAvatar().navigateToGridObject(room);
+
+    expect(gameGrid.routeCache().getHits()).toEqual(hits + 1);
+    expect(steeringManager.isRunning()).toBeTrue();
+  }
+}
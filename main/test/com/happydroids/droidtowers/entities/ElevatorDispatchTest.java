@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.entities;
+
+import com.google.common.collect.Lists;
+import com.happydroids.droidtowers.NonGLTestRunner;
+import com.happydroids.droidtowers.TowerConsts;
+import com.happydroids.droidtowers.entities.elevator.DestinationDispatcher;
+import com.happydroids.droidtowers.entities.elevator.FirstIdleCarDispatcher;
+import com.happydroids.droidtowers.grid.BuildableTower;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static com.happydroids.droidtowers.Expect.expect;
+
+@RunWith(NonGLTestRunner.class)
+public class ElevatorDispatchTest {
+  private static final int LOBBY = TowerConsts.LOBBY_FLOOR;
+
+  @Test
+  public void car_shouldServeEveryStopAheadBeforeTurningAround() {
+    Elevator elevator = makeShaft(1);
+    ElevatorTraffic traffic = new ElevatorTraffic(elevator, 0);
+    final List<String> arrivals = Lists.newArrayList();
+
+    traffic.call(LOBBY + 7, LOBBY + 2, recordArrival(arrivals, "down from 7"));
+    traffic.call(LOBBY + 5, LOBBY + 8, recordArrival(arrivals, "up from 5"));
+    traffic.call(LOBBY + 3, LOBBY + 9, recordArrival(arrivals, "up from 3"));
+    traffic.run(60, 0);
+
+    expect(arrivals).toEqual(Lists.newArrayList("up from 5", "up from 3", "down from 7"));
+    expect(elevator.getStatistics().getNumDelivered()).toEqual(3);
+  }
+
+  @Test
+  public void destinationDispatcher_shouldPickTheIdleCarOverOneHeadingAway() {
+    Elevator elevator = makeShaft(2);
+    ElevatorTraffic traffic = new ElevatorTraffic(elevator, 0);
+
+    traffic.call(LOBBY, LOBBY + 9);
+    traffic.run(2, 0);
+    traffic.call(LOBBY, LOBBY + 1);
+
+    expect(elevator.getElevatorCars().get(0).getNumRiders()).toEqual(1);
+    expect(elevator.getElevatorCars().get(1).getNumPassengersWaiting()).toEqual(1);
+  }
+
+  @Test
+  public void destinationDispatcher_shouldCutWaitingTimesOfABusyShaft() {
+    Elevator firstIdle = makeShaft(4);
+    firstIdle.setDispatcher(new FirstIdleCarDispatcher());
+    new ElevatorTraffic(firstIdle, 1).run(300, 3);
+
+    Elevator destination = makeShaft(4);
+    destination.setDispatcher(new DestinationDispatcher());
+    new ElevatorTraffic(destination, 1).run(300, 3);
+
+    expect(destination.getStatistics().getNumDelivered() >= firstIdle.getStatistics().getNumDelivered()).toBeTrue();
+    expect(destination.getStatistics().getAverageWaitTime() < firstIdle.getStatistics().getAverageWaitTime()).toBeTrue();
+  }
+
+  private Elevator makeShaft(int numCars) {
+    BuildableTower tower = new BuildableTower(3, LOBBY + 10 + TowerConsts.GAME_GRID_EXPAND_LAND_SIZE);
+    return tower.addElevator(1, LOBBY, LOBBY + 9, numCars);
+  }
+
+  private Runnable recordArrival(final List<String> arrivals, final String name) {
+    return new Runnable() {
+      @Override
+      public void run() {
+        arrivals.add(name);
+      }
+    };
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.entities;
+
+import aurelienribon.tweenengine.BaseTween;
+import aurelienribon.tweenengine.Tween;
+import aurelienribon.tweenengine.TweenCallback;
+import aurelienribon.tweenengine.TweenManager;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.happydroids.droidtowers.controllers.AvatarSteeringManager;
+import com.happydroids.droidtowers.tween.GameObjectAccessor;
+import com.happydroids.droidtowers.tween.TweenSystem;
+import org.objenesis.Objenesis;
+import org.objenesis.ObjenesisStd;
+
+import java.util.Random;
+
+import static com.happydroids.droidtowers.grid.GeneratedTower.setField;
+
+/**
+ * Sends avatars through an elevator shaft and steps it along with the tweens that move its cars,
+ * the way the game does but without drawing anything. Most of the traffic goes to or from the
+ * bottom floor, like a lobby at rush hour.
+ */
+public class ElevatorTraffic {
+  private static final int STEP_MILLIS = 25;
+  private static final float BOARDING_MILLIS = 700f;
+  private static final Objenesis objenesis = new ObjenesisStd(true);
+
+  private final Elevator elevator;
+  private final Random random;
+  private final int bottomFloor;
+  private final int topFloor;
+  private final Avatar avatar;
+  private int numRequested;
+  private int numDelivered;
+
+  public ElevatorTraffic(Elevator elevator, long seed) {
+    this.elevator = elevator;
+    random = new Random(seed);
+    bottomFloor = elevator.getPosition().y + 1;
+    topFloor = elevator.getPosition().y + elevator.getSize().y - 2;
+
+    Tween.registerAccessor(GameObject.class, new GameObjectAccessor());
+    TweenSystem.setTweenManager(new TweenManager());
+
+    avatar = (Avatar) objenesis.newInstance(Avatar.class);
+    setField(Sprite.class, avatar, "dirty", true);
+  }
+
+  public void run(float seconds, float callsPerSecond) {
+    float step = STEP_MILLIS / 1000f;
+    float callsDue = 0;
+    for (float time = 0; time < seconds; time += step) {
+      callsDue += callsPerSecond * step;
+      while (callsDue >= 1) {
+        call();
+        callsDue--;
+      }
+
+      elevator.update(step);
+      TweenSystem.manager().update(STEP_MILLIS);
+    }
+  }
+
+  public void call() {
+    int boarding;
+    int destination;
+    float kind = random.nextFloat();
+    if (kind < 0.5f) {
+      boarding = bottomFloor;
+      destination = randomUpperFloor(boarding);
+    } else if (kind < 0.8f) {
+      boarding = randomUpperFloor(bottomFloor);
+      destination = bottomFloor;
+    } else {
+      boarding = randomUpperFloor(bottomFloor);
+      destination = randomUpperFloor(boarding);
+    }
+
+    call(boarding, destination);
+  }
+
+  public void call(int boarding, int destination) {
+    call(boarding, destination, null);
+  }
+
+  public void call(int boarding, int destination, final Runnable uponArrival) {
+    numRequested++;
+    elevator.addPassenger(makeSteeringManager(), boarding, destination, new Runnable() {
+      @Override
+      public void run() {
+        numDelivered++;
+        if (uponArrival != null) {
+          uponArrival.run();
+        }
+      }
+    });
+  }
+
+  private int randomUpperFloor(int except) {
+    int floor;
+    do {
+      floor = bottomFloor + 1 + random.nextInt(topFloor - bottomFloor);
+    } while (floor == except);
+
+    return floor;
+  }
+
+  private AvatarSteeringManager makeSteeringManager() {
+    TrafficSteeringManager steeringManager = (TrafficSteeringManager) objenesis.newInstance(TrafficSteeringManager.class);
+    steeringManager.avatar = avatar;
+    return steeringManager;
+  }
+
+  public int getNumRequested() {
+    return numRequested;
+  }
+
+  public int getNumDelivered() {
+    return numDelivered;
+  }
+
+  /**
+   * Steps into the car after the time an avatar takes to walk in, instead of walking a path.
+   */
+  public static class TrafficSteeringManager extends AvatarSteeringManager {
+    private Avatar avatar;
+
+    public TrafficSteeringManager() {
+      super(null, null);
+    }
+
+    @Override
+    public void boardElevator(final Runnable runnable) {
+      Tween.call(new TweenCallback() {
+        @Override
+        public void onEvent(int type, BaseTween source) {
+          runnable.run();
+        }
+      }).delay(BOARDING_MILLIS).start(TweenSystem.manager());
+    }
+
+    @Override
+    public Avatar getAvatar() {
+      return avatar;
+    }
+  }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.events;
+
+import com.google.common.eventbus.Subscribe;
+import com.happydroids.droidtowers.NonGLTestRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.happydroids.droidtowers.Expect.expect;
+
+@RunWith(NonGLTestRunner.class)
+public class SafeEventBusTest {
+  @Test
+  public void unregister_shouldStopDeliveringEvents() {
+    SafeEventBus eventBus = new SafeEventBus();
+    CountingListener listener = new CountingListener();
+    eventBus.register(listener);
+    eventBus.post("first");
+
+    eventBus.unregister(listener);
+    eventBus.post("second");
+
+    expect(listener.eventsReceived).toEqual(1);
+  }
+
+  @Test
+  public void unregister_shouldIgnoreListenersThatWereNeverRegistered() {
+    SafeEventBus eventBus = new SafeEventBus();
+    CountingListener listener = new CountingListener();
+
+    eventBus.unregister(listener);
+    eventBus.register(listener);
+    eventBus.unregister(listener);
+    eventBus.unregister(listener);
+    eventBus.post("event");
+
+    expect(listener.eventsReceived).toEqual(0);
+  }
+
+  private static class CountingListener {
+    int eventsReceived;
+
+    @Subscribe
+    public void onEvent(String event) {
+      eventsReceived++;
+    }
+  }
+}
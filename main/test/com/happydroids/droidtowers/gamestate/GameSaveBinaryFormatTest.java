@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.gamestate;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.math.Vector3;
+import com.google.common.collect.Lists;
+import com.happydroids.droidtowers.DifficultyLevel;
+import com.happydroids.droidtowers.NonGLTestRunner;
+import com.happydroids.droidtowers.gamestate.server.TowerGameService;
+import com.happydroids.droidtowers.grid.GridObjectState;
+import com.happydroids.droidtowers.math.GridPoint;
+import com.happydroids.jackson.HappyDroidObjectMapper;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.Arrays;
+
+import static com.happydroids.droidtowers.Expect.expect;
+
+@RunWith(NonGLTestRunner.class)
+public class GameSaveBinaryFormatTest {
+  @Test
+  public void read_shouldReturnWhatWasWritten() throws Exception {
+    GameSave gameSave = makeGameSave();
+    FileHandle gameFile = new FileHandle(File.createTempFile("tower", ".json"));
+
+    GameSaveFactory.save(gameSave, gameFile);
+    GameSave read = GameSaveFactory.readFile(gameFile);
+    gameFile.delete();
+
+    HappyDroidObjectMapper objectMapper = TowerGameService.instance().getObjectMapper();
+    expect(objectMapper.writeValueAsString(read)).toEqual(objectMapper.writeValueAsString(gameSave));
+  }
+
+  @Test
+  public void readMetadata_shouldOnlyNeedTheHeader() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    GameSaveBinaryFormat.write(makeGameSave(), bytes, TowerGameService.instance().getObjectMapper());
+    byte[] withoutBody = Arrays.copyOf(bytes.toByteArray(), headerLength(bytes.toByteArray()));
+
+    GameSave metadata = GameSaveFactory.readMetadata(new ByteArrayInputStream(withoutBody));
+
+    expect(metadata.getTowerName()).toEqual("Binary Tower");
+    expect(metadata.getFileGeneration()).toEqual(7);
+    expect(metadata.getPlayer().getCoins()).toEqual((long) DifficultyLevel.HARD.getStartingMoney());
+    expect(metadata.hasGridObjects()).toBeFalse();
+  }
+
+  @Test
+  public void readFile_shouldStillReadJsonSaves() throws Exception {
+    GameSave gameSave = makeGameSave();
+    HappyDroidObjectMapper objectMapper = TowerGameService.instance().getObjectMapper();
+    byte[] json = objectMapper.writeValueAsBytes(gameSave);
+
+    expect(objectMapper.writeValueAsString(GameSaveFactory.readFile(new ByteArrayInputStream(json), "tower.json"))).toEqual(new String(json, "UTF-8"));
+    expect(objectMapper.writeValueAsString(GameSaveFactory.upgradeGameSave(new ByteArrayInputStream(json), "tower.json"))).toEqual(new String(json, "UTF-8"));
+    expect(GameSaveFactory.readMetadata(new ByteArrayInputStream(json)).getTowerName()).toEqual("Binary Tower");
+  }
+
+  private GameSave makeGameSave() {
+    GameSave gameSave = new GameSave("Binary Tower", DifficultyLevel.HARD);
+    gameSave.metadata.fileGeneration = 7;
+    gameSave.cameraPosition = new Vector3(120f, 340.5f, 0f);
+    gameSave.cameraZoom = 1.5f;
+    gameSave.completedAchievements = Lists.newArrayList("build-a-lobby", "five-stars");
+    gameSave.neighbors = null;
+    gameSave.gridObjects = Lists.newArrayList(
+            new GridObjectState("LOBBY", new GridPoint(0, 4), new GridPoint(40, 1), null, 0, 0, 0),
+            new GridObjectState("ELEVATOR", new GridPoint(6, 3), new GridPoint(1, 12), null, 0, -2500, 3),
+            new GridObjectState("HOTEL-ROOM", new GridPoint(10, 5), new GridPoint(4, 1), "Suite ñ 301", 2, 0, 0),
+            new GridObjectState("HOTEL-ROOM", new GridPoint(14, 5), new GridPoint(4, 1), null, 1, 100000, 0));
+    return gameSave;
+  }
+
+  private int headerLength(byte[] bytes) {
+    int metadataLength = ((bytes[8] & 0xff) << 24) | ((bytes[9] & 0xff) << 16) | ((bytes[10] & 0xff) << 8) | (bytes[11] & 0xff);
+    return 12 + metadataLength;
+  }
+}
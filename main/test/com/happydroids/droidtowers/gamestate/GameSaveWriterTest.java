@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.gamestate;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.google.common.collect.Lists;
+import com.happydroids.droidtowers.NonGLTestRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static com.happydroids.droidtowers.Expect.expect;
+
+@RunWith(NonGLTestRunner.class)
+public class GameSaveWriterTest {
+  @Test
+  public void submit_shouldOnlyWriteTheNewestJob_whenJobsPileUp() throws Exception {
+    GameSaveWriter writer = new GameSaveWriter();
+    final CountDownLatch blocker = new CountDownLatch(1);
+    final List<String> written = Collections.synchronizedList(Lists.<String>newArrayList());
+
+    writer.submit(new GameSaveWriter.Job("first.json") {
+      @Override
+      protected void write() throws Exception {
+        blocker.await();
+        written.add("first");
+      }
+    });
+    for (int i = 1; i <= 3; i++) {
+      writer.submit(new RecordingJob("second.json", "second-" + i, written));
+    }
+    blocker.countDown();
+    writer.flush();
+
+    expect(written.size()).toEqual(2);
+    expect(written.get(0)).toEqual("first");
+    expect(written.get(1)).toEqual("second-3 after second-2 after second-1");
+    expect(writer.getJobsCoalesced()).toEqual(2);
+    expect(writer.getJobsWritten()).toEqual(2);
+    writer.shutdown();
+  }
+
+  @Test
+  public void write_shouldReplaceTheFileWithoutLeavingATempFile() throws Exception {
+    File directory = File.createTempFile("gamesave", "");
+    directory.delete();
+    directory.mkdirs();
+    FileHandle file = new FileHandle(new File(directory, "tower.json"));
+
+    GameSaveFactory.write("old".getBytes(), file);
+    GameSaveFactory.write("new".getBytes(), file);
+
+    expect(file.readString()).toEqual("new");
+    expect(directory.list().length).toEqual(1);
+
+    file.delete();
+    directory.delete();
+  }
+
+  private static class RecordingJob extends GameSaveWriter.Job {
+    private final List<String> written;
+    private String name;
+
+    RecordingJob(String key, String name, List<String> written) {
+      super(key);
+      this.name = name;
+      this.written = written;
+    }
+
+    @Override
+    protected void write() throws Exception {
+      written.add(name);
+    }
+
+    @Override
+    protected void coalesce(GameSaveWriter.Job replaced) {
+      name += " after " + ((RecordingJob) replaced).name;
+    }
+  }
+}
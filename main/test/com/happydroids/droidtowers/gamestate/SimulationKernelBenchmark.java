@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.gamestate;
+
+import com.badlogic.gdx.Gdx;
+import com.happydroids.droidtowers.TestGdxApplication;
+import com.happydroids.droidtowers.TestGdxFiles;
+import com.happydroids.droidtowers.TowerConsts;
+import com.happydroids.droidtowers.actions.Action;
+import com.happydroids.droidtowers.actions.ActionManager;
+import com.happydroids.droidtowers.gamestate.actions.CrimeCalculator;
+import com.happydroids.droidtowers.gamestate.actions.DesirabilityCalculator;
+import com.happydroids.droidtowers.gamestate.actions.TransportCalculator;
+import com.happydroids.droidtowers.grid.BuildableTower;
+
+/**
+ * Fast-forwards a tower without a renderer and reports how much game time the SimulationKernel
+ * gets through per second of real time.
+ * <p/>
+ * Usage: SimulationKernelBenchmark [width] [floors] [game minutes]
+ */
+public class SimulationKernelBenchmark {
+  public static void main(String[] args) {
+    Gdx.files = new TestGdxFiles();
+    Gdx.app = new TestGdxApplication(null, null);
+
+    int width = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+    int floors = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+    float gameMinutes = args.length > 2 ? Float.parseFloat(args[2]) : 10f;
+
+    BuildableTower tower = BuildableTower.withRooms(width, floors);
+
+    Action[] actions = {
+            new TransportCalculator(tower.getGameGrid(), TowerConsts.TRANSPORT_CALCULATOR_FREQUENCY),
+            new CrimeCalculator(tower.getGameGrid(), TowerConsts.CRIME_CALCULATOR_FREQUENCY),
+            new DesirabilityCalculator(tower.getGameGrid(), TowerConsts.ROOM_UPDATE_FREQUENCY)
+    };
+    for (Action action : actions) {
+      ActionManager.instance().addAction(action);
+    }
+
+    SimulationKernel kernel = new SimulationKernel();
+    kernel.addLayer(tower.getGameGrid());
+
+    System.out.println(String.format("tower: %dx%d, %d objects, %.0f game minutes per round", width, floors, tower.getGameGrid().getObjects().size, gameMinutes));
+    for (int round = 0; round < 3; round++) {
+      long startTime = System.nanoTime();
+      int ticks = kernel.advance(gameMinutes * 60f);
+      double seconds = (System.nanoTime() - startTime) / 1000000000.0;
+
+      System.out.println(String.format("%d ticks in %.2fs: %8.0f ticks/s, %6.0fx real time", ticks, seconds, ticks / seconds, gameMinutes * 60f / seconds));
+    }
+
+    for (Action action : actions) {
+      ActionManager.instance().removeAction(action);
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.gamestate;
+
+import com.happydroids.droidtowers.NonGLTestRunner;
+import com.happydroids.droidtowers.actions.Action;
+import com.happydroids.droidtowers.actions.ActionManager;
+import com.happydroids.droidtowers.entities.GameLayer;
+import com.happydroids.droidtowers.entities.GameObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.happydroids.droidtowers.Expect.expect;
+
+@RunWith(NonGLTestRunner.class)
+public class SimulationKernelTest {
+  @Test
+  public void update_shouldStepEverythingInFixedTicks() {
+    SimulationKernel kernel = new SimulationKernel(0.1f, 100);
+    kernel.setUpdateTweens(false);
+    CountingLayer layer = new CountingLayer();
+    CountingAction action = new CountingAction();
+    kernel.addLayer(layer);
+    ActionManager.instance().addAction(action);
+
+    kernel.setTimeMultiplier(2f);
+    expect(kernel.update(0.25f)).toEqual(5);
+    expect(kernel.update(0.03f)).toEqual(0);
+    expect(kernel.update(0.03f)).toEqual(1);
+    ActionManager.instance().removeAction(action);
+
+    expect(layer.ticks).toEqual(6);
+    expect(layer.timeSimulated > 0.599f && layer.timeSimulated < 0.601f).toBeTrue();
+    expect(action.ticks).toEqual(6);
+    expect(layer.interpolationAlpha() > 0.19f && layer.interpolationAlpha() < 0.21f).toBeTrue();
+  }
+
+  @Test
+  public void update_shouldUpdateLayersEveryFewTicks_byThatManyTicks() {
+    SimulationKernel kernel = new SimulationKernel(0.1f, 4, 100);
+    kernel.setUpdateActions(false);
+    kernel.setUpdateTweens(false);
+    CountingLayer layer = new CountingLayer();
+    kernel.addLayer(layer);
+
+    expect(kernel.update(0.15f)).toEqual(1);
+    expect(layer.ticks).toEqual(1);
+    expect(layer.interpolationAlpha() > 0.12f && layer.interpolationAlpha() < 0.13f).toBeTrue();
+
+    expect(kernel.update(0.3f)).toEqual(3);
+    expect(layer.ticks).toEqual(1);
+    expect(layer.interpolationAlpha() > 0.87f && layer.interpolationAlpha() < 0.88f).toBeTrue();
+
+    expect(kernel.update(0.1f)).toEqual(1);
+    expect(layer.ticks).toEqual(2);
+    expect(layer.timeSimulated > 0.799f && layer.timeSimulated < 0.801f).toBeTrue();
+    expect(layer.interpolationAlpha() > 0.12f && layer.interpolationAlpha() < 0.13f).toBeTrue();
+  }
+
+  @Test
+  public void update_shouldDropTime_whenTooFarBehind() {
+    SimulationKernel kernel = new SimulationKernel(0.1f, 4);
+    kernel.setUpdateActions(false);
+    kernel.setUpdateTweens(false);
+    CountingLayer layer = new CountingLayer();
+    kernel.addLayer(layer);
+
+    expect(kernel.update(1f)).toEqual(4);
+    expect(kernel.update(0f)).toEqual(1);
+    expect(layer.ticks).toEqual(5);
+    expect(kernel.getDroppedTime() > 0.49f && kernel.getDroppedTime() < 0.51f).toBeTrue();
+  }
+
+  @Test
+  public void advance_shouldRunEveryTick_withoutDroppingTime() {
+    SimulationKernel kernel = new SimulationKernel(0.1f, 4);
+    kernel.setUpdateActions(false);
+    kernel.setUpdateTweens(false);
+    CountingLayer layer = new CountingLayer();
+    kernel.addLayer(layer);
+
+    expect(kernel.advance(100f)).toEqual(1000);
+    expect(layer.ticks).toEqual(1000);
+    expect(kernel.getDroppedTime()).toEqual(0f);
+  }
+
+  private static class CountingLayer extends GameLayer<GameObject> {
+    int ticks;
+    float timeSimulated;
+    int ticksRemembered;
+
+    @Override
+    public void beforeSimulationTick() {
+      ticksRemembered++;
+    }
+
+    @Override
+    public void update(float timeDelta) {
+      expect(ticksRemembered).toEqual(ticks + 1);
+      ticks++;
+      timeSimulated += timeDelta;
+    }
+
+    float interpolationAlpha() {
+      return interpolationAlpha;
+    }
+  }
+
+  private static class CountingAction extends Action {
+    int ticks;
+
+    @Override
+    public void act(float deltaTime) {
+      ticks++;
+    }
+  }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.gamestate.actions;
+
+import com.google.common.collect.Lists;
+import com.happydroids.droidtowers.NonGLTestRunner;
+import com.happydroids.droidtowers.TowerConsts;
+import com.happydroids.droidtowers.controllers.AvatarLayer;
+import com.happydroids.droidtowers.entities.CommercialSpace;
+import com.happydroids.droidtowers.entities.GridObject;
+import com.happydroids.droidtowers.entities.Player;
+import com.happydroids.droidtowers.grid.BuildableTower;
+import com.happydroids.droidtowers.grid.GameGrid;
+import com.happydroids.droidtowers.utils.Random;
+import com.happydroids.platform.DebugPurchaseManager;
+import com.happydroids.platform.Platform;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static com.happydroids.droidtowers.Expect.expect;
+
+@RunWith(NonGLTestRunner.class)
+public class CalculatorPipelineTest {
+  private static final int WIDTH = 48;
+  private static final int FLOORS = 8;
+  private static final int TICKS = 4;
+
+  @Before
+  public void setUp() {
+    Platform.setPurchaseManager(new DebugPurchaseManager());
+  }
+
+  @Test
+  public void run_shouldGiveTheSameResultsAsRunningEachCalculatorInOrder() {
+    expect(runPipeline()).toEqual(runSequentially());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void add_shouldRejectDependenciesThatHaveNotBeenAdded() {
+    Calculators calculators = new Calculators(makeTower().getGameGrid());
+    CalculatorPipeline pipeline = new CalculatorPipeline(calculators.gameGrid, 1f);
+
+    pipeline.add(calculators.starRating, calculators.population);
+  }
+
+  private static List<Object> runSequentially() {
+    Calculators calculators = new Calculators(makeTower().getGameGrid());
+    startTicking();
+
+    List<Object> results = Lists.newArrayList();
+    for (int i = 0; i < TICKS; i++) {
+      calculators.runInOrder();
+      record(calculators.gameGrid, results);
+    }
+
+    return results;
+  }
+
+  private static List<Object> runPipeline() {
+    Calculators calculators = new Calculators(makeTower().getGameGrid());
+    CalculatorPipeline pipeline = calculators.makePipeline();
+    startTicking();
+
+    List<Object> results = Lists.newArrayList();
+    for (int i = 0; i < TICKS; i++) {
+      pipeline.run();
+      record(calculators.gameGrid, results);
+    }
+
+    return results;
+  }
+
+  private static void startTicking() {
+    Player.setInstance(new Player(1000));
+    Player.instance().setPopulationResidency(10);
+    Random.random.setSeed(42);
+  }
+
+  private static void record(GameGrid gameGrid, List<Object> results) {
+    Player player = Player.instance();
+    results.add(player.getCoins());
+    results.add(player.getJobsMax());
+    results.add(player.getJobsFilled());
+    results.add(player.getMaxPopulation());
+    results.add(player.getSupportedResidency());
+    results.add(player.getCurrentIncome());
+    results.add(player.getCurrentExpenses());
+    results.add(player.getStarRating());
+
+    for (GridObject gridObject : gameGrid.getObjects()) {
+      results.add(gridObject.getSurroundingNoiseLevel());
+      results.add(gridObject.getDesirability());
+      if (gridObject instanceof CommercialSpace) {
+        results.add(((CommercialSpace) gridObject).getJobsFilled());
+      }
+    }
+  }
+
+  private static BuildableTower makeTower() {
+    BuildableTower tower = BuildableTower.withRooms(WIDTH, FLOORS);
+    for (int y = TowerConsts.LOBBY_FLOOR; y < TowerConsts.LOBBY_FLOOR + FLOORS; y++) {
+      // the ones that need a population only fill their jobs on the first tick, there are no avatars.
+      tower.addCommercialSpace(7, y, 4, 12, -1);
+      tower.addCommercialSpace(19, y, 4, 8, 5);
+    }
+    new TransportCalculator(tower.getGameGrid(), 1f).run();
+    return tower;
+  }
+
+  private static class Calculators {
+    final GameGrid gameGrid;
+    final EmploymentCalculator employment;
+    final DesirabilityCalculator desirability;
+    final PopulationCalculator population;
+    final BudgetCalculator budget;
+    final StarRatingCalculator starRating;
+
+    Calculators(GameGrid gameGrid) {
+      this.gameGrid = gameGrid;
+      employment = new EmploymentCalculator(gameGrid, 1f);
+      desirability = new DesirabilityCalculator(gameGrid, 1f);
+      population = new PopulationCalculator(gameGrid, new AvatarLayer(gameGrid), 1f);
+      budget = new BudgetCalculator(gameGrid, 1f);
+      starRating = new StarRatingCalculator(gameGrid, 1f);
+    }
+
+    CalculatorPipeline makePipeline() {
+      CalculatorPipeline pipeline = new CalculatorPipeline(gameGrid, 1f);
+      pipeline.add(employment);
+      pipeline.add(desirability, employment);
+      pipeline.add(population, desirability);
+      pipeline.add(budget, employment, desirability);
+      pipeline.add(starRating, employment, population, budget, desirability);
+      return pipeline;
+    }
+
+    void runInOrder() {
+      employment.run();
+      desirability.run();
+      population.run();
+      budget.run();
+      starRating.run();
+    }
+  }
+}
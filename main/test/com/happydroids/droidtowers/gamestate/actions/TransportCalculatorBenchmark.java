@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.gamestate.actions;
+
+import com.badlogic.gdx.Gdx;
+import com.happydroids.droidtowers.TestGdxApplication;
+import com.happydroids.droidtowers.TestGdxFiles;
+import com.happydroids.droidtowers.TowerConsts;
+import com.happydroids.droidtowers.grid.BuildableTower;
+
+import java.util.Random;
+
+import static com.happydroids.droidtowers.TowerConsts.LOBBY_FLOOR;
+
+/**
+ * Builds a large tower one room at a time, running the TransportCalculator after every placement,
+ * and compares the incremental update against recalculating the whole grid.
+ * <p/>
+ * Usage: TransportCalculatorBenchmark [width] [floors] [placements]
+ */
+public class TransportCalculatorBenchmark {
+  public static void main(String[] args) {
+    Gdx.files = new TestGdxFiles();
+    Gdx.app = new TestGdxApplication(null, null);
+
+    int width = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+    int floors = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+    int placements = args.length > 2 ? Integer.parseInt(args[2]) : 2000;
+
+    BuildableTower tower = new BuildableTower(width, LOBBY_FLOOR + floors + TowerConsts.GAME_GRID_EXPAND_LAND_SIZE);
+    TransportCalculator transportCalculator = new TransportCalculator(tower.getGameGrid(), TowerConsts.TRANSPORT_CALCULATOR_FREQUENCY);
+
+    tower.addLobby(0, width);
+    for (int x = 6; x < width; x += 12) {
+      tower.addElevator(x, LOBBY_FLOOR, LOBBY_FLOOR + floors);
+    }
+    for (int y = LOBBY_FLOOR; y < LOBBY_FLOOR + floors; y++) {
+      for (int x = 0; x + 6 <= width; x += 12) {
+        tower.addRoom(x, y, 6);
+      }
+    }
+    transportCalculator.run();
+
+    System.out.println(String.format("tower: %dx%d, %d objects, %d placements", width, floors, tower.getGameGrid().getObjects().size, placements));
+    Random random = new Random(1337);
+    for (int round = 0; round < 3; round++) {
+      long incremental = 0;
+      long full = 0;
+      for (int i = 0; i < placements; i++) {
+        int x = 7 + 12 * random.nextInt(width / 12 - 1);
+        int y = LOBBY_FLOOR + random.nextInt(floors);
+        tower.remove(tower.addRoom(x, y, 4));
+
+        long startTime = System.nanoTime();
+        transportCalculator.run();
+        incremental += System.nanoTime() - startTime;
+
+        startTime = System.nanoTime();
+        transportCalculator.recalculateAll();
+        full += System.nanoTime() - startTime;
+      }
+
+      System.out.println(String.format("incremental: %8.1fms (%6.1fus/placement)  full: %8.1fms (%6.1fus/placement)", incremental / 1000000.0, incremental / 1000.0 / placements, full / 1000000.0, full / 1000.0 / placements));
+    }
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.gamestate.actions;
+
+import com.badlogic.gdx.utils.Array;
+import com.happydroids.droidtowers.NonGLTestRunner;
+import com.happydroids.droidtowers.TowerConsts;
+import com.happydroids.droidtowers.entities.GridObject;
+import com.happydroids.droidtowers.entities.Room;
+import com.happydroids.droidtowers.grid.BuildableTower;
+import com.happydroids.droidtowers.grid.GridPosition;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+import static com.happydroids.droidtowers.Expect.expect;
+import static com.happydroids.droidtowers.TowerConsts.LOBBY_FLOOR;
+
+@RunWith(NonGLTestRunner.class)
+public class TransportCalculatorTest {
+  private BuildableTower tower;
+  private TransportCalculator transportCalculator;
+
+  @Before
+  public void setUp() {
+    tower = new BuildableTower(40, LOBBY_FLOOR + 20);
+    transportCalculator = new TransportCalculator(tower.getGameGrid(), TowerConsts.TRANSPORT_CALCULATOR_FREQUENCY);
+    transportCalculator.setConsistencyCheck(true);
+  }
+
+  @Test
+  public void run_shouldConnectRoomsInTheSameRunAsAnElevator() {
+    tower.addLobby(0, 40);
+    tower.addElevator(5, LOBBY_FLOOR, LOBBY_FLOOR + 5);
+    Room connected = tower.addRoom(6, LOBBY_FLOOR + 3, 4);
+    Room disconnected = tower.addRoom(12, LOBBY_FLOOR + 3, 4);
+
+    transportCalculator.run();
+
+    expect(connected.isConnectedToTransport()).toBeTrue();
+    expect(disconnected.isConnectedToTransport()).toBeFalse();
+    expect(positionAt(9, LOBBY_FLOOR + 3).distanceFromTransit).toEqual(4f);
+    expect(transportCalculator.getConsistencyErrors()).toEqual(0);
+  }
+
+  @Test
+  public void run_shouldOnlyRecalculateTouchedFloors() {
+    tower.addLobby(0, 40);
+    tower.addElevator(5, LOBBY_FLOOR, LOBBY_FLOOR + 15);
+    transportCalculator.run();
+
+    int floorsRecalculated = transportCalculator.getFloorsRecalculated();
+    Room room = tower.addRoom(6, LOBBY_FLOOR + 7, 4);
+    transportCalculator.run();
+
+    expect(transportCalculator.getFloorsRecalculated() - floorsRecalculated).toEqual(1);
+    expect(room.isConnectedToTransport()).toBeTrue();
+    expect(transportCalculator.getConsistencyErrors()).toEqual(0);
+  }
+
+  @Test
+  public void run_shouldMatchFullRecalculation_whileBuildingRapidly() {
+    Random random = new Random(99);
+    Array<GridObject> built = new Array<GridObject>();
+    built.add(tower.addLobby(0, 40));
+
+    for (int i = 0; i < 300; i++) {
+      int action = random.nextInt(10);
+      int x = random.nextInt(36);
+      int y = LOBBY_FLOOR + random.nextInt(15);
+      if (action < 5) {
+        built.add(tower.addRoom(x, y, 1 + random.nextInt(4)));
+      } else if (action < 6) {
+        built.add(tower.addElevator(x, y, y + 1 + random.nextInt(4)));
+      } else if (action < 7) {
+        built.add(tower.addStair(x, y));
+      } else if (action < 9 && built.size > 1) {
+        tower.move(built.get(1 + random.nextInt(built.size - 1)), x, y);
+      } else if (built.size > 1) {
+        tower.remove(built.removeIndex(1 + random.nextInt(built.size - 1)));
+      }
+
+      transportCalculator.run();
+    }
+
+    expect(transportCalculator.getConsistencyErrors()).toEqual(0);
+  }
+
+  private GridPosition positionAt(int x, int y) {
+    return tower.getGameGrid().positionCache().getPosition(x, y);
+  }
+}
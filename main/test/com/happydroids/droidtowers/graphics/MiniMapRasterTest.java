@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.graphics;
+
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import com.happydroids.droidtowers.NonGLTestRunner;
+import com.happydroids.droidtowers.TowerConsts;
+import com.happydroids.droidtowers.entities.Room;
+import com.happydroids.droidtowers.gamestate.actions.TransportCalculator;
+import com.happydroids.droidtowers.grid.BuildableTower;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.nio.ByteBuffer;
+
+import static com.happydroids.droidtowers.Expect.expect;
+
+@RunWith(NonGLTestRunner.class)
+public class MiniMapRasterTest {
+  private static final int FLOORS = 8;
+
+  private BuildableTower tower;
+  private TransportCalculator transportCalculator;
+  private MiniMapRaster miniMapRaster;
+  private int numCells;
+
+  @Before
+  public void setUp() {
+    GdxNativesLoader.load();
+
+    tower = BuildableTower.withRooms(40, FLOORS);
+    transportCalculator = new TransportCalculator(tower.getGameGrid(), 1f);
+    transportCalculator.run();
+    miniMapRaster = new MiniMapRaster(tower.getGameGrid(), 2);
+    miniMapRaster.update();
+    numCells = tower.getGameGrid().getGridSize().x * tower.getGameGrid().getGridSize().y;
+  }
+
+  @After
+  public void tearDown() {
+    miniMapRaster.dispose();
+  }
+
+  @Test
+  public void update_shouldNotRepaintAnything_whenTheGridHasNotChanged() {
+    int version = miniMapRaster.getVersion();
+
+    miniMapRaster.update();
+
+    expect(miniMapRaster.getCellsRepainted()).toEqual(0);
+    expect(miniMapRaster.getVersion()).toEqual(version);
+  }
+
+  @Test
+  public void update_shouldOnlyRepaintWhatChanged_andDrawTheSameAsARedraw() {
+    // in the gap between a row of rooms and the next elevator, it stays red until the transport calculator runs.
+    Room room = tower.addRoom(20, TowerConsts.LOBBY_FLOOR + 2, 4);
+    miniMapRaster.update();
+
+    expect(miniMapRaster.getCellsRepainted()).toEqual(4);
+    expect(miniMapRaster.copyPixels()).toEqual(redrawnPixels());
+
+    tower.addElevator(34, TowerConsts.LOBBY_FLOOR, TowerConsts.LOBBY_FLOOR + FLOORS - 1);
+    transportCalculator.run();
+    miniMapRaster.update();
+
+    expect(miniMapRaster.getCellsRepainted() < numCells / 2).toBeTrue();
+    expect(miniMapRaster.copyPixels()).toEqual(redrawnPixels());
+
+    int version = miniMapRaster.getVersion();
+    tower.remove(room);
+    miniMapRaster.update();
+
+    expect(miniMapRaster.getVersion() != version).toBeTrue();
+    expect(miniMapRaster.copyPixels()).toEqual(redrawnPixels());
+  }
+
+  @Test
+  public void update_shouldRedrawEverything_whenTheGridIsResized() {
+    tower.getGameGrid().setGridSize(80, tower.getGameGrid().getGridSize().y);
+    tower.getGameGrid().updateWorldSize(true);
+    miniMapRaster.update();
+
+    expect(miniMapRaster.getWidth()).toEqual(256);
+    expect(miniMapRaster.copyPixels()).toEqual(redrawnPixels());
+  }
+
+  private ByteBuffer redrawnPixels() {
+    MiniMapRaster redrawn = new MiniMapRaster(tower.getGameGrid(), 2);
+    try {
+      return redrawn.copyPixels();
+    } finally {
+      redrawn.dispose();
+    }
+  }
+}
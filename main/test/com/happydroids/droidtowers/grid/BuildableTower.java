@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.grid;
+
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.g2d.Sprite;
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.math.Vector2;
+import com.badlogic.gdx.utils.Array;
+import com.google.common.collect.Sets;
+import com.happydroids.droidtowers.TowerConsts;
+import com.happydroids.droidtowers.achievements.TestGridObject;
+import com.happydroids.droidtowers.achievements.TestGridObjectType;
+import com.happydroids.droidtowers.entities.CommercialSpace;
+import com.happydroids.droidtowers.entities.Elevator;
+import com.happydroids.droidtowers.entities.ElevatorCar;
+import com.happydroids.droidtowers.entities.ElevatorQueue;
+import com.happydroids.droidtowers.entities.GridObject;
+import com.happydroids.droidtowers.entities.Room;
+import com.happydroids.droidtowers.entities.Stair;
+import com.happydroids.droidtowers.entities.elevator.DestinationDispatcher;
+import com.happydroids.droidtowers.entities.elevator.ElevatorStatistics;
+import com.happydroids.droidtowers.events.GridObjectBoundsChangeEvent;
+import com.happydroids.droidtowers.events.GridObjectPlacedEvent;
+import com.happydroids.droidtowers.math.GridPoint;
+import com.happydroids.droidtowers.types.CommercialType;
+import com.happydroids.droidtowers.types.ElevatorType;
+import com.happydroids.droidtowers.types.GridObjectType;
+import com.happydroids.droidtowers.types.ProviderType;
+import com.happydroids.droidtowers.types.RoomType;
+import com.happydroids.droidtowers.types.StairType;
+import org.objenesis.Objenesis;
+import org.objenesis.ObjenesisStd;
+
+import static com.happydroids.droidtowers.grid.GeneratedTower.setField;
+
+/**
+ * Places rooms, elevators and stairs on a GameGrid through the same events the game sends, so
+ * everything listening to the grid sees them being built. Like GeneratedTower the objects are made
+ * without their constructors, which need textures.
+ */
+public class BuildableTower {
+  private static final Objenesis objenesis = new ObjenesisStd(true);
+
+  private final GameGrid gameGrid;
+
+  public BuildableTower(int width, int height) {
+    gameGrid = new TestGameGrid();
+    gameGrid.setGridSize(width, height);
+    gameGrid.updateWorldSize(false);
+
+    // placing an object tints it, the tint comes from the renderer
+    GameGridRenderer renderer = (GameGridRenderer) objenesis.newInstance(GameGridRenderer.class);
+    renderer.setRenderTintColor(Color.WHITE);
+    setField(GameGrid.class, gameGrid, "gameGridRenderer", renderer);
+  }
+
+  /**
+   * A lobby across the whole width, an elevator every 12 cells running to the top floor and every
+   * floor filled with 6 wide rooms between them.
+   */
+  public static BuildableTower withRooms(int width, int floors) {
+    BuildableTower tower = new BuildableTower(width, TowerConsts.LOBBY_FLOOR + floors + TowerConsts.GAME_GRID_EXPAND_LAND_SIZE);
+    tower.addLobby(0, width);
+    for (int x = 6; x < width; x += 12) {
+      tower.addElevator(x, TowerConsts.LOBBY_FLOOR, TowerConsts.LOBBY_FLOOR + floors);
+    }
+    for (int y = TowerConsts.LOBBY_FLOOR; y < TowerConsts.LOBBY_FLOOR + floors; y++) {
+      for (int x = 0; x + 6 <= width; x += 12) {
+        tower.addRoom(x, y, 6);
+      }
+    }
+
+    return tower;
+  }
+
+  public Room addRoom(int x, int y, int width) {
+    return place((Room) objenesis.newInstance(Room.class), objenesis.newInstance(RoomType.class), x, y, width, 1);
+  }
+
+  /**
+   * A shop that fills its jobs once the population is over populationRequired, it gets louder the
+   * more jobs are filled.
+   */
+  public CommercialSpace addCommercialSpace(int x, int y, int width, int jobsProvided, int populationRequired) {
+    CommercialType commercialType = (CommercialType) objenesis.newInstance(CommercialType.class);
+    setField(CommercialType.class, commercialType, "jobsProvided", jobsProvided);
+    setField(RoomType.class, commercialType, "populationRequired", populationRequired);
+    setField(GridObjectType.class, commercialType, "coins", 20000);
+    setLevels(commercialType, 0.8f, 0f);
+
+    return place((CommercialSpace) objenesis.newInstance(CommercialSpace.class), commercialType, x, y, width, 1);
+  }
+
+  public Room addLobby(int x, int width) {
+    GridObjectType lobbyType = (GridObjectType) objenesis.newInstance(RoomType.class);
+    setField(GridObjectType.class, lobbyType, "provides", ProviderType.LOBBY);
+
+    return place((Room) objenesis.newInstance(Room.class), lobbyType, x, TowerConsts.LOBBY_FLOOR, width, 1);
+  }
+
+  public Stair addStair(int x, int y) {
+    return place((Stair) objenesis.newInstance(Stair.class), objenesis.newInstance(StairType.class), x, y, 2, 1);
+  }
+
+  public Elevator addElevator(int x, int bottomFloor, int topFloor) {
+    return addElevator(x, bottomFloor, topFloor, 1);
+  }
+
+  public Elevator addElevator(int x, int bottomFloor, int topFloor, int numCars) {
+    Elevator elevator = (Elevator) objenesis.newInstance(Elevator.class);
+    Array<ElevatorCar> cars = new Array<ElevatorCar>();
+    for (int i = 0; i < numCars; i++) {
+      cars.add(makeElevatorCar(elevator));
+    }
+    setField(Elevator.class, elevator, "elevatorCars", cars);
+    setField(Elevator.class, elevator, "dispatcher", new DestinationDispatcher());
+    setField(Elevator.class, elevator, "statistics", new ElevatorStatistics());
+    place(elevator, objenesis.newInstance(ElevatorType.class), x, bottomFloor - 1, 1, topFloor - bottomFloor + 3);
+
+    float bottomOfShaft = new GridPoint(x, bottomFloor).getWorldY();
+    for (ElevatorCar car : cars) {
+      car.setY(bottomOfShaft);
+    }
+
+    return elevator;
+  }
+
+  private ElevatorCar makeElevatorCar(Elevator elevator) {
+    ElevatorCar car = (ElevatorCar) objenesis.newInstance(ElevatorCar.class);
+    setField(ElevatorCar.class, car, "elevator", elevator);
+    setField(ElevatorCar.class, car, "queue", new ElevatorQueue(elevator));
+    setField(ElevatorCar.class, car, "finalPosition", new GridPoint());
+    // without vertices the sprite can only be moved while it is dirty
+    setField(Sprite.class, car, "dirty", true);
+    return car;
+  }
+
+  public GridObject addNoisyObject(int x, int y, int width, int height, float noiseLevel, float crimeLevel) {
+    TestGridObjectType gridObjectType = new TestGridObjectType();
+    setLevels(gridObjectType, noiseLevel, crimeLevel);
+
+    return place((GridObject) objenesis.newInstance(TestGridObject.class), gridObjectType, x, y, width, height);
+  }
+
+  public void setLevels(GridObjectType gridObjectType, float noiseLevel, float crimeLevel) {
+    setField(GridObjectType.class, gridObjectType, "noiseLevel", noiseLevel);
+    setField(GridObjectType.class, gridObjectType, "crimeLevel", crimeLevel);
+  }
+
+  public void move(GridObject gridObject, int x, int y) {
+    GridObjectBoundsChangeEvent event = new GridObjectBoundsChangeEvent();
+    event.setGridObject(gridObject);
+
+    gridObject.getPosition().set(x, y);
+    gridObject.updateGridPointsTouched();
+
+    gameGrid.events().post(event);
+  }
+
+  public void remove(GridObject gridObject) {
+    gameGrid.removeObject(gridObject);
+  }
+
+  /**
+   * Clears the grid and adds everything on it back the way a saved tower is loaded, either one object
+   * at a time like GridObjectState.materialize or all at once like GameSave.attachToGame.
+   */
+  public Array<GridObject> reload(boolean inBulk) {
+    Array<GridObject> gridObjects = new Array<GridObject>(gameGrid.getObjects());
+    Array<GridPoint> positions = new Array<GridPoint>(gridObjects.size);
+    Array<GridPoint> sizes = new Array<GridPoint>(gridObjects.size);
+    for (GridObject gridObject : gridObjects) {
+      positions.add(gridObject.getPosition().cpy());
+      sizes.add(gridObject.getSize().cpy());
+    }
+
+    gameGrid.clearObjects();
+    gameGrid.updateWorldSize(true);
+
+    for (int i = 0; i < gridObjects.size; i++) {
+      GridObject gridObject = gridObjects.get(i);
+      GridPoint position = positions.get(i);
+      GridPoint size = sizes.get(i);
+      setField(GridObject.class, gridObject, "placed", false);
+      if (inBulk) {
+        gridObject.restorePlacement(position.x, position.y, size.x, size.y);
+      } else {
+        gridObject.setPosition(position.x, position.y);
+        gridObject.setSize(size.x, size.y);
+        gridObject.setPlaced(true);
+        gameGrid.addObject(gridObject);
+      }
+    }
+
+    if (inBulk) {
+      gameGrid.addObjects(gridObjects);
+    }
+
+    return gridObjects;
+  }
+
+  private <T extends GridObject> T place(T gridObject, Object gridObjectType, int x, int y, int width, int height) {
+    if (((GridObjectType) gridObjectType).getId() == null) {
+      setField(GridObjectType.class, gridObjectType, "id", gridObjectType.getClass().getSimpleName());
+    }
+    setField(GridObject.class, gridObject, "gridObjectType", gridObjectType);
+    setField(GridObject.class, gridObject, "gameGrid", gameGrid);
+    setField(GridObject.class, gridObject, "position", new GridPoint(x, y));
+    setField(GridObject.class, gridObject, "size", new GridPoint(width, height));
+    setField(GridObject.class, gridObject, "placed", true);
+    setField(GridObject.class, gridObject, "worldPosition", new Vector2());
+    setField(GridObject.class, gridObject, "worldSize", new Vector2());
+    setField(GridObject.class, gridObject, "worldCenter", new Vector2());
+    setField(GridObject.class, gridObject, "worldCenterBottom", new Vector2());
+    setField(GridObject.class, gridObject, "worldTop", new Vector2());
+    setField(GridObject.class, gridObject, "worldBounds", new Rectangle());
+    setField(GridObject.class, gridObject, "decalsToDraw", Sets.newHashSet());
+    setField(GridObject.class, gridObject, "visitorQueue", Sets.newHashSet());
+    if (gridObject instanceof Room) {
+      setField(Room.class, gridObject, "residents", Sets.newHashSet());
+    }
+    gridObject.updateGridPointsTouched();
+
+    gameGrid.addObject(gridObject);
+
+    GridObjectPlacedEvent event = new GridObjectPlacedEvent();
+    event.setGridObject(gridObject);
+    gameGrid.events().post(event);
+
+    return gridObject;
+  }
+
+  public GameGrid getGameGrid() {
+    return gameGrid;
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.grid;
+
+import com.badlogic.gdx.Gdx;
+import com.happydroids.droidtowers.TestGdxApplication;
+import com.happydroids.droidtowers.TestGdxFiles;
+import com.happydroids.droidtowers.TowerConsts;
+import com.happydroids.droidtowers.events.GameGridResizeEvent;
+
+import java.util.Random;
+
+import static com.happydroids.droidtowers.TowerConsts.LOBBY_FLOOR;
+
+/**
+ * Compares the heap used per cell by GridPositionCache and FlatGridPositionCache, and how long a
+ * full scan of every cell takes through getPositions() and through the flat planes.
+ * <p/>
+ * The GridPositionCache figure includes its GridFields planes, the flat cache keeps the same noise
+ * and crime values in its own planes. Run with a fixed heap (-Xms = -Xmx) for steadier numbers.
+ * <p/>
+ * Usage: FlatGridPositionCacheBenchmark [width] [floors] [scans]
+ */
+public class FlatGridPositionCacheBenchmark {
+  private static int sink;
+
+  public static void main(String[] args) {
+    Gdx.files = new TestGdxFiles();
+    Gdx.app = new TestGdxApplication(null, null);
+
+    int width = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+    int floors = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+    int scans = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+
+    BuildableTower tower = new BuildableTower(width, LOBBY_FLOOR + floors + TowerConsts.GAME_GRID_EXPAND_LAND_SIZE);
+    GameGrid gameGrid = tower.getGameGrid();
+    int numCells = (gameGrid.getGridSize().x + 1) * (gameGrid.getGridSize().y + 1);
+
+    long before = usedMemory();
+    GridPositionCache positionCache = new GridPositionCache(gameGrid);
+    positionCache.handleGameGridResizeEvent(new GameGridResizeEvent(gameGrid, false));
+    long positionCacheBytes = usedMemory() - before;
+
+    before = usedMemory();
+    FlatGridPositionCache flatCache = new FlatGridPositionCache(gameGrid);
+    long flatCacheBytes = usedMemory() - before;
+
+    System.out.println(String.format("grid: %d cells", numCells));
+    System.out.println(String.format("empty GridPositionCache:     %6.1f bytes/cell", positionCacheBytes / (double) numCells));
+    System.out.println(String.format("empty FlatGridPositionCache: %6.1f bytes/cell", flatCacheBytes / (double) numCells));
+
+    tower.addLobby(0, width);
+    for (int x = 6; x < width; x += 12) {
+      tower.addElevator(x, LOBBY_FLOOR, LOBBY_FLOOR + floors);
+    }
+    for (int y = LOBBY_FLOOR; y < LOBBY_FLOOR + floors; y++) {
+      for (int x = 0; x + 6 <= width; x += 12) {
+        tower.addRoom(x, y, 6);
+      }
+    }
+
+    Random random = new Random(42);
+    GridPosition[][] positions = positionCache.getPositions();
+    for (int x = 0; x < positions.length; x++) {
+      for (int y = 0; y < positions[x].length; y++) {
+        boolean connected = random.nextBoolean();
+        float distance = random.nextFloat();
+        positions[x][y].connectedToTransit = connected;
+        positions[x][y].normalizedDistanceFromTransit = distance;
+        flatCache.setConnectedToTransit(x, y, connected);
+        flatCache.normalizedDistanceFromTransit()[flatCache.cellIndex(x, y)] = distance;
+      }
+    }
+
+    System.out.println(String.format("tower: %dx%d, %d objects, %d scans", width, floors, gameGrid.getObjects().size, scans));
+    for (int round = 0; round < 3; round++) {
+      long startTime = System.nanoTime();
+      for (int i = 0; i < scans; i++) {
+        sink += scanPositions(positionCache);
+      }
+      long positionsTime = System.nanoTime() - startTime;
+
+      startTime = System.nanoTime();
+      for (int i = 0; i < scans; i++) {
+        sink += scanFlat(flatCache);
+      }
+      long flatTime = System.nanoTime() - startTime;
+
+      System.out.println(String.format("getPositions(): %7.1fus/scan  flat: %7.1fus/scan", positionsTime / 1000.0 / scans, flatTime / 1000.0 / scans));
+    }
+  }
+
+  private static int scanPositions(GridPositionCache positionCache) {
+    int count = 0;
+    float total = 0f;
+    GridPosition[][] positions = positionCache.getPositions();
+    for (int x = 0; x < positions.length; x++) {
+      for (int y = 0; y < positions[x].length; y++) {
+        GridPosition position = positions[x][y];
+        if (position.connectedToTransit && !position.isEmpty()) {
+          count++;
+          total += position.normalizedDistanceFromTransit;
+        }
+      }
+    }
+
+    return count + (int) total;
+  }
+
+  private static int scanFlat(FlatGridPositionCache flatCache) {
+    int count = 0;
+    float total = 0f;
+    float[] distances = flatCache.normalizedDistanceFromTransit();
+    for (int x = 0; x < flatCache.getColumns(); x++) {
+      for (int y = 0; y < flatCache.getRows(); y++) {
+        if (flatCache.isConnectedToTransit(x, y) && !flatCache.isEmpty(x, y)) {
+          count++;
+          total += distances[flatCache.cellIndex(x, y)];
+        }
+      }
+    }
+
+    return count + (int) total;
+  }
+
+  private static long usedMemory() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 4; i++) {
+      System.gc();
+    }
+
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+}
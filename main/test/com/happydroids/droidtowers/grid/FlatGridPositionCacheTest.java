@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.grid;
+
+import com.badlogic.gdx.utils.Array;
+import com.happydroids.droidtowers.NonGLTestRunner;
+import com.happydroids.droidtowers.entities.GridObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+import static com.happydroids.droidtowers.Expect.expect;
+
+@RunWith(NonGLTestRunner.class)
+public class FlatGridPositionCacheTest {
+  @Test
+  public void shouldMatchGridPositionCache_whileBuilding() {
+    BuildableTower tower = new BuildableTower(50, 40);
+    FlatGridPositionCache flatCache = new FlatGridPositionCache(tower.getGameGrid());
+    Random random = new Random(7);
+    Array<GridObject> built = new Array<GridObject>();
+
+    for (int i = 0; i < 300; i++) {
+      int action = random.nextInt(10);
+      int x = random.nextInt(46);
+      int y = 1 + random.nextInt(30);
+      if (action < 3 || built.size == 0) {
+        built.add(tower.addRoom(x, y, 1 + random.nextInt(4)));
+      } else if (action < 4) {
+        built.add(tower.addStair(x, y));
+      } else if (action < 5) {
+        built.add(tower.addElevator(x, y, y + random.nextInt(8)));
+      } else if (action < 8) {
+        tower.move(built.random(), x, y);
+      } else {
+        tower.remove(built.removeIndex(random.nextInt(built.size)));
+      }
+
+      expectCachesToMatch(tower.getGameGrid().positionCache(), flatCache);
+    }
+  }
+
+  @Test
+  public void shouldKeepCells_whenGridGrows() {
+    BuildableTower tower = new BuildableTower(20, 20);
+    FlatGridPositionCache flatCache = new FlatGridPositionCache(tower.getGameGrid());
+    GridObject room = tower.addRoom(3, 5, 4);
+    flatCache.setConnectedToTransit(4, 5, true);
+    flatCache.distanceFromTransit()[flatCache.cellIndex(4, 5)] = 3f;
+
+    tower.getGameGrid().setGridSize(30, 35);
+    tower.getGameGrid().updateWorldSize(true);
+
+    expect(flatCache.getColumns()).toEqual(31);
+    expect(flatCache.getRows()).toEqual(36);
+    expect(flatCache.getObjectsAt(4, 5, new Array<GridObject>()).contains(room, true)).toBeTrue();
+    expect(flatCache.isConnectedToTransit(4, 5)).toBeTrue();
+    expect(flatCache.positionAt(4, 5).distanceFromTransit).toEqual(3f);
+    expect(flatCache.isEmpty(29, 34)).toBeTrue();
+    expectCachesToMatch(tower.getGameGrid().positionCache(), flatCache);
+  }
+
+  @Test
+  public void shouldFreeTheEntriesOfDroppedCells_whenGridShrinks() {
+    BuildableTower tower = new BuildableTower(20, 20);
+    FlatGridPositionCache flatCache = new FlatGridPositionCache(tower.getGameGrid());
+    tower.addRoom(2, 5, 4);
+    tower.addRoom(15, 5, 4);
+    expect(flatCache.getNumEntriesInUse()).toEqual(8);
+
+    tower.getGameGrid().setGridSize(12, 20);
+    tower.getGameGrid().updateWorldSize(true);
+
+    expect(flatCache.getNumEntriesInUse()).toEqual(4);
+    tower.addRoom(6, 7, 4);
+    expect(flatCache.getNumEntriesInUse()).toEqual(8);
+    expectCachesToMatch(tower.getGameGrid().positionCache(), flatCache);
+  }
+
+  @Test
+  public void shouldForgetEveryObject_whenGridIsResizedWithoutCopying() {
+    BuildableTower tower = new BuildableTower(20, 20);
+    FlatGridPositionCache flatCache = new FlatGridPositionCache(tower.getGameGrid());
+    tower.addRoom(2, 5, 4);
+    tower.addElevator(8, 3, 9);
+    expect(flatCache.getNumObjects()).toEqual(2);
+
+    tower.getGameGrid().setGridSize(30, 20);
+    tower.getGameGrid().updateWorldSize(false);
+
+    expect(flatCache.getNumObjects()).toEqual(0);
+    expect(flatCache.getNumEntriesInUse()).toEqual(0);
+    expect(flatCache.getElevator(8, 5)).toBeNull();
+  }
+
+  private void expectCachesToMatch(GridPositionCache positionCache, FlatGridPositionCache flatCache) {
+    GridPosition[][] positions = positionCache.getPositions();
+    Array<GridObject> objects = new Array<GridObject>();
+    for (int x = 0; x < positions.length; x++) {
+      for (int y = 0; y < positions[x].length; y++) {
+        GridPosition position = positions[x][y];
+        objects.clear();
+        flatCache.getObjectsAt(x, y, objects);
+
+        expect(objects.size).toEqual(position.size());
+        for (GridObject gridObject : objects) {
+          expect(position.contains(gridObject)).toBeTrue();
+        }
+        expect(flatCache.getElevator(x, y) == position.elevator).toBeTrue();
+        expect(flatCache.getStair(x, y) == position.stair).toBeTrue();
+      }
+    }
+  }
+}
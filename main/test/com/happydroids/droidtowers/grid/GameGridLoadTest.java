@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.grid;
+
+import com.badlogic.gdx.utils.Array;
+import com.google.common.collect.Lists;
+import com.google.common.eventbus.Subscribe;
+import com.happydroids.droidtowers.NonGLTestRunner;
+import com.happydroids.droidtowers.TowerConsts;
+import com.happydroids.droidtowers.entities.GridObject;
+import com.happydroids.droidtowers.events.GridObjectEvent;
+import com.happydroids.droidtowers.events.GridObjectsLoadedEvent;
+import com.happydroids.droidtowers.types.ProviderType;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static com.happydroids.droidtowers.Expect.expect;
+
+@RunWith(NonGLTestRunner.class)
+public class GameGridLoadTest {
+  @Test
+  public void addObjects_shouldLeaveTheGridAsAddingTheObjectsOneAtATime() {
+    BuildableTower tower = BuildableTower.withRooms(40, 12);
+    tower.addStair(30, TowerConsts.LOBBY_FLOOR + 3);
+    GameGrid gameGrid = tower.getGameGrid();
+
+    tower.reload(false);
+    List<String> oneAtATime = describe(gameGrid);
+    int rooms = gameGrid.placedObjectCounts().countOfType("RoomType");
+
+    Array<GridObject> loaded = tower.reload(true);
+
+    expect(describe(gameGrid)).toEqual(oneAtATime);
+    expect(gameGrid.getObjects().size).toEqual(loaded.size);
+    expect(gameGrid.placedObjectCounts().countOfType("RoomType")).toEqual(rooms);
+    expect(gameGrid.placedObjectCounts().countProviding(ProviderType.LOBBY)).toEqual(1);
+    expect(gameGrid.objectIndex().getObjectsIn(0, 0, 40, gameGrid.getGridSize().y, true, new Array<GridObject>()).size).toEqual(loaded.size);
+  }
+
+  @Test
+  public void addObjects_shouldPostOneEventForTheWholeBatch() {
+    BuildableTower tower = BuildableTower.withRooms(40, 12);
+    final List<GridObjectEvent> events = Lists.newArrayList();
+    tower.getGameGrid().events().register(new Object() {
+      @Subscribe
+      public void GameGrid_onGridObjectEvent(GridObjectEvent event) {
+        events.add(event);
+      }
+    });
+
+    Array<GridObject> loaded = tower.reload(true);
+
+    expect(events.size()).toEqual(1);
+    expect(events.get(0) instanceof GridObjectsLoadedEvent).toBeTrue();
+    expect(((GridObjectsLoadedEvent) events.get(0)).getGridObjects()).toEqual(loaded);
+  }
+
+  private List<String> describe(GameGrid gameGrid) {
+    List<String> cells = Lists.newArrayList();
+    GridPosition[][] positions = gameGrid.positionCache().getPositions();
+    for (int x = 0; x < positions.length; x++) {
+      for (int y = 0; y < positions[x].length; y++) {
+        GridPosition position = positions[x][y];
+        if (!position.isEmpty()) {
+          cells.add(String.format("%d,%d: %d objects, elevator %b, stair %b", x, y, position.size(), position.elevator != null, position.stair != null));
+        }
+      }
+    }
+
+    return cells;
+  }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.grid;
+
+import com.badlogic.gdx.utils.Array;
+import com.happydroids.droidtowers.TowerConsts;
+import com.happydroids.droidtowers.achievements.TestGridObject;
+import com.happydroids.droidtowers.entities.Elevator;
+import com.happydroids.droidtowers.entities.ElevatorCar;
+import com.happydroids.droidtowers.entities.GridObject;
+import com.happydroids.droidtowers.entities.Stair;
+import com.happydroids.droidtowers.math.GridPoint;
+import com.happydroids.droidtowers.types.ElevatorType;
+import org.objenesis.Objenesis;
+import org.objenesis.ObjenesisStd;
+
+import java.lang.reflect.Field;
+import java.util.Random;
+
+/**
+ * Builds the transit layout of a tower directly into a GridPositionCache, without needing any
+ * textures: every floor is filled with rooms, elevator shafts run the full height of the tower and
+ * stairs are scattered between them.
+ */
+public class GeneratedTower {
+  public static final int ELEVATOR_SPACING = 12;
+  public static final int STAIR_SPACING = 7;
+
+  private static final Objenesis objenesis = new ObjenesisStd(true);
+
+  private final GameGrid gameGrid;
+  private final int width;
+  private final int floors;
+  private final Random random;
+
+  public GeneratedTower(int width, int floors, long seed) {
+    this.width = width;
+    this.floors = floors;
+    random = new Random(seed);
+
+    gameGrid = new TestGameGrid();
+    gameGrid.setGridSize(width, TowerConsts.LOBBY_FLOOR + floors + TowerConsts.GAME_GRID_EXPAND_LAND_SIZE);
+    gameGrid.updateWorldSize(false);
+
+    build();
+  }
+
+  private void build() {
+    GridPositionCache positionCache = gameGrid.positionCache();
+
+    for (int y = TowerConsts.LOBBY_FLOOR; y <= topFloor(); y++) {
+      GridObject floorRooms = (GridObject) objenesis.newInstance(TestGridObject.class);
+      for (int x = 0; x < width; x++) {
+        GridPosition position = positionCache.getPosition(x, y);
+        position.add(floorRooms);
+        position.connectedToTransit = true;
+      }
+    }
+
+    for (int x = ELEVATOR_SPACING / 2; x < width; x += ELEVATOR_SPACING) {
+      Elevator elevator = makeElevator(x, TowerConsts.LOBBY_FLOOR, topFloor());
+      for (int y = TowerConsts.LOBBY_FLOOR; y <= topFloor(); y++) {
+        positionCache.getPosition(x, y).elevator = elevator;
+      }
+    }
+
+    for (int y = TowerConsts.LOBBY_FLOOR; y < topFloor(); y++) {
+      int x = random.nextInt(STAIR_SPACING);
+      while (x < width) {
+        if (x % ELEVATOR_SPACING != ELEVATOR_SPACING / 2) {
+          Stair stair = (Stair) objenesis.newInstance(Stair.class);
+          positionCache.getPosition(x, y).stair = stair;
+          positionCache.getPosition(x, y + 1).stair = stair;
+        }
+        x += STAIR_SPACING + random.nextInt(STAIR_SPACING);
+      }
+    }
+  }
+
+  /**
+   * Elevators can't be constructed without their texture atlas, so the fields the transit code
+   * reads are filled in by hand.
+   */
+  private Elevator makeElevator(int x, int bottomFloor, int topFloor) {
+    Elevator elevator = (Elevator) objenesis.newInstance(Elevator.class);
+
+    Array<ElevatorCar> cars = new Array<ElevatorCar>();
+    cars.add((ElevatorCar) objenesis.newInstance(ElevatorCar.class));
+
+    setField(GridObject.class, elevator, "gridObjectType", objenesis.newInstance(ElevatorType.class));
+    setField(GridObject.class, elevator, "position", new GridPoint(x, bottomFloor - 1));
+    setField(GridObject.class, elevator, "size", new GridPoint(1, topFloor - bottomFloor + 3));
+    setField(Elevator.class, elevator, "elevatorCars", cars);
+
+    return elevator;
+  }
+
+  public static Object getField(Class<?> owner, Object target, String name) {
+    try {
+      Field field = owner.getDeclaredField(name);
+      field.setAccessible(true);
+      return field.get(target);
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  public static void setField(Class<?> owner, Object target, String name, Object value) {
+    try {
+      Field field = owner.getDeclaredField(name);
+      field.setAccessible(true);
+      field.set(target, value);
+    } catch (Exception e) {
+      throw new RuntimeException(e);
+    }
+  }
+
+  public GridPosition randomPosition() {
+    return gameGrid.positionCache()
+                   .getPosition(random.nextInt(width), TowerConsts.LOBBY_FLOOR + random.nextInt(floors + 1));
+  }
+
+  public int topFloor() {
+    return TowerConsts.LOBBY_FLOOR + floors;
+  }
+
+  public GameGrid getGameGrid() {
+    return gameGrid;
+  }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.grid;
+
+import com.badlogic.gdx.utils.Array;
+import com.happydroids.droidtowers.NonGLTestRunner;
+import com.happydroids.droidtowers.entities.GridObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+import static com.happydroids.droidtowers.Expect.expect;
+
+@RunWith(NonGLTestRunner.class)
+public class GridFieldsTest {
+  private static final float TOLERANCE = 0.00001f;
+
+  @Test
+  public void update_shouldMatchUpdateNoiseLevels_whileBuilding() {
+    BuildableTower tower = new BuildableTower(50, 40);
+    GridFields fields = tower.getGameGrid().positionCache().fields();
+    Random random = new Random(5);
+    Array<GridObject> built = new Array<GridObject>();
+
+    for (int i = 0; i < 200; i++) {
+      int action = random.nextInt(10);
+      int x = random.nextInt(46);
+      int y = random.nextInt(36);
+      if (action < 5 || built.size == 0) {
+        built.add(tower.addNoisyObject(x, y, 1 + random.nextInt(4), 1 + random.nextInt(2), random.nextFloat(), random.nextFloat() * 0.5f));
+      } else if (action < 7) {
+        tower.setLevels(built.random().getGridObjectType(), random.nextFloat(), random.nextFloat());
+      } else if (action < 9) {
+        tower.move(built.random(), x, y);
+      } else {
+        tower.remove(built.removeIndex(random.nextInt(built.size)));
+      }
+
+      fields.update();
+      expectFieldsToMatchPositions(tower, fields);
+    }
+  }
+
+  @Test
+  public void update_shouldOnlyRecomputeAroundChanges() {
+    BuildableTower tower = new BuildableTower(100, 100);
+    GridFields fields = tower.getGameGrid().positionCache().fields();
+    fields.update();
+
+    tower.addNoisyObject(40, 40, 3, 1, 1f, 0f);
+    fields.update();
+
+    expect(fields.getCellsUpdated()).toEqual(6 * 4);
+    expect(fields.getNoiseLevel(41, 40)).toEqual(1f);
+    expect(fields.update()).toBeFalse();
+  }
+
+  @Test
+  public void resize_shouldStopTheOldFieldsFromListening() {
+    BuildableTower tower = new BuildableTower(50, 40);
+    GridObject gridObject = tower.addNoisyObject(10, 10, 2, 1, 1f, 0f);
+    GridFields oldFields = tower.getGameGrid().positionCache().fields();
+    oldFields.update();
+
+    tower.getGameGrid().setGridSize(60, 40);
+    tower.getGameGrid().updateWorldSize(true);
+    tower.move(gridObject, 20, 10);
+
+    expect(tower.getGameGrid().positionCache().fields() != oldFields).toBeTrue();
+    expect(oldFields.update()).toBeFalse();
+  }
+
+  private void expectFieldsToMatchPositions(BuildableTower tower, GridFields fields) {
+    GridPositionCache positionCache = tower.getGameGrid().positionCache();
+    positionCache.updateNoiseLevels();
+
+    GridPosition[][] positions = positionCache.getPositions();
+    for (int x = 0; x < positions.length; x++) {
+      for (int y = 0; y < positions[x].length; y++) {
+        expect(Math.abs(fields.getNoiseLevel(x, y) - positions[x][y].getNoiseLevel()) < TOLERANCE).toBeTrue();
+        expect(Math.abs(fields.getCrimeLevel(x, y) - positions[x][y].getCrimeLevel()) < TOLERANCE).toBeTrue();
+      }
+    }
+  }
+}
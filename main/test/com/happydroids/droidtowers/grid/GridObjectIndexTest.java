@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.grid;
+
+import com.badlogic.gdx.utils.Array;
+import com.happydroids.droidtowers.NonGLTestRunner;
+import com.happydroids.droidtowers.entities.GridObject;
+import com.happydroids.droidtowers.math.GridPoint;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+import static com.happydroids.droidtowers.Expect.expect;
+
+@RunWith(NonGLTestRunner.class)
+public class GridObjectIndexTest {
+  @Test
+  public void getObjectsAt_shouldMatchGridPositions_whileBuilding() {
+    BuildableTower tower = new BuildableTower(60, 40);
+    GridPositionCache positionCache = tower.getGameGrid().positionCache();
+    Random random = new Random(11);
+    Array<GridObject> built = new Array<GridObject>();
+
+    for (int i = 0; i < 300; i++) {
+      int action = random.nextInt(10);
+      int x = random.nextInt(56);
+      int y = 1 + random.nextInt(30);
+      if (action < 4 || built.size == 0) {
+        built.add(tower.addRoom(x, y, 1 + random.nextInt(4)));
+      } else if (action < 5) {
+        built.add(tower.addElevator(x, y, y + random.nextInt(8)));
+      } else if (action < 8) {
+        tower.move(built.random(), x, y);
+      } else {
+        tower.remove(built.removeIndex(random.nextInt(built.size)));
+      }
+
+      GridPoint areaPosition = new GridPoint(random.nextInt(62) - 2, random.nextInt(42) - 2);
+      GridPoint areaSize = new GridPoint(1 + random.nextInt(12), 1 + random.nextInt(12));
+      Array<GridObject> objects = positionCache.getObjectsAt(areaPosition, areaSize);
+      Array<GridObject> expected = scanPositions(positionCache, areaPosition, areaSize);
+
+      expect(objects.size).toEqual(expected.size);
+      for (GridObject gridObject : expected) {
+        expect(objects.contains(gridObject, true)).toBeTrue();
+      }
+    }
+  }
+
+  @Test
+  public void getObjectsContaining_shouldOnlyReturnObjectsStrictlyAroundTheObject() {
+    BuildableTower tower = new BuildableTower(40, 40);
+    GridObject outer = tower.addNoisyObject(10, 10, 10, 10, 0f, 0f);
+    GridObject inner = tower.addNoisyObject(12, 12, 2, 2, 0f, 0f);
+    GridObject touchingEdge = tower.addNoisyObject(10, 12, 2, 2, 0f, 0f);
+    GridObjectIndex objectIndex = tower.getGameGrid().objectIndex();
+
+    expect(objectIndex.getObjectsContaining(inner, new Array<GridObject>()).contains(outer, true)).toBeTrue();
+    expect(objectIndex.getObjectsContaining(touchingEdge, new Array<GridObject>()).size).toEqual(0);
+    expect(objectIndex.getObjectsContaining(outer, new Array<GridObject>()).size).toEqual(0);
+
+    tower.move(outer, 25, 25);
+    expect(objectIndex.getObjectsContaining(inner, new Array<GridObject>()).size).toEqual(0);
+  }
+
+  private Array<GridObject> scanPositions(GridPositionCache positionCache, GridPoint position, GridPoint size) {
+    Array<GridObject> objects = new Array<GridObject>();
+    for (int x = position.x; x < position.x + size.x; x++) {
+      for (int y = position.y; y < position.y + size.y; y++) {
+        GridPosition gridPosition = positionCache.getPosition(x, y);
+        if (gridPosition == null || x >= positionCache.getPositions().length - 1 || y >= positionCache.getPositions()[x].length - 1) {
+          continue;
+        }
+
+        for (GridObject gridObject : gridPosition.getObjects()) {
+          if (!objects.contains(gridObject, true)) {
+            objects.add(gridObject);
+          }
+        }
+      }
+    }
+
+    return objects;
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.grid;
+
+import com.badlogic.gdx.math.Rectangle;
+import com.badlogic.gdx.utils.Array;
+import com.happydroids.droidtowers.NonGLTestRunner;
+import com.happydroids.droidtowers.TowerConsts;
+import com.happydroids.droidtowers.entities.Elevator;
+import com.happydroids.droidtowers.entities.GridObject;
+import com.happydroids.droidtowers.entities.Room;
+import com.happydroids.droidtowers.entities.Stair;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.happydroids.droidtowers.Expect.expect;
+import static com.happydroids.droidtowers.grid.GridRenderChunks.CHUNK_SIZE;
+
+@RunWith(NonGLTestRunner.class)
+public class GridRenderChunksTest {
+  @Test
+  public void chunks_shouldHoldEveryObjectInTheChunkOfItsPosition() {
+    BuildableTower tower = BuildableTower.withRooms(40, 20);
+    GameGrid gameGrid = tower.getGameGrid();
+
+    int numObjects = 0;
+    for (GridRenderChunks.Chunk chunk : gameGrid.renderChunks().getChunks()) {
+      numObjects += chunk.getObjects().size;
+      GridObject first = chunk.getObjects().first();
+      for (GridObject gridObject : chunk.getObjects()) {
+        expect(gridObject.getPosition().x / CHUNK_SIZE).toEqual(first.getPosition().x / CHUNK_SIZE);
+        expect(gridObject.getPosition().y / CHUNK_SIZE).toEqual(first.getPosition().y / CHUNK_SIZE);
+        expect(contains(chunk.getBounds(), gridObject.getWorldBounds())).toBeTrue();
+      }
+    }
+
+    expect(numObjects).toEqual(gameGrid.getObjects().size);
+    expect(gameGrid.renderChunks().getChunks().size < gameGrid.getObjects().size / 4).toBeTrue();
+  }
+
+  @Test
+  public void move_shouldMoveTheObjectToItsNewChunk_andDirtyBoth() {
+    BuildableTower tower = BuildableTower.withRooms(40, 20);
+    GridRenderChunks renderChunks = tower.getGameGrid().renderChunks();
+    Room room = tower.addRoom(0, TowerConsts.LOBBY_FLOOR + 22, 6);
+    GridRenderChunks.Chunk oldChunk = renderChunks.chunkOf(room);
+    markClean(renderChunks);
+
+    tower.move(room, 2 * CHUNK_SIZE + 1, TowerConsts.LOBBY_FLOOR + 22);
+    GridRenderChunks.Chunk newChunk = renderChunks.chunkOf(room);
+
+    expect(newChunk != oldChunk).toBeTrue();
+    expect(oldChunk.getObjects().contains(room, true)).toBeFalse();
+    expect(newChunk.getObjects().contains(room, true)).toBeTrue();
+    expect(oldChunk.isDirty()).toBeTrue();
+    expect(newChunk.isDirty()).toBeTrue();
+    expect(countDirty(renderChunks)).toEqual(2);
+  }
+
+  @Test
+  public void remove_shouldOnlyDirtyTheChunkTheObjectWasIn() {
+    BuildableTower tower = BuildableTower.withRooms(40, 20);
+    GridRenderChunks renderChunks = tower.getGameGrid().renderChunks();
+    GridObject room = tower.getGameGrid().getObjects().peek();
+    GridRenderChunks.Chunk chunk = renderChunks.chunkOf(room);
+    markClean(renderChunks);
+
+    tower.remove(room);
+
+    expect(renderChunks.chunkOf(room)).toBeNull();
+    expect(chunk.getObjects().contains(room, true)).toBeFalse();
+    expect(chunk.isDirty()).toBeTrue();
+    expect(countDirty(renderChunks)).toEqual(1);
+  }
+
+  @Test
+  public void chunks_shouldKeepTheirObjectsInZIndexOrder() {
+    BuildableTower tower = BuildableTower.withRooms(40, 20);
+    GridRenderChunks renderChunks = tower.getGameGrid().renderChunks();
+    Elevator elevator = tower.addElevator(1, TowerConsts.LOBBY_FLOOR + 24, TowerConsts.LOBBY_FLOOR + 26);
+    Stair stair = tower.addStair(3, TowerConsts.LOBBY_FLOOR + 24);
+    Room room = tower.addRoom(6, TowerConsts.LOBBY_FLOOR + 24, 6);
+
+    GridRenderChunks.Chunk chunk = renderChunks.chunkOf(room);
+    expect(renderChunks.chunkOf(elevator)).toEqual(chunk);
+    expect(renderChunks.chunkOf(stair)).toEqual(chunk);
+    expect(chunk.getObjects().indexOf(room, true) < chunk.getObjects().indexOf(stair, true)).toBeTrue();
+    expect(chunk.getObjects().indexOf(stair, true) < chunk.getObjects().indexOf(elevator, true)).toBeTrue();
+  }
+
+  @Test
+  public void setPlaced_shouldDirtyTheChunk_whenTheObjectIsPickedUp() {
+    BuildableTower tower = BuildableTower.withRooms(40, 20);
+    GridRenderChunks renderChunks = tower.getGameGrid().renderChunks();
+    GridObject room = tower.getGameGrid().getObjects().peek();
+    markClean(renderChunks);
+
+    room.setPlaced(false);
+
+    expect(renderChunks.chunkOf(room).isDirty()).toBeTrue();
+    expect(countDirty(renderChunks)).toEqual(1);
+  }
+
+  @Test
+  public void invalidateDecals_shouldOnlyRecollectTheBatchObjects() {
+    BuildableTower tower = BuildableTower.withRooms(40, 20);
+    GridRenderChunks renderChunks = tower.getGameGrid().renderChunks();
+    GridObject room = tower.getGameGrid().getObjects().peek();
+    GridRenderChunks.Chunk chunk = renderChunks.chunkOf(room);
+    markClean(renderChunks);
+    chunk.collectBatchObjects();
+
+    renderChunks.invalidateDecals(room);
+
+    expect(chunk.batchDirty).toBeTrue();
+    expect(countDirty(renderChunks)).toEqual(0);
+  }
+
+  @Test
+  public void reload_shouldRebuildTheChunksFromTheLoadedObjects() {
+    BuildableTower tower = BuildableTower.withRooms(40, 20);
+    GameGrid gameGrid = tower.getGameGrid();
+    int numChunks = gameGrid.renderChunks().getChunks().size;
+
+    Array<GridObject> loaded = tower.reload(true);
+
+    expect(gameGrid.renderChunks().getChunks().size).toEqual(numChunks);
+    expect(countDirty(gameGrid.renderChunks())).toEqual(numChunks);
+    for (GridObject gridObject : loaded) {
+      expect(gameGrid.renderChunks().chunkOf(gridObject).getObjects().contains(gridObject, true)).toBeTrue();
+    }
+  }
+
+  private static boolean contains(Rectangle outer, Rectangle inner) {
+    return inner.x >= outer.x && inner.y >= outer.y &&
+                   inner.x + inner.width <= outer.x + outer.width && inner.y + inner.height <= outer.y + outer.height;
+  }
+
+  private static void markClean(GridRenderChunks renderChunks) {
+    for (GridRenderChunks.Chunk chunk : renderChunks.getChunks()) {
+      chunk.dirty = false;
+    }
+  }
+
+  private static int countDirty(GridRenderChunks renderChunks) {
+    int dirty = 0;
+    for (GridRenderChunks.Chunk chunk : renderChunks.getChunks()) {
+      if (chunk.isDirty()) {
+        dirty++;
+      }
+    }
+
+    return dirty;
+  }
+}
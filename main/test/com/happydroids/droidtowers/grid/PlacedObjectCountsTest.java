@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.grid;
+
+import com.happydroids.droidtowers.NonGLTestRunner;
+import com.happydroids.droidtowers.entities.Room;
+import com.happydroids.droidtowers.types.ProviderType;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.happydroids.droidtowers.Expect.expect;
+
+@RunWith(NonGLTestRunner.class)
+public class PlacedObjectCountsTest {
+  @Test
+  public void counts_shouldFollowPlacedAndRemovedObjects() {
+    BuildableTower tower = new BuildableTower(40, 20);
+    PlacedObjectCounts counts = tower.getGameGrid().placedObjectCounts();
+
+    tower.addLobby(0, 40);
+    Room room = tower.addRoom(0, 5, 4);
+    tower.addRoom(10, 5, 4);
+    tower.addStair(20, 5);
+
+    expect(counts.countOfType("roomtype")).toEqual(3);
+    expect(counts.countOfType("StairType")).toEqual(1);
+    expect(counts.countProviding(ProviderType.LOBBY)).toEqual(1);
+    expect(counts.countProviding(ProviderType.LOBBY, ProviderType.FOOD)).toEqual(1);
+
+    tower.remove(room);
+    tower.remove(room);
+
+    expect(counts.countOfType("RoomType")).toEqual(2);
+    expect(counts.countOfType("ElevatorType")).toEqual(0);
+  }
+
+  @Test
+  public void lastChange_shouldOnlyMoveForTheTypesThatChanged() {
+    BuildableTower tower = new BuildableTower(40, 20);
+    PlacedObjectCounts counts = tower.getGameGrid().placedObjectCounts();
+    tower.addLobby(0, 40);
+    int change = counts.getChangeCount();
+
+    tower.addStair(20, 5);
+
+    expect(counts.getChangeCount() > change).toBeTrue();
+    expect(counts.lastChangeOfType("StairType") > change).toBeTrue();
+    expect(counts.lastChangeOfType("RoomType") <= change).toBeTrue();
+    expect(counts.lastChangeProviding(ProviderType.LOBBY) <= change).toBeTrue();
+
+    tower.getGameGrid().clearObjects();
+
+    expect(counts.countOfType("RoomType")).toEqual(0);
+    expect(counts.lastChangeProviding(ProviderType.LOBBY) > change).toBeTrue();
+  }
+}
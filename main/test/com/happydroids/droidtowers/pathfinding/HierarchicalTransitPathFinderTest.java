@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.pathfinding;
+
+import com.badlogic.gdx.utils.Array;
+import com.happydroids.droidtowers.NonGLTestRunner;
+import com.happydroids.droidtowers.TowerConsts;
+import com.happydroids.droidtowers.events.TransitChangeEvent;
+import com.happydroids.droidtowers.grid.GameGrid;
+import com.happydroids.droidtowers.grid.GeneratedTower;
+import com.happydroids.droidtowers.grid.GridPosition;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.happydroids.droidtowers.Expect.expect;
+import static com.happydroids.droidtowers.pathfinding.IndexedTransitPathFinderTest.runSearch;
+
+@RunWith(NonGLTestRunner.class)
+public class HierarchicalTransitPathFinderTest {
+  @Test
+  public void discoveredPath_shouldBeAsCheapAsTransitPathFinder() {
+    GeneratedTower tower = new GeneratedTower(60, 25, 42);
+
+    TransitPathFinder reference = new TransitPathFinder(tower.getGameGrid(), false);
+    HierarchicalTransitPathFinder hierarchical = new HierarchicalTransitPathFinder(tower.getGameGrid(), false);
+
+    for (int i = 0; i < 50; i++) {
+      GridPosition start = tower.randomPosition();
+      GridPosition goal = tower.randomPosition();
+
+      runSearch(reference, start, goal);
+      runSearch(hierarchical, start, goal);
+
+      expect(hierarchical.isWorking()).toBeFalse();
+      expect(hierarchical.wasSuccessful()).toEqual(reference.wasSuccessful());
+      expect(hierarchical.getCost()).toEqual(reference.getCost());
+      expectValidPath(reference, hierarchical.getDiscoveredPath(), start, goal);
+    }
+  }
+
+  @Test
+  public void transitGraph_shouldOnlyRebuildAfterGridChanges() {
+    GeneratedTower tower = new GeneratedTower(30, 10, 7);
+    GameGrid gameGrid = tower.getGameGrid();
+    HierarchicalTransitPathFinder hierarchical = new HierarchicalTransitPathFinder(gameGrid, false);
+
+    runSearch(hierarchical, tower.randomPosition(), tower.randomPosition());
+    int floorsRebuilt = gameGrid.transitGraph().getFloorsRebuilt();
+
+    runSearch(hierarchical, tower.randomPosition(), tower.randomPosition());
+    expect(gameGrid.transitGraph().getFloorsRebuilt()).toEqual(floorsRebuilt);
+
+    gameGrid.events().post(new TransitChangeEvent(gameGrid));
+    runSearch(hierarchical, tower.randomPosition(), tower.randomPosition());
+    expect(gameGrid.transitGraph().getFloorsRebuilt()).toBeGreaterThan(floorsRebuilt);
+  }
+
+  @Test
+  public void findPath_shouldFailWhenTheGoalFloorIsUnreachable() {
+    GeneratedTower tower = new GeneratedTower(30, 10, 7);
+    GameGrid gameGrid = tower.getGameGrid();
+
+    for (int x = 0; x < 30; x++) {
+      GridPosition position = gameGrid.positionCache().getPosition(x, tower.topFloor());
+      position.elevator = null;
+      position.stair = null;
+      position.connectedToTransit = false;
+    }
+    gameGrid.events().post(new TransitChangeEvent(gameGrid));
+
+    HierarchicalTransitPathFinder hierarchical = new HierarchicalTransitPathFinder(gameGrid, false);
+    runSearch(hierarchical, gameGrid.positionCache().getPosition(0, TowerConsts.LOBBY_FLOOR),
+                     gameGrid.positionCache().getPosition(29, tower.topFloor()));
+
+    expect(hierarchical.wasSuccessful()).toBeFalse();
+    expect(hierarchical.getDiscoveredPath()).toBeNull();
+  }
+
+  @Test
+  public void findPath_shouldNotWalkThroughRoomsThatAreNotConnectedToTransit() {
+    GeneratedTower tower = new GeneratedTower(30, 10, 7);
+    GameGrid gameGrid = tower.getGameGrid();
+
+    GridPosition goal = null;
+    for (int x = 0; x < 30 && goal == null; x++) {
+      GridPosition position = gameGrid.positionCache().getPosition(x, TowerConsts.LOBBY_FLOOR + 3);
+      if (!position.isEmpty() && position.elevator == null && position.stair == null) {
+        goal = position;
+      }
+    }
+    goal.connectedToTransit = false;
+    gameGrid.events().post(new TransitChangeEvent(gameGrid));
+    GridPosition start = gameGrid.positionCache().getPosition(0, TowerConsts.LOBBY_FLOOR);
+
+    // TransitPathFinder walks in anyway, its cost overflowing past Integer.MAX_VALUE
+    TransitPathFinder reference = new TransitPathFinder(gameGrid, false);
+    runSearch(reference, start, goal);
+    expect(reference.getDiscoveredPath()).not.toBeNull();
+
+    HierarchicalTransitPathFinder hierarchical = new HierarchicalTransitPathFinder(gameGrid, false);
+    runSearch(hierarchical, start, goal);
+    expect(hierarchical.wasSuccessful()).toBeFalse();
+    expect(hierarchical.getDiscoveredPath()).toBeNull();
+  }
+
+  private static void expectValidPath(TransitPathFinder reference, Array<GridPosition> path, GridPosition start, GridPosition goal) {
+    if (path == null) {
+      return;
+    }
+
+    expect(path.first()).toEqual(start);
+    expect(path.peek()).toEqual(goal);
+    for (int i = 1; i < path.size; i++) {
+      expect(reference.generateSuccessors(path.get(i - 1)).contains(path.get(i), true)).toBeTrue();
+    }
+  }
+}
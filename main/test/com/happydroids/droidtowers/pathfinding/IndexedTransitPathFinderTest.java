@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.pathfinding;
+
+import com.happydroids.droidtowers.NonGLTestRunner;
+import com.happydroids.droidtowers.grid.GeneratedTower;
+import com.happydroids.droidtowers.grid.GridPosition;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.happydroids.droidtowers.Expect.expect;
+
+@RunWith(NonGLTestRunner.class)
+public class IndexedTransitPathFinderTest {
+  @Test
+  public void discoveredPath_shouldMatchTransitPathFinder() {
+    GeneratedTower tower = new GeneratedTower(60, 25, 42);
+
+    TransitPathFinder reference = new TransitPathFinder(tower.getGameGrid(), false);
+    IndexedTransitPathFinder indexed = new IndexedTransitPathFinder(tower.getGameGrid(), false);
+
+    for (int i = 0; i < 50; i++) {
+      GridPosition start = tower.randomPosition();
+      GridPosition goal = tower.randomPosition();
+
+      runSearch(reference, start, goal);
+      runSearch(indexed, start, goal);
+
+      expect(indexed.wasSuccessful()).toEqual(reference.wasSuccessful());
+      expect(indexed.getCost()).toEqual(reference.getCost());
+      expect(indexed.getExpandedCounter()).toEqual(reference.getExpandedCounter());
+      expect(indexed.getDiscoveredPath()).toEqual(reference.getDiscoveredPath());
+    }
+  }
+
+  @Test
+  public void cancel_shouldLeaveFinderReusable() {
+    GeneratedTower tower = new GeneratedTower(30, 10, 7);
+    IndexedTransitPathFinder indexed = new IndexedTransitPathFinder(tower.getGameGrid(), false);
+
+    indexed.setStart(tower.getGameGrid().positionCache().getPosition(0, tower.topFloor()));
+    indexed.setGoal(tower.getGameGrid().positionCache().getPosition(29, 10));
+    indexed.start();
+    indexed.cancel();
+
+    expect(indexed.isWorking()).toBeFalse();
+    expect(indexed.wasSuccessful()).toBeFalse();
+
+    runSearch(indexed, tower.getGameGrid().positionCache().getPosition(0, 10), tower.getGameGrid()
+                                                                                   .positionCache()
+                                                                                   .getPosition(29, 10));
+    expect(indexed.isFinished()).toBeTrue();
+  }
+
+  static void runSearch(AStar<GridPosition> pathFinder, GridPosition start, GridPosition goal) {
+    pathFinder.setStart(start);
+    pathFinder.setGoal(goal);
+    pathFinder.start();
+    while (pathFinder.isWorking()) {
+      pathFinder.step();
+    }
+  }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.pathfinding;
+
+import com.badlogic.gdx.utils.Array;
+import com.happydroids.droidtowers.NonGLTestRunner;
+import com.happydroids.droidtowers.TowerConsts;
+import com.happydroids.droidtowers.grid.GeneratedTower;
+import com.happydroids.droidtowers.grid.GridPosition;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.lang.ref.WeakReference;
+
+import static com.happydroids.droidtowers.Expect.expect;
+
+@RunWith(NonGLTestRunner.class)
+public class PathSearchWorkerPoolTest {
+  private GeneratedTower tower;
+  private PathSearchWorkerPool workerPool;
+
+  @Before
+  public void setUp() {
+    tower = new GeneratedTower(60, 25, 42);
+    workerPool = new PathSearchWorkerPool(2);
+  }
+
+  @After
+  public void tearDown() {
+    workerPool.dispose();
+  }
+
+  @Test
+  public void snapshotSearch_shouldMatchTransitPathFinder() {
+    TransitGraphSnapshot snapshot = new TransitGraphSnapshot(tower.getGameGrid());
+    TransitGraphSearch search = new TransitGraphSearch();
+    TransitPathFinder reference = new TransitPathFinder(tower.getGameGrid(), false);
+
+    for (int i = 0; i < 50; i++) {
+      GridPosition start = tower.randomPosition();
+      GridPosition goal = tower.randomPosition();
+
+      IndexedTransitPathFinderTest.runSearch(reference, start, goal);
+      boolean found = search.search(snapshot, false, start.x, start.y, goal.x, goal.y);
+
+      expect(found).toEqual(reference.wasSuccessful());
+      expect(search.getCost()).toEqual(reference.getCost());
+      expect(search.getExpandedCounter()).toEqual(reference.getExpandedCounter());
+      expect(search.getDiscoveredCells().length).toEqual(reference.getDiscoveredPath().size);
+    }
+  }
+
+  @Test
+  public void collectCompleted_shouldHandBackTheSamePathAsTheGameThread() throws InterruptedException {
+    TransitPathFinder reference = new TransitPathFinder(tower.getGameGrid(), false);
+    Array<TransitPathFinder> pathFinders = new Array<TransitPathFinder>();
+    Array<Array<GridPosition>> expectedPaths = new Array<Array<GridPosition>>();
+
+    for (int i = 0; i < 20; i++) {
+      GridPosition start = tower.randomPosition();
+      GridPosition goal = tower.randomPosition();
+
+      IndexedTransitPathFinderTest.runSearch(reference, start, goal);
+      expectedPaths.add(reference.getDiscoveredPath());
+
+      TransitPathFinder pathFinder = new TransitPathFinder(tower.getGameGrid(), false);
+      pathFinder.setStart(start);
+      pathFinder.setGoal(goal);
+      pathFinder.start();
+      workerPool.submit(pathFinder);
+      pathFinders.add(pathFinder);
+    }
+
+    Array<TransitPathFinder> completed = new Array<TransitPathFinder>();
+    for (int i = 0; i < 500 && completed.size < pathFinders.size; i++) {
+      workerPool.collectCompleted(0.016f, completed);
+      Thread.sleep(10);
+    }
+
+    expect(completed.size).toEqual(pathFinders.size);
+    for (int i = 0; i < pathFinders.size; i++) {
+      expect(pathFinders.get(i).isWorking()).toBeFalse();
+      expect(pathFinders.get(i).getDiscoveredPath()).toEqual(expectedPaths.get(i));
+    }
+  }
+
+  @Test
+  public void cancel_shouldDropTheResult() throws InterruptedException {
+    TransitPathFinder pathFinder = new TransitPathFinder(tower.getGameGrid(), false);
+    pathFinder.setStart(tower.randomPosition());
+    pathFinder.setGoal(tower.randomPosition());
+    workerPool.submit(pathFinder);
+    workerPool.cancel(pathFinder);
+
+    Thread.sleep(100);
+
+    Array<TransitPathFinder> completed = new Array<TransitPathFinder>();
+    workerPool.collectCompleted(0.016f, completed);
+    expect(completed.size).toEqual(0);
+    expect(workerPool.getNumSearchesInFlight()).toEqual(0);
+  }
+
+  @Test
+  public void collectCompleted_shouldRetrySearchesTheGridShrankUnder() throws InterruptedException {
+    Array<TransitPathFinder> pathFinders = new Array<TransitPathFinder>();
+    while (workerPool.canAcceptSearch()) {
+      TransitPathFinder pathFinder = new TransitPathFinder(tower.getGameGrid(), false);
+      pathFinder.setStart(tower.getGameGrid().positionCache().getPosition(2, TowerConsts.LOBBY_FLOOR));
+      pathFinder.setGoal(tower.getGameGrid().positionCache().getPosition(55, TowerConsts.LOBBY_FLOOR));
+      pathFinder.startDeferred();
+      workerPool.submit(pathFinder);
+      pathFinders.add(pathFinder);
+    }
+
+    // let every search finish against the full width before it shrinks
+    Thread.sleep(200);
+
+    tower.getGameGrid().setGridSize(40, tower.getGameGrid().getGridSize().y);
+    tower.getGameGrid().updateWorldSize(true);
+
+    Array<TransitPathFinder> completed = new Array<TransitPathFinder>();
+    workerPool.collectCompleted(0.016f, completed);
+    expect(completed.size).toEqual(0);
+    expect(workerPool.getNumSearchesInFlight()).toEqual(pathFinders.size);
+    expect(workerPool.canAcceptSearch()).toBeFalse();
+
+    for (int i = 0; i < 500 && completed.size < pathFinders.size; i++) {
+      Thread.sleep(10);
+      workerPool.collectCompleted(0.016f, completed);
+    }
+
+    expect(completed.size).toEqual(pathFinders.size);
+    for (TransitPathFinder pathFinder : pathFinders) {
+      expect(pathFinder.isWorking()).toBeFalse();
+    }
+  }
+
+  @Test
+  public void dispose_shouldStopListeningToEveryGridItSearched() throws InterruptedException {
+    GeneratedTower otherTower = new GeneratedTower(30, 10, 7);
+    PathSearchWorkerPool pool = new PathSearchWorkerPool(1);
+    for (GeneratedTower searched : new GeneratedTower[]{tower, otherTower}) {
+      TransitPathFinder pathFinder = new TransitPathFinder(searched.getGameGrid(), false);
+      pathFinder.setStart(searched.randomPosition());
+      pathFinder.setGoal(searched.randomPosition());
+      pool.submit(pathFinder);
+    }
+    pool.dispose();
+
+    WeakReference<PathSearchWorkerPool> poolReference = new WeakReference<PathSearchWorkerPool>(pool);
+    pool = null;
+    for (int i = 0; i < 10 && poolReference.get() != null; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+
+    expect(poolReference.get()).toBeNull();
+    expect(otherTower.getGameGrid()).not.toBeNull();
+  }
+}
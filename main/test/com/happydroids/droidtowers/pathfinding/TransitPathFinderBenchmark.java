@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.pathfinding;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.utils.Array;
+import com.happydroids.droidtowers.TestGdxApplication;
+import com.happydroids.droidtowers.TestGdxFiles;
+import com.happydroids.droidtowers.grid.GeneratedTower;
+import com.happydroids.droidtowers.grid.GridPosition;
+
+/**
+ * Compares the nodes expanded per millisecond of TransitPathFinder and IndexedTransitPathFinder,
+ * the total search time of HierarchicalTransitPathFinder, then the search throughput of PathSearchWorkerPool as worker threads are added.
+ * <p/>
+ * Usage: TransitPathFinderBenchmark [width] [floors] [searches]
+ */
+public class TransitPathFinderBenchmark {
+  public static void main(String[] args) {
+    Gdx.files = new TestGdxFiles();
+    Gdx.app = new TestGdxApplication(null, null);
+
+    int width = args.length > 0 ? Integer.parseInt(args[0]) : 120;
+    int floors = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+    int searches = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+
+    GeneratedTower tower = new GeneratedTower(width, floors, 1337);
+    GridPosition[] starts = new GridPosition[searches];
+    GridPosition[] goals = new GridPosition[searches];
+    for (int i = 0; i < searches; i++) {
+      starts[i] = tower.randomPosition();
+      goals[i] = tower.randomPosition();
+    }
+
+    System.out.println(String.format("tower: %dx%d, %d searches", width, floors, searches));
+    for (int round = 0; round < 3; round++) {
+      report("AStar", run(new TransitPathFinder(tower.getGameGrid(), false), starts, goals));
+      report("Indexed", run(new IndexedTransitPathFinder(tower.getGameGrid(), false), starts, goals));
+      report("Hierarch", run(new HierarchicalTransitPathFinder(tower.getGameGrid(), false), starts, goals));
+    }
+
+    int maxThreads = Runtime.getRuntime().availableProcessors();
+    for (int numThreads = 1; numThreads <= maxThreads; numThreads *= 2) {
+      runWorkerPool(tower, numThreads, starts, goals);
+      long elapsed = runWorkerPool(tower, numThreads, starts, goals);
+      double millis = elapsed / 1000000.0;
+      System.out.println(String.format("pool x%-2d time: %8.1fms  searches/s: %8.1f", numThreads, millis, starts.length / (millis / 1000.0)));
+    }
+  }
+
+  private static long runWorkerPool(GeneratedTower tower, int numThreads, GridPosition[] starts, GridPosition[] goals) {
+    PathSearchWorkerPool workerPool = new PathSearchWorkerPool(numThreads);
+    TransitPathFinder[] pathFinders = new TransitPathFinder[starts.length];
+    for (int i = 0; i < starts.length; i++) {
+      pathFinders[i] = new TransitPathFinder(tower.getGameGrid(), false);
+      pathFinders[i].setStart(starts[i]);
+      pathFinders[i].setGoal(goals[i]);
+    }
+
+    long startTime = System.nanoTime();
+    Array<TransitPathFinder> completed = new Array<TransitPathFinder>();
+    int submitted = 0;
+    while (completed.size < starts.length) {
+      while (submitted < starts.length && workerPool.canAcceptSearch()) {
+        workerPool.submit(pathFinders[submitted++]);
+      }
+      workerPool.collectCompleted(0f, completed);
+      Thread.yield();
+    }
+    long elapsed = System.nanoTime() - startTime;
+
+    workerPool.dispose();
+    return elapsed;
+  }
+
+  private static long[] run(AStar<GridPosition> pathFinder, GridPosition[] starts, GridPosition[] goals) {
+    long expanded = 0;
+    long startTime = System.nanoTime();
+    for (int i = 0; i < starts.length; i++) {
+      IndexedTransitPathFinderTest.runSearch(pathFinder, starts[i], goals[i]);
+      expanded += pathFinder.getExpandedCounter();
+    }
+
+    return new long[]{expanded, System.nanoTime() - startTime};
+  }
+
+  private static void report(String name, long[] result) {
+    double millis = result[1] / 1000000.0;
+    System.out.println(String.format("%-8s expanded: %9d  time: %8.1fms  nodes/ms: %8.1f", name, result[0], millis, result[0] / millis));
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.pathfinding;
+
+import com.badlogic.gdx.utils.Array;
+import com.happydroids.droidtowers.NonGLTestRunner;
+import com.happydroids.droidtowers.grid.GeneratedTower;
+import com.happydroids.droidtowers.grid.GridPosition;
+import com.happydroids.droidtowers.grid.GridPositionCache;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.happydroids.droidtowers.Expect.expect;
+
+@RunWith(NonGLTestRunner.class)
+public class TransitPathFinderPoolTest {
+  private GeneratedTower tower;
+  private GridPositionCache positions;
+  private TransitPathFinderPool pool;
+
+  @Before
+  public void setUp() {
+    tower = new GeneratedTower(40, 20, 3);
+    positions = tower.getGameGrid().positionCache();
+    pool = tower.getGameGrid().pathFinderPool();
+  }
+
+  @Test
+  public void obtain_shouldReuseFreedPathFinders_keepingServiceRoutesApart() {
+    TransitPathFinder pathFinder = pool.obtain(false);
+    TransitPathFinder servicePathFinder = pool.obtain(true);
+    pool.free(pathFinder);
+    pool.free(servicePathFinder);
+
+    expect(pool.obtain(false)).toBe(pathFinder);
+    expect(pool.obtain(true)).toBe(servicePathFinder);
+    expect(servicePathFinder.canUseServiceRoutes()).toBeTrue();
+    expect(pool.getNumCreated()).toEqual(2);
+  }
+
+  @Test
+  public void free_shouldLeaveTheDiscoveredPathWithWhoeverSearched() {
+    TransitPathFinder pathFinder = pool.obtain(false);
+    pathFinder.setCompleteCallback(new Runnable() {
+      public void run() {
+      }
+    });
+    IndexedTransitPathFinderTest.runSearch(pathFinder, positions.getPosition(2, 10), positions.getPosition(30, 25));
+    Array<GridPosition> path = pathFinder.getDiscoveredPath();
+    GridPosition goal = path.peek();
+    pool.free(pathFinder);
+
+    expect(pathFinder.getCompleteCallback()).toBeNull();
+    expect(pathFinder.getDiscoveredPath()).toBeNull();
+
+    TransitPathFinder reused = pool.obtain(false);
+    IndexedTransitPathFinderTest.runSearch(reused, positions.getPosition(35, 10), positions.getPosition(4, 12));
+
+    expect(reused).toBe(pathFinder);
+    expect(path.peek()).toBe(goal);
+    expect(reused.getDiscoveredPath() != path).toBeTrue();
+  }
+
+  @Test
+  public void obtain_shouldOnlyMakeAsManyPathFindersAsSearchesAtOnce() {
+    for (int avatar = 0; avatar < 1000; avatar++) {
+      TransitPathFinder pathFinder = pool.obtain(false);
+      IndexedTransitPathFinderTest.runSearch(pathFinder, positions.getPosition(avatar % 40, 10), positions.getPosition(30, 25));
+      pool.free(pathFinder);
+    }
+
+    expect(pool.getNumCreated()).toEqual(1);
+    expect(pool.getNumFree()).toEqual(1);
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.pathfinding;
+
+import com.badlogic.gdx.utils.Array;
+import com.happydroids.droidtowers.NonGLTestRunner;
+import com.happydroids.droidtowers.entities.GridObject;
+import com.happydroids.droidtowers.events.ElevatorHeightChangeEvent;
+import com.happydroids.droidtowers.events.GridObjectRemovedEvent;
+import com.happydroids.droidtowers.grid.BuildableTower;
+import com.happydroids.droidtowers.grid.GeneratedTower;
+import com.happydroids.droidtowers.grid.GridPosition;
+import com.happydroids.droidtowers.grid.GridPositionCache;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.happydroids.droidtowers.Expect.expect;
+
+@RunWith(NonGLTestRunner.class)
+public class TransitRouteCacheTest {
+  private GeneratedTower tower;
+  private GridPositionCache positions;
+  private TransitRouteCache routeCache;
+
+  @Before
+  public void setUp() {
+    tower = new GeneratedTower(40, 20, 3);
+    positions = tower.getGameGrid().positionCache();
+    routeCache = tower.getGameGrid().routeCache();
+  }
+
+  @Test
+  public void lookup_shouldReuseRouteForOtherCellsOnTheSameFloors() {
+    TransitPathFinder pathFinder = new TransitPathFinder(tower.getGameGrid(), false);
+    IndexedTransitPathFinderTest.runSearch(pathFinder, positions.getPosition(2, 10), positions.getPosition(30, 25));
+    pathFinder.runCompleteCallback();
+
+    GridPosition start = positions.getPosition(35, 10);
+    GridPosition goal = positions.getPosition(4, 25);
+    Array<GridPosition> route = routeCache.lookup(start, goal, false);
+
+    expect(route).not.toBeNull();
+    expect(route.first()).toBe(start);
+    expect(route.peek()).toBe(goal);
+    for (int i = 1; i < route.size; i++) {
+      int steps = Math.abs(route.get(i).x - route.get(i - 1).x) + Math.abs(route.get(i).y - route.get(i - 1).y);
+      expect(steps).toEqual(1);
+    }
+    expect(routeCache.getHits()).toEqual(1);
+  }
+
+  @Test
+  public void lookup_shouldMiss_forOtherServiceRouteFlag() {
+    TransitPathFinder pathFinder = new TransitPathFinder(tower.getGameGrid(), false);
+    IndexedTransitPathFinderTest.runSearch(pathFinder, positions.getPosition(2, 10), positions.getPosition(30, 25));
+    pathFinder.runCompleteCallback();
+    int missesBefore = routeCache.getMisses();
+
+    expect(routeCache.lookup(positions.getPosition(2, 10), positions.getPosition(30, 25), true)).toBeNull();
+    expect(routeCache.getMisses()).toEqual(missesBefore + 1);
+  }
+
+  @Test
+  public void start_shouldFinishImmediately_whenRouteIsCached() {
+    TransitPathFinder pathFinder = new TransitPathFinder(tower.getGameGrid(), false);
+    IndexedTransitPathFinderTest.runSearch(pathFinder, positions.getPosition(2, 10), positions.getPosition(30, 25));
+    pathFinder.runCompleteCallback();
+
+    IndexedTransitPathFinder cachedFinder = new IndexedTransitPathFinder(tower.getGameGrid(), false);
+    cachedFinder.setStart(positions.getPosition(3, 10));
+    cachedFinder.setGoal(positions.getPosition(31, 25));
+    cachedFinder.start();
+
+    expect(cachedFinder.isFinished()).toBeTrue();
+    expect(cachedFinder.getDiscoveredPath().peek()).toBe(positions.getPosition(31, 25));
+  }
+
+  @Test
+  public void gridEvents_shouldInvalidateTheCache() {
+    TransitPathFinder pathFinder = new TransitPathFinder(tower.getGameGrid(), false);
+    IndexedTransitPathFinderTest.runSearch(pathFinder, positions.getPosition(2, 10), positions.getPosition(30, 25));
+    pathFinder.runCompleteCallback();
+    expect(routeCache.size()).toEqual(1);
+
+    tower.getGameGrid().events().post(new GridObjectRemovedEvent());
+    expect(routeCache.size()).toEqual(0);
+
+    pathFinder.runCompleteCallback();
+    tower.getGameGrid().events().post(new ElevatorHeightChangeEvent());
+    expect(routeCache.size()).toEqual(0);
+    expect(routeCache.getInvalidations()).toEqual(2);
+  }
+
+  @Test
+  public void start_shouldReportTheCostOfTheCachedRoute() {
+    TransitPathFinder pathFinder = new TransitPathFinder(tower.getGameGrid(), false);
+    IndexedTransitPathFinderTest.runSearch(pathFinder, positions.getPosition(2, 10), positions.getPosition(30, 25));
+    pathFinder.runCompleteCallback();
+
+    TransitPathFinder cachedFinder = new TransitPathFinder(tower.getGameGrid(), false);
+    cachedFinder.setStart(positions.getPosition(2, 10));
+    cachedFinder.setGoal(positions.getPosition(30, 25));
+    cachedFinder.start();
+
+    expect(cachedFinder.isFinished()).toBeTrue();
+    expect(routeCache.getHits()).toEqual(1);
+    expect(cachedFinder.getCost()).toEqual(pathFinder.getCost());
+  }
+
+  @Test
+  public void placingARoom_shouldOnlyDropRoutesWalkingAlongItsFloors() {
+    BuildableTower buildableTower = BuildableTower.withRooms(40, 20);
+    TransitRouteCache cache = buildableTower.getGameGrid().routeCache();
+    storeRoute(buildableTower, 12, 2, 6, 20, 10);
+    storeRoute(buildableTower, 15, 2, 15, 15, 5);
+
+    buildableTower.addRoom(30, 17, 4);
+    expect(cache.size()).toEqual(2);
+
+    buildableTower.addRoom(30, 15, 4);
+    expect(cache.size()).toEqual(1);
+    expect(cache.getInvalidations()).toEqual(1);
+  }
+
+  @Test
+  public void movingARoom_shouldDropRoutesOnItsOldAndNewFloors() {
+    BuildableTower buildableTower = BuildableTower.withRooms(40, 20);
+    TransitRouteCache cache = buildableTower.getGameGrid().routeCache();
+    GridObject room = buildableTower.addRoom(30, 17, 4);
+    storeRoute(buildableTower, 12, 2, 6, 20, 10);
+    storeRoute(buildableTower, 17, 2, 17, 17, 5);
+
+    buildableTower.move(room, 30, 22);
+    expect(cache.size()).toEqual(1);
+
+    buildableTower.move(room, 30, 20);
+    expect(cache.size()).toEqual(0);
+  }
+
+  @Test
+  public void placingTransit_shouldDropRoutesPassingThroughItsFloors() {
+    BuildableTower buildableTower = BuildableTower.withRooms(40, 20);
+    TransitRouteCache cache = buildableTower.getGameGrid().routeCache();
+    storeRoute(buildableTower, 12, 2, 6, 20, 10);
+    storeRoute(buildableTower, 25, 2, 25, 25, 5);
+
+    buildableTower.addElevator(32, 14, 17);
+    expect(cache.size()).toEqual(1);
+  }
+
+  /**
+   * Stores a route that walks along startFloor from startX to transitX, takes the transit to
+   * goalFloor and walks on to goalX.
+   */
+  private static void storeRoute(BuildableTower buildableTower, int startFloor, int startX, int transitX, int goalFloor, int goalX) {
+    GridPositionCache cache = buildableTower.getGameGrid().positionCache();
+    Array<GridPosition> path = new Array<GridPosition>();
+    for (int x = startX; x != transitX; x += transitX > startX ? 1 : -1) {
+      path.add(cache.getPosition(x, startFloor));
+    }
+    for (int y = startFloor; y != goalFloor; y += goalFloor > startFloor ? 1 : -1) {
+      path.add(cache.getPosition(transitX, y));
+    }
+    for (int x = transitX; x != goalX; x += goalX > transitX ? 1 : -1) {
+      path.add(cache.getPosition(x, goalFloor));
+    }
+    path.add(cache.getPosition(goalX, goalFloor));
+
+    buildableTower.getGameGrid().routeCache().store(path, false);
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.profiling;
+
+import com.happydroids.droidtowers.NonGLTestRunner;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.StringWriter;
+
+import static com.happydroids.droidtowers.Expect.expect;
+
+@RunWith(NonGLTestRunner.class)
+public class FrameProfilerTest {
+  @Test
+  public void section_shouldAddUpEverythingTimedInOneFrame() {
+    FrameProfiler profiler = new FrameProfiler();
+    ProfileSection section = profiler.section("layers");
+
+    section.add(1000000);
+    section.add(2000000);
+    profiler.endFrame();
+    section.add(500000);
+    profiler.endFrame();
+
+    expect(section.getFrameMillis(1)).toEqual(3f);
+    expect(section.getFrameMillis(0)).toEqual(0.5f);
+    expect(section.getNumFrames()).toEqual(2);
+    expect(profiler.section("layers")).toBe(section);
+  }
+
+  @Test
+  public void getPercentileMillis_shouldRankTheFramesInTheWindow() {
+    FrameProfiler profiler = new FrameProfiler();
+    ProfileSection section = profiler.section("render");
+
+    for (int frame = 1; frame <= FrameProfiler.WINDOW + 100; frame++) {
+      section.add((frame % 100 + 1) * 1000000L);
+      profiler.endFrame();
+    }
+
+    expect(section.getNumFrames()).toEqual(FrameProfiler.WINDOW);
+    expect(section.getPercentileMillis(0.5f)).toEqual(50f);
+    expect(section.getPercentileMillis(0.95f)).toEqual(95f);
+    expect(section.getPercentileMillis(0.99f)).toEqual(99f);
+    expect(section.getMaxMillis()).toEqual(100f);
+    expect(section.getMeanMillis()).toEqual(50.5f);
+  }
+
+  @Test
+  public void writeCsv_shouldWriteARowPerFrame_leavingFramesBeforeASectionExistedEmpty() throws Exception {
+    FrameProfiler profiler = new FrameProfiler();
+    profiler.section("update").add(1500000);
+    profiler.endFrame();
+    profiler.section("pathSearch").add(250000);
+    profiler.endFrame();
+
+    StringWriter csv = new StringWriter();
+    profiler.writeCsv(csv);
+    String[] lines = csv.toString().split("\n");
+
+    expect(lines.length).toEqual(3);
+    expect(lines[0]).toEqual("frame,frame,update,pathSearch,allocatedBytes,gc");
+    expect(lines[1].startsWith("0,0.000,1.500,,")).toBeTrue();
+    expect(lines[2].matches("1,[0-9.]+,0\\.000,0\\.250,[0-9]+,[01]")).toBeTrue();
+  }
+
+  @Test
+  public void setEnabled_false_shouldStopRecording() {
+    FrameProfiler profiler = new FrameProfiler();
+    ProfileSection section = profiler.section("assetManager");
+    profiler.setEnabled(false);
+
+    section.start();
+    section.stop();
+    section.add(1000000);
+    profiler.endFrame();
+
+    expect(section.getNumFrames()).toEqual(0);
+    expect(profiler.getNumFrames()).toEqual(0);
+  }
+}
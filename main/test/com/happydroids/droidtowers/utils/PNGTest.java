@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.droidtowers.utils;
+
+import com.badlogic.gdx.graphics.Pixmap;
+import com.badlogic.gdx.utils.GdxNativesLoader;
+import com.happydroids.droidtowers.NonGLTestRunner;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.zip.Deflater;
+
+import static com.happydroids.droidtowers.Expect.expect;
+
+@RunWith(NonGLTestRunner.class)
+public class PNGTest {
+  private static final int WIDTH = 64;
+  private static final int HEIGHT = 32;
+
+  @Before
+  public void setUp() {
+    GdxNativesLoader.load();
+  }
+
+  @Test
+  public void toPNG_shouldKeepEveryPixel_atEachCompressionLevel() throws IOException {
+    for (int level : new int[]{Deflater.NO_COMPRESSION, Deflater.BEST_SPEED, Deflater.BEST_COMPRESSION}) {
+      expectSamePixels(Pixmap.Format.RGB888, level);
+    }
+  }
+
+  @Test
+  public void toPNG_shouldDropTheAlpha_ofRGBA8888Pixmaps() throws IOException {
+    expectSamePixels(Pixmap.Format.RGBA8888, PNG.DEFAULT_COMPRESSION_LEVEL);
+  }
+
+  @Test
+  public void toPNG_shouldReadOtherFormatsAPixelAtATime() throws IOException {
+    expectSamePixels(Pixmap.Format.RGB565, PNG.DEFAULT_COMPRESSION_LEVEL);
+  }
+
+  @Test
+  public void toPNG_shouldCompress_whenAskedTo() throws IOException {
+    int stored = PNG.toPNG(makePixmap(Pixmap.Format.RGB888), Deflater.NO_COMPRESSION).length;
+    int compressed = PNG.toPNG(makePixmap(Pixmap.Format.RGB888), Deflater.BEST_SPEED).length;
+
+    expect(stored > WIDTH * HEIGHT * 3).toBeTrue();
+    expect(compressed < stored / 4).toBeTrue();
+  }
+
+  private static void expectSamePixels(Pixmap.Format format, int compressionLevel) throws IOException {
+    Pixmap pixmap = makePixmap(format);
+    int[] expected = new int[WIDTH * HEIGHT];
+    for (int y = 0; y < HEIGHT; y++) {
+      for (int x = 0; x < WIDTH; x++) {
+        expected[y * WIDTH + x] = pixmap.getPixel(x, y) >>> 8;
+      }
+    }
+
+    BufferedImage image = ImageIO.read(new ByteArrayInputStream(PNG.toPNG(pixmap, compressionLevel)));
+
+    expect(image.getWidth()).toEqual(WIDTH);
+    expect(image.getHeight()).toEqual(HEIGHT);
+    for (int y = 0; y < HEIGHT; y++) {
+      for (int x = 0; x < WIDTH; x++) {
+        expect(image.getRGB(x, y) & 0xffffff).toEqual(expected[y * WIDTH + x]);
+      }
+    }
+  }
+
+  /**
+   * Gradients, flat areas and noise, so every filter gets picked for some row.
+   */
+  private static Pixmap makePixmap(Pixmap.Format format) {
+    Pixmap pixmap = new Pixmap(WIDTH, HEIGHT, format);
+    java.util.Random random = new java.util.Random(42);
+    for (int y = 0; y < HEIGHT; y++) {
+      for (int x = 0; x < WIDTH; x++) {
+        int r = x * 4;
+        int g = y * 8;
+        int b = y % 8 == 0 ? random.nextInt(256) : (x < WIDTH / 2 ? 40 : 200);
+        pixmap.drawPixel(x, y, (r << 24) | (g << 16) | (b << 8) | 0x7f);
+      }
+    }
+
+    return pixmap;
+  }
+}
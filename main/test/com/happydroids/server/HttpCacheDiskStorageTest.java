@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.server;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.happydroids.droidtowers.NonGLTestRunner;
+import org.apach3.http.Header;
+import org.apach3.http.HttpVersion;
+import org.apach3.http.client.cache.HttpCacheEntry;
+import org.apach3.http.client.cache.HttpCacheUpdateCallback;
+import org.apach3.http.impl.client.cache.HeapResource;
+import org.apach3.http.message.BasicHeader;
+import org.apach3.http.message.BasicStatusLine;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.Date;
+
+import static com.happydroids.droidtowers.Expect.expect;
+
+@RunWith(NonGLTestRunner.class)
+public class HttpCacheDiskStorageTest {
+  private FileHandle cacheDir;
+
+  @Before
+  public void setUp() throws Exception {
+    File tempFile = File.createTempFile("http-cache", "");
+    tempFile.delete();
+    cacheDir = new FileHandle(tempFile);
+  }
+
+  @After
+  public void tearDown() {
+    cacheDir.deleteDirectory();
+  }
+
+  @Test
+  public void getEntry_shouldCountHitsAndMisses() throws Exception {
+    HttpCacheDiskStorage storage = new HttpCacheDiskStorage(cacheDir, 100000, 1024, 10000);
+    storage.putEntry("http://example.com/a", makeEntry("a", 100));
+
+    expect(storage.getEntry("http://example.com/a").getFirstHeader("X-Name").getValue()).toEqual("a");
+    expect(storage.getEntry("http://example.com/a").getFirstHeader("X-Name").getValue()).toEqual("a");
+    expect(storage.getEntry("http://example.com/b")).toBeNull();
+
+    expect(storage.getHits()).toEqual(2);
+    expect(storage.getMisses()).toEqual(1);
+  }
+
+  @Test
+  public void putEntry_shouldEvictTheLeastRecentlyUsedEntries_whenOverTheCap() throws Exception {
+    HttpCacheDiskStorage sizing = new HttpCacheDiskStorage(cacheDir, 100000, 0, 0);
+    sizing.putEntry("a", makeEntry("a", 1000));
+    long maxBytes = sizing.getTotalBytes() * 3 + 10;
+
+    HttpCacheDiskStorage storage = new HttpCacheDiskStorage(cacheDir, maxBytes, 0, 0);
+    storage.putEntry("b", makeEntry("b", 1000));
+    storage.putEntry("c", makeEntry("c", 1000));
+    storage.getEntry("a");
+
+    storage.putEntry("d", makeEntry("d", 1000));
+
+    expect(storage.getEvictions()).toEqual(1);
+    expect(storage.getEntry("b")).toBeNull();
+    expect(storage.getEntry("a") != null).toBeTrue();
+    expect(storage.getEntry("d") != null).toBeTrue();
+    expect(storage.getTotalBytes() <= maxBytes).toBeTrue();
+    expect(cacheDir.list().length).toEqual(3);
+  }
+
+  @Test
+  public void constructor_shouldIndexEntriesAlreadyOnDisk() throws Exception {
+    HttpCacheDiskStorage storage = new HttpCacheDiskStorage(cacheDir, 100000, 1024, 10000);
+    storage.putEntry("a", makeEntry("a", 100));
+    storage.putEntry("b", makeEntry("b", 100));
+    cacheDir.child("leftover.tmp").writeString("half an entry", false);
+
+    HttpCacheDiskStorage reopened = new HttpCacheDiskStorage(cacheDir, 100000, 1024, 10000);
+
+    expect(reopened.getEntryCount()).toEqual(2);
+    expect(reopened.getTotalBytes()).toEqual(storage.getTotalBytes());
+    expect(reopened.getEntry("b").getFirstHeader("X-Name").getValue()).toEqual("b");
+    expect(cacheDir.child("leftover.tmp").exists()).toBeFalse();
+  }
+
+  @Test
+  public void updateEntry_shouldNotLoseUpdatesFromOtherThreads() throws Exception {
+    final HttpCacheDiskStorage storage = new HttpCacheDiskStorage(cacheDir, 100000, 1024, 10000);
+    storage.putEntry("counter", makeEntry("0", 10));
+
+    Thread[] threads = new Thread[4];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(new Runnable() {
+        public void run() {
+          for (int j = 0; j < 25; j++) {
+            try {
+              storage.updateEntry("counter", new HttpCacheUpdateCallback() {
+                public HttpCacheEntry update(HttpCacheEntry existing) {
+                  int count = Integer.parseInt(existing.getFirstHeader("X-Name").getValue());
+                  return makeEntry(String.valueOf(count + 1), 10);
+                }
+              });
+            } catch (Exception e) {
+              throw new RuntimeException(e);
+            }
+          }
+        }
+      });
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    expect(storage.getEntry("counter").getFirstHeader("X-Name").getValue()).toEqual("100");
+  }
+
+  private static HttpCacheEntry makeEntry(String name, int bodySize) {
+    return new HttpCacheEntry(new Date(), new Date(), new BasicStatusLine(HttpVersion.HTTP_1_1, 200, "OK"),
+                                     new Header[]{new BasicHeader("X-Name", name)}, new HeapResource(new byte[bodySize]));
+  }
+}
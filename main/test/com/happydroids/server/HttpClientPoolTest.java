@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.server;
+
+import com.happydroids.droidtowers.NonGLTestRunner;
+import org.apach3.http.HttpResponse;
+import org.apach3.http.util.EntityUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static com.happydroids.droidtowers.Expect.expect;
+
+@RunWith(NonGLTestRunner.class)
+public class HttpClientPoolTest {
+  private StubHttpServer server;
+  private HappyDroidService service;
+
+  @Before
+  public void setUp() throws Exception {
+    server = new StubHttpServer();
+    service = new HappyDroidService();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    service.getHttpClientPool().shutdown();
+    server.stop();
+  }
+
+  @Test
+  public void requests_shouldReuseOneConnection() {
+    for (int i = 0; i < 10; i++) {
+      service.makeGetRequest(server.getUri("/api/v1/objects/" + i + "/"), null);
+      service.makePostRequest(server.getUri("/api/v1/objects/"), null);
+    }
+
+    expect(server.getRequestsServed()).toEqual(20);
+    expect(server.getConnectionsAccepted()).toEqual(1);
+    expect(service.getHttpClientPool().getConnectionsInPool()).toEqual(1);
+  }
+
+  @Test
+  public void responses_shouldStillBeReadableAfterTheirConnectionIsReleased() throws Exception {
+    HttpResponse first = service.makeGetRequest(server.getUri("/first/"), null);
+    HttpResponse second = service.makeGetRequest(server.getUri("/second/"), null);
+
+    expect(EntityUtils.toString(second.getEntity())).toEqual("{\"id\":1,\"name\":\"stub\"}");
+    expect(EntityUtils.toString(first.getEntity())).toEqual("{\"id\":1,\"name\":\"stub\"}");
+    expect(server.getConnectionsAccepted()).toEqual(1);
+  }
+
+  @Test
+  public void evictIdleConnections_shouldCloseConnectionsIdleForTooLong() throws Exception {
+    HttpClientPool pool = new HttpClientPool(HttpClientPool.DEFAULT_MAX_TOTAL, HttpClientPool.DEFAULT_MAX_PER_ROUTE, 50);
+    service.setHttpClientPool(pool);
+
+    service.makeGetRequest(server.getUri("/"), null);
+    Thread.sleep(100);
+    pool.evictIdleConnections();
+
+    expect(pool.getConnectionsInPool()).toEqual(0);
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2012. HappyDroids LLC, All rights reserved.
+ */
+
+package com.happydroids.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A local HTTP/1.1 server that keeps connections alive and answers every request with the same JSON
+ * body, counting the connections it accepts and the requests it answers. It can wait before serving
+ * a new connection, to stand in for the round trips a real network spends opening one.
+ */
+public class StubHttpServer {
+  private static final String BODY = "{\"id\":1,\"name\":\"stub\"}";
+
+  private final ServerSocket serverSocket;
+  private final AtomicInteger connectionsAccepted = new AtomicInteger();
+  private final AtomicInteger requestsServed = new AtomicInteger();
+  private final long connectDelayMillis;
+
+  public StubHttpServer() throws IOException {
+    this(0);
+  }
+
+  public StubHttpServer(long connectDelayMillis) throws IOException {
+    this.connectDelayMillis = connectDelayMillis;
+    serverSocket = new ServerSocket(0, 50, InetAddress.getByName("127.0.0.1"));
+
+    Thread acceptThread = new Thread(new Runnable() {
+      public void run() {
+        while (!serverSocket.isClosed()) {
+          try {
+            final Socket socket = serverSocket.accept();
+            connectionsAccepted.incrementAndGet();
+            Thread connectionThread = new Thread(new Runnable() {
+              public void run() {
+                serve(socket);
+              }
+            });
+            connectionThread.setDaemon(true);
+            connectionThread.start();
+          } catch (IOException ignored) {
+          }
+        }
+      }
+    }, "StubHttpServer");
+    acceptThread.setDaemon(true);
+    acceptThread.start();
+  }
+
+  private void serve(Socket socket) {
+    try {
+      if (connectDelayMillis > 0) {
+        Thread.sleep(connectDelayMillis);
+      }
+
+      socket.setTcpNoDelay(true);
+      BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), "US-ASCII"));
+      OutputStream out = socket.getOutputStream();
+      byte[] body = BODY.getBytes("UTF-8");
+
+      String requestLine;
+      while ((requestLine = in.readLine()) != null) {
+        if (requestLine.isEmpty()) {
+          continue;
+        }
+
+        int contentLength = 0;
+        String header;
+        while ((header = in.readLine()) != null && !header.isEmpty()) {
+          if (header.toLowerCase().startsWith("content-length:")) {
+            contentLength = Integer.parseInt(header.substring(15).trim());
+          }
+        }
+        for (int i = 0; i < contentLength; i++) {
+          in.read();
+        }
+
+        String response = "HTTP/1.1 200 OK\r\n" +
+                "Content-Type: application/json\r\n" +
+                "Content-Length: " + body.length + "\r\n" +
+                "Keep-Alive: timeout=30\r\n" +
+                "\r\n" + BODY;
+        // counted before answering, the client may check the count as soon as it has the response.
+        requestsServed.incrementAndGet();
+        out.write(response.getBytes("UTF-8"));
+        out.flush();
+      }
+    } catch (IOException ignored) {
+    } catch (InterruptedException ignored) {
+    } finally {
+      try {
+        socket.close();
+      } catch (IOException ignored) {
+      }
+    }
+  }
+
+  public String getUri(String path) {
+    return "http://127.0.0.1:" + serverSocket.getLocalPort() + path;
+  }
+
+  public int getConnectionsAccepted() {
+    return connectionsAccepted.get();
+  }
+
+  public int getRequestsServed() {
+    return requestsServed.get();
+  }
+
+  public void stop() throws IOException {
+    serverSocket.close();
+  }
+}